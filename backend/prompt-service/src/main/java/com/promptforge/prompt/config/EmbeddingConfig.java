@@ -0,0 +1,22 @@
+package com.promptforge.prompt.config;
+
+import com.promptforge.prompt.search.HashingEmbedder;
+import com.promptforge.prompt.search.PromptEmbedder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Default prompt embedder. Declaring another PromptEmbedder bean replaces it; the
+ * vector index notices the different name or dimensions and re-embeds the catalog.
+ */
+@Configuration
+public class EmbeddingConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(PromptEmbedder.class)
+    public PromptEmbedder promptEmbedder(@Value("${promptforge.vectors.dimensions:256}") int dimensions) {
+        return new HashingEmbedder(dimensions);
+    }
+}
@@ -0,0 +1,25 @@
+package com.promptforge.prompt.config;
+
+import com.promptforge.prompt.service.PromptResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing prompt cache statistics at /actuator/promptcache.
+ */
+@Component
+@Endpoint(id = "promptcache")
+@RequiredArgsConstructor
+public class PromptCacheEndpoint {
+    
+    private final PromptResponseCache promptResponseCache;
+    
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return promptResponseCache.getStats();
+    }
+}
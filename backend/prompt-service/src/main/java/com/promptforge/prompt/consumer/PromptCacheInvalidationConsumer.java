@@ -0,0 +1,34 @@
+package com.promptforge.prompt.consumer;
+
+import com.promptforge.prompt.service.PromptResponseCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evicts prompts changed on other replicas from the local PromptResponseCache.
+ * Every instance joins its own consumer group so each one sees every event,
+ * and only the record key (the prompt ID) is needed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PromptCacheInvalidationConsumer {
+    
+    private final PromptResponseCache promptResponseCache;
+    
+    @KafkaListener(
+            topics = {"prompt.updated", "prompt.deleted"},
+            groupId = "prompt-service-cache-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer"
+            })
+    public void handlePromptChanged(@Header(KafkaHeaders.RECEIVED_KEY) String promptId) {
+        log.debug("Invalidating cached prompt {} after remote change", promptId);
+        promptResponseCache.invalidate(promptId);
+    }
+}
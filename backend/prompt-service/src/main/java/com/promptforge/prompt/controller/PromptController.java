@@ -1,10 +1,37 @@
 package com.promptforge.prompt.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.promptforge.prompt.document.PromptVersion;
+import com.promptforge.prompt.dto.BulkImportResponse;
 import com.promptforge.prompt.dto.CreatePromptRequest;
+import com.promptforge.prompt.dto.CursorPageResponse;
+import com.promptforge.prompt.dto.DuplicateCheckRequest;
+import com.promptforge.prompt.dto.DuplicateCheckResponse;
+import com.promptforge.prompt.dto.FacetedBrowseResponse;
+import com.promptforge.prompt.dto.ForkPromptRequest;
+import com.promptforge.prompt.dto.ForkTreeResponse;
+import com.promptforge.prompt.dto.HomeFeedResponse;
+import com.promptforge.prompt.dto.PromptDetailResponse;
 import com.promptforge.prompt.dto.PromptResponse;
+import com.promptforge.prompt.dto.PromptSummaryResponse;
+import com.promptforge.prompt.dto.SimilarPromptResponse;
+import com.promptforge.prompt.dto.TagCountResponse;
 import com.promptforge.prompt.dto.UpdatePromptRequest;
+import com.promptforge.prompt.dto.VersionDiffResponse;
+import com.promptforge.prompt.dto.VersionSummaryResponse;
+import com.promptforge.prompt.search.FacetIndex;
+import com.promptforge.prompt.search.NearDuplicateIndex;
+import com.promptforge.prompt.search.PromptSearchIndex;
+import com.promptforge.prompt.search.TagIndex;
+import com.promptforge.prompt.search.VectorIndex;
+import com.promptforge.prompt.service.HomeFeedService;
+import com.promptforge.prompt.service.PromptContentStore;
+import com.promptforge.prompt.service.PromptDetailService;
+import com.promptforge.prompt.service.PromptDiffService;
+import com.promptforge.prompt.service.PromptExportService;
+import com.promptforge.prompt.service.PromptImportService;
 import com.promptforge.prompt.service.PromptService;
+import com.promptforge.prompt.service.PromptVersionStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,6 +39,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,11 +47,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/prompts")
@@ -34,6 +70,23 @@ import java.util.List;
 public class PromptController {
     
     private final PromptService promptService;
+    private final PromptSearchIndex searchIndex;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final TagIndex tagIndex;
+    private final FacetIndex facetIndex;
+    private final VectorIndex vectorIndex;
+    private final PromptVersionStore versionStore;
+    private final PromptContentStore contentStore;
+    private final PromptDiffService diffService;
+    private final PromptImportService importService;
+    private final PromptExportService exportService;
+    private final PromptDetailService detailService;
+    private final HomeFeedService homeFeedService;
+    private final ObjectMapper objectMapper;
+    
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_FORK_DEPTH = 10;
     
     @Operation(
             summary = "Create new prompt",
@@ -56,6 +109,39 @@ public class PromptController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    @Operation(
+            summary = "Import prompts",
+            description = "Creates many prompts from a JSON array of create requests. Items are validated and " +
+                    "written in batches; failures are reported per item without aborting the import."
+    )
+    @ApiResponse(responseCode = "200", description = "Import finished, see per-item results")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResponse> importPrompts(
+            @RequestBody List<CreatePromptRequest> requests,
+            @Parameter(description = "User ID from authentication") @RequestHeader("X-User-Id") String userId,
+            @Parameter(description = "Username from authentication") @RequestHeader("X-Username") String username) {
+        
+        log.info("Import {} prompts for user: {}", requests.size(), userId);
+        return ResponseEntity.ok(importService.importPrompts(requests, userId, username));
+    }
+    
+    @Operation(
+            summary = "Import prompts from NDJSON",
+            description = "Same as the JSON import, reading one create request per line as the body streams in. " +
+                    "Lines past the import limit are not read and the response is marked truncated."
+    )
+    @ApiResponse(responseCode = "200", description = "Import finished, see per-item results")
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<BulkImportResponse> importPromptsNdjson(
+            HttpServletRequest request,
+            @Parameter(description = "User ID from authentication") @RequestHeader("X-User-Id") String userId,
+            @Parameter(description = "Username from authentication") @RequestHeader("X-Username") String username)
+            throws IOException {
+        
+        log.info("NDJSON import for user: {}", userId);
+        return ResponseEntity.ok(importService.importNdjson(request.getInputStream(), userId, username));
+    }
+    
     @Operation(
             summary = "Get prompt by ID",
             description = "Retrieves a specific prompt by ID. Public prompts accessible to all, private only to owner."
@@ -76,13 +162,32 @@ public class PromptController {
         return ResponseEntity.ok(response);
     }
     
+    @Operation(
+            summary = "Get prompt page",
+            description = "Returns the prompt with its social stats, rating histogram, first page of comments, " +
+                    "the viewer's like/rating state and recent versions in one response. Sections are fetched " +
+                    "concurrently; any that time out are null and listed in unavailableSections."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prompt page assembled"),
+            @ApiResponse(responseCode = "400", description = "Prompt not found, access denied or timed out")
+    })
+    @GetMapping("/{promptId}/detail")
+    public ResponseEntity<PromptDetailResponse> getPromptDetail(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        log.info("Get prompt detail: {}", promptId);
+        return ResponseEntity.ok(detailService.getPromptDetail(promptId, userId));
+    }
+    
     @Operation(
             summary = "Get all public prompts",
             description = "Retrieves paginated list of public prompts with sorting"
     )
     @ApiResponse(responseCode = "200", description = "Public prompts retrieved")
     @GetMapping("/public")
-    public ResponseEntity<Page<PromptResponse>> getAllPublicPrompts(
+    public ResponseEntity<Page<PromptSummaryResponse>> getAllPublicPrompts(
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -94,17 +199,124 @@ public class PromptController {
                 : Sort.by(sortBy).descending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<PromptResponse> prompts = promptService.getAllPrompts(pageable);
+        Page<PromptSummaryResponse> prompts = promptService.getAllPrompts(pageable);
         return ResponseEntity.ok(prompts);
     }
     
+    @Operation(
+            summary = "Scroll public prompts",
+            description = "Cursor-paginated public prompts, newest first. Latency is independent of page depth."
+    )
+    @ApiResponse(responseCode = "200", description = "Public prompts retrieved")
+    @GetMapping("/public/scroll")
+    public ResponseEntity<CursorPageResponse<PromptSummaryResponse>> scrollPublicPrompts(
+            @Parameter(description = "Cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Also return the total count (runs a COUNT query)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.info("Scroll public prompts - size: {}", size);
+        return ResponseEntity.ok(promptService.scrollPublicPrompts(cursor, clampScrollSize(size), includeTotal));
+    }
+    
+    @Operation(
+            summary = "Check for duplicate content",
+            description = "Hashes the given prompt body and reports whether an identical body is already stored, "
+                    + "with up to 10 matching prompts the user can see"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Check completed",
+                    content = @Content(schema = @Schema(implementation = DuplicateCheckResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error")
+    })
+    @PostMapping("/duplicates/check")
+    public ResponseEntity<DuplicateCheckResponse> checkDuplicate(
+            @Valid @RequestBody DuplicateCheckRequest request,
+            @Parameter(description = "User ID from authentication") @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        return ResponseEntity.ok(promptService.checkDuplicate(request.getContent(), userId));
+    }
+    
+    @Operation(
+            summary = "Fork prompt",
+            description = "Creates a copy of a visible prompt owned by the authenticated user. The fork shares the "
+                    + "source's stored content until it is edited"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Prompt forked",
+                    content = @Content(schema = @Schema(implementation = PromptResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Prompt or version not found, or access denied")
+    })
+    @PostMapping("/{promptId}/fork")
+    public ResponseEntity<PromptResponse> forkPrompt(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Valid @RequestBody(required = false) ForkPromptRequest request,
+            @Parameter(description = "User ID from authentication") @RequestHeader("X-User-Id") String userId,
+            @Parameter(description = "Username from authentication") @RequestHeader("X-Username") String username) {
+        
+        log.info("Fork prompt {} requested by user: {}", promptId, userId);
+        PromptResponse response = promptService.forkPrompt(promptId,
+                request != null ? request : new ForkPromptRequest(), userId, username);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
+    @Operation(
+            summary = "Get fork tree",
+            description = "Returns the forks of a prompt recursively (up to 1000 prompts), skipping forks the user cannot see"
+    )
+    @ApiResponse(responseCode = "200", description = "Fork tree retrieved")
+    @GetMapping("/{promptId}/forks")
+    public ResponseEntity<ForkTreeResponse> getForkTree(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @Parameter(description = "Levels of forks to include (max 10)") @RequestParam(defaultValue = "3") int maxDepth) {
+        
+        return ResponseEntity.ok(promptService.getForkTree(promptId, userId, Math.max(1, Math.min(maxDepth, MAX_FORK_DEPTH))));
+    }
+    
+    @Operation(
+            summary = "Find near-duplicate prompts",
+            description = "Returns prompts whose content is estimated (MinHash/LSH over word 3-shingles) to overlap "
+                    + "this prompt's by at least the given Jaccard similarity, most similar first"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Near duplicates found"),
+            @ApiResponse(responseCode = "400", description = "Prompt not found, access denied or invalid threshold")
+    })
+    @GetMapping("/{promptId}/near-duplicates")
+    public ResponseEntity<List<SimilarPromptResponse>> findNearDuplicates(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @Parameter(description = "Minimum estimated similarity, 0..1") @RequestParam(defaultValue = "0.7") double threshold,
+            @Parameter(description = "Maximum results (max 100)") @RequestParam(defaultValue = "20") int limit) {
+        
+        return ResponseEntity.ok(promptService.findNearDuplicates(promptId, userId, threshold, clampScrollSize(limit)));
+    }
+    
+    @Operation(
+            summary = "Find similar prompts",
+            description = "Returns prompts whose embeddings are closest to this prompt's (approximate nearest "
+                    + "neighbours over an HNSW index), most similar first"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Similar prompts found"),
+            @ApiResponse(responseCode = "400", description = "Prompt not found, access denied or index still being built")
+    })
+    @GetMapping("/{promptId}/similar")
+    public ResponseEntity<List<SimilarPromptResponse>> findSimilarPrompts(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @Parameter(description = "Maximum results (max 100)") @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(promptService.findSimilarPrompts(promptId, userId, clampScrollSize(limit)));
+    }
+    
     @Operation(
             summary = "Get user's prompts",
             description = "Retrieves all prompts (public and private) created by the authenticated user"
     )
     @ApiResponse(responseCode = "200", description = "User prompts retrieved")
     @GetMapping("/my-prompts")
-    public ResponseEntity<Page<PromptResponse>> getUserPrompts(
+    public ResponseEntity<Page<PromptSummaryResponse>> getUserPrompts(
             @Parameter(description = "User ID from authentication") @RequestHeader("X-User-Id") String userId,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
@@ -117,42 +329,95 @@ public class PromptController {
                 : Sort.by(sortBy).descending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<PromptResponse> prompts = promptService.getUserPrompts(userId, pageable);
+        Page<PromptSummaryResponse> prompts = promptService.getUserPrompts(userId, pageable);
         return ResponseEntity.ok(prompts);
     }
     
+    @Operation(
+            summary = "Export user's prompts",
+            description = "Streams every prompt of the authenticated user, oldest first, as NDJSON or a JSON array, "
+                    + "optionally gzipped and with each prompt's version history. NDJSON exports can be re-imported."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export stream started"),
+            @ApiResponse(responseCode = "400", description = "Invalid format")
+    })
+    @GetMapping("/my-prompts/export")
+    public ResponseEntity<StreamingResponseBody> exportUserPrompts(
+            @Parameter(description = "User ID from authentication") @RequestHeader("X-User-Id") String userId,
+            @Parameter(description = "ndjson or json") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Gzip the output") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "Embed each prompt's version history") @RequestParam(defaultValue = "false") boolean includeVersions) {
+        
+        log.info("Export prompts for user: {} - format: {}, gzip: {}, versions: {}", userId, format, gzip, includeVersions);
+        String resolved = exportService.resolveFormat(format);
+        StreamingResponseBody body = out -> exportService.exportUserPrompts(userId, resolved, gzip, includeVersions, out);
+        
+        String filename = "prompts." + resolved + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : PromptExportService.NDJSON.equals(resolved) ? MediaType.parseMediaType(NDJSON)
+                : MediaType.APPLICATION_JSON;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+    
     @Operation(
             summary = "Get prompts by category",
             description = "Retrieves public prompts filtered by category"
     )
     @ApiResponse(responseCode = "200", description = "Category prompts retrieved")
     @GetMapping("/category/{category}")
-    public ResponseEntity<Page<PromptResponse>> getPromptsByCategory(
+    public ResponseEntity<Page<PromptSummaryResponse>> getPromptsByCategory(
             @Parameter(description = "Category name") @PathVariable String category,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
         
         log.info("Get prompts by category: {}", category);
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<PromptResponse> prompts = promptService.getPromptsByCategory(category, pageable);
+        Page<PromptSummaryResponse> prompts = promptService.getPromptsByCategory(category, pageable);
         return ResponseEntity.ok(prompts);
     }
     
+    @Operation(
+            summary = "Scroll prompts by category",
+            description = "Cursor-paginated public prompts in a category, newest first"
+    )
+    @ApiResponse(responseCode = "200", description = "Category prompts retrieved")
+    @GetMapping("/category/{category}/scroll")
+    public ResponseEntity<CursorPageResponse<PromptSummaryResponse>> scrollPromptsByCategory(
+            @Parameter(description = "Category name") @PathVariable String category,
+            @Parameter(description = "Cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Also return the total count (runs a COUNT query)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.info("Scroll prompts by category: {}", category);
+        return ResponseEntity.ok(promptService.scrollPromptsByCategory(category, cursor, clampScrollSize(size), includeTotal));
+    }
+    
     @Operation(
             summary = "Search prompts",
-            description = "Search prompts by keyword in title and description"
+            description = "Full-text search over title, description, tags and content, ranked by relevance (BM25). "
+                    + "The last keyword is prefix-matched for search-as-you-type. In hybrid mode the keyword "
+                    + "ranking is fused with an embedding similarity ranking. Private prompts are only returned "
+                    + "to their owner."
     )
     @ApiResponse(responseCode = "200", description = "Search results retrieved")
     @GetMapping("/search")
-    public ResponseEntity<Page<PromptResponse>> searchPrompts(
+    public ResponseEntity<Page<PromptSummaryResponse>> searchPrompts(
             @Parameter(description = "Search keyword") @RequestParam String keyword,
             @Parameter(description = "Filter by public/private (optional)") @RequestParam(required = false) Boolean isPublic,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "keyword or hybrid") @RequestParam(defaultValue = "keyword") String mode,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId) {
         
-        log.info("Search prompts with keyword: {}", keyword);
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<PromptResponse> prompts = promptService.searchPrompts(keyword, isPublic, pageable);
+        log.info("Search prompts with keyword: {} (mode {})", keyword, mode);
+        Pageable pageable = PageRequest.of(page, size);
+        Page<PromptSummaryResponse> prompts = "hybrid".equalsIgnoreCase(mode)
+                ? promptService.hybridSearchPrompts(keyword, isPublic, userId, pageable)
+                : promptService.searchPrompts(keyword, isPublic, userId, pageable);
         return ResponseEntity.ok(prompts);
     }
     
@@ -162,49 +427,189 @@ public class PromptController {
     )
     @ApiResponse(responseCode = "200", description = "Tagged prompts retrieved")
     @GetMapping("/tag/{tag}")
-    public ResponseEntity<Page<PromptResponse>> getPromptsByTag(
+    public ResponseEntity<Page<PromptSummaryResponse>> getPromptsByTag(
             @Parameter(description = "Tag name") @PathVariable String tag,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
         
         log.info("Get prompts by tag: {}", tag);
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<PromptResponse> prompts = promptService.getPromptsByTag(tag, pageable);
+        Page<PromptSummaryResponse> prompts = promptService.getPromptsByTag(tag, pageable);
+        return ResponseEntity.ok(prompts);
+    }
+    
+    @Operation(
+            summary = "Browse prompts by facets",
+            description = "Filters public prompts by any combination of category, tags (all must match), model "
+                    + "and featured flag, newest first, and returns per-value counts for each facet"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching prompts and facet counts returned"),
+            @ApiResponse(responseCode = "400", description = "Page too deep or facet index still being built")
+    })
+    @GetMapping("/browse")
+    public ResponseEntity<FacetedBrowseResponse> browsePrompts(
+            @Parameter(description = "Category (optional)") @RequestParam(required = false) String category,
+            @Parameter(description = "Tags, all of which must match (repeatable)") @RequestParam(name = "tag", required = false) List<String> tags,
+            @Parameter(description = "Model (optional)") @RequestParam(required = false) String model,
+            @Parameter(description = "Featured flag (optional)") @RequestParam(required = false) Boolean featured,
+            @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Maximum values per facet (max 50)") @RequestParam(defaultValue = "20") int facetLimit) {
+        
+        return ResponseEntity.ok(promptService.browsePrompts(category, tags, model, featured, Math.max(0, page),
+                clampScrollSize(size), clampTagLimit(facetLimit)));
+    }
+    
+    @Operation(
+            summary = "Autocomplete tags",
+            description = "Returns tags starting with the prefix, most used first, from the in-memory tag trie"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tag suggestions returned"),
+            @ApiResponse(responseCode = "400", description = "Tag index is still being built")
+    })
+    @GetMapping("/tags/autocomplete")
+    public ResponseEntity<List<TagCountResponse>> autocompleteTags(
+            @Parameter(description = "Tag prefix") @RequestParam(defaultValue = "") String prefix,
+            @Parameter(description = "Maximum suggestions (max 50)") @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(promptService.autocompleteTags(prefix, clampTagLimit(limit)));
+    }
+    
+    @Operation(
+            summary = "Get popular tags",
+            description = "Returns the tags used by the most public prompts, with their prompt counts"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Popular tags returned"),
+            @ApiResponse(responseCode = "400", description = "Tag index is still being built")
+    })
+    @GetMapping("/tags/popular")
+    public ResponseEntity<List<TagCountResponse>> getPopularTags(
+            @Parameter(description = "Maximum tags (max 50)") @RequestParam(defaultValue = "20") int limit) {
+        
+        return ResponseEntity.ok(promptService.getPopularTags(clampTagLimit(limit)));
+    }
+    
+    @Operation(
+            summary = "Get related tags",
+            description = "Returns the tags that most often appear on the same public prompts as the given tag"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Related tags returned"),
+            @ApiResponse(responseCode = "400", description = "Tag index is still being built")
+    })
+    @GetMapping("/tags/{tag}/related")
+    public ResponseEntity<List<TagCountResponse>> getRelatedTags(
+            @Parameter(description = "Tag name") @PathVariable String tag,
+            @Parameter(description = "Maximum tags (max 50)") @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(promptService.getRelatedTags(tag, clampTagLimit(limit)));
+    }
+    
+    @Operation(
+            summary = "Get home feed",
+            description = "Featured, trending and top-rated prompts in one pre-composed document served from memory. "
+                    + "Send the ETag back in If-None-Match to get a 304 when the feed has not changed."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Home feed returned",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = HomeFeedResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Home feed unchanged")
+    })
+    @GetMapping("/home")
+    public ResponseEntity<byte[]> getHomeFeed(WebRequest request) {
+        HomeFeedService.Snapshot feed = homeFeedService.get();
+        if (request.checkNotModified(feed.getEtag())) {
+            return null; // 304 with the ETag header already set
+        }
+        return ResponseEntity.ok()
+                .eTag(feed.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(feed.getBody());
+    }
+    
+    @Operation(
+            summary = "Get featured prompts",
+            description = "Retrieves public prompts curated as featured, newest first"
+    )
+    @ApiResponse(responseCode = "200", description = "Featured prompts retrieved")
+    @GetMapping("/featured")
+    public ResponseEntity<Page<PromptSummaryResponse>> getFeaturedPrompts(
+            @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Get featured prompts");
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Page<PromptSummaryResponse> prompts = promptService.getFeaturedPrompts(pageable);
         return ResponseEntity.ok(prompts);
     }
     
     @Operation(
             summary = "Get trending prompts",
-            description = "Retrieves public prompts sorted by view count (most viewed first)"
+            description = "Retrieves public prompts ranked by recent views, likes, ratings and forks with time decay"
     )
     @ApiResponse(responseCode = "200", description = "Trending prompts retrieved")
     @GetMapping("/trending")
-    public ResponseEntity<Page<PromptResponse>> getTrendingPrompts(
+    public ResponseEntity<Page<PromptSummaryResponse>> getTrendingPrompts(
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
         
         log.info("Get trending prompts");
         Pageable pageable = PageRequest.of(page, size);
-        Page<PromptResponse> prompts = promptService.getTrendingPrompts(pageable);
+        Page<PromptSummaryResponse> prompts = promptService.getTrendingPrompts(pageable);
         return ResponseEntity.ok(prompts);
     }
     
+    @Operation(
+            summary = "Scroll trending prompts",
+            description = "Cursor-paginated public prompts ranked by time-decayed engagement"
+    )
+    @ApiResponse(responseCode = "200", description = "Trending prompts retrieved")
+    @GetMapping("/trending/scroll")
+    public ResponseEntity<CursorPageResponse<PromptSummaryResponse>> scrollTrendingPrompts(
+            @Parameter(description = "Cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Also return the total count (runs a COUNT query)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.info("Scroll trending prompts");
+        return ResponseEntity.ok(promptService.scrollTrendingPrompts(cursor, clampScrollSize(size), includeTotal));
+    }
+    
     @Operation(
             summary = "Get top rated prompts",
             description = "Retrieves public prompts sorted by rating (highest first)"
     )
     @ApiResponse(responseCode = "200", description = "Top rated prompts retrieved")
     @GetMapping("/top-rated")
-    public ResponseEntity<Page<PromptResponse>> getTopRatedPrompts(
+    public ResponseEntity<Page<PromptSummaryResponse>> getTopRatedPrompts(
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
         
         log.info("Get top rated prompts");
         Pageable pageable = PageRequest.of(page, size);
-        Page<PromptResponse> prompts = promptService.getTopRatedPrompts(pageable);
+        Page<PromptSummaryResponse> prompts = promptService.getTopRatedPrompts(pageable);
         return ResponseEntity.ok(prompts);
     }
     
+    @Operation(
+            summary = "Scroll top rated prompts",
+            description = "Cursor-paginated public prompts sorted by rating"
+    )
+    @ApiResponse(responseCode = "200", description = "Top rated prompts retrieved")
+    @GetMapping("/top-rated/scroll")
+    public ResponseEntity<CursorPageResponse<PromptSummaryResponse>> scrollTopRatedPrompts(
+            @Parameter(description = "Cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Also return the total count (runs a COUNT query)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.info("Scroll top rated prompts");
+        return ResponseEntity.ok(promptService.scrollTopRatedPrompts(cursor, clampScrollSize(size), includeTotal));
+    }
+    
     @Operation(
             summary = "Update prompt",
             description = "Updates an existing prompt. Creates a new version if content changes."
@@ -247,15 +652,200 @@ public class PromptController {
     
     @Operation(
             summary = "Get prompt version history",
-            description = "Retrieves all versions of a prompt from MongoDB"
+            description = "Paginated version metadata (version, change log, author, timestamp, size), newest first. " +
+                    "Content is not included."
     )
     @ApiResponse(responseCode = "200", description = "Version history retrieved")
     @GetMapping("/{promptId}/versions")
-    public ResponseEntity<List<PromptVersion>> getPromptVersions(
-            @Parameter(description = "Prompt ID") @PathVariable String promptId) {
+    public ResponseEntity<Page<VersionSummaryResponse>> getVersionHistory(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Get version history for prompt: {}", promptId);
+        Pageable pageable = PageRequest.of(page, clampScrollSize(size));
+        return ResponseEntity.ok(promptService.getVersionHistory(promptId, pageable));
+    }
+    
+    @Operation(
+            summary = "Export prompt versions",
+            description = "Streams every version of a prompt with its content as NDJSON, oldest first"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Version stream started"),
+            @ApiResponse(responseCode = "400", description = "Prompt not found or access denied")
+    })
+    @GetMapping(value = "/{promptId}/versions/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportVersions(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        log.info("Export versions for prompt: {}", promptId);
+        promptService.checkPromptAccess(promptId, userId);
+        StreamingResponseBody body = out -> promptService.streamPromptVersions(promptId, version -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(version));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
+    @Operation(
+            summary = "Get prompt version",
+            description = "Retrieves one version of a prompt with its content"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Version retrieved"),
+            @ApiResponse(responseCode = "400", description = "Prompt or version not found, or access denied")
+    })
+    @GetMapping("/{promptId}/versions/{version}")
+    public ResponseEntity<PromptVersion> getPromptVersion(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "Semantic version, e.g. 1.0.2") @PathVariable String version,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        log.info("Get version {} of prompt: {}", version, promptId);
+        return ResponseEntity.ok(promptService.getPromptVersion(promptId, version, userId));
+    }
+    
+    @Operation(
+            summary = "Diff prompt versions",
+            description = "Computes a line- or word-level diff between the content of two versions of a prompt"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Diff computed"),
+            @ApiResponse(responseCode = "400", description = "Prompt or version not found, access denied or invalid granularity")
+    })
+    @GetMapping("/{promptId}/diff")
+    public ResponseEntity<VersionDiffResponse> diffVersions(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId,
+            @Parameter(description = "Older version, e.g. 1.0.0") @RequestParam String from,
+            @Parameter(description = "Newer version, e.g. 1.0.3") @RequestParam String to,
+            @Parameter(description = "Diff granularity (line/word)") @RequestParam(defaultValue = "line") String granularity,
+            @Parameter(description = "User ID (optional)") @RequestHeader(value = "X-User-Id", required = false) String userId) {
         
-        log.info("Get versions for prompt: {}", promptId);
-        List<PromptVersion> versions = promptService.getPromptVersions(promptId);
-        return ResponseEntity.ok(versions);
+        log.info("Diff prompt {} versions {}..{}", promptId, from, to);
+        return ResponseEntity.ok(diffService.diff(promptId, from, to, granularity, userId));
+    }
+    
+    @Operation(
+            summary = "Feature prompt",
+            description = "Marks a public prompt as featured so it appears in the featured list and home feed"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Prompt featured"),
+            @ApiResponse(responseCode = "400", description = "Prompt not found or not public")
+    })
+    @PutMapping("/admin/featured/{promptId}")
+    public ResponseEntity<PromptResponse> featurePrompt(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId) {
+        log.info("Feature prompt: {}", promptId);
+        return ResponseEntity.ok(promptService.setFeatured(promptId, true));
+    }
+    
+    @Operation(
+            summary = "Unfeature prompt",
+            description = "Removes a prompt from the featured list and home feed"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Prompt unfeatured"),
+            @ApiResponse(responseCode = "400", description = "Prompt not found")
+    })
+    @DeleteMapping("/admin/featured/{promptId}")
+    public ResponseEntity<PromptResponse> unfeaturePrompt(
+            @Parameter(description = "Prompt ID") @PathVariable String promptId) {
+        log.info("Unfeature prompt: {}", promptId);
+        return ResponseEntity.ok(promptService.setFeatured(promptId, false));
+    }
+    
+    @Operation(
+            summary = "Rebuild search index",
+            description = "Rebuilds the in-memory full-text search index from PostgreSQL"
+    )
+    @ApiResponse(responseCode = "200", description = "Search index rebuilt")
+    @PostMapping("/admin/search-index/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        log.info("Rebuild search index requested");
+        return ResponseEntity.ok(searchIndex.rebuild());
+    }
+    
+    @Operation(
+            summary = "Rebuild near-duplicate index",
+            description = "Recomputes MinHash signatures for all prompts and swaps in a fresh LSH index"
+    )
+    @ApiResponse(responseCode = "200", description = "Near-duplicate index rebuilt")
+    @PostMapping("/admin/near-duplicates/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildNearDuplicateIndex() {
+        log.info("Rebuild near-duplicate index requested");
+        return ResponseEntity.ok(nearDuplicateIndex.rebuild());
+    }
+    
+    @Operation(
+            summary = "Rebuild tag index",
+            description = "Recounts tags and tag pairs of all public prompts and swaps in a fresh tag index"
+    )
+    @ApiResponse(responseCode = "200", description = "Tag index rebuilt")
+    @PostMapping("/admin/tags/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildTagIndex() {
+        log.info("Rebuild tag index requested");
+        return ResponseEntity.ok(tagIndex.rebuild());
+    }
+    
+    @Operation(
+            summary = "Rebuild facet index",
+            description = "Rebuilds the category, tag, model and featured bitmaps from PostgreSQL with compacted ordinals"
+    )
+    @ApiResponse(responseCode = "200", description = "Facet index rebuilt")
+    @PostMapping("/admin/facets/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildFacetIndex() {
+        log.info("Rebuild facet index requested");
+        return ResponseEntity.ok(facetIndex.rebuild());
+    }
+    
+    @Operation(
+            summary = "Rebuild vector index",
+            description = "Re-embeds every prompt into a fresh HNSW graph and vector file, dropping replaced vectors"
+    )
+    @ApiResponse(responseCode = "200", description = "Vector index rebuilt")
+    @PostMapping("/admin/vectors/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildVectorIndex() {
+        log.info("Rebuild vector index requested");
+        return ResponseEntity.ok(vectorIndex.rebuild());
+    }
+    
+    @Operation(
+            summary = "Migrate version storage",
+            description = "Rewrites stored prompt versions into snapshots plus deltas and reports the storage saved"
+    )
+    @ApiResponse(responseCode = "200", description = "Version storage migrated")
+    @PostMapping("/admin/versions/migrate")
+    public ResponseEntity<Map<String, Object>> migrateVersionStorage() {
+        log.info("Version storage migration requested");
+        return ResponseEntity.ok(versionStore.migrate());
+    }
+    
+    @Operation(
+            summary = "Migrate prompt content storage",
+            description = "Moves inline prompt bodies into content-addressed storage, recomputes reference counts "
+                    + "and reports the storage saved"
+    )
+    @ApiResponse(responseCode = "200", description = "Content storage migrated")
+    @PostMapping("/admin/contents/migrate")
+    public ResponseEntity<Map<String, Object>> migrateContentStorage() {
+        log.info("Content storage migration requested");
+        return ResponseEntity.ok(contentStore.migrate());
+    }
+    
+    private int clampScrollSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+    }
+    
+    private int clampTagLimit(int limit) {
+        return Math.max(1, Math.min(limit, TagIndex.MAX_SUGGESTIONS));
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import com.promptforge.prompt.dto.*;
 import com.promptforge.prompt.entity.PromptLike;
 import com.promptforge.prompt.service.SocialService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -110,6 +111,28 @@ public class SocialController {
         ));
     }
     
+    /**
+     * Gets the star distribution for a prompt.
+     */
+    @GetMapping("/ratings/{promptId}/histogram")
+    @Operation(summary = "Get prompt rating histogram", description = "Retrieves the number of ratings per star value")
+    public ResponseEntity<RatingHistogramResponse> getRatingHistogram(@PathVariable String promptId) {
+        log.info("Fetching rating histogram for prompt: {}", promptId);
+        
+        RatingHistogramResponse histogram = socialService.getRatingHistogram(promptId);
+        return ResponseEntity.ok(histogram);
+    }
+    
+    /**
+     * Recomputes all rating aggregates from individual ratings.
+     */
+    @PostMapping("/admin/ratings/rebuild")
+    @Operation(summary = "Rebuild rating aggregates", description = "Recomputes per-prompt rating aggregates from individual ratings")
+    public ResponseEntity<Map<String, Object>> rebuildRatingAggregates() {
+        log.info("Rebuilding rating aggregates");
+        return ResponseEntity.ok(socialService.rebuildRatingAggregates());
+    }
+    
     /**
      * Gets all ratings for a prompt.
      */
@@ -145,10 +168,11 @@ public class SocialController {
     }
     
     /**
-     * Gets all comments for a prompt.
+     * Gets the newest top-level comments for a prompt.
      */
     @GetMapping("/comments/{promptId}")
-    @Operation(summary = "Get prompt comments", description = "Retrieves all comments for a prompt")
+    @Operation(summary = "Get prompt comments",
+            description = "Retrieves the newest top-level comments for a prompt (at most one page); use /scroll to paginate")
     public ResponseEntity<List<CommentResponse>> getPromptComments(@PathVariable String promptId) {
         log.info("Fetching comments for prompt: {}", promptId);
         
@@ -156,6 +180,35 @@ public class SocialController {
         return ResponseEntity.ok(comments);
     }
     
+    /**
+     * Gets a page of top-level comments for a prompt.
+     */
+    @GetMapping("/comments/{promptId}/scroll")
+    @Operation(summary = "Scroll prompt comments",
+            description = "Cursor-paginated top-level comments, newest first. Each comment carries its reply count.")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> scrollPromptComments(
+            @PathVariable String promptId,
+            @Parameter(description = "Cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 50)") @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Scrolling comments for prompt: {}", promptId);
+        return ResponseEntity.ok(socialService.scrollComments(promptId, cursor, clampCommentPageSize(size)));
+    }
+    
+    /**
+     * Gets a page of replies to a comment.
+     */
+    @GetMapping("/comments/{commentId}/replies")
+    @Operation(summary = "Scroll comment replies", description = "Cursor-paginated replies to a comment, oldest first")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> scrollCommentReplies(
+            @PathVariable String commentId,
+            @Parameter(description = "Cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 50)") @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Scrolling replies to comment: {}", commentId);
+        return ResponseEntity.ok(socialService.scrollReplies(commentId, cursor, clampCommentPageSize(size)));
+    }
+    
     /**
      * Gets social statistics for a prompt.
      */
@@ -182,5 +235,23 @@ public class SocialController {
         boolean hasLiked = socialService.hasUserLikedPrompt(userId, promptId);
         return ResponseEntity.ok(Map.of("hasLiked", hasLiked));
     }
+    
+    /**
+     * Checks the current user's likes and ratings on a page of prompts in one call.
+     */
+    @PostMapping("/engagement/check")
+    @Operation(summary = "Check user engagement in batch",
+            description = "Returns whether the current user has liked and rated each of the given prompts")
+    public ResponseEntity<List<UserEngagementResponse>> checkUserEngagement(
+            @Valid @RequestBody EngagementCheckRequest request,
+            @RequestHeader(value = "X-User-Id", defaultValue = "test-user") String userId) {
+        
+        log.info("Checking engagement of user {} with {} prompts", userId, request.getPromptIds().size());
+        
+        return ResponseEntity.ok(socialService.getUserEngagement(userId, request.getPromptIds()));
+    }
+    
+    private int clampCommentPageSize(int size) {
+        return Math.max(1, Math.min(size, SocialService.MAX_COMMENT_PAGE_SIZE));
+    }
 }
-
@@ -0,0 +1,167 @@
+package com.promptforge.prompt.diff;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Myers' O((N+M)D) shortest edit script over two token sequences (lines, words, ...).
+ * The common prefix and suffix are trimmed first, and the search gives up after
+ * {@code maxEditDistance} edits, reporting the remaining middle as one replacement
+ * so pathological inputs cannot use unbounded time or memory.
+ */
+public final class MyersDiff {
+
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 1000;
+
+    private MyersDiff() {
+    }
+
+    public enum Type {
+        EQUAL,
+        DELETE,
+        INSERT
+    }
+
+    /**
+     * A run of tokens: {@code a[aStart, aEnd)} and/or {@code b[bStart, bEnd)}.
+     * EQUAL runs cover both, DELETE runs only {@code a}, INSERT runs only {@code b}.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Edit {
+        private final Type type;
+        private final int aStart;
+        private final int aEnd;
+        private final int bStart;
+        private final int bEnd;
+    }
+
+    public static <T> List<Edit> diff(List<T> a, List<T> b) {
+        return diff(a, b, DEFAULT_MAX_EDIT_DISTANCE);
+    }
+
+    /**
+     * Computes the edit script turning {@code a} into {@code b}, with adjacent runs
+     * of the same type merged.
+     */
+    public static <T> List<Edit> diff(List<T> a, List<T> b, int maxEditDistance) {
+        int prefix = 0;
+        int maxPrefix = Math.min(a.size(), b.size());
+        while (prefix < maxPrefix && Objects.equals(a.get(prefix), b.get(prefix))) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix
+                && Objects.equals(a.get(a.size() - 1 - suffix), b.get(b.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        List<Edit> edits = new ArrayList<>();
+        add(edits, Type.EQUAL, 0, prefix, 0, prefix);
+        diffMiddle(a, b, prefix, a.size() - suffix, prefix, b.size() - suffix, maxEditDistance, edits);
+        add(edits, Type.EQUAL, a.size() - suffix, a.size(), b.size() - suffix, b.size());
+        return edits;
+    }
+
+    private static <T> void diffMiddle(List<T> a, List<T> b, int aStart, int aEnd, int bStart, int bEnd,
+                                       int maxEditDistance, List<Edit> edits) {
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        if (n == 0 || m == 0) {
+            add(edits, Type.DELETE, aStart, aEnd, bStart, bStart);
+            add(edits, Type.INSERT, aEnd, aEnd, bStart, bEnd);
+            return;
+        }
+
+        int max = Math.min(n + m, maxEditDistance);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        // trace.get(d) holds v[-d..d] as it was at the start of round d
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= max; d++) {
+            int[] snapshot = new int[2 * d + 1];
+            System.arraycopy(v, offset - d, snapshot, 0, snapshot.length);
+            trace.add(snapshot);
+
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && Objects.equals(a.get(aStart + x), b.get(bStart + y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+
+                if (x >= n && y >= m) {
+                    backtrack(trace, d, n, m, aStart, bStart, edits);
+                    return;
+                }
+            }
+        }
+
+        // Too different: report the whole middle as replaced
+        add(edits, Type.DELETE, aStart, aEnd, bStart, bStart);
+        add(edits, Type.INSERT, aEnd, aEnd, bStart, bEnd);
+    }
+
+    private static void backtrack(List<int[]> trace, int depth, int n, int m, int aStart, int bStart,
+                                  List<Edit> edits) {
+        List<Edit> reversed = new ArrayList<>();
+        int x = n;
+        int y = m;
+
+        for (int d = depth; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && previous[k - 1 + d] < previous[k + 1 + d])) ? k + 1 : k - 1;
+            int prevX = previous[prevK + d];
+            int prevY = prevX - prevK;
+
+            // The diagonal snake after the edit
+            int snakeX = prevK == k + 1 ? prevX : prevX + 1;
+            int snakeY = snakeX - k;
+            if (x > snakeX) {
+                reversed.add(new Edit(Type.EQUAL, aStart + snakeX, aStart + x, bStart + snakeY, bStart + y));
+            }
+            if (prevK == k + 1) {
+                reversed.add(new Edit(Type.INSERT, aStart + prevX, aStart + prevX, bStart + prevY, bStart + prevY + 1));
+            } else {
+                reversed.add(new Edit(Type.DELETE, aStart + prevX, aStart + prevX + 1, bStart + prevY, bStart + prevY));
+            }
+            x = prevX;
+            y = prevY;
+        }
+        if (x > 0) {
+            reversed.add(new Edit(Type.EQUAL, aStart, aStart + x, bStart, bStart + y));
+        }
+
+        Collections.reverse(reversed);
+        for (Edit edit : reversed) {
+            add(edits, edit.getType(), edit.getAStart(), edit.getAEnd(), edit.getBStart(), edit.getBEnd());
+        }
+    }
+
+    private static void add(List<Edit> edits, Type type, int aStart, int aEnd, int bStart, int bEnd) {
+        if (aStart == aEnd && bStart == bEnd) {
+            return;
+        }
+        if (!edits.isEmpty()) {
+            Edit last = edits.get(edits.size() - 1);
+            if (last.getType() == type && last.getAEnd() == aStart && last.getBEnd() == bStart) {
+                edits.set(edits.size() - 1, new Edit(type, last.getAStart(), aEnd, last.getBStart(), bEnd));
+                return;
+            }
+        }
+        edits.add(new Edit(type, aStart, aEnd, bStart, bEnd));
+    }
+}
@@ -0,0 +1,84 @@
+package com.promptforge.prompt.diff;
+
+import com.promptforge.prompt.document.DeltaOp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes a text as copy/insert operations against a base text, using a line diff.
+ * Used to store prompt versions as deltas against the previous version.
+ */
+public final class TextDelta {
+
+    // Approximate BSON cost of a copy op (two int32 fields plus keys)
+    private static final int COPY_OP_BYTES = 24;
+    private static final int INSERT_OP_OVERHEAD_BYTES = 12;
+
+    private TextDelta() {
+    }
+
+    /**
+     * Computes the operations that rebuild {@code target} from {@code base}.
+     */
+    public static List<DeltaOp> encode(String base, String target) {
+        base = base != null ? base : "";
+        target = target != null ? target : "";
+
+        List<String> baseLines = Tokenizers.lines(base);
+        List<String> targetLines = Tokenizers.lines(target);
+        int[] baseOffsets = Tokenizers.offsets(baseLines);
+        int[] targetOffsets = Tokenizers.offsets(targetLines);
+
+        List<DeltaOp> ops = new ArrayList<>();
+        for (MyersDiff.Edit edit : MyersDiff.diff(baseLines, targetLines)) {
+            switch (edit.getType()) {
+                case EQUAL -> ops.add(DeltaOp.copy(baseOffsets[edit.getAStart()],
+                        baseOffsets[edit.getAEnd()] - baseOffsets[edit.getAStart()]));
+                case INSERT -> ops.add(DeltaOp.insert(
+                        target.substring(targetOffsets[edit.getBStart()], targetOffsets[edit.getBEnd()])));
+                case DELETE -> {
+                    // Deleted text is simply not copied
+                }
+            }
+        }
+        return ops;
+    }
+
+    /**
+     * Applies operations produced by {@link #encode} to the same base text.
+     */
+    public static String apply(String base, List<DeltaOp> ops) {
+        base = base != null ? base : "";
+        StringBuilder result = new StringBuilder();
+        for (DeltaOp op : ops) {
+            if (op.isCopy()) {
+                result.append(base, op.getOffset(), op.getOffset() + op.getLength());
+            } else {
+                result.append(op.getText());
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Approximate stored size of the operations in bytes.
+     */
+    public static long storedBytes(List<DeltaOp> ops) {
+        long bytes = 0;
+        for (DeltaOp op : ops) {
+            bytes += op.isCopy()
+                    ? COPY_OP_BYTES
+                    : INSERT_OP_OVERHEAD_BYTES + op.getText().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Stored size of a full text in bytes.
+     */
+    public static long storedBytes(String text) {
+        return text != null ? text.getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+}
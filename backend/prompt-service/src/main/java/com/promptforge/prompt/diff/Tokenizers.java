@@ -0,0 +1,66 @@
+package com.promptforge.prompt.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into diff tokens that concatenate back to the original text.
+ */
+public final class Tokenizers {
+
+    private Tokenizers() {
+    }
+
+    /**
+     * Splits text into lines, each keeping its line terminator.
+     */
+    public static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    /**
+     * Splits text into words, whitespace runs and single punctuation characters.
+     */
+    public static List<String> words(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            char first = text.charAt(start);
+            int end = start + 1;
+            if (Character.isLetterOrDigit(first)) {
+                while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) {
+                    end++;
+                }
+            } else if (Character.isWhitespace(first)) {
+                while (end < text.length() && Character.isWhitespace(text.charAt(end))) {
+                    end++;
+                }
+            }
+            tokens.add(text.substring(start, end));
+            start = end;
+        }
+        return tokens;
+    }
+
+    /**
+     * Character offset of each token plus the total length as a final entry.
+     */
+    public static int[] offsets(List<String> tokens) {
+        int[] offsets = new int[tokens.size() + 1];
+        for (int i = 0; i < tokens.size(); i++) {
+            offsets[i + 1] = offsets[i] + tokens.get(i).length();
+        }
+        return offsets;
+    }
+}
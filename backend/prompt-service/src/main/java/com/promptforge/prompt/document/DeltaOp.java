@@ -0,0 +1,33 @@
+package com.promptforge.prompt.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One instruction of a stored text delta: either copy {@code length} characters
+ * starting at {@code offset} of the base text, or insert {@code text}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaOp {
+    
+    private Integer offset; // Copy source in the base text
+    
+    private Integer length; // Characters to copy
+    
+    private String text; // Inserted text; null for copies
+    
+    public static DeltaOp copy(int offset, int length) {
+        return new DeltaOp(offset, length, null);
+    }
+    
+    public static DeltaOp insert(String text) {
+        return new DeltaOp(null, null, text);
+    }
+    
+    public boolean isCopy() {
+        return text == null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.promptforge.prompt.document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,10 +10,20 @@ import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * One version of a prompt. Versions form a chain per prompt: every few versions
+ * the full title, description and content are stored as a snapshot, and the
+ * versions in between only store deltas against the previous version.
+ * Documents written before delta storage have no sequence and always hold the
+ * full fields. Use PromptVersionStore to read materialized versions.
+ */
 @Document(collection = "prompt_versions")
 @CompoundIndex(name = "prompt_version_idx", def = "{'promptId': 1, 'version': 1}", unique = true)
+@CompoundIndex(name = "prompt_sequence_uidx", def = "{'promptId': 1, 'sequence': 1}", unique = true,
+               partialFilter = "{'sequence': {$exists: true}}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,7 +37,7 @@ public class PromptVersion {
     
     private String version; // Semantic version: 1.0.0
     
-    private String content; // Full prompt content at this version
+    private String content; // Full prompt content at this version (null for deltas)
     
     private String title;
     
@@ -41,4 +52,45 @@ public class PromptVersion {
     private LocalDateTime createdAt;
     
     private Map<String, Object> metadata; // Additional version-specific data
+    
+    private Integer sequence; // Position in the version chain, starting at 1
+    
+    private Boolean snapshot; // Full fields stored rather than deltas
+    
+    private Integer chainDepth; // Deltas since the last snapshot (0 for snapshots)
+    
+    private Integer contentLength; // Characters of content, kept so history listings need not load it
+    
+    private String contentHash; // SHA-256 of the full content, same key as prompt_contents
+    
+    private String basePromptId; // Fork snapshots: content is that of basePromptId at baseSequence
+    
+    private Integer baseSequence;
+    
+    @JsonIgnore
+    private List<DeltaOp> contentDelta;
+    
+    @JsonIgnore
+    private List<DeltaOp> titleDelta;
+    
+    @JsonIgnore
+    private List<DeltaOp> descriptionDelta;
+    
+    /**
+     * Whether this is the first version of a fork, which stores its title and
+     * description but borrows its content from the source prompt's version.
+     */
+    @JsonIgnore
+    public boolean isForkReference() {
+        return basePromptId != null && content == null && contentDelta == null;
+    }
+    
+    /**
+     * Whether this document holds the full fields (a snapshot or a legacy document).
+     * Fork references count as snapshots: their content is resolved from the source.
+     */
+    @JsonIgnore
+    public boolean isFull() {
+        return contentDelta == null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk prompt import, with one result per submitted item in input order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResponse {
+    
+    private int total;
+    private int imported;
+    private int failed;
+    private long tookMs;
+    private boolean truncated; // Set when an NDJSON stream had more items than the import limit; the rest were not read
+    private List<ItemResult> results;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index; // Zero-based position in the submitted array or stream
+        private String promptId; // Set when imported
+        private String error; // Set when failed
+    }
+}
@@ -16,5 +16,7 @@ public class CommentRequest {
     @NotBlank(message = "Comment content is required")
     @Size(min = 1, max = 5000, message = "Comment must be between 1 and 5000 characters")
     private String content;
+    
+    private String parentId; // Optional; set to reply to another comment on the same prompt
 }
 
@@ -13,9 +13,11 @@ import java.time.LocalDateTime;
 public class CommentResponse {
     private String id;
     private String promptId;
+    private String parentId;
     private String userId;
     private String username;
     private String content;
+    private Integer replyCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
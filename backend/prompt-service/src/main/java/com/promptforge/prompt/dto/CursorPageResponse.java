@@ -0,0 +1,25 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a cursor (keyset) paginated listing. Pass nextCursor back as the
+ * cursor parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // Opaque; null on the last page
+    private Long totalElements; // Only populated when includeTotal=true
+}
@@ -0,0 +1,17 @@
+package com.promptforge.prompt.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateCheckRequest {
+    
+    @NotBlank(message = "Content is required")
+    @Size(max = 10000, message = "Content cannot exceed 10000 characters")
+    private String content;
+}
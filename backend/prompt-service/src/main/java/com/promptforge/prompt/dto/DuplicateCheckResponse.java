@@ -0,0 +1,23 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Whether a prompt body is already stored, with the prompts using it that the
+ * caller can see.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DuplicateCheckResponse {
+    private String contentHash;
+    private Boolean duplicate;
+    private Long referenceCount; // All prompts with this body, visible or not
+    private List<PromptSummaryResponse> matches;
+}
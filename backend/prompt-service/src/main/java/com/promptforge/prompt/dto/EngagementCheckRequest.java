@@ -0,0 +1,22 @@
+package com.promptforge.prompt.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for checking the current user's likes and ratings on a page of prompts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EngagementCheckRequest {
+    
+    @NotEmpty(message = "Prompt IDs are required")
+    @Size(max = 100, message = "Cannot check more than 100 prompts at once")
+    private List<String> promptIds;
+}
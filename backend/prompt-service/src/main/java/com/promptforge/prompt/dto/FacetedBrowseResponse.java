@@ -0,0 +1,26 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted browse plus, per facet (category, tag, model, featured),
+ * the number of matching prompts for each value, most prompts first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetedBrowseResponse {
+    
+    private List<PromptSummaryResponse> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private Map<String, Map<String, Long>> facets;
+}
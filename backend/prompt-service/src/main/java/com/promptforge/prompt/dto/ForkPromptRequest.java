@@ -0,0 +1,19 @@
+package com.promptforge.prompt.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForkPromptRequest {
+    
+    @Size(min = 3, max = 200, message = "Title must be between 3 and 200 characters")
+    private String title; // Defaults to the source title
+    
+    private Boolean isPublic = false;
+    
+    private String version; // Source version to fork, defaults to the current one
+}
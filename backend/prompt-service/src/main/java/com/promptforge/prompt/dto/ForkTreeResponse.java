@@ -0,0 +1,31 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The forks of a prompt, recursively, limited to prompts the caller can see.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ForkTreeResponse {
+    private Node root;
+    private Integer nodes;
+    private Boolean truncated; // More forks exist than were returned
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Node {
+        private PromptSummaryResponse prompt;
+        private String forkedFromVersion;
+        private List<Node> children = new ArrayList<>();
+    }
+}
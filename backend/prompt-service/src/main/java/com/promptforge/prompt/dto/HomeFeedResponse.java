@@ -0,0 +1,22 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Sections of the home page, composed ahead of time by HomeFeedService.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HomeFeedResponse {
+    
+    private List<PromptSummaryResponse> featured;
+    private List<PromptSummaryResponse> trending;
+    private List<PromptSummaryResponse> topRated;
+}
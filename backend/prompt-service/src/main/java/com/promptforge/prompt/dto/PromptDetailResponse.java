@@ -0,0 +1,28 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything a prompt page renders, fetched in one call. Sections other than the
+ * prompt itself are null when they timed out or failed; their names are listed in
+ * unavailableSections so the client can fetch them separately.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromptDetailResponse {
+    private PromptResponse prompt;
+    private PromptStatsResponse stats;
+    private RatingHistogramResponse ratings;
+    private CursorPageResponse<CommentResponse> comments;
+    private UserEngagementResponse engagement; // Null for anonymous viewers
+    private List<VersionSummaryResponse> versions; // Newest first
+    private List<String> unavailableSections;
+    private Long tookMs;
+}
@@ -11,12 +11,13 @@ import java.util.Set;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class PromptResponse {
     
     private String id;
     private String title;
     private String content;
+    private String contentHash;
     private String description;
     private String userId;
     private String username;
@@ -27,10 +28,13 @@ public class PromptResponse {
     private Integer viewCount;
     private Integer forkCount;
     private Integer likeCount;
+    private Integer commentCount;
     private Double rating;
     private Integer ratingCount;
     private String model;
     private String version;
+    private String forkedFromId;
+    private String forkedFromVersion;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Lightweight prompt representation for list views. Omits the prompt content;
+ * fetch GET /prompts/{id} for the full prompt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromptSummaryResponse {
+    
+    private String id;
+    private String title;
+    private String description;
+    private String userId;
+    private String username;
+    private String category;
+    private Set<String> tags;
+    private Boolean isPublic;
+    private Boolean isFeatured;
+    private Integer viewCount;
+    private Integer forkCount;
+    private Integer likeCount;
+    private Double rating;
+    private Integer ratingCount;
+    private String model;
+    private String version;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,23 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Response DTO for a prompt's star distribution. {@code stars} maps each star
+ * value 1-5 to the number of ratings with that value.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingHistogramResponse {
+    private String promptId;
+    private Long ratingCount;
+    private Double averageRating;
+    private Map<Integer, Long> stars;
+}
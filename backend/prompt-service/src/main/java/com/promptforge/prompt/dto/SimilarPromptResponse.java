@@ -0,0 +1,19 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A prompt returned by a similarity query, with its estimated similarity (0..1)
+ * to the queried prompt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SimilarPromptResponse {
+    private Double similarity;
+    private PromptSummaryResponse prompt;
+}
@@ -0,0 +1,19 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A tag with the number of public prompts it applies to; for related tags, the
+ * number of public prompts it shares with the queried tag.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TagCountResponse {
+    private String tag;
+    private Long count;
+}
@@ -0,0 +1,19 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for whether the current user has liked and rated a prompt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEngagementResponse {
+    private String promptId;
+    private Boolean liked;
+    private Integer rating; // Null if not rated
+}
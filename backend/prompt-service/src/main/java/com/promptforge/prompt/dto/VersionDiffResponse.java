@@ -0,0 +1,37 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Difference between two versions of a prompt's content as an ordered list of
+ * segments. Concatenating the EQUAL and DELETE segments gives the old content;
+ * concatenating the EQUAL and INSERT segments gives the new content.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VersionDiffResponse {
+    
+    private String promptId;
+    private String fromVersion;
+    private String toVersion;
+    private String granularity; // line or word
+    private List<Segment> segments;
+    private Integer insertedTokens;
+    private Integer deletedTokens;
+    private Integer unchangedTokens;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Segment {
+        private String type; // EQUAL, INSERT or DELETE
+        private String text;
+    }
+}
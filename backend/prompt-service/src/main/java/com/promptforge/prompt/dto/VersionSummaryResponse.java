@@ -0,0 +1,28 @@
+package com.promptforge.prompt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version history entry without the version's text.
+ * Fetch GET /prompts/{id}/versions/{version} for the content.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VersionSummaryResponse {
+    
+    private String version;
+    private Integer sequence;
+    private String changeLog;
+    private String userId;
+    private String username;
+    private LocalDateTime createdAt;
+    private Integer contentLength;
+    private String contentHash;
+}
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -19,7 +20,14 @@ import java.util.Set;
     @Index(name = "idx_user_id", columnList = "user_id"),
     @Index(name = "idx_category", columnList = "category"),
     @Index(name = "idx_is_public", columnList = "is_public"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_content_hash", columnList = "content_hash"),
+    @Index(name = "idx_forked_from_id", columnList = "forked_from_id"),
+    // Composite indexes backing keyset pagination (filter, sort key, id tie-breaker)
+    @Index(name = "idx_public_created_id", columnList = "is_public, created_at, id"),
+    @Index(name = "idx_public_views_id", columnList = "is_public, view_count, id"),
+    @Index(name = "idx_public_rating_id", columnList = "is_public, rating, id"),
+    @Index(name = "idx_category_public_created_id", columnList = "category, is_public, created_at, id")
 })
 @Data
 @NoArgsConstructor
@@ -36,9 +44,18 @@ public class Prompt {
     @Column(nullable = false, length = 200)
     private String title;
     
-    @NotBlank(message = "Content is required")
+    // Body shared with every prompt of the same text (see PromptContentStore)
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "content_hash")
+    private PromptContent body;
+    
+    // Inline body of rows written before content-addressed storage; null once migrated
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String inlineContent;
+    
+    // New or changed body, interned into prompt_contents before the prompt is saved
     @Size(min = 10, max = 10000, message = "Content must be between 10 and 10000 characters")
-    @Column(nullable = false, columnDefinition = "TEXT")
+    @Transient
     private String content;
     
     @Size(max = 1000, message = "Description cannot exceed 1000 characters")
@@ -57,8 +74,10 @@ public class Prompt {
     private String category;
     
     @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "prompt_tags", joinColumns = @JoinColumn(name = "prompt_id"))
+    @CollectionTable(name = "prompt_tags", joinColumns = @JoinColumn(name = "prompt_id"),
+            indexes = @Index(name = "idx_prompt_tags_tag", columnList = "tag"))
     @Column(name = "tag")
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<String> tags = new HashSet<>();
     
@@ -82,6 +101,10 @@ public class Prompt {
     @Builder.Default
     private Integer likeCount = 0;
     
+    @Column(name = "comment_count", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer commentCount = 0;
+    
     @Column(nullable = false)
     @Builder.Default
     private Double rating = 0.0;
@@ -96,6 +119,12 @@ public class Prompt {
     @Column(length = 20)
     private String version; // Semantic versioning: 1.0.0
     
+    @Column(name = "forked_from_id")
+    private String forkedFromId; // Source prompt, null unless this prompt is a fork
+    
+    @Column(name = "forked_from_version", length = 20)
+    private String forkedFromVersion; // Source version the fork was taken from
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -105,6 +134,17 @@ public class Prompt {
     private LocalDateTime updatedAt;
     
     // Helper methods
+    public String getContent() {
+        if (content != null) {
+            return content;
+        }
+        return body != null ? body.getContent() : inlineContent;
+    }
+    
+    public String getContentHash() {
+        return body != null ? body.getHash() : null;
+    }
+    
     public void addTag(String tag) {
         if (this.tags == null) {
             this.tags = new HashSet<>();
@@ -135,9 +175,4 @@ public class Prompt {
             this.likeCount--;
         }
     }
-    
-    public void updateRating(double newRating) {
-        this.rating = ((this.rating * this.ratingCount) + newRating) / (this.ratingCount + 1);
-        this.ratingCount++;
-    }
 }
\ No newline at end of file
@@ -13,13 +13,18 @@ import java.time.LocalDateTime;
 /**
  * Entity representing a comment on a prompt.
  * Users can leave multiple comments on prompts to provide feedback or discussion.
+ * Comments form threads: a reply points at its parent comment, and top-level
+ * comments have no parent.
  */
 @Entity
 @Table(name = "prompt_comments",
        indexes = {
            @Index(name = "idx_prompt_comment_prompt", columnList = "prompt_id"),
            @Index(name = "idx_prompt_comment_user", columnList = "user_id"),
-           @Index(name = "idx_prompt_comment_created", columnList = "created_at")
+           @Index(name = "idx_prompt_comment_created", columnList = "created_at"),
+           // Keyset pagination of a prompt's top-level comments and of a comment's replies
+           @Index(name = "idx_prompt_comment_thread", columnList = "prompt_id, parent_id, created_at, id"),
+           @Index(name = "idx_prompt_comment_parent", columnList = "parent_id, created_at, id")
        })
 @Data
 @NoArgsConstructor
@@ -34,6 +39,9 @@ public class PromptComment {
     @Column(name = "prompt_id", nullable = false)
     private String promptId;
     
+    @Column(name = "parent_id")
+    private String parentId; // Null for top-level comments
+    
     @Column(name = "user_id", nullable = false)
     private String userId;
     
@@ -46,6 +54,10 @@ public class PromptComment {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
     
+    @Column(name = "reply_count", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer replyCount = 0;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -0,0 +1,48 @@
+package com.promptforge.prompt.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a prompt body stored once and shared by every prompt with
+ * the same text. Rows are keyed by the SHA-256 of the content and carry the number
+ * of prompts referencing them; they are only written through the native upserts in
+ * PromptContentRepository, never through the persistence context.
+ */
+@Entity
+@Table(name = "prompt_contents",
+       indexes = @Index(name = "idx_prompt_content_ref_count", columnList = "ref_count"))
+@Immutable
+@BatchSize(size = 100)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromptContent {
+
+    @Id
+    @Column(length = 64)
+    private String hash; // Lowercase hex SHA-256 of the UTF-8 content
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(nullable = false)
+    private Integer length;
+
+    @Column(name = "ref_count", nullable = false)
+    private Long refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
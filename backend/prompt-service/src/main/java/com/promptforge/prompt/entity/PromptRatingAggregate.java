@@ -0,0 +1,76 @@
+package com.promptforge.prompt.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the running rating totals of one prompt: how many ratings it has,
+ * their sum, and how many of each star value. It is the source of truth for rating
+ * statistics and is only written through the atomic upserts in
+ * PromptRatingAggregateRepository, never through the persistence context.
+ */
+@Entity
+@Table(name = "prompt_rating_aggregates")
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromptRatingAggregate {
+
+    @Id
+    @Column(name = "prompt_id")
+    private String promptId;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    @Column(name = "stars_1", nullable = false)
+    private Long stars1;
+
+    @Column(name = "stars_2", nullable = false)
+    private Long stars2;
+
+    @Column(name = "stars_3", nullable = false)
+    private Long stars3;
+
+    @Column(name = "stars_4", nullable = false)
+    private Long stars4;
+
+    @Column(name = "stars_5", nullable = false)
+    private Long stars5;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Mean rating, or 0.0 if the prompt has not been rated.
+     */
+    public double getAverage() {
+        return ratingCount != null && ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    /**
+     * Number of ratings with the given star value (1-5).
+     */
+    public long getStars(int stars) {
+        Long count = switch (stars) {
+            case 1 -> stars1;
+            case 2 -> stars2;
+            case 3 -> stars3;
+            case 4 -> stars4;
+            case 5 -> stars5;
+            default -> throw new IllegalArgumentException("Stars must be between 1 and 5");
+        };
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.promptforge.prompt.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the shared trending score of one prompt, so every replica ranks
+ * from the same numbers. The score is relative to epochMillis (a point earned at
+ * time t is worth 2^((t - epoch) / halfLife)) and can be converted to any other
+ * epoch. It is only written through the batched upserts in TrendingRanker, never
+ * through the persistence context.
+ */
+@Entity
+@Table(name = "prompt_trending_scores", indexes = {
+    @Index(name = "idx_trending_scores_updated_at", columnList = "updated_at")
+})
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromptTrendingScore {
+
+    @Id
+    @Column(name = "prompt_id")
+    private String promptId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "epoch_millis", nullable = false)
+    private Long epochMillis;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
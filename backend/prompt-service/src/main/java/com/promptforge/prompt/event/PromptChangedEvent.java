@@ -0,0 +1,43 @@
+package com.promptforge.prompt.event;
+
+import com.promptforge.prompt.entity.Prompt;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * In-process application event published by PromptService whenever a prompt is
+ * created, updated or deleted. In-memory read models (search index, caches, ...)
+ * listen for it after the transaction commits to stay in sync with PostgreSQL.
+ */
+@Getter
+@AllArgsConstructor
+public class PromptChangedEvent {
+    
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+    
+    private final Type type;
+    
+    private final String promptId;
+    
+    private final Prompt prompt; // State after the change (state before deletion for DELETED)
+    
+    public static PromptChangedEvent created(Prompt prompt) {
+        return new PromptChangedEvent(Type.CREATED, prompt.getId(), prompt);
+    }
+    
+    public static PromptChangedEvent updated(Prompt prompt) {
+        return new PromptChangedEvent(Type.UPDATED, prompt.getId(), prompt);
+    }
+    
+    public static PromptChangedEvent deleted(Prompt prompt) {
+        return new PromptChangedEvent(Type.DELETED, prompt.getId(), prompt);
+    }
+    
+    public boolean isDeleted() {
+        return type == Type.DELETED;
+    }
+}
@@ -0,0 +1,20 @@
+package com.promptforge.prompt.event;
+
+import com.promptforge.prompt.service.PromptCounterAccumulator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * In-process application event published after PromptCounterAccumulator has
+ * written a batch of counter deltas to PostgreSQL.
+ */
+@Getter
+@AllArgsConstructor
+public class PromptCountersFlushedEvent {
+    
+    private final PromptCounterAccumulator.Counter counter;
+    
+    private final Map<String, Long> deltas; // Prompt ID -> delta applied
+}
@@ -0,0 +1,46 @@
+package com.promptforge.prompt.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * In-process application event published by SocialService when a user engages
+ * with a prompt. Views are not published individually; they reach listeners
+ * through PromptCountersFlushedEvent.
+ */
+@Getter
+@AllArgsConstructor
+public class PromptEngagementEvent {
+    
+    public enum Signal {
+        LIKE,
+        UNLIKE,
+        RATING,
+        FORK,
+        COMMENT
+    }
+    
+    private final Signal signal;
+    
+    private final String promptId;
+    
+    private final int value; // Stars for RATING, 1 otherwise
+    
+    private final String userId; // Engaging user, if known
+    
+    public static PromptEngagementEvent of(Signal signal, String promptId) {
+        return of(signal, promptId, null);
+    }
+    
+    public static PromptEngagementEvent of(Signal signal, String promptId, String userId) {
+        return new PromptEngagementEvent(signal, promptId, 1, userId);
+    }
+    
+    public static PromptEngagementEvent rating(String promptId, int stars) {
+        return rating(promptId, stars, null);
+    }
+    
+    public static PromptEngagementEvent rating(String promptId, int stars, String userId) {
+        return new PromptEngagementEvent(Signal.RATING, promptId, stars, userId);
+    }
+}
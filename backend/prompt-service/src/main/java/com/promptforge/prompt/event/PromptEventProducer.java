@@ -1,45 +1,89 @@
 package com.promptforge.prompt.event;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptforge.prompt.entity.Prompt;
 import com.promptforge.shared.event.PromptCreatedEvent;
+import com.promptforge.shared.event.PromptDeletedEvent;
+import com.promptforge.shared.event.PromptUpdatedEvent;
 import com.promptforge.shared.event.PromptViewedEvent;
+import com.promptforge.shared.outbox.OutboxEvent;
+import com.promptforge.shared.outbox.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Publishes prompt lifecycle events. Created, updated and deleted events are written
+ * to the outbox in the caller's transaction and reach Kafka through OutboxRelay, so
+ * they are delivered at least once and only for changes that committed. View events
+ * are high-volume analytics signals raised on the read path; they are still sent
+ * directly and best-effort rather than turning every read into a write.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PromptEventProducer {
     
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
     
     private static final String PROMPT_CREATED_TOPIC = "prompt.created";
     private static final String PROMPT_VIEWED_TOPIC = "prompt.viewed";
+    private static final String PROMPT_UPDATED_TOPIC = "prompt.updated";
+    private static final String PROMPT_DELETED_TOPIC = "prompt.deleted";
     
-    public void publishPromptCreated(String promptId, String title, String userId, String username, 
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishPromptCreated(String promptId, String title, String userId, String username,
                                      String category, Boolean isPublic) {
-        try {
+        PromptCreatedEvent event = PromptCreatedEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .promptId(promptId)
+                .title(title)
+                .userId(userId)
+                .username(username)
+                .category(category)
+                .isPublic(isPublic)
+                .createdAt(LocalDateTime.now())
+                .build();
+        
+        outboxRepository.save(toOutboxEvent(PROMPT_CREATED_TOPIC, promptId, event));
+        
+        log.info("Queued PromptCreatedEvent for prompt: {} to topic: {}", promptId, PROMPT_CREATED_TOPIC);
+    }
+    
+    /**
+     * Queues PromptCreatedEvents for a batch of prompts with one batched insert.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishPromptsCreated(List<Prompt> prompts) {
+        List<OutboxEvent> events = new ArrayList<>(prompts.size());
+        for (Prompt prompt : prompts) {
             PromptCreatedEvent event = PromptCreatedEvent.builder()
                     .eventId(UUID.randomUUID().toString())
-                    .promptId(promptId)
-                    .title(title)
-                    .userId(userId)
-                    .username(username)
-                    .category(category)
-                    .isPublic(isPublic)
+                    .promptId(prompt.getId())
+                    .title(prompt.getTitle())
+                    .userId(prompt.getUserId())
+                    .username(prompt.getUsername())
+                    .category(prompt.getCategory())
+                    .isPublic(prompt.getIsPublic())
                     .createdAt(LocalDateTime.now())
                     .build();
-            
-            kafkaTemplate.send(PROMPT_CREATED_TOPIC, promptId, event);
-            
-            log.info("Published PromptCreatedEvent for prompt: {} to topic: {}", promptId, PROMPT_CREATED_TOPIC);
-        } catch (Exception e) {
-            log.error("Failed to publish PromptCreatedEvent for prompt: {}", promptId, e);
+            events.add(toOutboxEvent(PROMPT_CREATED_TOPIC, prompt.getId(), event));
         }
+        
+        outboxRepository.saveAll(events);
+        
+        log.info("Queued {} PromptCreatedEvents to topic: {}", events.size(), PROMPT_CREATED_TOPIC);
     }
     
     public void publishPromptViewed(String promptId, String userId) {
@@ -58,4 +102,54 @@ public class PromptEventProducer {
             log.error("Failed to publish PromptViewedEvent for prompt: {}", promptId, e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Queues a PromptUpdatedEvent carrying the prompt's current visibility and display
+     * fields, so consumers can follow a prompt turning public or private.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishPromptUpdated(Prompt prompt, String userId, Boolean contentChanged) {
+        PromptUpdatedEvent event = PromptUpdatedEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .promptId(prompt.getId())
+                .userId(userId)
+                .username(prompt.getUsername())
+                .title(prompt.getTitle())
+                .category(prompt.getCategory())
+                .isPublic(prompt.getIsPublic())
+                .version(prompt.getVersion())
+                .contentChanged(contentChanged)
+                .updatedAt(LocalDateTime.now())
+                .build();
+        
+        outboxRepository.save(toOutboxEvent(PROMPT_UPDATED_TOPIC, prompt.getId(), event));
+        
+        log.info("Queued PromptUpdatedEvent for prompt: {} to topic: {}", prompt.getId(), PROMPT_UPDATED_TOPIC);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishPromptDeleted(String promptId, String userId) {
+        PromptDeletedEvent event = PromptDeletedEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .promptId(promptId)
+                .userId(userId)
+                .deletedAt(LocalDateTime.now())
+                .build();
+        
+        outboxRepository.save(toOutboxEvent(PROMPT_DELETED_TOPIC, promptId, event));
+        
+        log.info("Queued PromptDeletedEvent for prompt: {} to topic: {}", promptId, PROMPT_DELETED_TOPIC);
+    }
+    
+    private OutboxEvent toOutboxEvent(String topic, String key, Object event) {
+        try {
+            return OutboxEvent.builder()
+                    .topic(topic)
+                    .messageKey(key)
+                    .payload(objectMapper.writeValueAsString(event))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.promptforge.prompt.repository;
 
 import com.promptforge.prompt.entity.PromptComment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -13,18 +18,50 @@ import java.util.List;
 public interface PromptCommentRepository extends JpaRepository<PromptComment, String> {
     
     /**
-     * Finds all comments for a specific prompt, ordered by creation date (newest first).
+     * Finds all comments by a specific user.
      */
-    List<PromptComment> findByPromptIdOrderByCreatedAtDesc(String promptId);
+    List<PromptComment> findByUserId(String userId);
+    
+    // Keyset (seek) pagination: pass PageRequest.of(0, limit) and the last row's createdAt + ID.
+    // Top-level comments are listed newest first, replies oldest first.
+    
+    @Query("SELECT c FROM PromptComment c WHERE c.promptId = :promptId AND c.parentId IS NULL " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<PromptComment> findTopLevelFirstPage(@Param("promptId") String promptId, Pageable limit);
+    
+    @Query("SELECT c FROM PromptComment c WHERE c.promptId = :promptId AND c.parentId IS NULL AND " +
+           "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<PromptComment> findTopLevelAfter(@Param("promptId") String promptId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") String id, Pageable limit);
+    
+    @Query("SELECT c FROM PromptComment c WHERE c.parentId = :parentId ORDER BY c.createdAt ASC, c.id ASC")
+    List<PromptComment> findRepliesFirstPage(@Param("parentId") String parentId, Pageable limit);
+    
+    @Query("SELECT c FROM PromptComment c WHERE c.parentId = :parentId AND " +
+           "(c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<PromptComment> findRepliesAfter(@Param("parentId") String parentId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") String id, Pageable limit);
     
     /**
-     * Finds all comments by a specific user.
+     * Counts a new reply on its parent with a single relative update.
      */
-    List<PromptComment> findByUserId(String userId);
+    @Modifying
+    @Query("UPDATE PromptComment c SET c.replyCount = c.replyCount + 1 WHERE c.id = :id")
+    int incrementReplyCount(@Param("id") String id);
     
     /**
-     * Counts the number of comments for a prompt.
+     * Recomputes the comment_count column of prompts whose count was never
+     * maintained, i.e. comments written before the column existed.
+     *
+     * @return Number of prompts updated
      */
-    Long countByPromptId(String promptId);
+    @Modifying
+    @Query(value = "UPDATE prompts p SET comment_count = c.n FROM " +
+            "(SELECT prompt_id, COUNT(*) AS n FROM prompt_comments GROUP BY prompt_id) c " +
+            "WHERE c.prompt_id = p.id AND p.comment_count = 0", nativeQuery = true)
+    int backfillCommentCounts();
 }
-
@@ -0,0 +1,84 @@
+package com.promptforge.prompt.repository;
+
+import com.promptforge.prompt.entity.PromptContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for content-addressed prompt bodies. Reference counts are changed
+ * with single atomic statements so concurrent writers never lose an update.
+ */
+@Repository
+public interface PromptContentRepository extends JpaRepository<PromptContent, String> {
+
+    /**
+     * Adds references to a body that is already stored, without sending its text.
+     *
+     * @return 1 if the body exists, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE prompt_contents SET ref_count = ref_count + :count, updated_at = now() " +
+            "WHERE hash = :hash", nativeQuery = true)
+    int addReferences(@Param("hash") String hash, @Param("count") long count);
+
+    /**
+     * Stores a body with the given number of references, or adds them if another
+     * writer stored it first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO prompt_contents (hash, content, length, ref_count, created_at, updated_at) " +
+            "VALUES (:hash, :content, :length, :count, now(), now()) " +
+            "ON CONFLICT (hash) DO UPDATE SET ref_count = prompt_contents.ref_count + EXCLUDED.ref_count, " +
+            "updated_at = now()", nativeQuery = true)
+    void upsert(@Param("hash") String hash, @Param("content") String content, @Param("length") int length,
+                @Param("count") long count);
+
+    /**
+     * Drops references to a body. Bodies left at zero are removed by the cleanup job.
+     */
+    @Modifying
+    @Query(value = "UPDATE prompt_contents SET ref_count = GREATEST(ref_count - :count, 0), updated_at = now() " +
+            "WHERE hash = :hash", nativeQuery = true)
+    int removeReferences(@Param("hash") String hash, @Param("count") long count);
+
+    /**
+     * Deletes bodies no prompt references any more.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM prompt_contents WHERE ref_count <= 0", nativeQuery = true)
+    int deleteUnreferenced();
+
+    /**
+     * Recomputes every reference count from the prompts table.
+     */
+    @Modifying
+    @Query(value = "UPDATE prompt_contents c SET ref_count = " +
+            "(SELECT count(*) FROM prompts p WHERE p.content_hash = c.hash), updated_at = now()", nativeQuery = true)
+    int reconcileReferences();
+
+    /**
+     * Characters stored once vs. characters the references would take if each prompt
+     * kept its own copy.
+     */
+    @Query(value = "SELECT COUNT(*) AS \"bodies\", COALESCE(SUM(length), 0) AS \"storedChars\", " +
+            "COALESCE(SUM(length * ref_count), 0) AS \"referencedChars\" FROM prompt_contents", nativeQuery = true)
+    StorageTotals storageTotals();
+
+    /**
+     * Current reference count of a body, or null if it is not stored.
+     */
+    @Query("SELECT c.refCount FROM PromptContent c WHERE c.hash = :hash")
+    Long findRefCount(@Param("hash") String hash);
+
+    interface StorageTotals {
+
+        Long getBodies();
+
+        Long getStoredChars();
+
+        Long getReferencedChars();
+    }
+}
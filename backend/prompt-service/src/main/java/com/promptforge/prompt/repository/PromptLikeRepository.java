@@ -2,8 +2,12 @@ package com.promptforge.prompt.repository;
 
 import com.promptforge.prompt.entity.PromptLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,9 +33,20 @@ public interface PromptLikeRepository extends JpaRepository<PromptLike, String>
     Optional<PromptLike> findByPromptIdAndUserId(String promptId, String userId);
     
     /**
-     * Deletes a like by prompt and user.
+     * Deletes a like by prompt and user in a single statement.
+     *
+     * @return Number of likes deleted (0 or 1)
      */
-    void deleteByPromptIdAndUserId(String promptId, String userId);
+    @Modifying
+    @Query("DELETE FROM PromptLike l WHERE l.promptId = :promptId AND l.userId = :userId")
+    int deleteByPromptIdAndUserId(@Param("promptId") String promptId, @Param("userId") String userId);
+    
+    /**
+     * Finds which of the given prompts a user has liked, in one query.
+     */
+    @Query("SELECT l.promptId FROM PromptLike l WHERE l.userId = :userId AND l.promptId IN :promptIds")
+    List<String> findLikedPromptIds(@Param("userId") String userId,
+                                    @Param("promptIds") Collection<String> promptIds);
     
     /**
      * Finds all likes by a specific user.
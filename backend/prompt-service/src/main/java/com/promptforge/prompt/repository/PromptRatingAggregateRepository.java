@@ -0,0 +1,97 @@
+package com.promptforge.prompt.repository;
+
+import com.promptforge.prompt.entity.PromptRatingAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for per-prompt rating aggregates. Each rating is folded in with a
+ * single upsert, so concurrent raters never lose an update and no query has to
+ * scan a prompt's individual ratings.
+ */
+@Repository
+public interface PromptRatingAggregateRepository extends JpaRepository<PromptRatingAggregate, String> {
+
+    /**
+     * Adds one rating of the given star value (1-5) to a prompt's aggregate,
+     * creating the aggregate on the prompt's first rating.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO prompt_rating_aggregates (prompt_id, rating_count, rating_sum, " +
+            "stars_1, stars_2, stars_3, stars_4, stars_5, updated_at) " +
+            "VALUES (:promptId, 1, :stars, " +
+            "CASE WHEN :stars = 1 THEN 1 ELSE 0 END, CASE WHEN :stars = 2 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :stars = 3 THEN 1 ELSE 0 END, CASE WHEN :stars = 4 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :stars = 5 THEN 1 ELSE 0 END, now()) " +
+            "ON CONFLICT (prompt_id) DO UPDATE SET " +
+            "rating_count = prompt_rating_aggregates.rating_count + 1, " +
+            "rating_sum = prompt_rating_aggregates.rating_sum + EXCLUDED.rating_sum, " +
+            "stars_1 = prompt_rating_aggregates.stars_1 + EXCLUDED.stars_1, " +
+            "stars_2 = prompt_rating_aggregates.stars_2 + EXCLUDED.stars_2, " +
+            "stars_3 = prompt_rating_aggregates.stars_3 + EXCLUDED.stars_3, " +
+            "stars_4 = prompt_rating_aggregates.stars_4 + EXCLUDED.stars_4, " +
+            "stars_5 = prompt_rating_aggregates.stars_5 + EXCLUDED.stars_5, " +
+            "updated_at = now()", nativeQuery = true)
+    void addRating(@Param("promptId") String promptId, @Param("stars") int stars);
+
+    /**
+     * Copies a prompt's aggregate onto its denormalized rating columns, which back
+     * the rating-sorted listings. Derived from the aggregate rather than kept as a
+     * separate running average, so the two cannot drift apart.
+     */
+    @Modifying
+    @Query(value = "UPDATE prompts p SET rating = CAST(a.rating_sum AS double precision) / a.rating_count, " +
+            "rating_count = a.rating_count FROM prompt_rating_aggregates a " +
+            "WHERE a.prompt_id = p.id AND p.id = :promptId AND a.rating_count > 0", nativeQuery = true)
+    int syncPromptRating(@Param("promptId") String promptId);
+
+    /**
+     * Recomputes every aggregate from the individual ratings and re-syncs the
+     * denormalized prompt columns. Safe to re-run.
+     *
+     * @return Number of aggregates written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO prompt_rating_aggregates (prompt_id, rating_count, rating_sum, " +
+            "stars_1, stars_2, stars_3, stars_4, stars_5, updated_at) " +
+            "SELECT prompt_id, COUNT(*), SUM(rating), " +
+            "COUNT(*) FILTER (WHERE rating = 1), COUNT(*) FILTER (WHERE rating = 2), " +
+            "COUNT(*) FILTER (WHERE rating = 3), COUNT(*) FILTER (WHERE rating = 4), " +
+            "COUNT(*) FILTER (WHERE rating = 5), now() " +
+            "FROM prompt_ratings GROUP BY prompt_id " +
+            "ON CONFLICT (prompt_id) DO UPDATE SET rating_count = EXCLUDED.rating_count, " +
+            "rating_sum = EXCLUDED.rating_sum, stars_1 = EXCLUDED.stars_1, stars_2 = EXCLUDED.stars_2, " +
+            "stars_3 = EXCLUDED.stars_3, stars_4 = EXCLUDED.stars_4, stars_5 = EXCLUDED.stars_5, " +
+            "updated_at = now()", nativeQuery = true)
+    int rebuildAll();
+
+    /**
+     * Creates aggregates for prompts that have ratings but no aggregate yet, e.g.
+     * ratings written before aggregates existed.
+     *
+     * @return Number of aggregates created
+     */
+    @Modifying
+    @Query(value = "INSERT INTO prompt_rating_aggregates (prompt_id, rating_count, rating_sum, " +
+            "stars_1, stars_2, stars_3, stars_4, stars_5, updated_at) " +
+            "SELECT r.prompt_id, COUNT(*), SUM(r.rating), " +
+            "COUNT(*) FILTER (WHERE r.rating = 1), COUNT(*) FILTER (WHERE r.rating = 2), " +
+            "COUNT(*) FILTER (WHERE r.rating = 3), COUNT(*) FILTER (WHERE r.rating = 4), " +
+            "COUNT(*) FILTER (WHERE r.rating = 5), now() " +
+            "FROM prompt_ratings r WHERE NOT EXISTS " +
+            "(SELECT 1 FROM prompt_rating_aggregates a WHERE a.prompt_id = r.prompt_id) " +
+            "GROUP BY r.prompt_id ON CONFLICT (prompt_id) DO NOTHING", nativeQuery = true)
+    int backfillMissing();
+
+    /**
+     * Re-syncs the denormalized rating columns of every rated prompt.
+     */
+    @Modifying
+    @Query(value = "UPDATE prompts p SET rating = CAST(a.rating_sum AS double precision) / a.rating_count, " +
+            "rating_count = a.rating_count FROM prompt_rating_aggregates a " +
+            "WHERE a.prompt_id = p.id AND a.rating_count > 0", nativeQuery = true)
+    int syncAllPromptRatings();
+}
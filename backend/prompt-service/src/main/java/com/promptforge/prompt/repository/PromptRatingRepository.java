@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,10 +37,12 @@ public interface PromptRatingRepository extends JpaRepository<PromptRating, Stri
     Optional<PromptRating> findByPromptIdAndUserId(String promptId, String userId);
     
     /**
-     * Calculates the average rating for a prompt.
+     * Finds a user's ratings of the given prompts, in one query.
+     *
+     * @return Rows of [promptId, rating]
      */
-    @Query("SELECT AVG(r.rating) FROM PromptRating r WHERE r.promptId = :promptId")
-    Double calculateAverageRating(@Param("promptId") String promptId);
+    @Query("SELECT r.promptId, r.rating FROM PromptRating r WHERE r.userId = :userId AND r.promptId IN :promptIds")
+    List<Object[]> findUserRatings(@Param("userId") String userId, @Param("promptIds") Collection<String> promptIds);
     
     /**
      * Counts the number of ratings for a prompt.
@@ -1,53 +1,186 @@
 package com.promptforge.prompt.repository;
 
 import com.promptforge.prompt.entity.Prompt;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PromptRepository extends JpaRepository<Prompt, String> {
     
+    // List views read the PromptSummary projection, which leaves out content and tags.
+    // Tags for a page are loaded with a single findTagsByPromptIds call.
+    
     // Find by user
-    Page<Prompt> findByUserId(String userId, Pageable pageable);
+    Page<PromptSummary> findSummariesByUserId(String userId, Pageable pageable);
     
     // Find public prompts
-    Page<Prompt> findByIsPublicTrue(Pageable pageable);
+    Page<PromptSummary> findSummariesByIsPublicTrue(Pageable pageable);
     
     // Find by category
     Page<Prompt> findByCategory(String category, Pageable pageable);
     
     // Find by category and public
-    Page<Prompt> findByCategoryAndIsPublicTrue(String category, Pageable pageable);
+    Page<PromptSummary> findSummariesByCategoryAndIsPublicTrue(String category, Pageable pageable);
     
     // Find featured prompts
-    Page<Prompt> findByIsFeaturedTrueAndIsPublicTrue(Pageable pageable);
+    Page<PromptSummary> findSummariesByIsFeaturedTrueAndIsPublicTrue(Pageable pageable);
     
-    // Search by title or description
-    @Query("SELECT p FROM Prompt p WHERE " +
+    // Search by title or description; private prompts only match their owner (userId may be null)
+    @Query(value = "SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p WHERE " +
+           "(LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+           "AND (p.isPublic = true OR p.userId = :userId) AND (:isPublic IS NULL OR p.isPublic = :isPublic)",
+           countQuery = "SELECT COUNT(p) FROM Prompt p WHERE " +
            "(LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
-           "AND (:isPublic IS NULL OR p.isPublic = :isPublic)")
-    Page<Prompt> searchPrompts(@Param("keyword") String keyword, 
+           "AND (p.isPublic = true OR p.userId = :userId) AND (:isPublic IS NULL OR p.isPublic = :isPublic)")
+    Page<PromptSummary> searchPrompts(@Param("keyword") String keyword, 
                                 @Param("isPublic") Boolean isPublic, 
+                                @Param("userId") String userId, 
                                 Pageable pageable);
     
     // Find by tag
-    @Query("SELECT DISTINCT p FROM Prompt p JOIN p.tags t WHERE t = :tag AND p.isPublic = true")
-    Page<Prompt> findByTag(@Param("tag") String tag, Pageable pageable);
+    @Query(value = "SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE :tag MEMBER OF p.tags AND p.isPublic = true",
+           countQuery = "SELECT COUNT(p) FROM Prompt p WHERE :tag MEMBER OF p.tags AND p.isPublic = true")
+    Page<PromptSummary> findByTag(@Param("tag") String tag, Pageable pageable);
     
     // Check if user owns prompt
     Optional<Prompt> findByIdAndUserId(String id, String userId);
     
     // Get trending prompts (by view count)
-    Page<Prompt> findByIsPublicTrueOrderByViewCountDesc(Pageable pageable);
+    Page<PromptSummary> findSummariesByIsPublicTrueOrderByViewCountDesc(Pageable pageable);
     
     // Get top rated prompts
-    Page<Prompt> findByIsPublicTrueOrderByRatingDesc(Pageable pageable);
-}
\ No newline at end of file
+    Page<PromptSummary> findSummariesByIsPublicTrueOrderByRatingDesc(Pageable pageable);
+    
+    // Summaries for a set of IDs, in no particular order (search hydration)
+    List<PromptSummary> findSummariesByIdIn(Collection<String> ids);
+    
+    // Tags for a page of prompts as (promptId, tag) rows
+    @Query("SELECT p.id, t FROM Prompt p JOIN p.tags t WHERE p.id IN :ids")
+    List<Object[]> findTagsByPromptIds(@Param("ids") Collection<String> ids);
+    
+    // Which of the given IDs are committed rows (import cleanup after a failed chunk)
+    @Query("SELECT p.id FROM Prompt p WHERE p.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+    
+    // Keyset (seek) pagination: pass PageRequest.of(0, limit) and the last row's sort key + ID.
+    // List results skip the COUNT query that Page results would run.
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.isPublic = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<PromptSummary> findPublicFirstPage(Pageable limit);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.isPublic = true AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PromptSummary> findPublicAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") String id,
+                                        Pageable limit);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.category = :category AND p.isPublic = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<PromptSummary> findCategoryFirstPage(@Param("category") String category, Pageable limit);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.category = :category AND p.isPublic = true AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PromptSummary> findCategoryAfter(@Param("category") String category,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") String id, Pageable limit);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.isPublic = true ORDER BY p.viewCount DESC, p.id DESC")
+    List<PromptSummary> findMostViewedFirstPage(Pageable limit);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.isPublic = true AND " +
+           "(p.viewCount < :viewCount OR (p.viewCount = :viewCount AND p.id < :id)) " +
+           "ORDER BY p.viewCount DESC, p.id DESC")
+    List<PromptSummary> findMostViewedAfter(@Param("viewCount") Integer viewCount, @Param("id") String id,
+                                            Pageable limit);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.isPublic = true ORDER BY p.rating DESC, p.id DESC")
+    List<PromptSummary> findTopRatedFirstPage(Pageable limit);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.isPublic = true AND " +
+           "(p.rating < :rating OR (p.rating = :rating AND p.id < :id)) " +
+           "ORDER BY p.rating DESC, p.id DESC")
+    List<PromptSummary> findTopRatedAfter(@Param("rating") Double rating, @Param("id") String id,
+                                          Pageable limit);
+    
+    long countByIsPublicTrue();
+    
+    long countByCategoryAndIsPublicTrue(String category);
+    
+    // Fork tree below a prompt, breadth first: (id, forked_from_id, forked_from_version) rows.
+    // Forks the user cannot see are pruned with their subtrees; LIMIT stops the recursion early.
+    @Query(value = "WITH RECURSIVE tree AS (" +
+           "SELECT p.id, p.forked_from_id, p.forked_from_version, 0 AS depth FROM prompts p WHERE p.id = :rootId " +
+           "UNION ALL " +
+           "SELECT c.id, c.forked_from_id, c.forked_from_version, t.depth + 1 FROM prompts c " +
+           "JOIN tree t ON c.forked_from_id = t.id " +
+           "WHERE t.depth < :maxDepth AND (c.is_public = true OR c.user_id = :userId)) " +
+           "SELECT id, forked_from_id, forked_from_version FROM tree LIMIT :maxNodes", nativeQuery = true)
+    List<Object[]> findForkTree(@Param("rootId") String rootId, @Param("userId") String userId,
+                                @Param("maxDepth") int maxDepth, @Param("maxNodes") int maxNodes);
+    
+    // Server-side cursor over a user's prompts for streaming exports. Must be consumed
+    // inside a transaction (PostgreSQL only honours the fetch size with autocommit off).
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Prompt p LEFT JOIN FETCH p.body WHERE p.userId = :userId ORDER BY p.createdAt, p.id")
+    Stream<Prompt> streamByUserId(@Param("userId") String userId);
+    
+    // Walk all prompts in ID order (keyset batches for rebuilding in-memory indexes)
+    @Query("SELECT p FROM Prompt p LEFT JOIN FETCH p.body WHERE p.id > :afterId ORDER BY p.id")
+    List<Prompt> findBatchAfterId(@Param("afterId") String afterId, Pageable pageable);
+    
+    // Rows still holding their body inline (content-addressed storage migration)
+    @Query("SELECT p FROM Prompt p WHERE p.body IS NULL AND p.inlineContent IS NOT NULL ORDER BY p.id")
+    List<Prompt> findInlineContentBatch(Pageable pageable);
+    
+    // Prompts with exactly this body that the user may see
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.body.hash = :hash AND (p.isPublic = true OR p.userId = :userId) ORDER BY p.createdAt")
+    List<PromptSummary> findVisibleSummariesByContentHash(@Param("hash") String hash, @Param("userId") String userId,
+                                                          Pageable pageable);
+    
+    @Query("SELECT " + PromptSummary.SELECT_COLUMNS + " FROM Prompt p " +
+           "WHERE p.isPublic = true AND p.id > :afterId ORDER BY p.id")
+    List<PromptSummary> findPublicSummaryBatchAfterId(@Param("afterId") String afterId, Pageable pageable);
+    
+    /**
+     * Persisted like count of a prompt, without loading the prompt.
+     */
+    @Query("SELECT p.likeCount FROM Prompt p WHERE p.id = :id")
+    Optional<Integer> findLikeCount(@Param("id") String id);
+    
+    /**
+     * Persisted like and comment counts of a prompt with its rating aggregate, as one
+     * (likeCount, commentCount, ratingCount, ratingSum) row. The rating columns are
+     * null while the prompt is unrated.
+     */
+    @Query("SELECT p.likeCount, p.commentCount, a.ratingCount, a.ratingSum FROM Prompt p " +
+           "LEFT JOIN PromptRatingAggregate a ON a.promptId = p.id WHERE p.id = :id")
+    List<Object[]> findSocialCounts(@Param("id") String id);
+}
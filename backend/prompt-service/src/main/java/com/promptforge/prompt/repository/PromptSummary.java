@@ -0,0 +1,53 @@
+package com.promptforge.prompt.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of a prompt for list views. Selecting it reads only these
+ * columns, leaving out the content TEXT column and the tag collection.
+ */
+public interface PromptSummary {
+    
+    /**
+     * JPQL select list matching this projection, for use in @Query methods on "Prompt p".
+     */
+    String SELECT_COLUMNS = "p.id AS id, p.title AS title, p.description AS description, p.userId AS userId, " +
+            "p.username AS username, p.category AS category, p.isPublic AS isPublic, p.isFeatured AS isFeatured, " +
+            "p.viewCount AS viewCount, p.forkCount AS forkCount, p.likeCount AS likeCount, p.rating AS rating, " +
+            "p.ratingCount AS ratingCount, p.model AS model, p.version AS version, " +
+            "p.createdAt AS createdAt, p.updatedAt AS updatedAt";
+    
+    String getId();
+    
+    String getTitle();
+    
+    String getDescription();
+    
+    String getUserId();
+    
+    String getUsername();
+    
+    String getCategory();
+    
+    Boolean getIsPublic();
+    
+    Boolean getIsFeatured();
+    
+    Integer getViewCount();
+    
+    Integer getForkCount();
+    
+    Integer getLikeCount();
+    
+    Double getRating();
+    
+    Integer getRatingCount();
+    
+    String getModel();
+    
+    String getVersion();
+    
+    LocalDateTime getCreatedAt();
+    
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,32 @@
+package com.promptforge.prompt.repository;
+
+import com.promptforge.prompt.entity.PromptTrendingScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the shared trending scores. Writes are batched upserts issued by
+ * TrendingRanker; this interface only reads.
+ */
+@Repository
+public interface PromptTrendingScoreRepository extends JpaRepository<PromptTrendingScore, String> {
+
+    /**
+     * Latest write to any score, as a starting point for findChangedSince.
+     */
+    @Query("SELECT MAX(t.updatedAt) FROM PromptTrendingScore t")
+    LocalDateTime findLatestUpdate();
+
+    /**
+     * Scores written since the given time as (promptId, score, epochMillis, isPublic,
+     * updatedAt) rows. isPublic is null once the prompt has been deleted.
+     */
+    @Query("SELECT t.promptId, t.score, t.epochMillis, p.isPublic, t.updatedAt FROM PromptTrendingScore t " +
+           "LEFT JOIN Prompt p ON p.id = t.promptId WHERE t.updatedAt > :since")
+    List<Object[]> findChangedSince(@Param("since") LocalDateTime since);
+}
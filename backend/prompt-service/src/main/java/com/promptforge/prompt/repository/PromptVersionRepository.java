@@ -1,7 +1,10 @@
 package com.promptforge.prompt.repository;
 
 import com.promptforge.prompt.document.PromptVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +18,25 @@ public interface PromptVersionRepository extends MongoRepository<PromptVersion,
     Optional<PromptVersion> findByPromptIdAndVersion(String promptId, String version);
     
     Long countByPromptId(String promptId);
+    
+    // Chain order: legacy documents without a sequence sort first, by creation time
+    List<PromptVersion> findByPromptIdOrderBySequenceAscCreatedAtAsc(String promptId);
+    
+    // Version metadata only: text fields and deltas are not read
+    @Query(value = "{ 'promptId': ?0 }",
+           fields = "{ 'content': 0, 'title': 0, 'description': 0, " +
+                    "'contentDelta': 0, 'titleDelta': 0, 'descriptionDelta': 0 }")
+    Page<PromptVersion> findMetadataByPromptId(String promptId, Pageable pageable);
+    
+    // Delta chains: the latest version, the nearest snapshot and the versions up to a target
+    
+    Optional<PromptVersion> findTopByPromptIdOrderBySequenceDesc(String promptId);
+    
+    Optional<PromptVersion> findByPromptIdAndSequence(String promptId, Integer sequence);
+    
+    Optional<PromptVersion> findTopByPromptIdAndSnapshotTrueAndSequenceLessThanEqualOrderBySequenceDesc(
+            String promptId, Integer sequence);
+    
+    @Query(value = "{ 'promptId': ?0, 'sequence': { $gte: ?1, $lte: ?2 } }", sort = "{ 'sequence': 1 }")
+    List<PromptVersion> findChain(String promptId, Integer fromSequence, Integer toSequence);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.promptforge.prompt.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted browse, newest first, plus the total number of matching
+ * prompts and the facet counts for refining the filter.
+ */
+@Getter
+@AllArgsConstructor
+public class FacetHits {
+
+    private final List<String> promptIds;
+
+    private final long totalHits;
+
+    // Facet name -> value -> number of prompts, most prompts first
+    private final Map<String, Map<String, Long>> facets;
+}
@@ -0,0 +1,519 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.repository.PromptRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Bitmap index of public prompts by category, tag, model and featured flag for
+ * combined filtering. Every prompt gets a dense ordinal, and each facet value keeps
+ * a compressed (Roaring) bitmap of the ordinals that have it, so a filter is a
+ * handful of bitmap intersections and a facet count is one intersection
+ * cardinality per value; neither touches PostgreSQL.
+ * <p>
+ * Category, model and featured counts are computed without their own filter, so a
+ * client can offer the alternatives to the current choice. Tags are combined with
+ * AND, so their counts are computed within the current result.
+ * <p>
+ * Like the other search indexes, it is kept current from PromptChangedEvents and
+ * rebuilt from PostgreSQL on cold start. Ordinals of removed prompts are not
+ * reused; a rebuild compacts them.
+ * <p>
+ * A rebuild assigns ordinals in createdAt order, and new prompts are appended, so a
+ * result page is read newest first by walking the result bitmap backwards and
+ * stopping after offset + limit matches. A prompt appended out of order (e.g. an
+ * old prompt made public again) switches paging to a bounded heap over every match
+ * until the next rebuild restores the order.
+ */
+@Slf4j
+@Component
+public class FacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String TAG = "tag";
+    public static final String MODEL = "model";
+    public static final String FEATURED = "featured";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Newest first, ties by ID for a stable order across pages
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+            .comparing((Entry e) -> e.createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(e -> e.promptId);
+
+    private final PromptRepository promptRepository;
+    private final boolean rebuildOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexState state = new IndexState();
+    private IndexState rebuilding; // Receives live changes while a rebuild is running
+    private volatile boolean ready;
+
+    public FacetIndex(PromptRepository promptRepository,
+                      @Value("${promptforge.facets.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.promptRepository = promptRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Whether the index has been fully built and can serve queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds public prompts matching every given filter, newest first.
+     *
+     * @param category Required category, or null for any
+     * @param tags Tags that must all be present (may be empty)
+     * @param model Required model, or null for any
+     * @param featured Required featured flag, or null for any
+     * @param offset Number of matches to skip
+     * @param limit Maximum number of prompt IDs to return
+     * @param facetLimit Maximum number of values per facet
+     */
+    public FacetHits browse(String category, Collection<String> tags, String model, Boolean featured,
+                            int offset, int limit, int facetLimit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoryFilter = category == null ? null : bitmap(state.categories, category);
+            RoaringBitmap modelFilter = model == null ? null : bitmap(state.models, model);
+            RoaringBitmap featuredFilter = featured == null ? null
+                    : featured ? state.featured : RoaringBitmap.andNot(state.all, state.featured);
+
+            Set<String> selectedTags = new HashSet<>();
+            List<RoaringBitmap> tagFilters = new ArrayList<>();
+            for (String tag : tags) {
+                String t = normalizeTag(tag);
+                if (!t.isEmpty() && selectedTags.add(t)) {
+                    tagFilters.add(bitmap(state.tags, t));
+                }
+            }
+            // Smallest first, so the running intersection shrinks as early as possible
+            tagFilters.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+
+            RoaringBitmap byTags = intersect(state.all, tagFilters);
+            RoaringBitmap withoutCategory = intersect(byTags, modelFilter, featuredFilter);
+            RoaringBitmap result = intersect(withoutCategory, categoryFilter);
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, countValues(state.categories, withoutCategory, Set.of(), facetLimit));
+            facets.put(TAG, countTags(result, selectedTags, facetLimit));
+            facets.put(MODEL, countValues(state.models, intersect(byTags, categoryFilter, featuredFilter),
+                    Set.of(), facetLimit));
+            RoaringBitmap withoutFeatured = intersect(byTags, categoryFilter, modelFilter);
+            long featuredCount = RoaringBitmap.andCardinality(withoutFeatured, state.featured);
+            Map<String, Long> featuredCounts = new LinkedHashMap<>();
+            featuredCounts.put("true", featuredCount);
+            featuredCounts.put("false", withoutFeatured.getLongCardinality() - featuredCount);
+            facets.put(FEATURED, featuredCounts);
+
+            return new FacetHits(newest(result, offset, limit), result.getLongCardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a prompt. Private prompts are removed.
+     */
+    public void index(Prompt prompt) {
+        if (!Boolean.TRUE.equals(prompt.getIsPublic())) {
+            remove(prompt.getId());
+            return;
+        }
+        Entry entry = new Entry(prompt.getId(), prompt.getCategory(), prompt.getModel(), prompt.getTags(),
+                Boolean.TRUE.equals(prompt.getIsFeatured()), prompt.getCreatedAt(), prompt.getUpdatedAt());
+        lock.writeLock().lock();
+        try {
+            state.put(entry);
+            if (rebuilding != null) {
+                rebuilding.tombstones.remove(prompt.getId()); // Made public again during the rebuild
+                rebuilding.putIfNewer(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a prompt from the index.
+     */
+    public void remove(String promptId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(promptId);
+            if (rebuilding != null) {
+                rebuilding.remove(promptId);
+                rebuilding.tombstones.add(promptId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getPromptId());
+        } else {
+            index(event.getPrompt());
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from PostgreSQL. Queries keep using the previous index
+     * until the rebuild completes; changes made during the rebuild are applied to both.
+     *
+     * @return Statistics about the rebuilt index
+     */
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding facet index from database");
+
+        IndexState fresh = new IndexState();
+        IndexState built;
+        lock.writeLock().lock();
+        try {
+            rebuilding = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            String afterId = "";
+            List<PromptSummary> batch;
+            do {
+                batch = promptRepository.findPublicSummaryBatchAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<String, Set<String>> tags = new HashMap<>();
+                for (Object[] row : promptRepository.findTagsByPromptIds(
+                        batch.stream().map(PromptSummary::getId).collect(Collectors.toList()))) {
+                    tags.computeIfAbsent((String) row[0], k -> new HashSet<>()).add((String) row[1]);
+                }
+                lock.writeLock().lock();
+                try {
+                    for (PromptSummary summary : batch) {
+                        fresh.putIfNewer(new Entry(summary.getId(), summary.getCategory(), summary.getModel(),
+                                tags.getOrDefault(summary.getId(), Set.of()),
+                                Boolean.TRUE.equals(summary.getIsFeatured()), summary.getCreatedAt(),
+                                summary.getUpdatedAt()));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                built = fresh.inCreatedOrder();
+                built.optimize();
+                state = built;
+                rebuilding = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Failed to rebuild facet index", e);
+            throw e;
+        }
+
+        long tookMs = System.currentTimeMillis() - start;
+        log.info("Facet index rebuilt: {} prompts, {} categories, {} tags, {} models in {} ms",
+                built.ordinals.size(), built.categories.size(), built.tags.size(), built.models.size(), tookMs);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexedPrompts", built.ordinals.size());
+        stats.put("categories", built.categories.size());
+        stats.put("tags", built.tags.size());
+        stats.put("models", built.models.size());
+        stats.put("bitmapBytes", built.sizeInBytes());
+        stats.put("tookMs", tookMs);
+        return stats;
+    }
+
+    private List<String> newest(RoaringBitmap result, int offset, int limit) {
+        int wanted = offset + limit;
+        if (limit <= 0 || result.getLongCardinality() <= offset) {
+            return List.of();
+        }
+        if (state.createdOrder) {
+            // Higher ordinals are newer, so the page is the tail of the bitmap read backwards
+            List<String> page = new ArrayList<>(limit);
+            IntIterator it = result.getReverseIntIterator();
+            for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+                it.next();
+            }
+            while (page.size() < limit && it.hasNext()) {
+                page.add(state.byOrdinal.get(it.next()).promptId);
+            }
+            return page;
+        }
+        // Bounded heap holding the newest `wanted` matches, oldest on top
+        PriorityQueue<Entry> heap = new PriorityQueue<>(wanted + 1, NEWEST_FIRST.reversed());
+        IntIterator it = result.getIntIterator();
+        while (it.hasNext()) {
+            heap.add(state.byOrdinal.get(it.next()));
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+        List<Entry> page = new ArrayList<>(heap);
+        page.sort(NEWEST_FIRST);
+        return page.subList(Math.min(offset, page.size()), page.size()).stream()
+                .map(e -> e.promptId)
+                .collect(Collectors.toList());
+    }
+
+    private static Map<String, Long> countValues(Map<String, RoaringBitmap> values, RoaringBitmap within,
+                                                 Set<String> exclude, int limit) {
+        Map<String, Long> counts = new HashMap<>();
+        if (!within.isEmpty()) {
+            for (Map.Entry<String, RoaringBitmap> value : values.entrySet()) {
+                long count = RoaringBitmap.andCardinality(value.getValue(), within);
+                if (count > 0 && !exclude.contains(value.getKey())) {
+                    counts.put(value.getKey(), count);
+                }
+            }
+        }
+        return top(counts, limit);
+    }
+
+    private Map<String, Long> countTags(RoaringBitmap result, Set<String> selected, int limit) {
+        // A narrow result is cheaper to count from its prompts than from every tag's bitmap
+        if (result.getLongCardinality() >= state.tags.size()) {
+            return countValues(state.tags, result, selected, limit);
+        }
+        Map<String, Long> counts = new HashMap<>();
+        IntIterator it = result.getIntIterator();
+        while (it.hasNext()) {
+            for (String tag : state.byOrdinal.get(it.next()).tags) {
+                if (!selected.contains(tag)) {
+                    counts.merge(tag, 1L, Long::sum);
+                }
+            }
+        }
+        return top(counts, limit);
+    }
+
+    private static Map<String, Long> top(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static RoaringBitmap bitmap(Map<String, RoaringBitmap> values, String value) {
+        RoaringBitmap bitmap = values.get(value);
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap base, RoaringBitmap... filters) {
+        return intersect(base, Arrays.asList(filters)); // Filters may be null
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap base, List<RoaringBitmap> filters) {
+        RoaringBitmap result = base;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private static String normalizeTag(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A complete, self-contained index. Guarded by the enclosing read/write lock.
+     */
+    private static final class IndexState {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<Entry> byOrdinal = new ArrayList<>(); // null for removed prompts
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final RoaringBitmap featured = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> categories = new HashMap<>();
+        private final Map<String, RoaringBitmap> tags = new HashMap<>();
+        private final Map<String, RoaringBitmap> models = new HashMap<>();
+        private final Set<String> tombstones = new HashSet<>();
+        private boolean createdOrder = true; // Ordinals ascend in createdAt order (NEWEST_FIRST reversed)
+        private Entry lastAppended;
+
+        void putIfNewer(Entry entry) {
+            if (tombstones.contains(entry.promptId)) {
+                return;
+            }
+            Integer ordinal = ordinals.get(entry.promptId);
+            Entry existing = ordinal != null ? byOrdinal.get(ordinal) : null;
+            if (existing != null && existing.updatedAt != null && entry.updatedAt != null
+                    && !entry.updatedAt.isAfter(existing.updatedAt)) {
+                return;
+            }
+            put(entry);
+        }
+
+        void put(Entry entry) {
+            Integer ordinal = ordinals.get(entry.promptId);
+            if (ordinal != null) {
+                clear(ordinal, byOrdinal.get(ordinal));
+            } else {
+                ordinal = byOrdinal.size();
+                byOrdinal.add(null);
+                ordinals.put(entry.promptId, ordinal);
+                if (lastAppended != null && NEWEST_FIRST.compare(entry, lastAppended) > 0) {
+                    createdOrder = false;
+                }
+                lastAppended = entry;
+            }
+            byOrdinal.set(ordinal, entry);
+
+            all.add(ordinal);
+            if (entry.featured) {
+                featured.add(ordinal);
+            }
+            if (entry.category != null) {
+                categories.computeIfAbsent(entry.category, k -> new RoaringBitmap()).add(ordinal);
+            }
+            if (entry.model != null) {
+                models.computeIfAbsent(entry.model, k -> new RoaringBitmap()).add(ordinal);
+            }
+            for (String tag : entry.tags) {
+                tags.computeIfAbsent(tag, k -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+
+        void remove(String promptId) {
+            Integer ordinal = ordinals.remove(promptId);
+            if (ordinal != null) {
+                clear(ordinal, byOrdinal.get(ordinal));
+                byOrdinal.set(ordinal, null);
+            }
+        }
+
+        private void clear(int ordinal, Entry entry) {
+            all.remove(ordinal);
+            featured.remove(ordinal);
+            clear(categories, entry.category, ordinal);
+            clear(models, entry.model, ordinal);
+            for (String tag : entry.tags) {
+                clear(tags, tag, ordinal);
+            }
+        }
+
+        private static void clear(Map<String, RoaringBitmap> values, String value, int ordinal) {
+            if (value == null) {
+                return;
+            }
+            RoaringBitmap bitmap = values.get(value);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    values.remove(value);
+                }
+            }
+        }
+
+        // Copy of the live entries with ordinals reassigned oldest first
+        IndexState inCreatedOrder() {
+            IndexState sorted = new IndexState();
+            byOrdinal.stream()
+                    .filter(Objects::nonNull)
+                    .sorted(NEWEST_FIRST.reversed())
+                    .forEach(sorted::put);
+            return sorted;
+        }
+
+        // Converts long runs of ordinals (e.g. a popular category) to run-length containers
+        void optimize() {
+            all.runOptimize();
+            featured.runOptimize();
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            tags.values().forEach(RoaringBitmap::runOptimize);
+            models.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        long sizeInBytes() {
+            long bytes = all.getLongSizeInBytes() + featured.getLongSizeInBytes();
+            for (Map<String, RoaringBitmap> values : List.of(categories, tags, models)) {
+                for (RoaringBitmap bitmap : values.values()) {
+                    bytes += bitmap.getLongSizeInBytes();
+                }
+            }
+            return bytes;
+        }
+    }
+
+    private static final class Entry {
+        private final String promptId;
+        private final String category;
+        private final String model;
+        private final Set<String> tags;
+        private final boolean featured;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+
+        Entry(String promptId, String category, String model, Collection<String> tags, boolean featured,
+              LocalDateTime createdAt, LocalDateTime updatedAt) {
+            this.promptId = promptId;
+            this.category = category;
+            this.model = model == null || model.isBlank() ? null : model;
+            this.tags = tags == null ? Set.of() : tags.stream()
+                    .map(FacetIndex::normalizeTag)
+                    .filter(t -> !t.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+            this.featured = featured;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.promptforge.prompt.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic embedder based on feature hashing: every word and every character
+ * trigram of a word is hashed to a signed dimension, weighted by 1 + ln(tf), and the
+ * vector is L2-normalized. It needs no model files and runs offline. Similarity is
+ * lexical with some tolerance for inflection ("summarize" / "summary" share trigrams);
+ * plug in a learned embedder for paraphrases with no words in common.
+ */
+public final class HashingEmbedder implements PromptEmbedder {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.35f;
+    private static final long WORD_SEED = 0x77_6f72_64L;
+    private static final long TRIGRAM_SEED = 0x74_7269_67L;
+
+    private final int dimensions;
+
+    public HashingEmbedder(int dimensions) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("dimensions must be positive");
+        }
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public String name() {
+        return "hashing-v1";
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        List<String> tokens = TextTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, Integer> words = new HashMap<>();
+        Map<Long, Integer> trigrams = new HashMap<>();
+        for (String token : tokens) {
+            words.merge(hash(token, WORD_SEED), 1, Integer::sum);
+            String padded = "#" + token + "#";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.merge(hash(padded.substring(i, i + 3), TRIGRAM_SEED), 1, Integer::sum);
+            }
+        }
+
+        float[] vector = new float[dimensions];
+        add(vector, words, WORD_WEIGHT);
+        add(vector, trigrams, TRIGRAM_WEIGHT);
+
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            return null;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private void add(float[] vector, Map<Long, Integer> features, float weight) {
+        for (Map.Entry<Long, Integer> feature : features.entrySet()) {
+            long h = feature.getKey();
+            int dimension = (int) Math.floorMod(h, (long) dimensions);
+            // An independent bit picks the sign, so colliding features tend to cancel rather than add up
+            float sign = (h >>> 63) == 0 ? 1f : -1f;
+            vector[dimension] += sign * weight * (float) (1 + Math.log(feature.getValue()));
+        }
+    }
+
+    private static long hash(String feature, long seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return MinHash.mix(h);
+    }
+}
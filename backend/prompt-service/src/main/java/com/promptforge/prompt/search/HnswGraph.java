@@ -0,0 +1,306 @@
+package com.promptforge.prompt.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) for approximate
+ * nearest-neighbour search by dot product over the unit vectors in a VectorStore.
+ * Each node appears on level 0 and, with geometrically falling probability, on
+ * higher levels; a search descends greedily through the sparse upper levels and
+ * then runs a best-first search of width ef on level 0, visiting O(log n) nodes
+ * for a good recall instead of scanning every vector.
+ * <p>
+ * Nodes are never removed. Callers hide replaced or deleted vectors through the
+ * accept filter; they still route searches to their neighbours.
+ * <p>
+ * Not thread-safe; VectorIndex guards it with its read/write lock.
+ */
+public final class HnswGraph {
+
+    private static final int MAX_LEVEL = 16;
+
+    private static final Comparator<Neighbor> CLOSEST_FIRST =
+            Comparator.comparingDouble(Neighbor::getSimilarity).reversed();
+    private static final Comparator<Neighbor> FARTHEST_FIRST =
+            Comparator.comparingDouble(Neighbor::getSimilarity);
+
+    private final VectorStore vectors;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+
+    // links.get(node)[level] holds the node's neighbours on that level
+    private final List<int[][]> links = new ArrayList<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * @param m Neighbours per node on upper levels; level 0 keeps 2m
+     * @param efConstruction Search width while inserting; higher builds a better graph more slowly
+     * @param seed Seed for level assignment
+     */
+    public HnswGraph(VectorStore vectors, int m, int efConstruction, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2");
+        }
+        this.vectors = vectors;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * A node and its dot product with the query.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Neighbor {
+        private final int node;
+        private final float similarity;
+    }
+
+    public int size() {
+        return links.size();
+    }
+
+    /**
+     * Links the next vector of the store into the graph. Vectors must be added in
+     * ordinal order.
+     */
+    public void add(int node) {
+        if (node != links.size()) {
+            throw new IllegalArgumentException("Expected node " + links.size() + ", got " + node);
+        }
+        int level = Math.min((int) (-Math.log(1 - random.nextDouble()) * levelMultiplier), MAX_LEVEL);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[0];
+        }
+        links.add(nodeLinks);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        float[] query = vectors.get(node);
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = searchLayer(query, current, 1, l, null).get(0).getNode();
+        }
+        List<Neighbor> entryPoints = List.of(new Neighbor(current, vectors.dot(query, current)));
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Neighbor> candidates = searchLayer(query, entryPoints, efConstruction, l, null);
+            List<Neighbor> selected = selectNeighbors(candidates, m);
+            nodeLinks[l] = nodes(selected);
+            for (Neighbor neighbor : selected) {
+                connect(neighbor.getNode(), node, l);
+            }
+            entryPoints = candidates;
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    /**
+     * Approximate k nearest accepted nodes to the query, most similar first.
+     *
+     * @param ef Search width on level 0; raised to k if smaller
+     * @param accept Which nodes may be returned (all if null); rejected nodes are still traversed
+     */
+    public List<Neighbor> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = searchLayer(query, current, 1, l, null).get(0).getNode();
+        }
+        List<Neighbor> found = searchLayer(query, List.of(new Neighbor(current, vectors.dot(query, current))),
+                Math.max(ef, k), 0, accept);
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    private List<Neighbor> searchLayer(float[] query, int entry, int ef, int level, IntPredicate accept) {
+        return searchLayer(query, List.of(new Neighbor(entry, vectors.dot(query, entry))), ef, level, accept);
+    }
+
+    private List<Neighbor> searchLayer(float[] query, List<Neighbor> entryPoints, int ef, int level,
+                                       IntPredicate accept) {
+        BitSet visited = new BitSet(links.size());
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>(CLOSEST_FIRST);
+        PriorityQueue<Neighbor> results = new PriorityQueue<>(FARTHEST_FIRST);
+        for (Neighbor entry : entryPoints) {
+            visited.set(entry.getNode());
+            candidates.add(entry);
+            if (accept == null || accept.test(entry.getNode())) {
+                results.add(entry);
+            }
+        }
+        while (results.size() > ef) {
+            results.poll();
+        }
+
+        while (!candidates.isEmpty()) {
+            Neighbor closest = candidates.poll();
+            if (results.size() >= ef && closest.getSimilarity() < results.peek().getSimilarity()) {
+                break; // Every remaining candidate is farther than the worst result
+            }
+            for (int next : links.get(closest.getNode())[level]) {
+                if (visited.get(next)) {
+                    continue;
+                }
+                visited.set(next);
+                float similarity = vectors.dot(query, next);
+                if (results.size() < ef || similarity > results.peek().getSimilarity()) {
+                    Neighbor neighbor = new Neighbor(next, similarity);
+                    candidates.add(neighbor);
+                    if (accept == null || accept.test(next)) {
+                        results.add(neighbor);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> sorted = new ArrayList<>(results);
+        sorted.sort(CLOSEST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * Heuristic neighbour selection: a candidate is kept only if it is closer to the
+     * base node than to every neighbour kept so far, which spreads links across
+     * directions and keeps clusters connected. Remaining slots are filled with the
+     * closest pruned candidates.
+     */
+    private List<Neighbor> selectNeighbors(List<Neighbor> candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates;
+        }
+        List<Neighbor> selected = new ArrayList<>(max);
+        List<float[]> selectedVectors = new ArrayList<>(max);
+        List<Neighbor> pruned = new ArrayList<>();
+        for (Neighbor candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] vector = vectors.get(candidate.getNode());
+            boolean diverse = true;
+            for (float[] kept : selectedVectors) {
+                if (dot(vector, kept) > candidate.getSimilarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+                selectedVectors.add(vector);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; selected.size() < max && i < pruned.size(); i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    private void connect(int node, int neighbor, int level) {
+        int[] existing = links.get(node)[level];
+        int max = level == 0 ? 2 * m : m;
+        if (existing.length < max) {
+            int[] grown = Arrays.copyOf(existing, existing.length + 1);
+            grown[existing.length] = neighbor;
+            links.get(node)[level] = grown;
+            return;
+        }
+        // Full: re-select among the current neighbours plus the new one
+        float[] base = vectors.get(node);
+        List<Neighbor> candidates = new ArrayList<>(existing.length + 1);
+        for (int n : existing) {
+            candidates.add(new Neighbor(n, vectors.dot(base, n)));
+        }
+        candidates.add(new Neighbor(neighbor, vectors.dot(base, neighbor)));
+        candidates.sort(CLOSEST_FIRST);
+        links.get(node)[level] = nodes(selectNeighbors(candidates, max));
+    }
+
+    private static int[] nodes(List<Neighbor> neighbors) {
+        int[] nodes = new int[neighbors.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = neighbors.get(i).getNode();
+        }
+        return nodes;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Writes the graph structure; vectors are persisted by the VectorStore.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(links.size());
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        for (int[][] nodeLinks : links) {
+            out.writeByte(nodeLinks.length);
+            for (int[] level : nodeLinks) {
+                out.writeShort(level.length);
+                for (int n : level) {
+                    out.writeInt(n);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a graph written by {@link #write} over the same vectors.
+     */
+    public static HnswGraph read(DataInput in, VectorStore vectors, int m, int efConstruction, long seed)
+            throws IOException {
+        HnswGraph graph = new HnswGraph(vectors, m, efConstruction, seed);
+        int size = in.readInt();
+        graph.entryPoint = in.readInt();
+        graph.maxLevel = in.readInt();
+        for (int node = 0; node < size; node++) {
+            int[][] nodeLinks = new int[in.readUnsignedByte()][];
+            for (int l = 0; l < nodeLinks.length; l++) {
+                int[] level = new int[in.readUnsignedShort()];
+                for (int i = 0; i < level.length; i++) {
+                    level[i] = in.readInt();
+                }
+                nodeLinks[l] = level;
+            }
+            graph.links.add(nodeLinks);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,99 @@
+package com.promptforge.prompt.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over word shingles. The fraction of positions at which two
+ * signatures agree is an unbiased estimate of the Jaccard similarity of the two
+ * shingle sets, with a standard error of about sqrt(J(1-J)/numHashes).
+ */
+public final class MinHash {
+
+    private final int shingleSize;
+    private final long[] seeds;
+
+    /**
+     * @param numHashes Signature length
+     * @param shingleSize Words per shingle
+     * @param seed Seed for the hash family; signatures are only comparable for equal seeds
+     */
+    public MinHash(int numHashes, int shingleSize, long seed) {
+        this.shingleSize = shingleSize;
+        this.seeds = new SplittableRandom(seed).longs(numHashes).toArray();
+    }
+
+    public int numHashes() {
+        return seeds.length;
+    }
+
+    /**
+     * Computes the signature of a text, or null if it has no tokens. Stop words are
+     * kept so that shingles preserve word order.
+     */
+    public int[] signature(String text) {
+        Set<Long> shingles = shingles(TextTokenizer.tokenize(text, false));
+        if (shingles.isEmpty()) {
+            return null;
+        }
+
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < seeds.length; i++) {
+                int h = (int) (mix(shingle ^ seeds[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the texts behind two signatures.
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    private Set<Long> shingles(List<String> tokens) {
+        Set<Long> shingles = new HashSet<>();
+        int size = Math.min(shingleSize, tokens.size());
+        for (int start = 0; start + size <= tokens.size(); start++) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = start; i < start + size; i++) {
+                h = fnv1a(h, tokens.get(i));
+                h = (h ^ ' ') * 0x100000001b3L;
+            }
+            shingles.add(h);
+        }
+        return shingles;
+    }
+
+    private static long fnv1a(long h, String token) {
+        for (byte b : token.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * SplitMix64 finalizer: turns one shingle hash into independent-looking values per seed.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
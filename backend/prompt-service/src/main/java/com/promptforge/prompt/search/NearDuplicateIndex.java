@@ -0,0 +1,355 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.repository.PromptRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locality-sensitive hashing index of prompt content for near-duplicate detection.
+ * Each prompt's MinHash signature is cut into bands, and prompts sharing any band
+ * land in the same bucket; a query only compares against its bucket-mates, so its
+ * cost follows the number of similar prompts rather than the catalog size. With
+ * b bands of r rows, a pair with Jaccard similarity s becomes a candidate with
+ * probability 1 - (1 - s^r)^b, which is near 1 above roughly (1/b)^(1/r).
+ * <p>
+ * Like PromptSearchIndex, it is kept current from PromptChangedEvents and rebuilt
+ * from PostgreSQL on cold start.
+ */
+@Slf4j
+@Component
+public class NearDuplicateIndex {
+
+    private static final int SHINGLE_SIZE = 3;
+    private static final long HASH_SEED = 0x5eed_1dea_f00dL;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Guards against boilerplate bodies that put a large share of the catalog in one bucket
+    private static final int MAX_CANDIDATES = 10_000;
+
+    private final PromptRepository promptRepository;
+    private final MinHash minHash;
+    private final int bands;
+    private final int rows;
+    private final boolean rebuildOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexState state = new IndexState();
+    private IndexState rebuilding; // Receives live changes while a rebuild is running
+    private volatile boolean ready;
+
+    public NearDuplicateIndex(PromptRepository promptRepository,
+                              @Value("${promptforge.near-duplicates.num-hashes:128}") int numHashes,
+                              @Value("${promptforge.near-duplicates.bands:32}") int bands,
+                              @Value("${promptforge.near-duplicates.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        if (bands <= 0 || numHashes % bands != 0) {
+            throw new IllegalArgumentException("num-hashes must be a multiple of bands");
+        }
+        this.promptRepository = promptRepository;
+        this.minHash = new MinHash(numHashes, SHINGLE_SIZE, HASH_SEED);
+        this.bands = bands;
+        this.rows = numHashes / bands;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * A prompt whose content is estimated to overlap the queried prompt's.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final String promptId;
+        private final double similarity;
+    }
+
+    /**
+     * Whether the index has been fully built and can serve queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds prompts whose content is estimated to be at least {@code threshold}
+     * similar (Jaccard over word 3-shingles) to an indexed prompt, most similar first.
+     *
+     * @param promptId The indexed prompt to compare against
+     * @param threshold Minimum estimated similarity, 0..1
+     * @param limit Maximum number of matches
+     * @param viewerId Only public prompts and prompts owned by this user are returned (may be null)
+     * @return Matches, excluding the prompt itself; empty if the prompt is not indexed
+     */
+    public List<Match> findSimilar(String promptId, double threshold, int limit, String viewerId) {
+        lock.readLock().lock();
+        try {
+            Entry source = state.entries.get(promptId);
+            if (source == null) {
+                return List.of();
+            }
+
+            // The cap applies per member, so one oversized bucket cannot blow past it
+            Set<String> candidates = new HashSet<>();
+            collect:
+            for (int band = 0; band < bands; band++) {
+                Set<String> bucket = state.buckets.get(bandKey(source.signature, band));
+                if (bucket == null) {
+                    continue;
+                }
+                for (String member : bucket) {
+                    if (!member.equals(promptId) && candidates.add(member) && candidates.size() >= MAX_CANDIDATES) {
+                        break collect;
+                    }
+                }
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (String candidateId : candidates) {
+                Entry candidate = state.entries.get(candidateId);
+                if (candidate == null || !(candidate.isPublic || Objects.equals(candidate.userId, viewerId))) {
+                    continue;
+                }
+                double similarity = Objects.equals(candidate.contentHash, source.contentHash) && source.contentHash != null
+                        ? 1.0
+                        : MinHash.similarity(source.signature, candidate.signature);
+                if (similarity >= threshold) {
+                    matches.add(new Match(candidateId, similarity));
+                }
+            }
+
+            matches.sort(Comparator.comparingDouble(Match::getSimilarity).reversed()
+                    .thenComparing(Match::getPromptId));
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a prompt. The signature is only recomputed when the content changed.
+     */
+    public void index(Prompt prompt) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = toEntry(prompt, state.entries.get(prompt.getId()));
+            state.put(prompt.getId(), entry);
+            if (rebuilding != null) {
+                rebuilding.putIfNewer(prompt.getId(), entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a prompt from the index.
+     */
+    public void remove(String promptId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(promptId);
+            if (rebuilding != null) {
+                rebuilding.remove(promptId);
+                rebuilding.tombstones.add(promptId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getPromptId());
+        } else {
+            index(event.getPrompt());
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from PostgreSQL. Queries keep using the previous index
+     * until the rebuild completes; changes made during the rebuild are applied to both.
+     *
+     * @return Statistics about the rebuilt index
+     */
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding near-duplicate index from database");
+
+        IndexState fresh = new IndexState();
+        lock.writeLock().lock();
+        try {
+            rebuilding = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            String afterId = "";
+            List<Prompt> batch;
+            do {
+                batch = promptRepository.findBatchAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                // Signatures are the expensive part; compute them outside the lock
+                List<Entry> entries = new ArrayList<>(batch.size());
+                for (Prompt prompt : batch) {
+                    entries.add(toEntry(prompt, null));
+                }
+                lock.writeLock().lock();
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        fresh.putIfNewer(batch.get(i).getId(), entries.get(i));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                fresh.tombstones.clear();
+                state = fresh;
+                rebuilding = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Failed to rebuild near-duplicate index", e);
+            throw e;
+        }
+
+        long tookMs = System.currentTimeMillis() - start;
+        log.info("Near-duplicate index rebuilt: {} prompts, {} buckets in {} ms", fresh.entries.size(),
+                fresh.buckets.size(), tookMs);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexedPrompts", fresh.entries.size());
+        stats.put("buckets", fresh.buckets.size());
+        stats.put("bands", bands);
+        stats.put("rowsPerBand", rows);
+        stats.put("tookMs", tookMs);
+        return stats;
+    }
+
+    private Entry toEntry(Prompt prompt, Entry existing) {
+        String contentHash = prompt.getContentHash();
+        int[] signature = existing != null && contentHash != null && contentHash.equals(existing.contentHash)
+                ? existing.signature
+                : minHash.signature(prompt.getContent());
+        return new Entry(prompt.getUserId(), Boolean.TRUE.equals(prompt.getIsPublic()), contentHash, signature,
+                prompt.getUpdatedAt());
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long h = MinHash.mix(band + 1L);
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            h = MinHash.mix(h ^ signature[i]);
+        }
+        return h;
+    }
+
+    /**
+     * A complete, self-contained index. Guarded by the enclosing read/write lock.
+     */
+    private final class IndexState {
+
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final Map<Long, Set<String>> buckets = new HashMap<>();
+        private final Set<String> tombstones = new HashSet<>();
+
+        void putIfNewer(String promptId, Entry entry) {
+            if (tombstones.contains(promptId)) {
+                return;
+            }
+            Entry existing = entries.get(promptId);
+            if (existing != null && existing.updatedAt != null && entry.updatedAt != null
+                    && !entry.updatedAt.isAfter(existing.updatedAt)) {
+                return;
+            }
+            put(promptId, entry);
+        }
+
+        void put(String promptId, Entry entry) {
+            Entry existing = entries.get(promptId);
+            if (existing != null && existing.signature == entry.signature) {
+                entries.put(promptId, entry); // Same content, buckets unchanged
+                return;
+            }
+            remove(promptId);
+            if (entry.signature == null) {
+                return;
+            }
+            entries.put(promptId, entry);
+            for (int band = 0; band < bands; band++) {
+                buckets.computeIfAbsent(bandKey(entry.signature, band), k -> new HashSet<>()).add(promptId);
+            }
+        }
+
+        void remove(String promptId) {
+            Entry existing = entries.remove(promptId);
+            if (existing == null) {
+                return;
+            }
+            for (int band = 0; band < bands; band++) {
+                long key = bandKey(existing.signature, band);
+                Set<String> bucket = buckets.get(key);
+                if (bucket != null && bucket.remove(promptId) && bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String userId;
+        private final boolean isPublic;
+        private final String contentHash;
+        private final int[] signature;
+        private final LocalDateTime updatedAt;
+
+        Entry(String userId, boolean isPublic, String contentHash, int[] signature, LocalDateTime updatedAt) {
+            this.userId = userId;
+            this.isPublic = isPublic;
+            this.contentHash = contentHash;
+            this.signature = signature;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.promptforge.prompt.search;
+
+/**
+ * Turns prompt text into a fixed-length, L2-normalized vector whose dot product with
+ * another embedding measures how alike the two texts are. Implementations run on the
+ * CPU in-process; declare a bean of this type to replace the default HashingEmbedder.
+ */
+public interface PromptEmbedder {
+
+    /**
+     * Identifies the model and its settings. Persisted vectors are only reused when the
+     * name and dimensions match the embedder in use.
+     */
+    String name();
+
+    int dimensions();
+
+    /**
+     * Embeds a text, or returns null if it has nothing to embed.
+     */
+    float[] embed(String text);
+}
@@ -0,0 +1,536 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.repository.PromptRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over prompt title, description, tags and content.
+ * Queries are ranked with BM25 and the last query token is treated as a prefix so
+ * search-as-you-type works. The index is kept current from PromptChangedEvents and
+ * can be rebuilt from PostgreSQL on cold start.
+ * <p>
+ * Posting lists are sorted by document ordinal and scored document at a time with
+ * MaxScore pruning: once enough hits are counted and the requested page is full,
+ * terms that cannot lift a document above the page are only probed for documents
+ * the other terms matched. Common terms therefore stop costing a full walk of
+ * their posting lists.
+ */
+@Slf4j
+@Component
+public class PromptSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field weights are applied as term frequency multipliers (a simple BM25F)
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float PREFIX_MATCH_BOOST = 0.8f;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Hits are counted exactly up to here before pruning starts; past it the total is a lower bound
+    private static final int TOTAL_HITS_THRESHOLD = 1000;
+
+    // Newer documents (higher ordinals) win ties
+    private static final Comparator<ScoredDoc> HIT_ORDER = Comparator
+            .comparingDouble((ScoredDoc hit) -> hit.score)
+            .thenComparingInt(hit -> hit.ordinal);
+
+    private final PromptRepository promptRepository;
+    private final boolean rebuildOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexState state = new IndexState();
+    private IndexState rebuilding; // Receives live changes while a rebuild is running
+    private volatile boolean ready;
+
+    public PromptSearchIndex(PromptRepository promptRepository,
+                             @Value("${promptforge.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.promptRepository = promptRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Whether the index has been fully built and can serve queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query Free text query; the last token is prefix-matched unless followed by whitespace
+     * @param isPublic Visibility filter, or null for both; private prompts only ever match their owner
+     * @param userId Caller, or null when anonymous
+     * @param page Zero-based page number
+     * @param size Page size
+     * @return Ranked hits for the requested page; the total is exact up to 1000 hits
+     */
+    public SearchHits search(String query, Boolean isPublic, String userId, int page, int size) {
+        List<String> tokens = TextTokenizer.tokenize(query);
+        if (tokens.isEmpty() || size <= 0) {
+            return SearchHits.empty();
+        }
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            List<Clause> clauses = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean prefix = prefixLast && i == tokens.size() - 1;
+                for (Map.Entry<String, Float> term : state.expand(tokens.get(i), prefix).entrySet()) {
+                    Clause clause = state.clause(term.getKey(), term.getValue());
+                    if (clause != null) {
+                        clauses.add(clause);
+                    }
+                }
+            }
+            return topHits(clauses, isPublic, userId, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a prompt in the index.
+     */
+    public void index(Prompt prompt) {
+        lock.writeLock().lock();
+        try {
+            state.add(prompt);
+            if (rebuilding != null) {
+                rebuilding.addIfNewer(prompt);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a prompt from the index.
+     */
+    public void remove(String promptId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(promptId);
+            if (rebuilding != null) {
+                rebuilding.remove(promptId);
+                rebuilding.tombstones.add(promptId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getPromptId());
+        } else {
+            index(event.getPrompt());
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from PostgreSQL. Searches keep using the previous index
+     * until the rebuild completes; changes made during the rebuild are applied to both.
+     *
+     * @return Statistics about the rebuilt index
+     */
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding prompt search index from database");
+
+        IndexState fresh = new IndexState();
+        lock.writeLock().lock();
+        try {
+            rebuilding = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            String afterId = "";
+            List<Prompt> batch;
+            do {
+                batch = promptRepository.findBatchAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    batch.forEach(fresh::addIfNewer);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                fresh.tombstones.clear();
+                state = fresh;
+                rebuilding = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Failed to rebuild prompt search index", e);
+            throw e;
+        }
+
+        long tookMs = System.currentTimeMillis() - start;
+        log.info("Prompt search index rebuilt: {} prompts, {} terms in {} ms", fresh.liveDocs, fresh.terms.size(), tookMs);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexedPrompts", fresh.liveDocs);
+        stats.put("terms", fresh.terms.size());
+        stats.put("tookMs", tookMs);
+        return stats;
+    }
+
+    /**
+     * Collects the best (page + 1) * size documents with MaxScore. Clauses are
+     * ordered by their score upper bound; the lowest ones whose bounds add up to
+     * less than the weakest hit on the heap are non-essential, since a document
+     * matching only those cannot make the page. Candidates come from the essential
+     * clauses alone and the others are probed for them, giving up as soon as the
+     * remaining bounds cannot lift the document onto the heap.
+     */
+    private SearchHits topHits(List<Clause> clauses, Boolean isPublic, String userId, int page, int size) {
+        long wanted = (long) (page + 1) * size;
+        if (clauses.isEmpty() || wanted > Integer.MAX_VALUE) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        clauses.sort(Comparator.comparingDouble(clause -> clause.maxScore));
+        int count = clauses.size();
+        double[] boundBelow = new double[count + 1]; // Sum of the upper bounds of clauses [0, i)
+        for (int i = 0; i < count; i++) {
+            boundBelow[i + 1] = boundBelow[i] + clauses.get(i).maxScore;
+        }
+
+        PriorityQueue<ScoredDoc> heap = new PriorityQueue<>(HIT_ORDER);
+        double threshold = Double.NEGATIVE_INFINITY;
+        int essential = 0;
+        long matched = 0;
+        while (true) {
+            int ordinal = Integer.MAX_VALUE;
+            for (int i = essential; i < count; i++) {
+                ordinal = Math.min(ordinal, clauses.get(i).doc());
+            }
+            if (ordinal == Integer.MAX_VALUE) {
+                break;
+            }
+
+            Doc doc = state.docs.get(ordinal);
+            boolean visible = (doc.isPublic || userId != null && userId.equals(doc.userId))
+                    && (isPublic == null || doc.isPublic == isPublic);
+            float score = 0;
+            for (int i = essential; i < count; i++) {
+                Clause clause = clauses.get(i);
+                if (clause.doc() == ordinal) {
+                    if (visible) {
+                        score += clause.score(doc.length);
+                    }
+                    clause.next();
+                }
+            }
+            if (!visible) {
+                continue;
+            }
+
+            matched++;
+            for (int i = essential - 1; i >= 0 && score + boundBelow[i + 1] >= threshold; i--) {
+                Clause clause = clauses.get(i);
+                if (clause.advance(ordinal) == ordinal) {
+                    score += clause.score(doc.length);
+                }
+            }
+
+            ScoredDoc hit = new ScoredDoc(ordinal, score);
+            if (heap.size() < wanted) {
+                heap.offer(hit);
+            } else if (HIT_ORDER.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(hit);
+            }
+
+            if (heap.size() == wanted && matched >= TOTAL_HITS_THRESHOLD) {
+                threshold = heap.peek().score;
+                while (essential < count && boundBelow[essential + 1] < threshold) {
+                    essential++;
+                }
+            }
+        }
+
+        List<ScoredDoc> ranked = new ArrayList<>(heap);
+        ranked.sort(HIT_ORDER.reversed());
+
+        List<SearchHits.Hit> hits = new ArrayList<>(size);
+        for (int i = page * size; i < ranked.size(); i++) {
+            ScoredDoc hit = ranked.get(i);
+            hits.add(new SearchHits.Hit(state.docs.get(hit.ordinal).promptId, hit.score));
+        }
+        return new SearchHits(hits, matched);
+    }
+
+    /**
+     * A complete, self-contained index. Guarded by the enclosing read/write lock.
+     */
+    private static final class IndexState {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<Doc> docs = new ArrayList<>();
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Set<String> tombstones = new HashSet<>();
+        private long totalLength;
+        private int liveDocs;
+
+        void addIfNewer(Prompt prompt) {
+            if (tombstones.contains(prompt.getId())) {
+                return;
+            }
+            Integer ordinal = ordinals.get(prompt.getId());
+            Doc existing = ordinal != null ? docs.get(ordinal) : null;
+            if (existing != null && existing.updatedAt != null && prompt.getUpdatedAt() != null
+                    && !prompt.getUpdatedAt().isAfter(existing.updatedAt)) {
+                return;
+            }
+            add(prompt);
+        }
+
+        void add(Prompt prompt) {
+            remove(prompt.getId());
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = 0;
+            length += accumulate(frequencies, TextTokenizer.tokenize(prompt.getTitle()), TITLE_WEIGHT);
+            length += accumulate(frequencies, TextTokenizer.tokenize(prompt.getDescription()), DESCRIPTION_WEIGHT);
+            length += accumulate(frequencies, TextTokenizer.tokenize(prompt.getContent()), CONTENT_WEIGHT);
+            if (prompt.getTags() != null) {
+                for (String tag : prompt.getTags()) {
+                    length += accumulate(frequencies, TextTokenizer.tokenize(tag), TAG_WEIGHT);
+                }
+            }
+
+            int ordinal = ordinals.computeIfAbsent(prompt.getId(), id -> {
+                docs.add(null);
+                return docs.size() - 1;
+            });
+
+            Doc doc = new Doc(prompt.getId(), prompt.getUserId(), Boolean.TRUE.equals(prompt.getIsPublic()), Math.max(length, 1),
+                    frequencies.keySet().toArray(new String[0]), prompt.getUpdatedAt());
+            docs.set(ordinal, doc);
+            frequencies.forEach((term, tf) -> terms.computeIfAbsent(term, t -> new Postings()).add(ordinal, tf));
+
+            totalLength += doc.length;
+            liveDocs++;
+        }
+
+        void remove(String promptId) {
+            Integer ordinal = ordinals.get(promptId);
+            if (ordinal == null || docs.get(ordinal) == null) {
+                return;
+            }
+            Doc doc = docs.get(ordinal);
+            for (String term : doc.terms) {
+                Postings postings = terms.get(term);
+                if (postings != null && postings.remove(ordinal) && postings.size == 0) {
+                    terms.remove(term);
+                }
+            }
+            docs.set(ordinal, null);
+            totalLength -= doc.length;
+            liveDocs--;
+        }
+
+        /**
+         * Expands a query token into index terms with a weight per term.
+         */
+        Map<String, Float> expand(String token, boolean prefix) {
+            if (!prefix) {
+                return terms.containsKey(token) ? Map.of(token, 1.0f) : Map.of();
+            }
+            Map<String, Float> expanded = new LinkedHashMap<>();
+            for (String term : terms.subMap(token, true, token + Character.MAX_VALUE, true).keySet()) {
+                expanded.put(term, term.equals(token) ? 1.0f : PREFIX_MATCH_BOOST);
+                if (expanded.size() == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+            return expanded;
+        }
+
+        /**
+         * Opens a cursor over a term's postings, or null if the term is not indexed.
+         */
+        Clause clause(String term, float weight) {
+            Postings postings = terms.get(term);
+            if (postings == null || liveDocs == 0) {
+                return null;
+            }
+            double idf = Math.log(1 + (liveDocs - postings.size + 0.5) / (postings.size + 0.5));
+            return new Clause(postings, weight * idf, (double) totalLength / liveDocs);
+        }
+
+        private static int accumulate(Map<String, Integer> frequencies, List<String> tokens, int weight) {
+            for (String token : tokens) {
+                frequencies.merge(token, weight, Integer::sum);
+            }
+            return tokens.size() * weight;
+        }
+    }
+
+    private static final class Doc {
+        private final String promptId;
+        private final String userId;
+        private final boolean isPublic;
+        private final int length;
+        private final String[] terms;
+        private final LocalDateTime updatedAt;
+
+        Doc(String promptId, String userId, boolean isPublic, int length, String[] terms, LocalDateTime updatedAt) {
+            this.promptId = promptId;
+            this.userId = userId;
+            this.isPublic = isPublic;
+            this.length = length;
+            this.terms = terms;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    /**
+     * Posting list of (document ordinal, weighted term frequency) pairs, sorted by
+     * ordinal. Rebuilds and new prompts append; only re-indexed prompts insert.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+        private int maxFreq; // Not lowered on removal, so only ever an upper bound
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            int at = size == 0 || docs[size - 1] < doc ? size : -Arrays.binarySearch(docs, 0, size, doc) - 1;
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(freqs, at, freqs, at + 1, size - at);
+            docs[at] = doc;
+            freqs[at] = freq;
+            size++;
+            maxFreq = Math.max(maxFreq, freq);
+        }
+
+        boolean remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(freqs, at + 1, freqs, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Cursor over one query term's postings with its BM25 score upper bound.
+     */
+    private static final class Clause {
+        private final Postings postings;
+        private final double weight; // Query weight times idf
+        private final double avgLength;
+        private final double maxScore;
+        private int position;
+
+        Clause(Postings postings, double weight, double avgLength) {
+            this.postings = postings;
+            this.weight = weight;
+            this.avgLength = avgLength;
+            // Highest frequency in the shortest possible document (length 1), with a
+            // margin so float rounding of the real scores cannot exceed it
+            int tf = postings.maxFreq;
+            this.maxScore = 1.0001 * weight * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B / avgLength));
+        }
+
+        int doc() {
+            return position < postings.size ? postings.docs[position] : Integer.MAX_VALUE;
+        }
+
+        void next() {
+            position++;
+        }
+
+        /**
+         * Moves to the first posting at or after the target and returns its document.
+         */
+        int advance(int target) {
+            if (doc() < target) {
+                int at = Arrays.binarySearch(postings.docs, position, postings.size, target);
+                position = at >= 0 ? at : -at - 1;
+            }
+            return doc();
+        }
+
+        float score(int length) {
+            int tf = postings.freqs[position];
+            double norm = tf + K1 * (1 - B + B * length / avgLength);
+            return (float) (weight * (tf * (K1 + 1)) / norm);
+        }
+    }
+
+    private static final class ScoredDoc {
+        private final int ordinal;
+        private final float score;
+
+        ScoredDoc(int ordinal, float score) {
+            this.ordinal = ordinal;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.promptforge.prompt.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * One page of ranked search results plus the total number of matching prompts.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHits {
+
+    private final List<Hit> hits;
+
+    private final long totalHits;
+
+    public static SearchHits empty() {
+        return new SearchHits(List.of(), 0);
+    }
+
+    public List<String> getPromptIds() {
+        return hits.stream().map(Hit::getPromptId).collect(Collectors.toList());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final String promptId;
+        private final float score;
+    }
+}
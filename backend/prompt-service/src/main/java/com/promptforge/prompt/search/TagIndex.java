@@ -0,0 +1,377 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.repository.PromptRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory statistics over the tags of public prompts: how many prompts carry each
+ * tag, a prefix trie for autocomplete, and how often each pair of tags appears on
+ * the same prompt for related-tag suggestions. Every prompt's last indexed tag set
+ * is kept so that an update only applies the tags it added or dropped.
+ * <p>
+ * Private prompts are left out so that counts and suggestions never reveal them.
+ * Like the other search indexes, it is kept current from PromptChangedEvents and
+ * rebuilt from PostgreSQL on cold start.
+ */
+@Slf4j
+@Component
+public class TagIndex {
+
+    public static final int MAX_SUGGESTIONS = 50;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final PromptRepository promptRepository;
+    private final boolean rebuildOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexState state = new IndexState();
+    private IndexState rebuilding; // Receives live changes while a rebuild is running
+    private volatile boolean ready;
+
+    public TagIndex(PromptRepository promptRepository,
+                    @Value("${promptforge.tags.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.promptRepository = promptRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * A tag with the number of public prompts it applies to, or for related tags the
+     * number of public prompts it shares with the queried tag.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TagCount {
+        private final String tag;
+        private final long count;
+    }
+
+    /**
+     * Whether the index has been fully built and can serve queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Tags starting with the prefix, most used first. Served from the per-node lists
+     * of the trie, so it costs O(prefix length + limit).
+     *
+     * @param limit Maximum number of tags, capped at {@link #MAX_SUGGESTIONS}
+     */
+    public List<TagCount> autocomplete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return state.trie.suggest(normalize(prefix), Math.min(limit, MAX_SUGGESTIONS)).stream()
+                    .map(tag -> new TagCount(tag, state.trie.count(tag)))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Most used tags overall.
+     */
+    public List<TagCount> popular(int limit) {
+        return autocomplete("", limit);
+    }
+
+    /**
+     * Tags that most often appear on the same prompts as the given tag.
+     */
+    public List<TagCount> related(String tag, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> row = state.cooccurrence.get(normalize(tag));
+            if (row == null) {
+                return List.of();
+            }
+            return row.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(e -> new TagCount(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of public prompts with the tag.
+     */
+    public long count(String tag) {
+        lock.readLock().lock();
+        try {
+            return state.trie.count(normalize(tag));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a prompt's tags. Private prompts are removed.
+     */
+    public void index(Prompt prompt) {
+        if (!Boolean.TRUE.equals(prompt.getIsPublic())) {
+            remove(prompt.getId());
+            return;
+        }
+        Entry entry = new Entry(normalize(prompt.getTags()), prompt.getUpdatedAt());
+        lock.writeLock().lock();
+        try {
+            state.put(prompt.getId(), entry);
+            if (rebuilding != null) {
+                rebuilding.tombstones.remove(prompt.getId()); // Made public again during the rebuild
+                rebuilding.putIfNewer(prompt.getId(), entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a prompt's tags from the index.
+     */
+    public void remove(String promptId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(promptId);
+            if (rebuilding != null) {
+                rebuilding.remove(promptId);
+                rebuilding.tombstones.add(promptId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getPromptId());
+        } else {
+            index(event.getPrompt());
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from PostgreSQL. Queries keep using the previous index
+     * until the rebuild completes; changes made during the rebuild are applied to both.
+     *
+     * @return Statistics about the rebuilt index
+     */
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding tag index from database");
+
+        IndexState fresh = new IndexState();
+        lock.writeLock().lock();
+        try {
+            rebuilding = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            String afterId = "";
+            List<PromptSummary> batch;
+            do {
+                batch = promptRepository.findPublicSummaryBatchAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<String, Set<String>> tags = new HashMap<>();
+                for (Object[] row : promptRepository.findTagsByPromptIds(
+                        batch.stream().map(PromptSummary::getId).collect(Collectors.toList()))) {
+                    String tag = normalize((String) row[1]);
+                    if (!tag.isEmpty()) {
+                        tags.computeIfAbsent((String) row[0], k -> new HashSet<>()).add(tag);
+                    }
+                }
+                lock.writeLock().lock();
+                try {
+                    for (PromptSummary summary : batch) {
+                        fresh.putIfNewer(summary.getId(),
+                                new Entry(tags.getOrDefault(summary.getId(), Set.of()), summary.getUpdatedAt()));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                fresh.tombstones.clear();
+                state = fresh;
+                rebuilding = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Failed to rebuild tag index", e);
+            throw e;
+        }
+
+        long tookMs = System.currentTimeMillis() - start;
+        log.info("Tag index rebuilt: {} prompts, {} tags in {} ms", fresh.entries.size(), fresh.trie.size(), tookMs);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexedPrompts", fresh.entries.size());
+        stats.put("tags", fresh.trie.size());
+        stats.put("tookMs", tookMs);
+        return stats;
+    }
+
+    private static Set<String> normalize(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> normalized = new HashSet<>();
+        for (String tag : tags) {
+            String t = normalize(tag);
+            if (!t.isEmpty()) {
+                normalized.add(t);
+            }
+        }
+        return normalized;
+    }
+
+    // Prompt.addTag lowercases, but tags set through the builder are taken as given
+    private static String normalize(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A complete, self-contained index. Guarded by the enclosing read/write lock.
+     */
+    private static final class IndexState {
+
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final TagTrie trie = new TagTrie(MAX_SUGGESTIONS);
+        private final Map<String, Map<String, Integer>> cooccurrence = new HashMap<>();
+        private final Set<String> tombstones = new HashSet<>();
+
+        void putIfNewer(String promptId, Entry entry) {
+            if (tombstones.contains(promptId)) {
+                return;
+            }
+            Entry existing = entries.get(promptId);
+            if (existing != null && existing.updatedAt != null && entry.updatedAt != null
+                    && !entry.updatedAt.isAfter(existing.updatedAt)) {
+                return;
+            }
+            put(promptId, entry);
+        }
+
+        void put(String promptId, Entry entry) {
+            Entry existing = entries.put(promptId, entry);
+            Set<String> before = existing != null ? existing.tags : Set.of();
+            if (before.equals(entry.tags)) {
+                return;
+            }
+
+            Set<String> removed = new HashSet<>(before);
+            removed.removeAll(entry.tags);
+            Set<String> added = new HashSet<>(entry.tags);
+            added.removeAll(before);
+
+            // Pairs involving a removed tag go; pairs involving an added tag come
+            for (String tag : removed) {
+                adjustCount(tag, -1);
+                for (String other : before) {
+                    if (!other.equals(tag) && !(removed.contains(other) && other.compareTo(tag) < 0)) {
+                        adjustPair(tag, other, -1);
+                    }
+                }
+            }
+            for (String tag : added) {
+                adjustCount(tag, 1);
+                for (String other : entry.tags) {
+                    if (!other.equals(tag) && !(added.contains(other) && other.compareTo(tag) < 0)) {
+                        adjustPair(tag, other, 1);
+                    }
+                }
+            }
+        }
+
+        void remove(String promptId) {
+            if (entries.containsKey(promptId)) {
+                put(promptId, new Entry(Set.of(), null)); // Releases its counts and pairs
+                entries.remove(promptId);
+            }
+        }
+
+        private void adjustCount(String tag, int delta) {
+            trie.set(tag, trie.count(tag) + delta);
+        }
+
+        private void adjustPair(String a, String b, int delta) {
+            adjustCell(a, b, delta);
+            adjustCell(b, a, delta);
+        }
+
+        private void adjustCell(String from, String to, int delta) {
+            Map<String, Integer> row = cooccurrence.computeIfAbsent(from, k -> new HashMap<>());
+            int count = row.getOrDefault(to, 0) + delta;
+            if (count > 0) {
+                row.put(to, count);
+            } else {
+                row.remove(to);
+                if (row.isEmpty()) {
+                    cooccurrence.remove(from);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Set<String> tags;
+        private final LocalDateTime updatedAt;
+
+        Entry(Set<String> tags, LocalDateTime updatedAt) {
+            this.tags = tags;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.promptforge.prompt.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Prefix trie over tags in which every node keeps the top-K tags of its subtree,
+ * ordered by prompt count. A suggestion is a walk down the prefix plus a copy of
+ * that node's list, so it costs O(prefix length + K) however many tags share the
+ * prefix. Count changes update the lists along one path.
+ * <p>
+ * Each list holds up to K + reserve tags and is always the exact head of its
+ * subtree's ranking. A listed tag that drops below the list's last entry leaves a
+ * truncated list, since an unlisted tag may now outrank it; the list just gets
+ * shorter. The subtree is only rescanned once a truncated list falls below K, so a
+ * rescan (of the whole trie, at the root) happens at most once per reserve drops
+ * rather than on every drop.
+ * <p>
+ * Not thread-safe; TagIndex guards it with its read/write lock.
+ */
+public final class TagTrie {
+
+    private final int topK;
+    private final int capacity;
+    private final Map<String, Long> counts = new HashMap<>();
+    private final Node root = new Node();
+
+    // Most prompts first, then alphabetical
+    private final Comparator<String> byCount = Comparator.<String>comparingLong(tag -> -counts.getOrDefault(tag, 0L))
+            .thenComparing(Comparator.naturalOrder());
+
+    /**
+     * @param topK Number of tags each node serves, i.e. the largest limit suggest can serve
+     */
+    public TagTrie(int topK) {
+        this(topK, topK);
+    }
+
+    /**
+     * @param topK    Number of tags each node serves, i.e. the largest limit suggest can serve
+     * @param reserve Extra tags each node keeps below its top-K to absorb drops without a rescan
+     */
+    public TagTrie(int topK, int reserve) {
+        this.topK = topK;
+        this.capacity = topK + reserve;
+    }
+
+    /**
+     * Number of prompts with the tag, 0 if unknown.
+     */
+    public long count(String tag) {
+        return counts.getOrDefault(tag, 0L);
+    }
+
+    /**
+     * Number of distinct tags with a positive count.
+     */
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * Sets a tag's count; a count of 0 or less removes the tag.
+     */
+    public void set(String tag, long count) {
+        long previous = counts.getOrDefault(tag, 0L);
+        if (count == previous) {
+            return;
+        }
+
+        List<Node> path = new ArrayList<>(tag.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < tag.length(); i++) {
+            Node child = node.children.get(tag.charAt(i));
+            if (child == null) {
+                if (count <= 0) {
+                    return; // Removing a tag that was never added
+                }
+                child = new Node();
+                node.children.put(tag.charAt(i), child);
+            }
+            node = child;
+            path.add(node);
+        }
+
+        // Take the tag out of every list before its count changes, so the lists never
+        // hold an element whose sort key moved under them
+        for (Node n : path) {
+            n.top.remove(tag);
+        }
+
+        if (count <= 0) {
+            counts.remove(tag);
+            node.tag = null;
+        } else {
+            counts.put(tag, count);
+            node.tag = tag;
+        }
+
+        for (Node n : path) {
+            if (count > 0) {
+                offer(n, tag);
+            }
+            // Drops have used up the reserve: unlisted tags may now belong in the top-K
+            if (n.truncated && n.top.size() < topK) {
+                recompute(n);
+            }
+        }
+
+        if (count <= 0) {
+            prune(tag, path);
+        }
+    }
+
+    /**
+     * Tags starting with the prefix, most prompts first.
+     *
+     * @param limit Maximum number of tags, capped at topK
+     */
+    public List<String> suggest(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return new ArrayList<>(node.top.subList(0, Math.min(Math.min(limit, topK), node.top.size())));
+    }
+
+    private void offer(Node node, String tag) {
+        List<String> top = node.top;
+        // Below the end of a truncated list the tag's rank among unlisted tags is unknown
+        if (node.truncated && (top.isEmpty() || byCount.compare(tag, top.get(top.size() - 1)) > 0)) {
+            return;
+        }
+        int position = 0;
+        while (position < top.size() && byCount.compare(top.get(position), tag) < 0) {
+            position++;
+        }
+        top.add(position, tag);
+        if (top.size() > capacity) {
+            top.remove(top.size() - 1);
+            node.truncated = true;
+        }
+    }
+
+    private void recompute(Node node) {
+        PriorityQueue<String> best = new PriorityQueue<>(byCount.reversed());
+        boolean truncated = false;
+        List<Node> stack = new ArrayList<>();
+        stack.add(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.remove(stack.size() - 1);
+            if (current.tag != null) {
+                best.add(current.tag);
+                if (best.size() > capacity) {
+                    best.poll();
+                    truncated = true;
+                }
+            }
+            stack.addAll(current.children.values());
+        }
+        List<String> top = new ArrayList<>(best);
+        top.sort(byCount);
+        node.top = top;
+        node.truncated = truncated;
+    }
+
+    private void prune(String tag, List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node n = path.get(i);
+            if (n.tag != null || !n.children.isEmpty()) {
+                return;
+            }
+            path.get(i - 1).children.remove(tag.charAt(i - 1));
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private List<String> top = new ArrayList<>(2);
+        private String tag; // Set if a tag ends here
+        private boolean truncated; // Some subtree tags rank below the list and are not in it
+    }
+}
@@ -0,0 +1,68 @@
+package com.promptforge.prompt.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits prompt text into lowercase word tokens for indexing and querying.
+ * Tokens are runs of letters or digits; very short tokens and common English
+ * stop words are dropped.
+ */
+public final class TextTokenizer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 40;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into",
+            "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their", "then",
+            "there", "these", "they", "this", "to", "was", "will", "with", "you", "your"
+    );
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Tokenizes text, dropping stop words.
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * Tokenizes text. Stop words are kept when {@code dropStopWords} is false,
+     * which is useful for shingling where word order matters.
+     */
+    public static List<String> tokenize(String text, boolean dropStopWords) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addToken(tokens, text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)), dropStopWords);
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String raw, boolean dropStopWords) {
+        if (raw.length() < MIN_TOKEN_LENGTH) {
+            return;
+        }
+        String token = raw.toLowerCase(Locale.ROOT);
+        if (dropStopWords && STOP_WORDS.contains(token)) {
+            return;
+        }
+        tokens.add(token);
+    }
+}
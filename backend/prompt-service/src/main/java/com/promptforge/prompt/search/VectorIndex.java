@@ -0,0 +1,735 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.repository.PromptRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Approximate nearest-neighbour index of prompt embeddings for "similar prompts" and
+ * the vector half of hybrid search. Vectors come from the configured PromptEmbedder
+ * and are linked into an HNSW graph; both survive restarts. Vectors live in a
+ * memory-mapped file that is mapped again on startup, and the graph and per-prompt
+ * metadata are saved to a snapshot periodically and on shutdown. A restart loads
+ * the snapshot and re-embeds only prompts whose text changed since it was written.
+ * <p>
+ * A prompt's embedding is replaced only when its title, description, tags or content
+ * change; visibility changes just update its metadata. Replaced vectors stay in the
+ * graph as hidden routing nodes until the next rebuild.
+ * <p>
+ * Like the other search indexes, it is kept current from PromptChangedEvents, and a
+ * full rebuild keeps serving the previous index until it completes.
+ */
+@Slf4j
+@Component
+public class VectorIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x50465649; // "PFVI"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String SNAPSHOT_FILE = "index.bin";
+    private static final String VECTOR_FILE_PREFIX = "vectors-";
+    private static final String VECTOR_FILE_SUFFIX = ".f32";
+    private static final long GRAPH_SEED = 0x4853_5721L;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final PromptRepository promptRepository;
+    private final PromptEmbedder embedder;
+    private final Path directory;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final boolean rebuildOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexState state; // Null until loaded or built
+    private IndexState rebuilding; // Receives live changes while a rebuild is running
+    private Set<String> touchedDuringReconcile; // Prompts changed live while reconciling with the database
+    private volatile boolean ready;
+    private volatile boolean dirty;
+
+    public VectorIndex(PromptRepository promptRepository,
+                       PromptEmbedder embedder,
+                       @Value("${promptforge.vectors.directory:data/vectors}") String directory,
+                       @Value("${promptforge.vectors.m:16}") int m,
+                       @Value("${promptforge.vectors.ef-construction:100}") int efConstruction,
+                       @Value("${promptforge.vectors.ef-search:64}") int efSearch,
+                       @Value("${promptforge.vectors.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.promptRepository = promptRepository;
+        this.embedder = embedder;
+        this.directory = Paths.get(directory);
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * A prompt whose embedding is close to the query's.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final String promptId;
+        private final double similarity;
+    }
+
+    /**
+     * Whether the index has been loaded or fully built and can serve queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Prompts whose embeddings are closest to an indexed prompt's, most similar first.
+     *
+     * @param viewerId Only public prompts and prompts owned by this user are returned (may be null)
+     * @return Matches, excluding the prompt itself; empty if the prompt is not indexed
+     */
+    public List<Match> findSimilar(String promptId, int limit, String viewerId) {
+        lock.readLock().lock();
+        try {
+            if (state == null) {
+                return List.of();
+            }
+            Integer ordinal = state.ordinals.get(promptId);
+            if (ordinal == null) {
+                return List.of();
+            }
+            return state.search(state.store.get(ordinal), limit, node -> {
+                Meta meta = state.byOrdinal.get(node);
+                return node != ordinal && meta != null && !meta.promptId.equals(promptId)
+                        && (meta.isPublic || Objects.equals(meta.userId, viewerId));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Prompts whose embeddings are closest to the embedding of a free-text query.
+     *
+     * @param isPublic Visibility filter, or null for both; private prompts only ever match their owner
+     * @param viewerId Caller, or null when anonymous
+     */
+    public List<Match> search(String query, int limit, Boolean isPublic, String viewerId) {
+        float[] vector = embedder.embed(query);
+        if (vector == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (state == null) {
+                return List.of();
+            }
+            return state.search(vector, limit, node -> {
+                Meta meta = state.byOrdinal.get(node);
+                return meta != null && (meta.isPublic || viewerId != null && viewerId.equals(meta.userId))
+                        && (isPublic == null || meta.isPublic == isPublic);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a prompt. It is only re-embedded when its text changed.
+     */
+    public void index(Prompt prompt) {
+        String text = embeddingText(prompt);
+        Meta meta = new Meta(prompt.getId(), prompt.getUserId(), Boolean.TRUE.equals(prompt.getIsPublic()),
+                hash(text), prompt.getUpdatedAt());
+
+        float[] vector = null;
+        lock.readLock().lock();
+        try {
+            if (rebuilding != null || state == null || !state.hasText(meta)) {
+                vector = embedder.embed(text); // Embedding is the slow part; keep it out of the write lock
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringReconcile != null) {
+                touchedDuringReconcile.add(prompt.getId());
+            }
+            if (state != null) {
+                state.put(meta, vector, text);
+            }
+            if (rebuilding != null) {
+                rebuilding.tombstones.remove(prompt.getId());
+                rebuilding.putIfNewer(meta, vector, text);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a prompt from the index.
+     */
+    public void remove(String promptId) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringReconcile != null) {
+                touchedDuringReconcile.add(promptId);
+            }
+            if (state != null) {
+                state.remove(promptId);
+            }
+            if (rebuilding != null) {
+                rebuilding.remove(promptId);
+                rebuilding.tombstones.add(promptId);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getPromptId());
+        } else {
+            index(event.getPrompt());
+        }
+    }
+
+    /**
+     * Loads the saved index and catches up with changes made while the service was
+     * down, or builds it from scratch if there is no usable snapshot.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        if (load()) {
+            reconcile();
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Re-embeds every prompt into a fresh graph and vector file, dropping vectors of
+     * replaced and deleted prompts. Queries keep using the previous index until the
+     * rebuild completes; changes made during the rebuild are applied to both.
+     *
+     * @return Statistics about the rebuilt index
+     */
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding vector index from database with embedder {}", embedder.name());
+
+        IndexState fresh = newState(directory.resolve(VECTOR_FILE_PREFIX + start + VECTOR_FILE_SUFFIX), 0);
+        lock.writeLock().lock();
+        try {
+            rebuilding = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IndexState previous;
+        try {
+            String afterId = "";
+            List<Prompt> batch;
+            do {
+                batch = promptRepository.findBatchAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                List<String> texts = new ArrayList<>(batch.size());
+                List<float[]> vectors = new ArrayList<>(batch.size());
+                for (Prompt prompt : batch) {
+                    String text = embeddingText(prompt);
+                    texts.add(text);
+                    vectors.add(embedder.embed(text));
+                }
+                lock.writeLock().lock();
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        Prompt prompt = batch.get(i);
+                        fresh.putIfNewer(new Meta(prompt.getId(), prompt.getUserId(),
+                                Boolean.TRUE.equals(prompt.getIsPublic()), hash(texts.get(i)), prompt.getUpdatedAt()),
+                                vectors.get(i), texts.get(i));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                fresh.tombstones.clear();
+                previous = state;
+                state = fresh;
+                rebuilding = null;
+                ready = true;
+                dirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            fresh.store.close();
+            deleteQuietly(fresh.store.file());
+            log.error("Failed to rebuild vector index", e);
+            throw e;
+        }
+
+        saveSnapshot();
+        if (previous != null) {
+            previous.store.close();
+            deleteQuietly(previous.store.file());
+        }
+
+        long tookMs = System.currentTimeMillis() - start;
+        log.info("Vector index rebuilt: {} prompts in {} ms", fresh.ordinals.size(), tookMs);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexedPrompts", fresh.ordinals.size());
+        stats.put("embedder", embedder.name());
+        stats.put("dimensions", embedder.dimensions());
+        stats.put("tookMs", tookMs);
+        return stats;
+    }
+
+    /**
+     * Brings a loaded index up to date with PostgreSQL: prompts whose text changed are
+     * re-embedded, metadata is refreshed and prompts deleted while the service was down
+     * are removed. Unchanged prompts keep their persisted vectors.
+     */
+    synchronized void reconcile() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            touchedDuringReconcile = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        int reembedded = 0;
+        int removed = 0;
+        try {
+            Set<String> seen = new HashSet<>();
+            String afterId = "";
+            List<Prompt> batch;
+            do {
+                batch = promptRepository.findBatchAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Prompt prompt : batch) {
+                    seen.add(prompt.getId());
+                    String text = embeddingText(prompt);
+                    Meta meta = new Meta(prompt.getId(), prompt.getUserId(), Boolean.TRUE.equals(prompt.getIsPublic()),
+                            hash(text), prompt.getUpdatedAt());
+                    boolean changedText;
+                    lock.readLock().lock();
+                    try {
+                        if (touchedDuringReconcile.contains(prompt.getId()) || state.isCurrent(meta)) {
+                            continue;
+                        }
+                        changedText = !state.hasText(meta);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                    float[] vector = changedText ? embedder.embed(text) : null;
+                    lock.writeLock().lock();
+                    try {
+                        if (!touchedDuringReconcile.contains(prompt.getId())) {
+                            state.put(meta, vector, text);
+                            dirty = true;
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    if (changedText) {
+                        reembedded++;
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                for (String promptId : new ArrayList<>(state.ordinals.keySet())) {
+                    if (!seen.contains(promptId) && !touchedDuringReconcile.contains(promptId)) {
+                        state.remove(promptId);
+                        removed++;
+                        dirty = true;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touchedDuringReconcile = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        saveSnapshot();
+        log.info("Vector index reconciled: {} re-embedded, {} removed in {} ms", reembedded, removed,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Writes the graph and metadata if anything changed since the last snapshot. The
+     * vector file is flushed first, so the snapshot never references unwritten vectors.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.vectors.snapshot-interval-ms:60000}")
+    public void saveSnapshot() {
+        if (!dirty) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (state == null) {
+                return;
+            }
+            dirty = false; // Writers are blocked while the read lock is held
+            state.store.force();
+            Files.createDirectories(directory);
+            Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                state.write(out);
+            }
+            Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Saved vector index snapshot: {} prompts", state.ordinals.size());
+        } catch (IOException e) {
+            dirty = true;
+            log.error("Failed to save vector index snapshot", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        saveSnapshot();
+        lock.writeLock().lock();
+        try {
+            if (state != null) {
+                state.store.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the snapshot written by a previous run.
+     *
+     * @return Whether a snapshot compatible with the current embedder and settings was loaded
+     */
+    synchronized boolean load() {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return false;
+        }
+        IndexState loaded;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            loaded = readState(in);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load vector index snapshot, rebuilding", e);
+            return false;
+        }
+        if (loaded == null) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            state = loaded;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        deleteStaleVectorFiles(loaded.store.file());
+        log.info("Loaded vector index snapshot: {} prompts", loaded.ordinals.size());
+        return true;
+    }
+
+    private IndexState readState(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            log.warn("Vector index snapshot has an unknown format, rebuilding");
+            return null;
+        }
+        String embedderName = in.readUTF();
+        int dimensions = in.readInt();
+        int snapshotM = in.readInt();
+        if (!embedderName.equals(embedder.name()) || dimensions != embedder.dimensions() || snapshotM != m) {
+            log.info("Vector index snapshot was built with {} ({} dimensions, m={}), rebuilding", embedderName,
+                    dimensions, snapshotM);
+            return null;
+        }
+        Path vectorFile = directory.resolve(in.readUTF());
+        int size = in.readInt();
+        if (!Files.exists(vectorFile)) {
+            log.warn("Vector file {} is missing, rebuilding", vectorFile);
+            return null;
+        }
+
+        IndexState loaded = newState(vectorFile, size);
+        try {
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                Meta meta = null;
+                if (in.readBoolean()) {
+                    String promptId = in.readUTF();
+                    String userId = in.readBoolean() ? in.readUTF() : null;
+                    boolean isPublic = in.readBoolean();
+                    long textHash = in.readLong();
+                    LocalDateTime updatedAt = in.readBoolean()
+                            ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                            : null;
+                    meta = new Meta(promptId, userId, isPublic, textHash, updatedAt);
+                    loaded.ordinals.put(promptId, ordinal);
+                }
+                loaded.byOrdinal.add(meta);
+            }
+            loaded.graph = HnswGraph.read(in, loaded.store, m, efConstruction, GRAPH_SEED);
+            if (loaded.graph.size() != size) {
+                throw new IOException("Graph has " + loaded.graph.size() + " nodes, expected " + size);
+            }
+        } catch (IOException | RuntimeException e) {
+            loaded.store.close();
+            throw e;
+        }
+        return loaded;
+    }
+
+    private IndexState newState(Path vectorFile, int size) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create vector index directory " + directory, e);
+        }
+        VectorStore store = new VectorStore(vectorFile, embedder.dimensions(), size);
+        return new IndexState(store, new HnswGraph(store, m, efConstruction, GRAPH_SEED));
+    }
+
+    private void deleteStaleVectorFiles(Path current) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                VECTOR_FILE_PREFIX + "*" + VECTOR_FILE_SUFFIX)) {
+            for (Path file : files) {
+                if (!file.getFileName().equals(current.getFileName())) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up old vector files in {}", directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    // Title and tags lead so that short prompts are still characterized by them
+    private static String embeddingText(Prompt prompt) {
+        StringBuilder text = new StringBuilder();
+        append(text, prompt.getTitle());
+        if (prompt.getTags() != null) {
+            append(text, prompt.getTags().stream().sorted().collect(Collectors.joining(" ")));
+        }
+        append(text, prompt.getDescription());
+        append(text, prompt.getContent());
+        return text.toString();
+    }
+
+    private static void append(StringBuilder text, String part) {
+        if (part != null && !part.isBlank()) {
+            text.append(part).append('\n');
+        }
+    }
+
+    private static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * A complete, self-contained index. Guarded by the enclosing read/write lock.
+     */
+    private final class IndexState {
+
+        private final VectorStore store;
+        private HnswGraph graph;
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<Meta> byOrdinal = new ArrayList<>(); // null for replaced and deleted prompts
+        private final Set<String> tombstones = new HashSet<>();
+
+        IndexState(VectorStore store, HnswGraph graph) {
+            this.store = store;
+            this.graph = graph;
+        }
+
+        List<Match> search(float[] vector, int limit, IntPredicate accept) {
+            return graph.search(vector, limit, efSearch, accept).stream()
+                    .map(n -> new Match(byOrdinal.get(n.getNode()).promptId, n.getSimilarity()))
+                    .collect(Collectors.toList());
+        }
+
+        boolean hasText(Meta meta) {
+            Meta existing = current(meta.promptId);
+            return existing != null && existing.textHash == meta.textHash;
+        }
+
+        boolean isCurrent(Meta meta) {
+            Meta existing = current(meta.promptId);
+            return existing != null && existing.textHash == meta.textHash && existing.isPublic == meta.isPublic
+                    && Objects.equals(existing.userId, meta.userId)
+                    && Objects.equals(existing.updatedAt, meta.updatedAt);
+        }
+
+        void putIfNewer(Meta meta, float[] vector, String text) {
+            if (tombstones.contains(meta.promptId)) {
+                return;
+            }
+            Meta existing = current(meta.promptId);
+            if (existing != null && existing.updatedAt != null && meta.updatedAt != null
+                    && !meta.updatedAt.isAfter(existing.updatedAt)) {
+                return;
+            }
+            put(meta, vector, text);
+        }
+
+        /**
+         * @param vector The embedding of text, or null to embed it here if the text changed
+         */
+        void put(Meta meta, float[] vector, String text) {
+            Integer existing = ordinals.get(meta.promptId);
+            if (existing != null && byOrdinal.get(existing).textHash == meta.textHash) {
+                byOrdinal.set(existing, meta); // Same text, same vector
+                return;
+            }
+            if (vector == null) {
+                vector = embedder.embed(text);
+            }
+            remove(meta.promptId);
+            if (vector == null) {
+                return; // Nothing to embed
+            }
+            int ordinal = store.add(vector);
+            byOrdinal.add(meta);
+            ordinals.put(meta.promptId, ordinal);
+            graph.add(ordinal);
+        }
+
+        void remove(String promptId) {
+            Integer ordinal = ordinals.remove(promptId);
+            if (ordinal != null) {
+                byOrdinal.set(ordinal, null);
+            }
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeUTF(embedder.name());
+            out.writeInt(embedder.dimensions());
+            out.writeInt(m);
+            out.writeUTF(store.file().getFileName().toString());
+            out.writeInt(byOrdinal.size());
+            for (Meta meta : byOrdinal) {
+                out.writeBoolean(meta != null);
+                if (meta == null) {
+                    continue;
+                }
+                out.writeUTF(meta.promptId);
+                out.writeBoolean(meta.userId != null);
+                if (meta.userId != null) {
+                    out.writeUTF(meta.userId);
+                }
+                out.writeBoolean(meta.isPublic);
+                out.writeLong(meta.textHash);
+                out.writeBoolean(meta.updatedAt != null);
+                if (meta.updatedAt != null) {
+                    out.writeLong(meta.updatedAt.toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(meta.updatedAt.getNano());
+                }
+            }
+            graph.write(out);
+        }
+
+        private Meta current(String promptId) {
+            Integer ordinal = ordinals.get(promptId);
+            return ordinal != null ? byOrdinal.get(ordinal) : null;
+        }
+    }
+
+    private static final class Meta {
+        private final String promptId;
+        private final String userId;
+        private final boolean isPublic;
+        private final long textHash;
+        private final LocalDateTime updatedAt;
+
+        Meta(String promptId, String userId, boolean isPublic, long textHash, LocalDateTime updatedAt) {
+            this.promptId = promptId;
+            this.userId = userId;
+            this.isPublic = isPublic;
+            this.textHash = textHash;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
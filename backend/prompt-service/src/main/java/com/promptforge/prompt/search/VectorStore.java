@@ -0,0 +1,139 @@
+package com.promptforge.prompt.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only array of fixed-length float vectors in a memory-mapped file. Vector i
+ * lives at byte offset i * dimensions * 4, so vectors are read straight from the page
+ * cache without being copied onto the heap, and a restarted process maps the file
+ * again instead of recomputing them. Slots are never overwritten: replacing a vector
+ * appends a new one, which keeps a saved snapshot consistent with the file.
+ * <p>
+ * Not thread-safe; VectorIndex guards it with its read/write lock.
+ */
+public final class VectorStore implements Closeable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path file;
+    private final int dimensions;
+    private final FileChannel channel;
+    private MappedByteBuffer mapped;
+    private FloatBuffer floats;
+    private int capacity;
+    private int size;
+
+    /**
+     * Opens or creates the file.
+     *
+     * @param size Number of vectors already in the file that should be kept; later slots are reused
+     */
+    public VectorStore(Path file, int dimensions, int size) {
+        this.file = file;
+        this.dimensions = dimensions;
+        this.size = size;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long existing = channel.size() / bytesPerVector();
+            if (existing < size) {
+                channel.close();
+                throw new IllegalStateException("Vector file " + file + " holds " + existing + " vectors, expected " + size);
+            }
+            map((int) Math.max(Math.max(existing, size), INITIAL_CAPACITY));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open vector file " + file, e);
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a vector.
+     *
+     * @return Its ordinal
+     */
+    public int add(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        if (size == capacity) {
+            long grown = Math.min((long) capacity * 2, Integer.MAX_VALUE / bytesPerVector());
+            if (grown <= capacity) {
+                throw new IllegalStateException("Vector file " + file + " is full");
+            }
+            map((int) grown);
+        }
+        floats.put(size * dimensions, vector);
+        return size++;
+    }
+
+    public float[] get(int ordinal) {
+        float[] vector = new float[dimensions];
+        floats.get(ordinal * dimensions, vector);
+        return vector;
+    }
+
+    /**
+     * Dot product of a query with a stored vector, read in place.
+     */
+    public float dot(float[] query, int ordinal) {
+        int offset = ordinal * dimensions;
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += query[i] * floats.get(offset + i);
+        }
+        return sum;
+    }
+
+    /**
+     * Flushes written vectors to disk.
+     */
+    public void force() {
+        mapped.force();
+    }
+
+    @Override
+    public void close() {
+        try {
+            force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close vector file " + file, e);
+        }
+    }
+
+    private void map(int newCapacity) {
+        try {
+            // The previous mapping stays valid until it is garbage collected; Java 17 cannot unmap it earlier
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newCapacity * bytesPerVector());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            floats = mapped.asFloatBuffer();
+            capacity = newCapacity;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map vector file " + file, e);
+        }
+    }
+
+    private int bytesPerVector() {
+        return dimensions * Float.BYTES;
+    }
+}
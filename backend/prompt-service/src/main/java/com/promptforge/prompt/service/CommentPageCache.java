@@ -0,0 +1,55 @@
+package com.promptforge.prompt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.promptforge.prompt.dto.CommentResponse;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cache of the newest top-level comments of each prompt, which is what every
+ * prompt page opens with. An entry holds one row more than the largest page size
+ * so callers can tell whether a next page exists. Entries are evicted once a new
+ * comment or reply on the prompt commits; the TTL bounds staleness for comments
+ * written through other replicas.
+ */
+@Component
+public class CommentPageCache {
+    
+    private final Cache<String, List<CommentResponse>> cache;
+    
+    public CommentPageCache(@Value("${promptforge.cache.comments.max-prompts:10000}") long maxPrompts,
+                            @Value("${promptforge.cache.comments.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxPrompts)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+    
+    /**
+     * Gets a prompt's cached first-page rows, loading and caching them on a miss.
+     */
+    public List<CommentResponse> get(String promptId, Function<String, List<CommentResponse>> loader) {
+        return cache.get(promptId, loader);
+    }
+    
+    /**
+     * Removes a prompt's first page from the cache.
+     */
+    public void invalidate(String promptId) {
+        cache.invalidate(promptId);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(PromptEngagementEvent event) {
+        if (event.getSignal() == PromptEngagementEvent.Signal.COMMENT) {
+            invalidate(event.getPromptId());
+        }
+    }
+}
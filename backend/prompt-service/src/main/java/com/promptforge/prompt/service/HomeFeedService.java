@@ -0,0 +1,156 @@
+package com.promptforge.prompt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptforge.prompt.dto.HomeFeedResponse;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Materialized home page. The featured, trending and top-rated sections are composed
+ * in the background, serialized to JSON once and kept as a byte array with an ETag,
+ * so serving the home page costs no database queries and no serialization; clients
+ * that already hold the current version get a 304.
+ * <p>
+ * The feed is rebuilt on a fixed interval, so trending and counters stay fresh, and
+ * shortly after prompt changes or new ratings. Changes are debounced: a burst of
+ * events causes one rebuild on the next check.
+ */
+@Slf4j
+@Service
+public class HomeFeedService {
+    
+    private final PromptService promptService;
+    private final ObjectMapper objectMapper;
+    private final int sectionSize;
+    private final long refreshIntervalMs;
+    
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+    
+    public HomeFeedService(PromptService promptService,
+                           ObjectMapper objectMapper,
+                           @Value("${promptforge.home-feed.section-size:12}") int sectionSize,
+                           @Value("${promptforge.home-feed.refresh-interval-ms:60000}") long refreshIntervalMs) {
+        this.promptService = promptService;
+        this.objectMapper = objectMapper;
+        this.sectionSize = sectionSize;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+    
+    /**
+     * A serialized home feed and its entity tag.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final byte[] body;
+        private final String etag;
+        private final Instant builtAt;
+    }
+    
+    /**
+     * The current home feed. Only the very first call after startup, if it comes
+     * before the background build, composes the feed on the caller's thread.
+     */
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+    
+    /**
+     * Composes and serializes the feed. The previous snapshot is kept when the
+     * content did not change, so its ETag stays valid.
+     */
+    public synchronized Snapshot refresh() {
+        stale = false; // Events from here on trigger another rebuild
+        long start = System.currentTimeMillis();
+        
+        PageRequest section = PageRequest.of(0, sectionSize);
+        HomeFeedResponse feed = HomeFeedResponse.builder()
+                .featured(promptService.getFeaturedPrompts(
+                        PageRequest.of(0, sectionSize, Sort.by("createdAt").descending())).getContent())
+                .trending(promptService.getTrendingPrompts(section).getContent())
+                .topRated(promptService.getTopRatedPrompts(section).getContent())
+                .build();
+        
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(feed);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize home feed", e);
+        }
+        
+        Snapshot previous = snapshot;
+        if (previous != null && Arrays.equals(previous.getBody(), body)) {
+            snapshot = new Snapshot(previous.getBody(), previous.getEtag(), Instant.now());
+        } else {
+            snapshot = new Snapshot(body, etag(body), Instant.now());
+        }
+        log.debug("Home feed rebuilt in {} ms ({} bytes)", System.currentTimeMillis() - start, body.length);
+        return snapshot;
+    }
+    
+    /**
+     * Rebuilds the feed if an event made it stale or the refresh interval has passed.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.home-feed.check-interval-ms:2000}")
+    public void refreshIfStale() {
+        Snapshot current = snapshot;
+        boolean expired = current == null
+                || current.getBuiltAt().plusMillis(refreshIntervalMs).isBefore(Instant.now());
+        if (stale || expired) {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                stale = true;
+                log.warn("Failed to rebuild home feed, serving the previous one", e);
+            }
+        }
+    }
+    
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        refreshIfStale();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        stale = true;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(PromptEngagementEvent event) {
+        if (event.getSignal() == PromptEngagementEvent.Signal.RATING) {
+            stale = true; // Can reorder top-rated; other signals are picked up by the periodic refresh
+        }
+    }
+    
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
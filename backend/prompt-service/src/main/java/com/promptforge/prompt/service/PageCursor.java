@@ -0,0 +1,52 @@
+package com.promptforge.prompt.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor holding the sort key and ID of the last row
+ * of a page, encoded as URL-safe Base64.
+ */
+public final class PageCursor {
+    
+    private static final char SEPARATOR = '|';
+    
+    private final String sortKey;
+    private final String id;
+    
+    private PageCursor(String sortKey, String id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+    
+    public static String encode(Object sortKey, String id) {
+        String raw = sortKey + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a cursor produced by {@link #encode}.
+     *
+     * @throws RuntimeException if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new PageCursor(raw.substring(0, separator), raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+    
+    public String getSortKey() {
+        return sortKey;
+    }
+    
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,219 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptContentRepository;
+import com.promptforge.prompt.repository.PromptRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content-addressed storage for prompt bodies. Each distinct text is stored once in
+ * prompt_contents under its SHA-256, and prompts reference it by hash. Reference
+ * counts are adjusted in the same transaction as the prompt rows that gain or drop
+ * a reference; a scheduled job deletes bodies nobody references any more.
+ * <p>
+ * Callers must be inside a transaction.
+ */
+@Slf4j
+@Service
+public class PromptContentStore {
+
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    private final PromptContentRepository contentRepository;
+    private final PromptRepository promptRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PromptContentStore(PromptContentRepository contentRepository,
+                              PromptRepository promptRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate) {
+        this.contentRepository = contentRepository;
+        this.promptRepository = promptRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Hashes a prompt body: lowercase hex SHA-256 of its UTF-8 bytes.
+     */
+    public static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest((content != null ? content : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Points a prompt at the stored body for its current content, storing the body if
+     * it is new and moving the reference off the previous body. No-op if the content
+     * did not change.
+     */
+    public void attach(Prompt prompt) {
+        String text = prompt.getContent();
+        String hash = hash(text);
+        String previous = prompt.getContentHash();
+        if (hash.equals(previous) && prompt.getInlineContent() == null) {
+            return;
+        }
+
+        acquire(hash, text, 1);
+        if (previous != null) {
+            contentRepository.removeReferences(previous, 1);
+        }
+        prompt.setBody(contentRepository.getReferenceById(hash));
+        prompt.setInlineContent(null);
+    }
+
+    /**
+     * Attaches the bodies of many new prompts, with one statement per distinct text.
+     */
+    public void attachAll(List<Prompt> prompts) {
+        List<String> hashes = new ArrayList<>(prompts.size());
+        Map<String, String> texts = new LinkedHashMap<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Prompt prompt : prompts) {
+            String hash = hash(prompt.getContent());
+            hashes.add(hash);
+            texts.putIfAbsent(hash, prompt.getContent());
+            counts.merge(hash, 1L, Long::sum);
+        }
+
+        counts.forEach((hash, count) -> acquire(hash, texts.get(hash), count));
+        for (int i = 0; i < prompts.size(); i++) {
+            prompts.get(i).setBody(contentRepository.getReferenceById(hashes.get(i)));
+            prompts.get(i).setInlineContent(null);
+        }
+    }
+
+    /**
+     * Adds a reference to the body of an existing prompt, e.g. for a copy of it.
+     */
+    public void share(Prompt source, Prompt copy) {
+        if (source.getContentHash() == null) {
+            copy.setContent(source.getContent());
+            attach(copy);
+            return;
+        }
+        contentRepository.addReferences(source.getContentHash(), 1);
+        copy.setBody(source.getBody());
+    }
+
+    /**
+     * Drops a prompt's reference to its body, before the prompt is deleted.
+     */
+    public void release(Prompt prompt) {
+        if (prompt.getContentHash() != null) {
+            contentRepository.removeReferences(prompt.getContentHash(), 1);
+        }
+    }
+
+    /**
+     * Number of prompts whose body has exactly this text.
+     */
+    public long countReferences(String content) {
+        Long count = contentRepository.findRefCount(hash(content));
+        return count != null ? count : 0;
+    }
+
+    private void acquire(String hash, String text, long count) {
+        // Most duplicates are already stored, so try without sending the text first
+        if (contentRepository.addReferences(hash, count) == 0) {
+            contentRepository.upsert(hash, text, text != null ? text.length() : 0, count);
+        }
+    }
+
+    /**
+     * Deletes bodies that no prompt references. Safe against concurrent writers: a
+     * body gaining a reference is row-locked by that transaction, and the delete
+     * re-checks the count once the lock is released.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.content.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        Integer deleted = transactionTemplate.execute(status -> contentRepository.deleteUnreferenced());
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} unreferenced prompt bodies", deleted);
+        }
+    }
+
+    /**
+     * Schema step for databases created before content-addressed storage: their inline
+     * content column is NOT NULL, which every new or migrated row would violate.
+     * hibernate.ddl-auto=update never relaxes an existing constraint, so this runs
+     * during context startup, after the schema update and before the service takes
+     * traffic. If it cannot be applied, startup fails rather than leaving every save
+     * to break.
+     */
+    @PostConstruct
+    public void relaxLegacyContentColumn() {
+        List<String> nullable;
+        try {
+            nullable = jdbcTemplate.queryForList("SELECT is_nullable FROM information_schema.columns " +
+                    "WHERE table_schema = current_schema() AND table_name = 'prompts' AND column_name = 'content'",
+                    String.class);
+            if (nullable.contains("NO")) {
+                jdbcTemplate.execute("ALTER TABLE prompts ALTER COLUMN content DROP NOT NULL");
+                log.info("Relaxed NOT NULL on legacy prompts.content column");
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not relax NOT NULL on prompts.content; "
+                    + "run ALTER TABLE prompts ALTER COLUMN content DROP NOT NULL before starting", e);
+        }
+    }
+
+    /**
+     * Moves inline prompt bodies into prompt_contents batch by batch, then recomputes
+     * every reference count from the prompts table. Safe to re-run.
+     *
+     * @return Migration statistics
+     */
+    public Map<String, Object> migrate() {
+        long start = System.currentTimeMillis();
+        relaxLegacyContentColumn();
+
+        int migrated = 0;
+        List<Prompt> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Prompt> inline = promptRepository.findInlineContentBatch(PageRequest.of(0, MIGRATION_BATCH_SIZE));
+                inline.forEach(prompt -> prompt.setContent(prompt.getInlineContent()));
+                attachAll(inline);
+                return inline;
+            });
+            migrated += batch.size();
+        } while (batch.size() == MIGRATION_BATCH_SIZE);
+
+        Integer reconciled = transactionTemplate.execute(status -> contentRepository.reconcileReferences());
+        PromptContentRepository.StorageTotals totals = contentRepository.storageTotals();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("migratedPrompts", migrated);
+        report.put("reconciledBodies", reconciled);
+        report.put("distinctBodies", totals.getBodies());
+        report.put("storedChars", totals.getStoredChars());
+        report.put("referencedChars", totals.getReferencedChars());
+        report.put("charsSaved", totals.getReferencedChars() - totals.getStoredChars());
+        report.put("tookMs", System.currentTimeMillis() - start);
+
+        log.info("Migrated prompt content storage: {}", report);
+        return report;
+    }
+}
@@ -0,0 +1,220 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.event.PromptCountersFlushedEvent;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind accumulator for the denormalized counters on the prompts table.
+ * Hot paths record deltas in striped in-memory counters (one LongAdder per prompt)
+ * and a scheduled job applies them as batched relative UPDATEs, so a popular prompt
+ * never turns reads into row-locking writes.
+ */
+@Slf4j
+@Service
+public class PromptCounterAccumulator {
+
+    /**
+     * Counter columns on the prompts table that can be accumulated.
+     */
+    public enum Counter {
+        VIEWS("view_count"),
+        LIKES("like_count"),
+        FORKS("fork_count"),
+        COMMENTS("comment_count");
+
+        private final String column;
+
+        Counter(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    private final Map<Counter, ConcurrentHashMap<String, LongAdder>> pending = new EnumMap<>(Counter.class);
+    private final Map<Counter, List<Map.Entry<String, LongAdder>>> retired = new EnumMap<>(Counter.class);
+    private final Map<Counter, LongAdder> pendingTotals = new EnumMap<>(Counter.class);
+
+    public PromptCounterAccumulator(JdbcTemplate jdbcTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${promptforge.counters.flush-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+
+        for (Counter counter : Counter.values()) {
+            pending.put(counter, new ConcurrentHashMap<>());
+            retired.put(counter, new ArrayList<>());
+            LongAdder total = new LongAdder();
+            pendingTotals.put(counter, total);
+
+            Gauge.builder("promptforge.counters.pending", total, LongAdder::sum)
+                    .description("Counter deltas recorded in memory but not yet flushed to PostgreSQL")
+                    .tag("counter", counter.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Records a single increment for a prompt.
+     */
+    public void increment(Counter counter, String promptId) {
+        add(counter, promptId, 1);
+    }
+
+    /**
+     * Records a delta for a prompt. The delta is applied on the next flush.
+     */
+    public void add(Counter counter, String promptId, long delta) {
+        pending.get(counter).computeIfAbsent(promptId, id -> new LongAdder()).add(delta);
+        pendingTotals.get(counter).add(delta);
+    }
+
+    /**
+     * Gets the delta recorded for a prompt that has not been flushed yet.
+     */
+    public long getPendingDelta(Counter counter, String promptId) {
+        LongAdder adder = pending.get(counter).get(promptId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Gets the total of all unflushed deltas for a counter.
+     */
+    public long getPendingTotal(Counter counter) {
+        return pendingTotals.get(counter).sum();
+    }
+
+    /**
+     * Counts likes, unlikes and forks once the transaction that recorded them has
+     * committed, so a rolled-back like never reaches like_count.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(PromptEngagementEvent event) {
+        switch (event.getSignal()) {
+            case LIKE -> increment(Counter.LIKES, event.getPromptId());
+            case UNLIKE -> add(Counter.LIKES, event.getPromptId(), -1);
+            case FORK -> increment(Counter.FORKS, event.getPromptId());
+            case COMMENT -> increment(Counter.COMMENTS, event.getPromptId());
+            default -> {
+                // Ratings update their aggregate in the rating transaction
+            }
+        }
+    }
+
+    /**
+     * Flushes all pending deltas to PostgreSQL.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        for (Counter counter : Counter.values()) {
+            flush(counter);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing pending prompt counters before shutdown");
+        flush();
+    }
+
+    private void flush(Counter counter) {
+        ConcurrentHashMap<String, LongAdder> counters = pending.get(counter);
+
+        // Sorted so concurrent replicas update rows in the same order and cannot deadlock
+        Map<String, Long> deltas = new TreeMap<>();
+
+        // Adders evicted on the previous flush may still have received a late increment
+        List<Map.Entry<String, LongAdder>> evicted = retired.get(counter);
+        for (Map.Entry<String, LongAdder> entry : evicted) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            }
+        }
+        evicted.clear();
+
+        counters.forEach((promptId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.merge(promptId, delta, Long::sum);
+            } else if (counters.remove(promptId, adder)) {
+                // Idle since the last flush; evict and drain once more on the next flush
+                evicted.add(Map.entry(promptId, adder));
+            }
+        });
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Clamped so a burst of unlikes applied before the matching likes cannot go negative
+        String sql = "UPDATE prompts SET " + counter.getColumn() + " = GREATEST(" + counter.getColumn() + " + ?, 0) "
+                + "WHERE id = ?";
+        List<Object[]> batch = new ArrayList<>(Math.min(deltas.size(), batchSize));
+        Map<String, Long> applied = new HashMap<>();
+
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            batch.add(new Object[]{entry.getValue(), entry.getKey()});
+            if (batch.size() == batchSize) {
+                applyBatch(counter, sql, batch, applied);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            applyBatch(counter, sql, batch, applied);
+        }
+
+        if (!applied.isEmpty()) {
+            log.debug("Flushed {} deltas for {} prompts", counter, applied.size());
+            eventPublisher.publishEvent(new PromptCountersFlushedEvent(counter, applied));
+        }
+    }
+
+    private void applyBatch(Counter counter, String sql, List<Object[]> batch, Map<String, Long> applied) {
+        long total = 0;
+        for (Object[] row : batch) {
+            total += (Long) row[0];
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(sql, batch);
+            pendingTotals.get(counter).add(-total);
+            for (Object[] row : batch) {
+                applied.put((String) row[1], (Long) row[0]);
+            }
+        } catch (RuntimeException e) {
+            // Put the deltas back so they are retried on the next flush instead of lost
+            log.error("Failed to flush {} {} counter deltas, will retry", batch.size(), counter, e);
+            for (Object[] row : batch) {
+                pending.get(counter).computeIfAbsent((String) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.dto.CommentResponse;
+import com.promptforge.prompt.dto.CursorPageResponse;
+import com.promptforge.prompt.dto.PromptDetailResponse;
+import com.promptforge.prompt.dto.PromptResponse;
+import com.promptforge.prompt.dto.PromptStatsResponse;
+import com.promptforge.prompt.dto.RatingHistogramResponse;
+import com.promptforge.prompt.dto.UserEngagementResponse;
+import com.promptforge.prompt.dto.VersionSummaryResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Assembles a prompt page from the existing PromptService and SocialService
+ * lookups, running them concurrently so the page costs as long as its slowest
+ * section rather than the sum of all of them. Each section has its own timeout;
+ * a section that times out or fails is left out and reported instead of failing
+ * the whole page. The prompt itself is required, and its access check gates the
+ * response, so nothing about a prompt the viewer cannot see is returned.
+ * <p>
+ * Lookups run on a bounded pool owned by this service. When it is saturated the
+ * calling request thread runs the lookup itself, degrading to sequential latency
+ * rather than rejecting sections.
+ */
+@Slf4j
+@Service
+public class PromptDetailService {
+    
+    public static final int COMMENT_PAGE_SIZE = 20;
+    public static final int VERSION_PAGE_SIZE = 10;
+    
+    private final PromptService promptService;
+    private final SocialService socialService;
+    private final long sectionTimeoutMs;
+    private final ThreadPoolExecutor executor;
+    
+    public PromptDetailService(PromptService promptService,
+                               SocialService socialService,
+                               @Value("${promptforge.detail.threads:16}") int threads,
+                               @Value("${promptforge.detail.queue-capacity:256}") int queueCapacity,
+                               @Value("${promptforge.detail.section-timeout-ms:500}") long sectionTimeoutMs) {
+        this.promptService = promptService;
+        this.socialService = socialService;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "prompt-detail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Gets a prompt with its social stats, rating histogram, first page of comments,
+     * the viewer's like/rating state and its recent versions.
+     *
+     * @param promptId The ID of the prompt
+     * @param userId The viewer, or null if anonymous
+     * @return The assembled page
+     * @throws RuntimeException if the prompt is not found, not visible to the viewer, or timed out
+     */
+    public PromptDetailResponse getPromptDetail(String promptId, String userId) {
+        long start = System.currentTimeMillis();
+        List<String> unavailable = Collections.synchronizedList(new ArrayList<>());
+        
+        CompletableFuture<PromptResponse> prompt = CompletableFuture
+                .supplyAsync(() -> promptService.getPromptById(promptId, userId), executor)
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS);
+        CompletableFuture<PromptStatsResponse> stats = section("stats", unavailable,
+                () -> socialService.getPromptStats(promptId));
+        CompletableFuture<RatingHistogramResponse> ratings = section("ratings", unavailable,
+                () -> socialService.getRatingHistogram(promptId));
+        CompletableFuture<CursorPageResponse<CommentResponse>> comments = section("comments", unavailable,
+                () -> socialService.scrollComments(promptId, null, COMMENT_PAGE_SIZE));
+        CompletableFuture<UserEngagementResponse> engagement = userId == null
+                ? CompletableFuture.completedFuture(null)
+                : section("engagement", unavailable,
+                        () -> socialService.getUserEngagement(userId, List.of(promptId)).get(0));
+        CompletableFuture<List<VersionSummaryResponse>> versions = section("versions", unavailable,
+                () -> promptService.getVersionHistory(promptId, PageRequest.of(0, VERSION_PAGE_SIZE)).getContent());
+        
+        PromptResponse promptResponse;
+        try {
+            promptResponse = prompt.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new RuntimeException("Prompt lookup timed out");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        
+        CompletableFuture.allOf(stats, ratings, comments, engagement, versions).join();
+        
+        long tookMs = System.currentTimeMillis() - start;
+        if (!unavailable.isEmpty()) {
+            log.warn("Prompt detail for {} missing sections {} after {} ms", promptId, unavailable, tookMs);
+        }
+        
+        return PromptDetailResponse.builder()
+                .prompt(promptResponse)
+                .stats(stats.join())
+                .ratings(ratings.join())
+                .comments(comments.join())
+                .engagement(engagement.join())
+                .versions(versions.join())
+                .unavailableSections(new ArrayList<>(unavailable))
+                .tookMs(tookMs)
+                .build();
+    }
+    
+    /**
+     * Starts an optional section: it completes with null, and its name is recorded
+     * as unavailable, if the lookup fails or exceeds the section timeout.
+     */
+    private <T> CompletableFuture<T> section(String name, List<String> unavailable, Supplier<T> lookup) {
+        return CompletableFuture.supplyAsync(lookup, executor)
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.debug("Prompt detail section {} unavailable: {}", name, cause.toString());
+                    unavailable.add(name);
+                    return null;
+                });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
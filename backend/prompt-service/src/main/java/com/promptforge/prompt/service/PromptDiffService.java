@@ -0,0 +1,159 @@
+package com.promptforge.prompt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.promptforge.prompt.diff.MyersDiff;
+import com.promptforge.prompt.diff.Tokenizers;
+import com.promptforge.prompt.document.PromptVersion;
+import com.promptforge.prompt.dto.VersionDiffResponse;
+import com.promptforge.prompt.repository.PromptRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes line or word diffs between two versions of a prompt. Versions never
+ * change once written, so results are cached by (prompt, from, to, granularity)
+ * without invalidation, bounded by approximate size. Visibility is checked on every
+ * call, before the cache, since a prompt can be made private after it was diffed.
+ */
+@Slf4j
+@Service
+public class PromptDiffService {
+
+    public static final String LINE = "line";
+    public static final String WORD = "word";
+
+    private final PromptRepository promptRepository;
+    private final PromptVersionStore versionStore;
+    private final Cache<String, VersionDiffResponse> cache;
+
+    public PromptDiffService(PromptRepository promptRepository, PromptVersionStore versionStore,
+                             @Value("${promptforge.diff.cache-max-weight-bytes:16777216}") long cacheMaxWeightBytes) {
+        this.promptRepository = promptRepository;
+        this.versionStore = versionStore;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxWeightBytes)
+                .weigher((String key, VersionDiffResponse diff) -> estimateSize(diff))
+                .build();
+    }
+
+    /**
+     * Diffs the content of two versions of a prompt.
+     *
+     * @param promptId The prompt ID
+     * @param fromVersion The older version (semantic version)
+     * @param toVersion The newer version (semantic version)
+     * @param granularity "line" or "word"
+     * @param userId The requesting user (may be null); private prompts are only diffed for their owner
+     * @return The diff
+     */
+    public VersionDiffResponse diff(String promptId, String fromVersion, String toVersion, String granularity,
+                                    String userId) {
+        PromptSummary prompt = promptRepository.findSummariesByIdIn(List.of(promptId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!Boolean.TRUE.equals(prompt.getIsPublic()) && !prompt.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+
+        String mode = granularity != null ? granularity.toLowerCase() : LINE;
+        if (!LINE.equals(mode) && !WORD.equals(mode)) {
+            throw new RuntimeException("Invalid granularity: must be line or word");
+        }
+
+        String key = promptId + "|" + fromVersion + "|" + toVersion + "|" + mode;
+        VersionDiffResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String from = loadContent(promptId, fromVersion);
+        String to = loadContent(promptId, toVersion);
+
+        long start = System.nanoTime();
+        VersionDiffResponse diff = compute(from, to, mode);
+        diff.setPromptId(promptId);
+        diff.setFromVersion(fromVersion);
+        diff.setToVersion(toVersion);
+        log.debug("Diffed prompt {} {}..{} by {} in {} us", promptId, fromVersion, toVersion, mode,
+                (System.nanoTime() - start) / 1000);
+
+        cache.put(key, diff);
+        return diff;
+    }
+
+    private String loadContent(String promptId, String version) {
+        PromptVersion loaded = versionStore.getVersion(promptId, version)
+                .orElseThrow(() -> new RuntimeException("Version not found: " + version));
+        return loaded.getContent() != null ? loaded.getContent() : "";
+    }
+
+    static VersionDiffResponse compute(String from, String to, String granularity) {
+        List<String> fromTokens = WORD.equals(granularity) ? Tokenizers.words(from) : Tokenizers.lines(from);
+        List<String> toTokens = WORD.equals(granularity) ? Tokenizers.words(to) : Tokenizers.lines(to);
+
+        // Compare small integers instead of strings inside the diff loop
+        Map<String, Integer> ids = new HashMap<>();
+        List<MyersDiff.Edit> edits = MyersDiff.diff(intern(fromTokens, ids), intern(toTokens, ids));
+
+        List<VersionDiffResponse.Segment> segments = new ArrayList<>(edits.size());
+        int inserted = 0;
+        int deleted = 0;
+        int unchanged = 0;
+        for (MyersDiff.Edit edit : edits) {
+            switch (edit.getType()) {
+                case EQUAL -> {
+                    segments.add(segment(edit.getType(), fromTokens, edit.getAStart(), edit.getAEnd()));
+                    unchanged += edit.getAEnd() - edit.getAStart();
+                }
+                case DELETE -> {
+                    segments.add(segment(edit.getType(), fromTokens, edit.getAStart(), edit.getAEnd()));
+                    deleted += edit.getAEnd() - edit.getAStart();
+                }
+                case INSERT -> {
+                    segments.add(segment(edit.getType(), toTokens, edit.getBStart(), edit.getBEnd()));
+                    inserted += edit.getBEnd() - edit.getBStart();
+                }
+            }
+        }
+
+        return VersionDiffResponse.builder()
+                .granularity(granularity)
+                .segments(segments)
+                .insertedTokens(inserted)
+                .deletedTokens(deleted)
+                .unchangedTokens(unchanged)
+                .build();
+    }
+
+    private static List<Integer> intern(List<String> tokens, Map<String, Integer> ids) {
+        List<Integer> interned = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            interned.add(ids.computeIfAbsent(token, t -> ids.size()));
+        }
+        return interned;
+    }
+
+    private static VersionDiffResponse.Segment segment(MyersDiff.Type type, List<String> tokens, int start, int end) {
+        StringBuilder text = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            text.append(tokens.get(i));
+        }
+        return new VersionDiffResponse.Segment(type.name(), text.toString());
+    }
+
+    private static int estimateSize(VersionDiffResponse diff) {
+        int size = 256;
+        for (VersionDiffResponse.Segment segment : diff.getSegments()) {
+            size += 48 + 2 * segment.getText().length();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,166 @@
+package com.promptforge.prompt.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a user's prompt library straight to an output stream. Prompts are read
+ * through a server-side cursor (see PromptRepository#streamByUserId) and detached
+ * once written, and each version history is streamed from MongoDB the same way, so
+ * memory use does not grow with the size of the library.
+ * <p>
+ * Records use the same field names as CreatePromptRequest, so an NDJSON export can
+ * be fed back into the import endpoint.
+ */
+@Slf4j
+@Service
+public class PromptExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String JSON = "json";
+
+    private final PromptRepository promptRepository;
+    private final PromptVersionStore versionStore;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PromptExportService(PromptRepository promptRepository,
+                               PromptVersionStore versionStore,
+                               EntityManager entityManager,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.promptRepository = promptRepository;
+        this.versionStore = versionStore;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Validates and normalizes an export format.
+     *
+     * @param format "ndjson" or "json"
+     * @return The normalized format
+     */
+    public String resolveFormat(String format) {
+        String resolved = format != null ? format.toLowerCase() : NDJSON;
+        if (!NDJSON.equals(resolved) && !JSON.equals(resolved)) {
+            throw new RuntimeException("Invalid export format: must be ndjson or json");
+        }
+        return resolved;
+    }
+
+    /**
+     * Writes all prompts of a user, oldest first.
+     *
+     * @param userId The owner
+     * @param format "ndjson" for one prompt per line, "json" for a single array
+     * @param gzip Whether to gzip the output
+     * @param includeVersions Whether to embed each prompt's version history
+     * @param out The response stream (not closed)
+     * @return Number of prompts written
+     */
+    public long exportUserPrompts(String userId, String format, boolean gzip, boolean includeVersions,
+                                  OutputStream out) throws IOException {
+        boolean ndjson = NDJSON.equals(resolveFormat(format));
+        long start = System.currentTimeMillis();
+
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(compressed != null ? compressed : out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        Long written;
+        try {
+            written = readOnlyTransaction.execute(status -> {
+                try (Stream<Prompt> prompts = promptRepository.streamByUserId(userId)) {
+                    return writePrompts(prompts, generator, ndjson, includeVersions);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        generator.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+
+        log.info("Exported {} prompts for user {} in {} ms", written, userId, System.currentTimeMillis() - start);
+        return written != null ? written : 0;
+    }
+
+    private long writePrompts(Stream<Prompt> prompts, JsonGenerator generator, boolean ndjson,
+                              boolean includeVersions) throws IOException {
+        if (!ndjson) {
+            generator.writeStartArray();
+        }
+
+        long written = 0;
+        for (Prompt prompt : (Iterable<Prompt>) prompts::iterator) {
+            writePrompt(prompt, generator, includeVersions);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+            // Keep the persistence context from accumulating every row of the cursor
+            entityManager.detach(prompt);
+            written++;
+        }
+
+        if (!ndjson) {
+            generator.writeEndArray();
+        }
+        return written;
+    }
+
+    private void writePrompt(Prompt prompt, JsonGenerator generator, boolean includeVersions) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", prompt.getId());
+        generator.writeStringField("title", prompt.getTitle());
+        generator.writeStringField("content", prompt.getContent());
+        generator.writeStringField("description", prompt.getDescription());
+        generator.writeStringField("category", prompt.getCategory());
+        generator.writeObjectField("tags", prompt.getTags());
+        generator.writeObjectField("isPublic", prompt.getIsPublic());
+        generator.writeStringField("model", prompt.getModel());
+        generator.writeStringField("version", prompt.getVersion());
+        generator.writeObjectField("viewCount", prompt.getViewCount());
+        generator.writeObjectField("forkCount", prompt.getForkCount());
+        generator.writeObjectField("likeCount", prompt.getLikeCount());
+        generator.writeObjectField("rating", prompt.getRating());
+        generator.writeObjectField("ratingCount", prompt.getRatingCount());
+        generator.writeObjectField("createdAt", prompt.getCreatedAt());
+        generator.writeObjectField("updatedAt", prompt.getUpdatedAt());
+
+        if (includeVersions) {
+            generator.writeArrayFieldStart("versions");
+            versionStore.streamVersions(prompt.getId(), version -> {
+                try {
+                    generator.writeObject(version);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,285 @@
+package com.promptforge.prompt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptforge.prompt.dto.BulkImportResponse;
+import com.promptforge.prompt.dto.CreatePromptRequest;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.event.PromptEventProducer;
+import com.promptforge.prompt.repository.PromptRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk prompt import. Items are validated one by one and written in chunks: one
+ * JDBC-batched saveAll per chunk (see hibernate.jdbc.batch_size), one Mongo
+ * insertMany for the first versions and one flushed Kafka producer batch for the
+ * PromptCreatedEvents. If a chunk fails to write, its items are retried one at a
+ * time so a single bad row only fails itself.
+ */
+@Slf4j
+@Service
+public class PromptImportService {
+
+    private static final String INITIAL_CHANGE_LOG = "Initial version";
+
+    private final PromptRepository promptRepository;
+    private final PromptVersionStore versionStore;
+    private final PromptContentStore contentStore;
+    private final PromptEventProducer promptEventProducer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public PromptImportService(PromptRepository promptRepository,
+                               PromptVersionStore versionStore,
+                               PromptContentStore contentStore,
+                               PromptEventProducer promptEventProducer,
+                               ApplicationEventPublisher eventPublisher,
+                               TransactionTemplate transactionTemplate,
+                               Validator validator,
+                               ObjectMapper objectMapper,
+                               @Value("${promptforge.import.chunk-size:500}") int chunkSize,
+                               @Value("${promptforge.import.max-items:10000}") int maxItems) {
+        this.promptRepository = promptRepository;
+        this.versionStore = versionStore;
+        this.contentStore = contentStore;
+        this.promptEventProducer = promptEventProducer;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Imports prompts submitted as a JSON array.
+     */
+    public BulkImportResponse importPrompts(List<CreatePromptRequest> requests, String userId, String username) {
+        if (requests.size() > maxItems) {
+            throw new RuntimeException("Too many prompts: at most " + maxItems + " per import");
+        }
+
+        Importer importer = new Importer(userId, username);
+        for (CreatePromptRequest request : requests) {
+            importer.accept(request, null);
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Imports prompts from an NDJSON stream, one CreatePromptRequest per line.
+     * Lines are parsed and written chunk by chunk, so the stream is never held in memory.
+     * Reading stops after max-items lines; the items up to there are kept and the
+     * response is marked truncated.
+     */
+    public BulkImportResponse importNdjson(InputStream input, String userId, String username) throws IOException {
+        Importer importer = new Importer(userId, username);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (importer.index >= maxItems) {
+                    log.warn("NDJSON import for user {} stopped at {} prompts", userId, maxItems);
+                    importer.truncated = true;
+                    break;
+                }
+                try {
+                    importer.accept(objectMapper.readValue(line, CreatePromptRequest.class), null);
+                } catch (JsonProcessingException e) {
+                    importer.accept(null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Collects items into chunks and records one result per item.
+     */
+    private class Importer {
+
+        private final String userId;
+        private final String username;
+        private final long start = System.currentTimeMillis();
+        private final List<BulkImportResponse.ItemResult> results = new ArrayList<>();
+        private final List<PendingItem> chunk = new ArrayList<>();
+        private int index;
+        private boolean truncated;
+
+        Importer(String userId, String username) {
+            this.userId = userId;
+            this.username = username;
+        }
+
+        void accept(CreatePromptRequest request, String parseError) {
+            int position = index++;
+            String error = parseError != null ? parseError : validate(request);
+            if (error != null) {
+                results.add(new BulkImportResponse.ItemResult(position, null, error));
+                return;
+            }
+
+            chunk.add(new PendingItem(position, request));
+            if (chunk.size() >= chunkSize) {
+                flushChunk();
+            }
+        }
+
+        BulkImportResponse finish() {
+            flushChunk();
+            results.sort(Comparator.comparingInt(BulkImportResponse.ItemResult::getIndex));
+
+            int imported = (int) results.stream().filter(result -> result.getPromptId() != null).count();
+            log.info("Imported {} of {} prompts for user: {}", imported, results.size(), userId);
+
+            return BulkImportResponse.builder()
+                    .total(results.size())
+                    .imported(imported)
+                    .failed(results.size() - imported)
+                    .tookMs(System.currentTimeMillis() - start)
+                    .truncated(truncated)
+                    .results(results)
+                    .build();
+        }
+
+        private void flushChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            List<Prompt> saved = new ArrayList<>();
+            try {
+                saved.addAll(writeChunk(chunk.stream()
+                        .map(item -> toEntity(item.request))
+                        .collect(Collectors.toList())));
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(new BulkImportResponse.ItemResult(chunk.get(i).index, saved.get(i).getId(), null));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Import chunk of {} prompts failed, retrying one by one: {}", chunk.size(), e.getMessage());
+                for (PendingItem item : chunk) {
+                    try {
+                        Prompt prompt = writeChunk(List.of(toEntity(item.request))).get(0);
+                        saved.add(prompt);
+                        results.add(new BulkImportResponse.ItemResult(item.index, prompt.getId(), null));
+                    } catch (RuntimeException itemError) {
+                        results.add(new BulkImportResponse.ItemResult(item.index, null,
+                                "Could not be saved: " + itemError.getMessage()));
+                    }
+                }
+            }
+            chunk.clear();
+
+            if (!saved.isEmpty()) {
+                saved.forEach(prompt -> eventPublisher.publishEvent(PromptChangedEvent.created(prompt)));
+            }
+        }
+
+        private Prompt toEntity(CreatePromptRequest request) {
+            return Prompt.builder()
+                    .title(request.getTitle())
+                    .content(request.getContent())
+                    .description(request.getDescription())
+                    .userId(userId)
+                    .username(username)
+                    .category(request.getCategory())
+                    .tags(request.getTags() != null ? new HashSet<>(request.getTags()) : new HashSet<>())
+                    .isPublic(request.getIsPublic() != null ? request.getIsPublic() : false)
+                    .model(request.getModel())
+                    .version("1.0.0")
+                    .build();
+        }
+    }
+
+    /**
+     * Saves prompts and their bodies in one transaction and writes their first
+     * versions to Mongo inside it, so a Mongo failure rolls back the PostgreSQL
+     * rows. Mongo is not part of that transaction: if it rolls back or fails to
+     * commit after the versions were (even partly) written, the versions of rows
+     * that were not committed are removed again.
+     */
+    private List<Prompt> writeChunk(List<Prompt> prompts) {
+        List<String> versioned = new ArrayList<>(prompts.size());
+        try {
+            return transactionTemplate.execute(status -> {
+                contentStore.attachAll(prompts);
+                List<Prompt> saved = promptRepository.saveAll(prompts);
+                promptRepository.flush();
+                saved.forEach(prompt -> versioned.add(prompt.getId()));
+                versionStore.appendFirstVersions(saved, INITIAL_CHANGE_LOG);
+                promptEventProducer.publishPromptsCreated(saved);
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            discardUncommittedVersions(versioned);
+            throw e;
+        }
+    }
+
+    private void discardUncommittedVersions(List<String> promptIds) {
+        if (promptIds.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> orphaned = new HashSet<>(promptIds);
+            promptRepository.findExistingIds(promptIds).forEach(orphaned::remove);
+            if (!orphaned.isEmpty()) {
+                versionStore.deleteVersions(orphaned);
+                log.info("Removed first versions of {} prompts whose import rolled back", orphaned.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not remove versions of {} rolled back imported prompts {}: {}",
+                    promptIds.size(), promptIds, e.getMessage());
+        }
+    }
+
+    private String validate(CreatePromptRequest request) {
+        if (request == null) {
+            return "Item is null";
+        }
+        Set<ConstraintViolation<CreatePromptRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static class PendingItem {
+        private final int index;
+        private final CreatePromptRequest request;
+
+        PendingItem(int index, CreatePromptRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+    }
+}
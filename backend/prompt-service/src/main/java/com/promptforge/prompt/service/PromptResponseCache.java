@@ -0,0 +1,124 @@
+package com.promptforge.prompt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.promptforge.prompt.dto.PromptResponse;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.event.PromptCountersFlushedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of mapped PromptResponses keyed by prompt ID.
+ * Eviction is Caffeine's W-TinyLFU weighted by the approximate size of each
+ * response, and entries expire after a TTL so social counters cannot drift far.
+ * Entries are invalidated locally after updates/deletes commit and on other
+ * replicas through the prompt.updated / prompt.deleted Kafka topics.
+ */
+@Slf4j
+@Component
+public class PromptResponseCache {
+    
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final int TAG_OVERHEAD_BYTES = 48;
+    
+    private final Cache<String, PromptResponse> cache;
+    private final long maxWeightBytes;
+    private final Duration ttl;
+    
+    public PromptResponseCache(@Value("${promptforge.cache.prompt.max-weight-bytes:67108864}") long maxWeightBytes,
+                               @Value("${promptforge.cache.prompt.ttl-seconds:300}") long ttlSeconds) {
+        this.maxWeightBytes = maxWeightBytes;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String promptId, PromptResponse response) -> estimateSize(response))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * Gets a cached response, loading and caching it on a miss.
+     * Loader exceptions propagate to the caller and nothing is cached.
+     */
+    public PromptResponse get(String promptId, Function<String, PromptResponse> loader) {
+        return cache.get(promptId, loader);
+    }
+    
+    /**
+     * Removes a prompt from the cache.
+     */
+    public void invalidate(String promptId) {
+        cache.invalidate(promptId);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        invalidate(event.getPromptId());
+    }
+    
+    /**
+     * Folds flushed counter deltas into cached responses so the persisted base counts
+     * they carry stay in step with PostgreSQL. Readers add the still-pending delta on
+     * top, so without this a count would drop back by the flushed delta until the
+     * entry expires.
+     */
+    @EventListener
+    public void onCountersFlushed(PromptCountersFlushedEvent event) {
+        event.getDeltas().forEach((promptId, delta) -> cache.asMap().computeIfPresent(promptId,
+                (id, response) -> withDelta(response, event.getCounter(), delta.intValue())));
+    }
+    
+    /**
+     * Gets hit/miss/eviction statistics for the actuator endpoint.
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("weightedSizeBytes", cache.policy().eviction()
+                .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                .orElse(0L));
+        result.put("maxWeightBytes", maxWeightBytes);
+        result.put("ttlSeconds", ttl.toSeconds());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("evictionWeight", stats.evictionWeight());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+    
+    private static PromptResponse withDelta(PromptResponse response, PromptCounterAccumulator.Counter counter,
+                                            int delta) {
+        return switch (counter) {
+            case VIEWS -> response.toBuilder().viewCount(response.getViewCount() + delta).build();
+            case LIKES -> response.toBuilder().likeCount(response.getLikeCount() + delta).build();
+            case FORKS -> response.toBuilder().forkCount(response.getForkCount() + delta).build();
+            case COMMENTS -> response.toBuilder().commentCount(response.getCommentCount() + delta).build();
+        };
+    }
+    
+    private static int estimateSize(PromptResponse response) {
+        long chars = length(response.getTitle()) + length(response.getContent()) + length(response.getDescription())
+                + length(response.getUsername()) + length(response.getCategory()) + length(response.getModel());
+        int tags = response.getTags() != null ? response.getTags().size() : 0;
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + chars * 2 + (long) tags * TAG_OVERHEAD_BYTES);
+    }
+    
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
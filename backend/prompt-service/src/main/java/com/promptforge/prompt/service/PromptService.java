@@ -1,25 +1,53 @@
 package com.promptforge.prompt.service;
 
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.event.PromptEngagementEvent;
 import com.promptforge.prompt.event.PromptEventProducer;
 
 import com.promptforge.prompt.document.PromptVersion;
 import com.promptforge.prompt.dto.CreatePromptRequest;
+import com.promptforge.prompt.dto.CursorPageResponse;
+import com.promptforge.prompt.dto.DuplicateCheckResponse;
+import com.promptforge.prompt.dto.FacetedBrowseResponse;
+import com.promptforge.prompt.dto.ForkPromptRequest;
+import com.promptforge.prompt.dto.ForkTreeResponse;
 import com.promptforge.prompt.dto.PromptResponse;
+import com.promptforge.prompt.dto.PromptSummaryResponse;
+import com.promptforge.prompt.dto.SimilarPromptResponse;
+import com.promptforge.prompt.dto.TagCountResponse;
 import com.promptforge.prompt.dto.UpdatePromptRequest;
+import com.promptforge.prompt.dto.VersionSummaryResponse;
 import com.promptforge.prompt.entity.Prompt;
 import com.promptforge.prompt.repository.PromptRepository;
-import com.promptforge.prompt.repository.PromptVersionRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import com.promptforge.prompt.search.FacetHits;
+import com.promptforge.prompt.search.FacetIndex;
+import com.promptforge.prompt.search.NearDuplicateIndex;
+import com.promptforge.prompt.search.TagIndex;
+import com.promptforge.prompt.search.VectorIndex;
+import com.promptforge.prompt.search.PromptSearchIndex;
+import com.promptforge.prompt.search.SearchHits;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,8 +56,24 @@ import java.util.stream.Collectors;
 public class PromptService {
     
     private final PromptRepository promptRepository;
-    private final PromptVersionRepository promptVersionRepository;
+    private final PromptVersionStore versionStore;
+    private final PromptContentStore contentStore;
     private final PromptEventProducer promptEventProducer;
+    private final PromptCounterAccumulator counterAccumulator;
+    private final PromptSearchIndex searchIndex;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final TagIndex tagIndex;
+    private final FacetIndex facetIndex;
+    private final VectorIndex vectorIndex;
+    private final PromptResponseCache promptResponseCache;
+    private final TrendingRanker trendingRanker;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private static final int MAX_DUPLICATE_MATCHES = 10;
+    private static final int MAX_FORK_TREE_NODES = 1000;
+    private static final int MAX_BROWSE_OFFSET = 10_000;
+    private static final int MAX_HYBRID_DEPTH = 1000;
+    private static final int RRF_K = 60; // Reciprocal rank fusion damping constant
     
     @Transactional
     public PromptResponse createPrompt(CreatePromptRequest request, String userId, String username) {
@@ -49,6 +93,7 @@ public class PromptService {
                 .version("1.0.0")
                 .build();
         
+        contentStore.attach(prompt);
         prompt = promptRepository.save(prompt);
         
         // Publish prompt created event
@@ -64,87 +109,494 @@ public class PromptService {
         // Save first version to MongoDB
         saveVersion(prompt, "Initial version");
         
+        eventPublisher.publishEvent(PromptChangedEvent.created(prompt));
+        
         log.info("Prompt created with ID: {}", prompt.getId());
         
         return mapToResponse(prompt);
     }
     
+    /**
+     * Forks a prompt the user can see into a new prompt they own. The fork shares the
+     * source's stored body and its first version points at the source version, so no
+     * content is copied until the fork is edited.
+     */
+    @Transactional
+    public PromptResponse forkPrompt(String promptId, ForkPromptRequest request, String userId, String username) {
+        log.info("Forking prompt {} for user: {}", promptId, userId);
+        
+        Prompt source = promptRepository.findById(promptId)
+                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!source.getIsPublic() && !source.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+        
+        String fromVersion = request.getVersion() != null ? request.getVersion() : source.getVersion();
+        PromptVersion base = versionStore.findStored(promptId, fromVersion)
+                .orElseThrow(() -> new RuntimeException("Version not found"));
+        
+        Prompt fork = Prompt.builder()
+                .title(request.getTitle() != null ? request.getTitle() : source.getTitle())
+                .description(source.getDescription())
+                .userId(userId)
+                .username(username)
+                .category(source.getCategory())
+                .tags(source.getTags() != null ? new HashSet<>(source.getTags()) : new HashSet<>())
+                .isPublic(request.getIsPublic() != null ? request.getIsPublic() : false)
+                .model(source.getModel())
+                .version("1.0.0")
+                .forkedFromId(source.getId())
+                .forkedFromVersion(fromVersion)
+                .build();
+        
+        if (fromVersion.equals(source.getVersion())) {
+            contentStore.share(source, fork);
+        } else {
+            fork.setContent(versionStore.materialize(base).getContent());
+            contentStore.attach(fork);
+        }
+        fork = promptRepository.save(fork);
+        versionStore.appendFork(fork, base, "Forked from " + source.getId() + " at version " + fromVersion);
+        
+        // Counted into fork_count by the counter accumulator once committed
+        eventPublisher.publishEvent(PromptEngagementEvent.of(PromptEngagementEvent.Signal.FORK, source.getId()));
+        
+        promptEventProducer.publishPromptCreated(
+            fork.getId(),
+            fork.getTitle(),
+            fork.getUserId(),
+            fork.getUsername(),
+            fork.getCategory(),
+            fork.getIsPublic()
+        );
+        eventPublisher.publishEvent(PromptChangedEvent.created(fork));
+        
+        log.info("Prompt {} forked as {}", promptId, fork.getId());
+        
+        return mapToResponse(fork);
+    }
+    
+    /**
+     * Gets the forks of a prompt as a tree, breadth first up to {@code maxDepth}
+     * levels and a fixed number of nodes.
+     */
+    @Transactional(readOnly = true)
+    public ForkTreeResponse getForkTree(String promptId, String userId, int maxDepth) {
+        log.info("Fetching fork tree of prompt: {}", promptId);
+        
+        List<Object[]> rows = promptRepository.findForkTree(promptId, userId, maxDepth, MAX_FORK_TREE_NODES + 1);
+        boolean truncated = rows.size() > MAX_FORK_TREE_NODES;
+        if (truncated) {
+            rows = rows.subList(0, MAX_FORK_TREE_NODES);
+        }
+        
+        Map<String, PromptSummaryResponse> summaries = mapToSummaryResponses(findSummariesInOrder(rows.stream()
+                        .map(row -> (String) row[0])
+                        .collect(Collectors.toList())))
+                .stream()
+                .collect(Collectors.toMap(PromptSummaryResponse::getId, Function.identity()));
+        
+        PromptSummaryResponse root = summaries.get(promptId);
+        if (root == null) {
+            throw new RuntimeException("Prompt not found");
+        }
+        if (!root.getIsPublic() && !root.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+        
+        // Rows are breadth first, so every parent is seen before its children
+        Map<String, ForkTreeResponse.Node> nodes = new HashMap<>();
+        for (Object[] row : rows) {
+            PromptSummaryResponse summary = summaries.get((String) row[0]);
+            ForkTreeResponse.Node parent = nodes.get((String) row[1]);
+            if (summary == null || (parent == null && !nodes.isEmpty())) {
+                continue;
+            }
+            ForkTreeResponse.Node node = new ForkTreeResponse.Node(summary, (String) row[2], new ArrayList<>());
+            nodes.put(summary.getId(), node);
+            if (parent != null) {
+                parent.getChildren().add(node);
+            }
+        }
+        
+        return ForkTreeResponse.builder()
+                .root(nodes.get(promptId))
+                .nodes(nodes.size())
+                .truncated(truncated)
+                .build();
+    }
+    
     @Transactional(readOnly = true)
     public PromptResponse getPromptById(String promptId, String userId) {
         log.info("Fetching prompt by ID: {}", promptId);
         
-        Prompt prompt = promptRepository.findById(promptId)
-                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        PromptResponse cached = promptResponseCache.get(promptId, id -> promptRepository.findById(id)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new RuntimeException("Prompt not found")));
         
         // Check if user has access (public or owner)
-        if (!prompt.getIsPublic() && !prompt.getUserId().equals(userId)) {
+        if (!cached.getIsPublic() && !cached.getUserId().equals(userId)) {
             throw new RuntimeException("Access denied");
         }
         
-        // Increment view count
-        prompt.incrementViewCount();
+        // Record the view in memory; it is flushed to view_count in batches
+        counterAccumulator.increment(PromptCounterAccumulator.Counter.VIEWS, promptId);
         
         // Publish prompt viewed event
         promptEventProducer.publishPromptViewed(promptId, userId);
-        promptRepository.save(prompt);
         
-        return mapToResponse(prompt);
+        // Copy so the cached instance is never mutated
+        return cached.toBuilder()
+                .viewCount(cached.getViewCount()
+                        + (int) counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.VIEWS, promptId))
+                .likeCount(cached.getLikeCount()
+                        + (int) counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.LIKES, promptId))
+                .forkCount(cached.getForkCount()
+                        + (int) counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.FORKS, promptId))
+                .commentCount(cached.getCommentCount()
+                        + (int) counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.COMMENTS, promptId))
+                .build();
     }
     
     @Transactional(readOnly = true)
-    public Page<PromptResponse> getAllPrompts(Pageable pageable) {
+    public Page<PromptSummaryResponse> getAllPrompts(Pageable pageable) {
         log.info("Fetching all public prompts");
         
-        return promptRepository.findByIsPublicTrue(pageable)
-                .map(this::mapToResponse);
+        return toSummaryPage(promptRepository.findSummariesByIsPublicTrue(pageable));
     }
     
     @Transactional(readOnly = true)
-    public Page<PromptResponse> getUserPrompts(String userId, Pageable pageable) {
+    public Page<PromptSummaryResponse> getUserPrompts(String userId, Pageable pageable) {
         log.info("Fetching prompts for user: {}", userId);
         
-        return promptRepository.findByUserId(userId, pageable)
-                .map(this::mapToResponse);
+        return toSummaryPage(promptRepository.findSummariesByUserId(userId, pageable));
     }
     
     @Transactional(readOnly = true)
-    public Page<PromptResponse> getPromptsByCategory(String category, Pageable pageable) {
+    public Page<PromptSummaryResponse> getPromptsByCategory(String category, Pageable pageable) {
         log.info("Fetching prompts by category: {}", category);
         
-        return promptRepository.findByCategoryAndIsPublicTrue(category, pageable)
-                .map(this::mapToResponse);
+        return toSummaryPage(promptRepository.findSummariesByCategoryAndIsPublicTrue(category, pageable));
     }
     
     @Transactional(readOnly = true)
-    public Page<PromptResponse> searchPrompts(String keyword, Boolean isPublic, Pageable pageable) {
+    public Page<PromptSummaryResponse> searchPrompts(String keyword, Boolean isPublic, String userId, Pageable pageable) {
         log.info("Searching prompts with keyword: {}", keyword);
         
-        return promptRepository.searchPrompts(keyword, isPublic, pageable)
-                .map(this::mapToResponse);
+        // Fall back to the LIKE query while the index is still being built
+        if (!searchIndex.isReady()) {
+            return toSummaryPage(promptRepository.searchPrompts(keyword, isPublic, userId, pageable));
+        }
+        
+        SearchHits hits = searchIndex.search(keyword, isPublic, userId, pageable.getPageNumber(), pageable.getPageSize());
+        List<PromptSummary> rows = findSummariesInOrder(hits.getPromptIds());
+        return new PageImpl<>(mapToSummaryResponses(rows), pageable, hits.getTotalHits());
+    }
+    
+    /**
+     * Searches by keywords (BM25) and by embedding similarity at once and merges the
+     * two rankings with reciprocal rank fusion, so prompts that phrase the query
+     * differently still surface next to exact keyword matches.
+     */
+    @Transactional(readOnly = true)
+    public Page<PromptSummaryResponse> hybridSearchPrompts(String keyword, Boolean isPublic, String userId,
+                                                           Pageable pageable) {
+        log.info("Hybrid search with keyword: {}", keyword);
+        
+        if (!searchIndex.isReady() || !vectorIndex.isReady()) {
+            return searchPrompts(keyword, isPublic, userId, pageable);
+        }
+        
+        int offset = (int) pageable.getOffset();
+        int depth = Math.min(offset + pageable.getPageSize(), MAX_HYBRID_DEPTH);
+        if (offset >= depth) {
+            return new PageImpl<>(List.of(), pageable, MAX_HYBRID_DEPTH);
+        }
+        
+        List<String> keywordIds = searchIndex.search(keyword, isPublic, userId, 0, depth).getPromptIds();
+        List<String> vectorIds = vectorIndex.search(keyword, depth, isPublic, userId).stream()
+                .map(VectorIndex.Match::getPromptId)
+                .collect(Collectors.toList());
+        
+        Map<String, Double> scores = new HashMap<>();
+        for (List<String> ranking : List.of(keywordIds, vectorIds)) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                scores.merge(ranking.get(rank), 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+        List<String> fused = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        
+        List<String> pageIds = offset < fused.size()
+                ? fused.subList(offset, Math.min(offset + pageable.getPageSize(), fused.size()))
+                : List.of();
+        return new PageImpl<>(mapToSummaryResponses(findSummariesInOrder(pageIds)), pageable, fused.size());
+    }
+    
+    /**
+     * Finds prompts whose embeddings are closest to the given prompt's. Only prompts
+     * the user can see are returned.
+     */
+    @Transactional(readOnly = true)
+    public List<SimilarPromptResponse> findSimilarPrompts(String promptId, String userId, int limit) {
+        log.info("Finding prompts similar to: {}", promptId);
+        
+        PromptSummary source = promptRepository.findSummariesByIdIn(List.of(promptId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!Boolean.TRUE.equals(source.getIsPublic()) && !source.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+        if (!vectorIndex.isReady()) {
+            throw new RuntimeException("Vector index is still being built, try again shortly");
+        }
+        
+        List<VectorIndex.Match> matches = vectorIndex.findSimilar(promptId, limit, userId);
+        Map<String, Double> similarities = matches.stream()
+                .collect(Collectors.toMap(VectorIndex.Match::getPromptId, VectorIndex.Match::getSimilarity));
+        List<PromptSummary> rows = findSummariesInOrder(matches.stream()
+                .map(VectorIndex.Match::getPromptId)
+                .collect(Collectors.toList()));
+        
+        return mapToSummaryResponses(rows).stream()
+                .map(summary -> new SimilarPromptResponse(similarities.get(summary.getId()), summary))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Finds prompts whose content is a near copy of the given prompt's, by estimated
+     * Jaccard similarity of word shingles. Only prompts the user can see are returned.
+     */
+    @Transactional(readOnly = true)
+    public List<SimilarPromptResponse> findNearDuplicates(String promptId, String userId, double threshold, int limit) {
+        log.info("Finding near duplicates of prompt: {} (threshold {})", promptId, threshold);
+        
+        if (threshold < 0 || threshold > 1) {
+            throw new RuntimeException("Threshold must be between 0 and 1");
+        }
+        PromptSummary source = promptRepository.findSummariesByIdIn(List.of(promptId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!Boolean.TRUE.equals(source.getIsPublic()) && !source.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+        if (!nearDuplicateIndex.isReady()) {
+            throw new RuntimeException("Near-duplicate index is still being built, try again shortly");
+        }
+        
+        List<NearDuplicateIndex.Match> matches = nearDuplicateIndex.findSimilar(promptId, threshold, limit, userId);
+        Map<String, Double> similarities = matches.stream()
+                .collect(Collectors.toMap(NearDuplicateIndex.Match::getPromptId, NearDuplicateIndex.Match::getSimilarity));
+        List<PromptSummary> rows = findSummariesInOrder(matches.stream()
+                .map(NearDuplicateIndex.Match::getPromptId)
+                .collect(Collectors.toList()));
+        
+        return mapToSummaryResponses(rows).stream()
+                .map(summary -> new SimilarPromptResponse(similarities.get(summary.getId()), summary))
+                .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
-    public Page<PromptResponse> getPromptsByTag(String tag, Pageable pageable) {
+    public Page<PromptSummaryResponse> getPromptsByTag(String tag, Pageable pageable) {
         log.info("Fetching prompts by tag: {}", tag);
         
-        return promptRepository.findByTag(tag.toLowerCase(), pageable)
-                .map(this::mapToResponse);
+        return toSummaryPage(promptRepository.findByTag(tag.toLowerCase(), pageable));
+    }
+    
+    /**
+     * Browses public prompts by any combination of category, tags (all required),
+     * model and featured flag, newest first, with facet counts. Filtering and counting
+     * run on the in-memory bitmap index; only the returned page is read from the database.
+     */
+    @Transactional(readOnly = true)
+    public FacetedBrowseResponse browsePrompts(String category, List<String> tags, String model, Boolean featured,
+                                               int page, int size, int facetLimit) {
+        log.info("Browsing prompts: category={}, tags={}, model={}, featured={}", category, tags, model, featured);
+        
+        if ((long) page * size > MAX_BROWSE_OFFSET) {
+            throw new RuntimeException("Page is too deep, narrow the filter instead");
+        }
+        if (!facetIndex.isReady()) {
+            throw new RuntimeException("Facet index is still being built, try again shortly");
+        }
+        
+        FacetHits hits = facetIndex.browse(category, tags != null ? tags : List.of(), model, featured,
+                page * size, size, facetLimit);
+        return FacetedBrowseResponse.builder()
+                .content(mapToSummaryResponses(findSummariesInOrder(hits.getPromptIds())))
+                .page(page)
+                .size(size)
+                .totalElements(hits.getTotalHits())
+                .facets(hits.getFacets())
+                .build();
+    }
+    
+    /**
+     * Tags starting with the prefix, most used first. Answered from memory.
+     */
+    public List<TagCountResponse> autocompleteTags(String prefix, int limit) {
+        requireTagIndex();
+        return toTagCountResponses(tagIndex.autocomplete(prefix, limit));
+    }
+    
+    /**
+     * Most used tags across public prompts.
+     */
+    public List<TagCountResponse> getPopularTags(int limit) {
+        requireTagIndex();
+        return toTagCountResponses(tagIndex.popular(limit));
+    }
+    
+    /**
+     * Tags that most often appear together with the given tag on public prompts.
+     */
+    public List<TagCountResponse> getRelatedTags(String tag, int limit) {
+        requireTagIndex();
+        return toTagCountResponses(tagIndex.related(tag, limit));
+    }
+    
+    private void requireTagIndex() {
+        if (!tagIndex.isReady()) {
+            throw new RuntimeException("Tag index is still being built, try again shortly");
+        }
+    }
+    
+    private List<TagCountResponse> toTagCountResponses(List<TagIndex.TagCount> counts) {
+        return counts.stream()
+                .map(c -> new TagCountResponse(c.getTag(), c.getCount()))
+                .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
-    public Page<PromptResponse> getTrendingPrompts(Pageable pageable) {
+    public Page<PromptSummaryResponse> getTrendingPrompts(Pageable pageable) {
         log.info("Fetching trending prompts");
         
-        return promptRepository.findByIsPublicTrueOrderByViewCountDesc(pageable)
-                .map(this::mapToResponse);
+        if (trendingRanker.isReady()) {
+            // Offset pages walk the ranking from the top; deep reads belong on the scroll endpoint
+            if (pageable.getOffset() > MAX_BROWSE_OFFSET) {
+                throw new RuntimeException("Page is too deep, use /trending/scroll instead");
+            }
+            int offset = (int) pageable.getOffset();
+            List<TrendingRanker.Ranked> ranked = trendingRanker.top(offset + pageable.getPageSize());
+            List<String> ids = ranked.subList(Math.min(offset, ranked.size()), ranked.size()).stream()
+                    .map(TrendingRanker.Ranked::getPromptId)
+                    .collect(Collectors.toList());
+            return new PageImpl<>(mapToSummaryResponses(findSummariesInOrder(ids)), pageable, trendingRanker.size());
+        }
+        
+        // Lifetime view count until the ranking has been seeded
+        return toSummaryPage(promptRepository.findSummariesByIsPublicTrueOrderByViewCountDesc(pageable));
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<PromptSummaryResponse> getFeaturedPrompts(Pageable pageable) {
+        log.info("Fetching featured prompts");
+        
+        return toSummaryPage(promptRepository.findSummariesByIsFeaturedTrueAndIsPublicTrue(pageable));
     }
     
     @Transactional(readOnly = true)
-    public Page<PromptResponse> getTopRatedPrompts(Pageable pageable) {
+    public Page<PromptSummaryResponse> getTopRatedPrompts(Pageable pageable) {
         log.info("Fetching top rated prompts");
         
-        return promptRepository.findByIsPublicTrueOrderByRatingDesc(pageable)
-                .map(this::mapToResponse);
+        return toSummaryPage(promptRepository.findSummariesByIsPublicTrueOrderByRatingDesc(pageable));
+    }
+    
+    /**
+     * Keyset-paginated public prompts, newest first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PromptSummaryResponse> scrollPublicPrompts(String cursor, int size, boolean includeTotal) {
+        log.info("Scrolling public prompts");
+        
+        Pageable limit = PageRequest.of(0, size + 1);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<PromptSummary> rows = after == null
+                ? promptRepository.findPublicFirstPage(limit)
+                : promptRepository.findPublicAfter(parseCursorKey(after, LocalDateTime::parse), after.getId(), limit);
+        
+        return toCursorPage(rows, size, PromptSummary::getCreatedAt,
+                includeTotal ? promptRepository.countByIsPublicTrue() : null);
+    }
+    
+    /**
+     * Keyset-paginated public prompts in a category, newest first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PromptSummaryResponse> scrollPromptsByCategory(String category, String cursor, int size,
+                                                                      boolean includeTotal) {
+        log.info("Scrolling prompts by category: {}", category);
+        
+        Pageable limit = PageRequest.of(0, size + 1);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<PromptSummary> rows = after == null
+                ? promptRepository.findCategoryFirstPage(category, limit)
+                : promptRepository.findCategoryAfter(category, parseCursorKey(after, LocalDateTime::parse),
+                        after.getId(), limit);
+        
+        return toCursorPage(rows, size, PromptSummary::getCreatedAt,
+                includeTotal ? promptRepository.countByCategoryAndIsPublicTrue(category) : null);
+    }
+    
+    /**
+     * Keyset-paginated trending prompts. The cursor holds the last prompt's trending
+     * score, or its view count while the ranking is still being seeded.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PromptSummaryResponse> scrollTrendingPrompts(String cursor, int size, boolean includeTotal) {
+        log.info("Scrolling trending prompts");
+        
+        if (trendingRanker.isReady()) {
+            return scrollTrendingRanking(cursor, size, includeTotal);
+        }
+        
+        Pageable limit = PageRequest.of(0, size + 1);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<PromptSummary> rows = after == null
+                ? promptRepository.findMostViewedFirstPage(limit)
+                : promptRepository.findMostViewedAfter(parseCursorKey(after, Integer::valueOf), after.getId(), limit);
+        
+        return toCursorPage(rows, size, PromptSummary::getViewCount,
+                includeTotal ? promptRepository.countByIsPublicTrue() : null);
+    }
+    
+    /**
+     * Reads a trending page from the in-memory ranking, seeking to the cursor's (score, id).
+     */
+    private CursorPageResponse<PromptSummaryResponse> scrollTrendingRanking(String cursor, int size,
+                                                                            boolean includeTotal) {
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<TrendingRanker.Ranked> ranked = after == null
+                ? trendingRanker.top(size + 1)
+                : trendingRanker.after(parseCursorKey(after, Double::valueOf), after.getId(), size + 1);
+        
+        Map<String, Double> scores = ranked.stream()
+                .collect(Collectors.toMap(TrendingRanker.Ranked::getPromptId, TrendingRanker.Ranked::getScore));
+        List<PromptSummary> rows = findSummariesInOrder(ranked.stream()
+                .map(TrendingRanker.Ranked::getPromptId)
+                .collect(Collectors.toList()));
+        
+        return toCursorPage(rows, size, summary -> scores.get(summary.getId()),
+                includeTotal ? (long) trendingRanker.size() : null);
+    }
+    
+    /**
+     * Keyset-paginated public prompts by rating.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PromptSummaryResponse> scrollTopRatedPrompts(String cursor, int size, boolean includeTotal) {
+        log.info("Scrolling top rated prompts");
+        
+        Pageable limit = PageRequest.of(0, size + 1);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<PromptSummary> rows = after == null
+                ? promptRepository.findTopRatedFirstPage(limit)
+                : promptRepository.findTopRatedAfter(parseCursorKey(after, Double::valueOf), after.getId(), limit);
+        
+        return toCursorPage(rows, size, PromptSummary::getRating,
+                includeTotal ? promptRepository.countByIsPublicTrue() : null);
     }
     
     @Transactional
@@ -165,6 +617,7 @@ public class PromptService {
         
         if (request.getContent() != null && !request.getContent().equals(prompt.getContent())) {
             prompt.setContent(request.getContent());
+            contentStore.attach(prompt);
             contentChanged = true;
         }
         
@@ -197,11 +650,43 @@ public class PromptService {
         
         prompt = promptRepository.save(prompt);
         
+        promptEventProducer.publishPromptUpdated(prompt, userId, contentChanged);
+        eventPublisher.publishEvent(PromptChangedEvent.updated(prompt));
+        
         log.info("Prompt updated: {}", promptId);
         
         return mapToResponse(prompt);
     }
     
+    /**
+     * Features or unfeatures a prompt. Only public prompts can be featured; the change
+     * is published so the home feed and facet index pick it up.
+     *
+     * @param promptId The ID of the prompt
+     * @param featured Whether the prompt should be featured
+     * @return The updated prompt
+     */
+    @Transactional
+    public PromptResponse setFeatured(String promptId, boolean featured) {
+        log.info("Setting featured={} on prompt: {}", featured, promptId);
+        
+        Prompt prompt = promptRepository.findById(promptId)
+                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        
+        if (featured && !Boolean.TRUE.equals(prompt.getIsPublic())) {
+            throw new RuntimeException("Only public prompts can be featured");
+        }
+        if (Boolean.valueOf(featured).equals(prompt.getIsFeatured())) {
+            return mapToResponse(prompt);
+        }
+        
+        prompt.setIsFeatured(featured);
+        prompt = promptRepository.save(prompt);
+        eventPublisher.publishEvent(PromptChangedEvent.updated(prompt));
+        
+        return mapToResponse(prompt);
+    }
+    
     @Transactional
     public void deletePrompt(String promptId, String userId) {
         log.info("Deleting prompt: {}", promptId);
@@ -211,41 +696,141 @@ public class PromptService {
                 .orElseThrow(() -> new RuntimeException("Prompt not found or access denied"));
         
         // Delete from PostgreSQL
+        contentStore.release(prompt);
         promptRepository.delete(prompt);
         
+        promptEventProducer.publishPromptDeleted(promptId, userId);
+        eventPublisher.publishEvent(PromptChangedEvent.deleted(prompt));
+        
         // Note: Versions in MongoDB are kept for audit purposes
         
         log.info("Prompt deleted: {}", promptId);
     }
     
+    /**
+     * Checks whether a prompt body is already stored, by hash. Matches are limited to
+     * prompts the user can see (public or their own).
+     */
+    @Transactional(readOnly = true)
+    public DuplicateCheckResponse checkDuplicate(String content, String userId) {
+        String hash = PromptContentStore.hash(content);
+        long references = contentStore.countReferences(content);
+        List<PromptSummaryResponse> matches = references > 0
+                ? mapToSummaryResponses(promptRepository.findVisibleSummariesByContentHash(hash, userId,
+                        PageRequest.of(0, MAX_DUPLICATE_MATCHES)))
+                : List.of();
+        
+        return DuplicateCheckResponse.builder()
+                .contentHash(hash)
+                .duplicate(references > 0)
+                .referenceCount(references)
+                .matches(matches)
+                .build();
+    }
+    
+    /**
+     * Paged version history, newest first, without version content.
+     */
+    public Page<VersionSummaryResponse> getVersionHistory(String promptId, Pageable pageable) {
+        log.info("Fetching version history for prompt: {}", promptId);
+        
+        Pageable newestFirst = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "createdAt"));
+        return versionStore.getHistory(promptId, newestFirst)
+                .map(this::mapToVersionSummary);
+    }
+    
     @Transactional(readOnly = true)
-    public List<PromptVersion> getPromptVersions(String promptId) {
-        log.info("Fetching versions for prompt: {}", promptId);
+    public PromptVersion getPromptVersion(String promptId, String version, String userId) {
+        log.info("Fetching version {} of prompt: {}", version, promptId);
         
-        return promptVersionRepository.findByPromptIdOrderByCreatedAtDesc(promptId);
+        checkPromptAccess(promptId, userId);
+        return versionStore.getVersion(promptId, version)
+                .orElseThrow(() -> new RuntimeException("Version not found"));
+    }
+    
+    /**
+     * Checks that the user may read a prompt (public or their own) without loading it.
+     * Version exports call this before they start streaming, so a denial is still an
+     * error response rather than a truncated body.
+     */
+    @Transactional(readOnly = true)
+    public void checkPromptAccess(String promptId, String userId) {
+        PromptSummary prompt = promptRepository.findSummariesByIdIn(List.of(promptId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!Boolean.TRUE.equals(prompt.getIsPublic()) && !prompt.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+    }
+    
+    /**
+     * Streams every version of a prompt with its content, oldest first. Callers check
+     * access with checkPromptAccess first.
+     */
+    public void streamPromptVersions(String promptId, Consumer<PromptVersion> consumer) {
+        log.info("Streaming versions for prompt: {}", promptId);
+        
+        versionStore.streamVersions(promptId, consumer);
     }
     
     // Helper methods
     
     private void saveVersion(Prompt prompt, String changeLog) {
-        PromptVersion version = PromptVersion.builder()
-                .promptId(prompt.getId())
-                .version(prompt.getVersion())
-                .content(prompt.getContent())
-                .title(prompt.getTitle())
-                .description(prompt.getDescription())
-                .userId(prompt.getUserId())
-                .username(prompt.getUsername())
-                .changeLog(changeLog)
-                .createdAt(LocalDateTime.now())
-                .metadata(new HashMap<>())
-                .build();
-        
-        promptVersionRepository.save(version);
+        versionStore.append(prompt, changeLog);
         
         log.info("Version {} saved for prompt: {}", prompt.getVersion(), prompt.getId());
     }
     
+    private <K> K parseCursorKey(PageCursor cursor, Function<String, K> parser) {
+        try {
+            return parser.apply(cursor.getSortKey());
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Loads summaries for the given IDs in the same order, skipping prompts deleted since
+     * the IDs were read from an in-memory index.
+     */
+    private List<PromptSummary> findSummariesInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, PromptSummary> summaries = promptRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(PromptSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    private Page<PromptSummaryResponse> toSummaryPage(Page<PromptSummary> page) {
+        return new PageImpl<>(mapToSummaryResponses(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+    
+    private CursorPageResponse<PromptSummaryResponse> toCursorPage(List<PromptSummary> rows, int size,
+                                                                   Function<PromptSummary, Object> sortKey,
+                                                                   Long total) {
+        boolean hasNext = rows.size() > size;
+        List<PromptSummary> page = hasNext ? rows.subList(0, size) : rows;
+        
+        String nextCursor = null;
+        if (hasNext) {
+            PromptSummary last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(sortKey.apply(last), last.getId());
+        }
+        
+        return CursorPageResponse.<PromptSummaryResponse>builder()
+                .content(mapToSummaryResponses(page))
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalElements(total)
+                .build();
+    }
+    
     private String incrementVersion(String currentVersion) {
         String[] parts = currentVersion.split("\\.");
         int major = Integer.parseInt(parts[0]);
@@ -258,11 +843,68 @@ public class PromptService {
         return major + "." + minor + "." + patch;
     }
     
+    /**
+     * Maps a page of summaries, loading the tags of all rows in one query.
+     */
+    private List<PromptSummaryResponse> mapToSummaryResponses(List<PromptSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<String, Set<String>> tagsByPromptId = new HashMap<>();
+        List<String> ids = summaries.stream().map(PromptSummary::getId).collect(Collectors.toList());
+        for (Object[] row : promptRepository.findTagsByPromptIds(ids)) {
+            tagsByPromptId.computeIfAbsent((String) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        
+        return summaries.stream()
+                .map(summary -> mapToSummaryResponse(summary,
+                        tagsByPromptId.getOrDefault(summary.getId(), new HashSet<>())))
+                .collect(Collectors.toList());
+    }
+    
+    private PromptSummaryResponse mapToSummaryResponse(PromptSummary summary, Set<String> tags) {
+        return PromptSummaryResponse.builder()
+                .id(summary.getId())
+                .title(summary.getTitle())
+                .description(summary.getDescription())
+                .userId(summary.getUserId())
+                .username(summary.getUsername())
+                .category(summary.getCategory())
+                .tags(tags)
+                .isPublic(summary.getIsPublic())
+                .isFeatured(summary.getIsFeatured())
+                .viewCount(summary.getViewCount())
+                .forkCount(summary.getForkCount())
+                .likeCount(summary.getLikeCount())
+                .rating(summary.getRating())
+                .ratingCount(summary.getRatingCount())
+                .model(summary.getModel())
+                .version(summary.getVersion())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+    
+    private VersionSummaryResponse mapToVersionSummary(PromptVersion version) {
+        return VersionSummaryResponse.builder()
+                .version(version.getVersion())
+                .sequence(version.getSequence())
+                .changeLog(version.getChangeLog())
+                .userId(version.getUserId())
+                .username(version.getUsername())
+                .createdAt(version.getCreatedAt())
+                .contentLength(version.getContentLength())
+                .contentHash(version.getContentHash())
+                .build();
+    }
+    
     private PromptResponse mapToResponse(Prompt prompt) {
         return PromptResponse.builder()
                 .id(prompt.getId())
                 .title(prompt.getTitle())
                 .content(prompt.getContent())
+                .contentHash(prompt.getContentHash())
                 .description(prompt.getDescription())
                 .userId(prompt.getUserId())
                 .username(prompt.getUsername())
@@ -273,10 +915,13 @@ public class PromptService {
                 .viewCount(prompt.getViewCount())
                 .forkCount(prompt.getForkCount())
                 .likeCount(prompt.getLikeCount())
+                .commentCount(prompt.getCommentCount())
                 .rating(prompt.getRating())
                 .ratingCount(prompt.getRatingCount())
                 .model(prompt.getModel())
                 .version(prompt.getVersion())
+                .forkedFromId(prompt.getForkedFromId())
+                .forkedFromVersion(prompt.getForkedFromVersion())
                 .createdAt(prompt.getCreatedAt())
                 .updatedAt(prompt.getUpdatedAt())
                 .build();
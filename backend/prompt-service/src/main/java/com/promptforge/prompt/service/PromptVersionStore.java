@@ -0,0 +1,496 @@
+package com.promptforge.prompt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.promptforge.prompt.diff.TextDelta;
+import com.promptforge.prompt.document.DeltaOp;
+import com.promptforge.prompt.document.PromptVersion;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Stores prompt versions in MongoDB as a chain of periodic full snapshots with
+ * line deltas in between, and rebuilds any version on read. Recently materialized
+ * versions are kept in a bounded cache so walking a chain is rarely repeated, and
+ * appending a version usually finds its predecessor there.
+ */
+@Slf4j
+@Component
+public class PromptVersionStore {
+
+    private static final String SEQUENCE_INDEX = "prompt_sequence_uidx";
+    private static final String LEGACY_SEQUENCE_INDEX = "prompt_sequence_idx";
+    private static final int MAX_APPEND_ATTEMPTS = 5;
+
+    private final PromptVersionRepository versionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final int snapshotInterval;
+    private final Cache<String, VersionText> materialized;
+
+    public PromptVersionStore(PromptVersionRepository versionRepository,
+                              MongoTemplate mongoTemplate,
+                              @Value("${promptforge.versions.snapshot-interval:10}") int snapshotInterval,
+                              @Value("${promptforge.versions.cache-max-weight-bytes:16777216}") long cacheMaxWeightBytes) {
+        this.versionRepository = versionRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.snapshotInterval = snapshotInterval;
+        this.materialized = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxWeightBytes)
+                .weigher((String key, VersionText text) -> text.estimateSize())
+                .build();
+    }
+
+    /**
+     * Title, description and content of one version.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class VersionText {
+        private final String title;
+        private final String description;
+        private final String content;
+
+        private int estimateSize() {
+            return 64 + 2 * (length(title) + length(description) + length(content));
+        }
+
+        private static int length(String text) {
+            return text != null ? text.length() : 0;
+        }
+    }
+
+    /**
+     * Creates the unique (promptId, sequence) index that append relies on, replacing
+     * the earlier non-unique one. Legacy documents without a sequence are left out of
+     * it. If it cannot be built, e.g. because concurrent appends already wrote
+     * duplicate sequences, startup fails rather than letting chains fork silently.
+     */
+    @PostConstruct
+    public void ensureSequenceIndex() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(PromptVersion.class);
+            indexOps.ensureIndex(new Index()
+                    .on("promptId", Sort.Direction.ASC)
+                    .on("sequence", Sort.Direction.ASC)
+                    .unique()
+                    .partial(PartialIndexFilter.of(Criteria.where("sequence").exists(true)))
+                    .named(SEQUENCE_INDEX));
+            if (indexOps.getIndexInfo().stream().anyMatch(index -> index.getName().equals(LEGACY_SEQUENCE_INDEX))) {
+                indexOps.dropIndex(LEGACY_SEQUENCE_INDEX);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not create unique index " + SEQUENCE_INDEX
+                    + " on prompt_versions (promptId, sequence); remove duplicate sequences before starting", e);
+        }
+    }
+
+    /**
+     * Appends the prompt's current state as its next version. The sequence is
+     * taken as latest + 1; if a concurrent append took it first, the unique index
+     * rejects the insert and the version is re-encoded against the new latest.
+     */
+    public PromptVersion append(Prompt prompt, String changeLog) {
+        VersionText text = new VersionText(prompt.getTitle(), prompt.getDescription(), prompt.getContent());
+
+        for (int attempt = 1; ; attempt++) {
+            PromptVersion version = PromptVersion.builder()
+                    .promptId(prompt.getId())
+                    .version(prompt.getVersion())
+                    .userId(prompt.getUserId())
+                    .username(prompt.getUsername())
+                    .changeLog(changeLog)
+                    .createdAt(LocalDateTime.now())
+                    .metadata(new HashMap<>())
+                    .contentLength(prompt.getContent() != null ? prompt.getContent().length() : 0)
+                    .contentHash(PromptContentStore.hash(prompt.getContent()))
+                    .build();
+
+            Optional<PromptVersion> latest = versionRepository.findTopByPromptIdOrderBySequenceDesc(prompt.getId());
+            if (latest.isPresent() && latest.get().getSequence() != null) {
+                PromptVersion previous = latest.get();
+                version.setSequence(previous.getSequence() + 1);
+                encode(version, text, materialize(previous), previous.getChainDepth());
+            } else {
+                // First version, or a chain of legacy full documents that has not been migrated
+                version.setSequence(versionRepository.countByPromptId(prompt.getId()).intValue() + 1);
+                encodeSnapshot(version, text);
+            }
+
+            try {
+                version = versionRepository.save(version);
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_APPEND_ATTEMPTS || !String.valueOf(e.getMessage()).contains(SEQUENCE_INDEX)) {
+                    throw e;
+                }
+                log.debug("Sequence {} of prompt {} was taken concurrently, retrying", version.getSequence(),
+                        prompt.getId());
+                continue;
+            }
+            materialized.put(cacheKey(version), text);
+
+            log.debug("Stored version {} of prompt {} as {}", version.getVersion(), prompt.getId(),
+                    version.isFull() ? "snapshot" : "delta (depth " + version.getChainDepth() + ")");
+            return version;
+        }
+    }
+
+    /**
+     * Writes the first version of a fork. Its content is not copied: the document
+     * points at the source version (or, if that is itself an unedited fork, at the
+     * version it points to), and later edits of the fork are stored as deltas on top.
+     *
+     * @param fork The new prompt, already saved
+     * @param source The stored source version the fork was taken from
+     */
+    public PromptVersion appendFork(Prompt fork, PromptVersion source, String changeLog) {
+        PromptVersion version = PromptVersion.builder()
+                .promptId(fork.getId())
+                .version(fork.getVersion())
+                .userId(fork.getUserId())
+                .username(fork.getUsername())
+                .changeLog(changeLog)
+                .createdAt(LocalDateTime.now())
+                .metadata(new HashMap<>())
+                .sequence(1)
+                .contentLength(fork.getContent() != null ? fork.getContent().length() : 0)
+                .contentHash(PromptContentStore.hash(fork.getContent()))
+                .build();
+        VersionText text = new VersionText(fork.getTitle(), fork.getDescription(), fork.getContent());
+
+        String basePromptId = source.isForkReference() ? source.getBasePromptId() : source.getPromptId();
+        Integer baseSequence = source.isForkReference() ? source.getBaseSequence() : source.getSequence();
+        if (baseSequence == null) {
+            // Legacy source chain without sequences: nothing stable to point at
+            encodeSnapshot(version, text);
+        } else {
+            encodeSnapshot(version, new VersionText(text.getTitle(), text.getDescription(), null));
+            version.setBasePromptId(basePromptId);
+            version.setBaseSequence(baseSequence);
+        }
+
+        version = versionRepository.save(version);
+        materialized.put(cacheKey(version), text);
+        return version;
+    }
+
+    /**
+     * Gets the stored (not materialized) document of a version.
+     */
+    public Optional<PromptVersion> findStored(String promptId, String version) {
+        return versionRepository.findByPromptIdAndVersion(promptId, version);
+    }
+
+    /**
+     * Writes the first version of many new prompts with a single insertMany.
+     */
+    public void appendFirstVersions(List<Prompt> prompts, String changeLog) {
+        List<PromptVersion> versions = new ArrayList<>(prompts.size());
+        for (Prompt prompt : prompts) {
+            PromptVersion version = PromptVersion.builder()
+                    .promptId(prompt.getId())
+                    .version(prompt.getVersion())
+                    .userId(prompt.getUserId())
+                    .username(prompt.getUsername())
+                    .changeLog(changeLog)
+                    .createdAt(LocalDateTime.now())
+                    .metadata(new HashMap<>())
+                    .sequence(1)
+                    .contentLength(prompt.getContent() != null ? prompt.getContent().length() : 0)
+                    .contentHash(PromptContentStore.hash(prompt.getContent()))
+                    .build();
+            encodeSnapshot(version, new VersionText(prompt.getTitle(), prompt.getDescription(), prompt.getContent()));
+            versions.add(version);
+        }
+
+        mongoTemplate.insert(versions, PromptVersion.class);
+        log.debug("Stored first versions of {} prompts", versions.size());
+    }
+
+    /**
+     * Removes every version of the given prompts, e.g. first versions written for
+     * rows whose PostgreSQL transaction rolled back. Those were never cached.
+     */
+    public void deleteVersions(Collection<String> promptIds) {
+        mongoTemplate.remove(Query.query(Criteria.where("promptId").in(promptIds)), PromptVersion.class);
+    }
+
+    /**
+     * Gets a page of version metadata. Text fields of the returned documents are not loaded.
+     */
+    public Page<PromptVersion> getHistory(String promptId, Pageable pageable) {
+        return versionRepository.findMetadataByPromptId(promptId, pageable);
+    }
+
+    /**
+     * Gets one materialized version by its semantic version.
+     */
+    public Optional<PromptVersion> getVersion(String promptId, String version) {
+        return versionRepository.findByPromptIdAndVersion(promptId, version)
+                .map(stored -> withText(stored, materialize(stored)));
+    }
+
+    /**
+     * Streams all materialized versions of a prompt to a consumer, oldest first.
+     * Documents are read with a cursor and deltas applied while walking the chain,
+     * so only the previous version's text is held in memory. The chain is walked in
+     * sequence order, since versions appended within the same millisecond share a
+     * createdAt; legacy documents without a sequence sort first, by createdAt.
+     */
+    public void streamVersions(String promptId, Consumer<PromptVersion> consumer) {
+        Query query = Query.query(Criteria.where("promptId").is(promptId))
+                .with(Sort.by(Sort.Direction.ASC, "sequence", "createdAt"));
+
+        try (Stream<PromptVersion> chain = mongoTemplate.stream(query, PromptVersion.class)) {
+            VersionText[] previous = new VersionText[1];
+            chain.forEach(stored -> {
+                VersionText text = stored.isFull() ? fullText(stored)
+                        : previous[0] != null ? applyDelta(previous[0], stored)
+                        : materialize(stored);
+                consumer.accept(withText(stored, text));
+                previous[0] = text;
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the full text of a stored version from its nearest snapshot.
+     */
+    public VersionText materialize(PromptVersion stored) {
+        if (stored.isFull() && !stored.isForkReference()) {
+            return fullText(stored);
+        }
+
+        String key = cacheKey(stored);
+        VersionText cached = materialized.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (stored.isForkReference()) {
+            VersionText text = fullText(stored);
+            materialized.put(key, text);
+            return text;
+        }
+
+        PromptVersion snapshot = versionRepository
+                .findTopByPromptIdAndSnapshotTrueAndSequenceLessThanEqualOrderBySequenceDesc(
+                        stored.getPromptId(), stored.getSequence())
+                .orElseThrow(() -> new IllegalStateException(
+                        "No snapshot for version " + stored.getSequence() + " of prompt " + stored.getPromptId()));
+
+        VersionText text = null;
+        for (PromptVersion link : versionRepository.findChain(stored.getPromptId(), snapshot.getSequence(),
+                stored.getSequence())) {
+            text = text == null ? fullText(link) : applyDelta(text, link);
+        }
+
+        materialized.put(key, text);
+        return text;
+    }
+
+    /**
+     * Rewrites every prompt's version chain into snapshot + delta form and reports
+     * the storage saved. Chains already in that form are re-encoded identically,
+     * so the migration can be re-run safely.
+     *
+     * @return Migration statistics
+     */
+    public Map<String, Object> migrate() {
+        long start = System.currentTimeMillis();
+        long bytesBefore = 0;
+        long bytesAfter = 0;
+        int prompts = 0;
+        int versions = 0;
+        int snapshots = 0;
+
+        List<String> promptIds = mongoTemplate.findDistinct(new Query(), "promptId", PromptVersion.class,
+                String.class);
+        for (String promptId : promptIds) {
+            // Materialize the whole chain before overwriting any of it
+            List<PromptVersion> chain = versionRepository.findByPromptIdOrderBySequenceAscCreatedAtAsc(promptId);
+            List<VersionText> texts = new ArrayList<>(chain.size());
+            VersionText previous = null;
+            for (PromptVersion stored : chain) {
+                bytesBefore += storedBytes(stored);
+                VersionText text = stored.isFull() ? fullText(stored) : applyDelta(previous, stored);
+                texts.add(text);
+                previous = text;
+            }
+
+            previous = null;
+            Integer previousDepth = null;
+            for (int i = 0; i < chain.size(); i++) {
+                PromptVersion stored = chain.get(i);
+                stored.setSequence(i + 1);
+                stored.setContentLength(texts.get(i).getContent() != null ? texts.get(i).getContent().length() : 0);
+                stored.setContentHash(PromptContentStore.hash(texts.get(i).getContent()));
+                if (previous == null) {
+                    if (!stored.isForkReference()) {
+                        encodeSnapshot(stored, texts.get(i));
+                    }
+                } else {
+                    encode(stored, texts.get(i), previous, previousDepth);
+                }
+                previous = texts.get(i);
+                previousDepth = stored.getChainDepth();
+
+                bytesAfter += storedBytes(stored);
+                if (stored.isFull()) {
+                    snapshots++;
+                }
+            }
+
+            versionRepository.saveAll(chain);
+            chain.forEach(stored -> materialized.invalidate(cacheKey(stored)));
+            prompts++;
+            versions += chain.size();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("prompts", prompts);
+        report.put("versions", versions);
+        report.put("snapshots", snapshots);
+        report.put("deltas", versions - snapshots);
+        report.put("bytesBefore", bytesBefore);
+        report.put("bytesAfter", bytesAfter);
+        report.put("bytesSaved", bytesBefore - bytesAfter);
+        report.put("savedPercent", bytesBefore > 0
+                ? Math.round(1000.0 * (bytesBefore - bytesAfter) / bytesBefore) / 10.0
+                : 0.0);
+        report.put("tookMs", System.currentTimeMillis() - start);
+
+        log.info("Migrated prompt version storage: {}", report);
+        return report;
+    }
+
+    private void encode(PromptVersion version, VersionText text, VersionText previous, Integer previousDepth) {
+        int depth = (previousDepth != null ? previousDepth : 0) + 1;
+        if (depth >= snapshotInterval) {
+            encodeSnapshot(version, text);
+            return;
+        }
+
+        List<DeltaOp> contentDelta = TextDelta.encode(previous.getContent(), text.getContent());
+        List<DeltaOp> titleDelta = TextDelta.encode(previous.getTitle(), text.getTitle());
+        List<DeltaOp> descriptionDelta = TextDelta.encode(previous.getDescription(), text.getDescription());
+
+        long deltaBytes = TextDelta.storedBytes(contentDelta) + TextDelta.storedBytes(titleDelta)
+                + TextDelta.storedBytes(descriptionDelta);
+        if (deltaBytes >= fullBytes(text)) {
+            // A rewrite: the delta would not save anything
+            encodeSnapshot(version, text);
+            return;
+        }
+
+        version.setSnapshot(false);
+        version.setChainDepth(depth);
+        version.setTitle(null);
+        version.setDescription(null);
+        version.setContent(null);
+        version.setContentDelta(contentDelta);
+        version.setTitleDelta(titleDelta);
+        version.setDescriptionDelta(descriptionDelta);
+    }
+
+    private void encodeSnapshot(PromptVersion version, VersionText text) {
+        version.setSnapshot(true);
+        version.setChainDepth(0);
+        version.setTitle(text.getTitle());
+        version.setDescription(text.getDescription());
+        version.setContent(text.getContent());
+        version.setContentDelta(null);
+        version.setTitleDelta(null);
+        version.setDescriptionDelta(null);
+    }
+
+    private VersionText applyDelta(VersionText previous, PromptVersion delta) {
+        return new VersionText(
+                emptyToNull(TextDelta.apply(previous.getTitle(), delta.getTitleDelta())),
+                emptyToNull(TextDelta.apply(previous.getDescription(), delta.getDescriptionDelta())),
+                TextDelta.apply(previous.getContent(), delta.getContentDelta()));
+    }
+
+    private VersionText fullText(PromptVersion stored) {
+        if (stored.isForkReference()) {
+            PromptVersion base = versionRepository.findByPromptIdAndSequence(stored.getBasePromptId(),
+                            stored.getBaseSequence())
+                    .orElseThrow(() -> new IllegalStateException("Missing fork base version "
+                            + stored.getBaseSequence() + " of prompt " + stored.getBasePromptId()));
+            return new VersionText(stored.getTitle(), stored.getDescription(), materialize(base).getContent());
+        }
+        return new VersionText(stored.getTitle(), stored.getDescription(), stored.getContent());
+    }
+
+    private PromptVersion withText(PromptVersion stored, VersionText text) {
+        return PromptVersion.builder()
+                .id(stored.getId())
+                .promptId(stored.getPromptId())
+                .version(stored.getVersion())
+                .title(text.getTitle())
+                .description(text.getDescription())
+                .content(text.getContent())
+                .userId(stored.getUserId())
+                .username(stored.getUsername())
+                .changeLog(stored.getChangeLog())
+                .createdAt(stored.getCreatedAt())
+                .metadata(stored.getMetadata())
+                .sequence(stored.getSequence())
+                .snapshot(stored.getSnapshot())
+                .chainDepth(stored.getChainDepth())
+                .contentLength(stored.getContentLength())
+                .contentHash(stored.getContentHash())
+                .basePromptId(stored.getBasePromptId())
+                .baseSequence(stored.getBaseSequence())
+                .build();
+    }
+
+    private long storedBytes(PromptVersion stored) {
+        if (stored.isForkReference()) {
+            return TextDelta.storedBytes(stored.getTitle()) + TextDelta.storedBytes(stored.getDescription());
+        }
+        if (stored.isFull()) {
+            return fullBytes(fullText(stored));
+        }
+        return TextDelta.storedBytes(stored.getContentDelta()) + TextDelta.storedBytes(stored.getTitleDelta())
+                + TextDelta.storedBytes(stored.getDescriptionDelta());
+    }
+
+    private long fullBytes(VersionText text) {
+        return TextDelta.storedBytes(text.getTitle()) + TextDelta.storedBytes(text.getDescription())
+                + TextDelta.storedBytes(text.getContent());
+    }
+
+    private String cacheKey(PromptVersion version) {
+        return version.getPromptId() + ":" + version.getSequence();
+    }
+
+    private static String emptyToNull(String text) {
+        return text.isEmpty() ? null : text;
+    }
+}
@@ -1,20 +1,37 @@
 package com.promptforge.prompt.service;
 
 import com.promptforge.prompt.dto.*;
-import com.promptforge.prompt.entity.Prompt;
 import com.promptforge.prompt.entity.PromptComment;
 import com.promptforge.prompt.entity.PromptLike;
 import com.promptforge.prompt.entity.PromptRating;
+import com.promptforge.prompt.entity.PromptRatingAggregate;
+import com.promptforge.prompt.event.PromptEngagementEvent;
 import com.promptforge.prompt.repository.PromptCommentRepository;
 import com.promptforge.prompt.repository.PromptLikeRepository;
+import com.promptforge.prompt.repository.PromptRatingAggregateRepository;
 import com.promptforge.prompt.repository.PromptRatingRepository;
 import com.promptforge.prompt.repository.PromptRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -26,14 +43,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SocialService {
     
+    public static final int MAX_COMMENT_PAGE_SIZE = 50;
+    
     private final PromptLikeRepository likeRepository;
     private final PromptRatingRepository ratingRepository;
+    private final PromptRatingAggregateRepository ratingAggregateRepository;
     private final PromptCommentRepository commentRepository;
     private final PromptRepository promptRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEngagementCache engagementCache;
+    private final CommentPageCache commentPageCache;
+    private final PromptCounterAccumulator counterAccumulator;
     
     /**
      * Likes a prompt.
-     * Increments the like count on the prompt and creates a like record.
+     * Creates a like record; the prompt's like count is bumped by the counter
+     * accumulator after commit rather than by rewriting the prompt row here.
      *
      * @param userId The ID of the user liking the prompt
      * @param promptId The ID of the prompt to like
@@ -50,20 +76,23 @@ public class SocialService {
         }
         
         // Verify prompt exists
-        Prompt prompt = promptRepository.findById(promptId)
-                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!promptRepository.existsById(promptId)) {
+            throw new RuntimeException("Prompt not found");
+        }
         
-        // Create like
+        // Create like; the unique (prompt_id, user_id) constraint catches a concurrent duplicate
         PromptLike like = PromptLike.builder()
                 .promptId(promptId)
                 .userId(userId)
                 .build();
         
-        like = likeRepository.save(like);
+        try {
+            like = likeRepository.saveAndFlush(like);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("You have already liked this prompt");
+        }
         
-        // Update prompt like count
-        prompt.incrementLikeCount();
-        promptRepository.save(prompt);
+        eventPublisher.publishEvent(PromptEngagementEvent.of(PromptEngagementEvent.Signal.LIKE, promptId, userId));
         
         log.info("User {} successfully liked prompt {}", userId, promptId);
         return like;
@@ -71,7 +100,7 @@ public class SocialService {
     
     /**
      * Unlikes a prompt.
-     * Decrements the like count on the prompt and removes the like record.
+     * Removes the like record; the like count is decremented after commit.
      *
      * @param userId The ID of the user unliking the prompt
      * @param promptId The ID of the prompt to unlike
@@ -80,39 +109,35 @@ public class SocialService {
     public void unlikePrompt(String userId, String promptId) {
         log.info("User {} unliking prompt {}", userId, promptId);
         
-        // Check if like exists
-        if (!likeRepository.existsByPromptIdAndUserId(promptId, userId)) {
+        // Delete like, checking it existed in the same statement
+        if (likeRepository.deleteByPromptIdAndUserId(promptId, userId) == 0) {
             log.warn("User {} has not liked prompt {}", userId, promptId);
             throw new RuntimeException("You have not liked this prompt");
         }
         
-        // Delete like
-        likeRepository.deleteByPromptIdAndUserId(promptId, userId);
-        
-        // Update prompt like count
-        promptRepository.findById(promptId).ifPresent(prompt -> {
-            prompt.decrementLikeCount();
-            promptRepository.save(prompt);
-        });
+        eventPublisher.publishEvent(PromptEngagementEvent.of(PromptEngagementEvent.Signal.UNLIKE, promptId, userId));
         
         log.info("User {} successfully unliked prompt {}", userId, promptId);
     }
     
     /**
      * Rates a prompt.
-     * Updates the average rating on the prompt and creates/updates a rating record.
+     * Creates a rating record and folds it into the prompt's rating aggregate with
+     * one atomic upsert; the prompt's denormalized average is then derived from the
+     * aggregate rather than updated as a separate running average.
      *
      * @param userId The ID of the user rating the prompt
      * @param request The rating request
-     * @return The created or updated rating
+     * @return The created rating
      */
     @Transactional
     public RatingResponse ratePrompt(String userId, RatingRequest request) {
         log.info("User {} rating prompt {} with score {}", userId, request.getPromptId(), request.getRating());
         
         // Verify prompt exists
-        Prompt prompt = promptRepository.findById(request.getPromptId())
-                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!promptRepository.existsById(request.getPromptId())) {
+            throw new RuntimeException("Prompt not found");
+        }
         
         // Check if already rated
         if (ratingRepository.existsByPromptIdAndUserId(request.getPromptId(), userId)) {
@@ -120,7 +145,7 @@ public class SocialService {
             throw new RuntimeException("You have already rated this prompt");
         }
         
-        // Create rating
+        // Create rating; the unique (prompt_id, user_id) constraint catches a concurrent duplicate
         PromptRating rating = PromptRating.builder()
                 .promptId(request.getPromptId())
                 .userId(userId)
@@ -128,11 +153,17 @@ public class SocialService {
                 .review(request.getReview())
                 .build();
         
-        rating = ratingRepository.save(rating);
+        try {
+            rating = ratingRepository.saveAndFlush(rating);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("You have already rated this prompt");
+        }
+        
+        // Update aggregate, then the prompt columns the rating-sorted listings use
+        ratingAggregateRepository.addRating(request.getPromptId(), request.getRating());
+        ratingAggregateRepository.syncPromptRating(request.getPromptId());
         
-        // Update prompt rating
-        prompt.updateRating(request.getRating());
-        promptRepository.save(prompt);
+        eventPublisher.publishEvent(PromptEngagementEvent.rating(request.getPromptId(), request.getRating(), userId));
         
         log.info("User {} successfully rated prompt {}", userId, request.getPromptId());
         
@@ -140,7 +171,9 @@ public class SocialService {
     }
     
     /**
-     * Adds a comment to a prompt.
+     * Adds a comment to a prompt, or a reply to one of its comments.
+     * The prompt's comment count and the parent's reply count are maintained
+     * incrementally rather than recounted on read.
      *
      * @param userId The ID of the user commenting
      * @param username The username of the commenter
@@ -152,12 +185,23 @@ public class SocialService {
         log.info("User {} adding comment to prompt {}", userId, request.getPromptId());
         
         // Verify prompt exists
-        promptRepository.findById(request.getPromptId())
-                .orElseThrow(() -> new RuntimeException("Prompt not found"));
+        if (!promptRepository.existsById(request.getPromptId())) {
+            throw new RuntimeException("Prompt not found");
+        }
+        
+        // Verify parent is a comment on the same prompt
+        if (request.getParentId() != null) {
+            PromptComment parent = commentRepository.findById(request.getParentId())
+                    .orElseThrow(() -> new RuntimeException("Parent comment not found"));
+            if (!parent.getPromptId().equals(request.getPromptId())) {
+                throw new RuntimeException("Parent comment belongs to a different prompt");
+            }
+        }
         
         // Create comment
         PromptComment comment = PromptComment.builder()
                 .promptId(request.getPromptId())
+                .parentId(request.getParentId())
                 .userId(userId)
                 .username(username)
                 .content(request.getContent())
@@ -165,13 +209,22 @@ public class SocialService {
         
         comment = commentRepository.save(comment);
         
+        if (request.getParentId() != null) {
+            commentRepository.incrementReplyCount(request.getParentId());
+        }
+        
+        // Bumps comment_count and evicts the cached first page after commit
+        eventPublisher.publishEvent(PromptEngagementEvent.of(
+                PromptEngagementEvent.Signal.COMMENT, request.getPromptId(), userId));
+        
         log.info("User {} successfully added comment to prompt {}", userId, request.getPromptId());
         
         return mapToCommentResponse(comment);
     }
     
     /**
-     * Gets the total number of likes for a prompt.
+     * Gets the total number of likes for a prompt, from its like_count column plus
+     * likes not flushed to it yet.
      *
      * @param promptId The ID of the prompt
      * @return The like count
@@ -179,7 +232,8 @@ public class SocialService {
     @Transactional(readOnly = true)
     public Long getPromptLikes(String promptId) {
         log.debug("Getting like count for prompt {}", promptId);
-        return likeRepository.countByPromptId(promptId);
+        return promptRepository.findLikeCount(promptId).orElse(0)
+                + counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.LIKES, promptId);
     }
     
     /**
@@ -191,8 +245,33 @@ public class SocialService {
     @Transactional(readOnly = true)
     public Double getPromptRating(String promptId) {
         log.debug("Getting average rating for prompt {}", promptId);
-        Double avgRating = ratingRepository.calculateAverageRating(promptId);
-        return avgRating != null ? avgRating : 0.0;
+        return ratingAggregateRepository.findById(promptId)
+                .map(PromptRatingAggregate::getAverage)
+                .orElse(0.0);
+    }
+    
+    /**
+     * Gets the star distribution for a prompt.
+     *
+     * @param promptId The ID of the prompt
+     * @return Rating count, average and number of ratings per star value
+     */
+    @Transactional(readOnly = true)
+    public RatingHistogramResponse getRatingHistogram(String promptId) {
+        log.debug("Getting rating histogram for prompt {}", promptId);
+        PromptRatingAggregate aggregate = ratingAggregateRepository.findById(promptId).orElse(null);
+        
+        Map<Integer, Long> stars = new LinkedHashMap<>();
+        for (int value = 1; value <= 5; value++) {
+            stars.put(value, aggregate != null ? aggregate.getStars(value) : 0L);
+        }
+        
+        return RatingHistogramResponse.builder()
+                .promptId(promptId)
+                .ratingCount(aggregate != null ? aggregate.getRatingCount() : 0L)
+                .averageRating(aggregate != null ? aggregate.getAverage() : 0.0)
+                .stars(stars)
+                .build();
     }
     
     /**
@@ -211,18 +290,61 @@ public class SocialService {
     }
     
     /**
-     * Gets all comments for a prompt.
+     * Gets the newest top-level comments for a prompt.
+     * Kept for clients that predate pagination; returns at most one page.
      *
      * @param promptId The ID of the prompt
-     * @return List of comments
+     * @return Up to {@link #MAX_COMMENT_PAGE_SIZE} comments, newest first
      */
     @Transactional(readOnly = true)
     public List<CommentResponse> getPromptComments(String promptId) {
-        log.debug("Getting comments for prompt {}", promptId);
-        return commentRepository.findByPromptIdOrderByCreatedAtDesc(promptId)
-                .stream()
-                .map(this::mapToCommentResponse)
-                .collect(Collectors.toList());
+        return scrollComments(promptId, null, MAX_COMMENT_PAGE_SIZE).getContent();
+    }
+    
+    /**
+     * Keyset-paginated top-level comments of a prompt, newest first. The first page
+     * is served from a per-prompt cache, so its cost does not depend on how many
+     * comments the prompt has.
+     *
+     * @param promptId The ID of the prompt
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size, at most {@link #MAX_COMMENT_PAGE_SIZE}
+     * @return One page of comments
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CommentResponse> scrollComments(String promptId, String cursor, int size) {
+        log.debug("Scrolling comments for prompt {}", promptId);
+        
+        List<CommentResponse> rows;
+        if (cursor == null) {
+            rows = commentPageCache.get(promptId, id -> mapToCommentResponses(
+                    commentRepository.findTopLevelFirstPage(id, PageRequest.of(0, MAX_COMMENT_PAGE_SIZE + 1))));
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = mapToCommentResponses(commentRepository.findTopLevelAfter(promptId, parseCursorTime(after),
+                    after.getId(), PageRequest.of(0, size + 1)));
+        }
+        return toCommentPage(rows, size);
+    }
+    
+    /**
+     * Keyset-paginated replies to a comment, oldest first.
+     *
+     * @param commentId The ID of the parent comment
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size, at most {@link #MAX_COMMENT_PAGE_SIZE}
+     * @return One page of replies
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CommentResponse> scrollReplies(String commentId, String cursor, int size) {
+        log.debug("Scrolling replies to comment {}", commentId);
+        
+        Pageable limit = PageRequest.of(0, size + 1);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+        List<PromptComment> rows = after == null
+                ? commentRepository.findRepliesFirstPage(commentId, limit)
+                : commentRepository.findRepliesAfter(commentId, parseCursorTime(after), after.getId(), limit);
+        return toCommentPage(mapToCommentResponses(rows), size);
     }
     
     /**
@@ -235,20 +357,80 @@ public class SocialService {
     public PromptStatsResponse getPromptStats(String promptId) {
         log.debug("Getting social stats for prompt {}", promptId);
         
-        Long likeCount = likeRepository.countByPromptId(promptId);
-        Long commentCount = commentRepository.countByPromptId(promptId);
-        Long ratingCount = ratingRepository.countByPromptId(promptId);
-        Double averageRating = ratingRepository.calculateAverageRating(promptId);
+        // One row: the prompt's denormalized counters joined with its rating aggregate
+        List<Object[]> rows = promptRepository.findSocialCounts(promptId);
+        Object[] counts = rows.isEmpty() ? new Object[4] : rows.get(0);
+        long ratingCount = toLong(counts[2]);
+        long ratingSum = toLong(counts[3]);
         
         return PromptStatsResponse.builder()
                 .promptId(promptId)
-                .likeCount(likeCount)
-                .commentCount(commentCount)
+                .likeCount(toLong(counts[0])
+                        + counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.LIKES, promptId))
+                .commentCount(toLong(counts[1])
+                        + counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.COMMENTS, promptId))
                 .ratingCount(ratingCount)
-                .averageRating(averageRating != null ? averageRating : 0.0)
+                .averageRating(ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0)
                 .build();
     }
     
+    /**
+     * Recomputes every rating aggregate from the individual ratings and re-syncs the
+     * prompts' denormalized rating columns. Safe to re-run.
+     *
+     * @return Number of aggregates and prompts rewritten
+     */
+    @Transactional
+    public Map<String, Object> rebuildRatingAggregates() {
+        long start = System.currentTimeMillis();
+        int aggregates = ratingAggregateRepository.rebuildAll();
+        int prompts = ratingAggregateRepository.syncAllPromptRatings();
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("aggregates", aggregates);
+        report.put("syncedPrompts", prompts);
+        report.put("tookMs", System.currentTimeMillis() - start);
+        log.info("Rebuilt rating aggregates: {}", report);
+        return report;
+    }
+    
+    /**
+     * Creates aggregates for ratings written before aggregates existed, so stats
+     * for those prompts are not reported as unrated.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRatingAggregates() {
+        try {
+            Integer created = transactionTemplate.execute(status -> {
+                int count = ratingAggregateRepository.backfillMissing();
+                if (count > 0) {
+                    ratingAggregateRepository.syncAllPromptRatings();
+                }
+                return count;
+            });
+            if (created != null && created > 0) {
+                log.info("Backfilled {} rating aggregates", created);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill rating aggregates: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Sets comment counts for prompts commented on before the count was maintained.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCommentCounts() {
+        try {
+            Integer updated = transactionTemplate.execute(status -> commentRepository.backfillCommentCounts());
+            if (updated != null && updated > 0) {
+                log.info("Backfilled comment counts of {} prompts", updated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill comment counts: {}", e.getMessage());
+        }
+    }
+    
     /**
      * Checks if a user has liked a prompt.
      *
@@ -258,7 +440,86 @@ public class SocialService {
      */
     @Transactional(readOnly = true)
     public boolean hasUserLikedPrompt(String userId, String promptId) {
-        return likeRepository.existsByPromptIdAndUserId(promptId, userId);
+        return getUserEngagement(userId, List.of(promptId)).get(0).getLiked();
+    }
+    
+    /**
+     * Gets whether a user has liked and rated each of a page of prompts. Prompts the
+     * user engaged with recently are answered from the cache; the rest are looked up
+     * with one IN query for likes and one for ratings, however many prompts there are.
+     *
+     * @param userId The user ID
+     * @param promptIds The prompt IDs, e.g. the cards of one feed page
+     * @return One entry per distinct prompt ID, in request order
+     */
+    @Transactional(readOnly = true)
+    public List<UserEngagementResponse> getUserEngagement(String userId, List<String> promptIds) {
+        Set<String> ids = new LinkedHashSet<>(promptIds);
+        Map<String, UserEngagementCache.Engagement> engagements = new HashMap<>(engagementCache.getAllPresent(userId, ids));
+        
+        List<String> missing = ids.stream()
+                .filter(id -> !engagements.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            long cacheVersion = engagementCache.version(userId);
+            log.debug("Loading engagement of user {} with {} prompts ({} cached)", userId, missing.size(),
+                    ids.size() - missing.size());
+            Set<String> liked = new HashSet<>(likeRepository.findLikedPromptIds(userId, missing));
+            Map<String, Integer> ratings = new HashMap<>();
+            for (Object[] row : ratingRepository.findUserRatings(userId, missing)) {
+                ratings.put((String) row[0], (Integer) row[1]);
+            }
+            
+            Map<String, UserEngagementCache.Engagement> loaded = new HashMap<>();
+            for (String id : missing) {
+                loaded.put(id, new UserEngagementCache.Engagement(liked.contains(id), ratings.get(id)));
+            }
+            engagementCache.putAll(userId, loaded, cacheVersion);
+            engagements.putAll(loaded);
+        }
+        
+        return ids.stream()
+                .map(id -> UserEngagementResponse.builder()
+                        .promptId(id)
+                        .liked(engagements.get(id).isLiked())
+                        .rating(engagements.get(id).getRating())
+                        .build())
+                .collect(Collectors.toList());
+    }
+    
+    private LocalDateTime parseCursorTime(PageCursor cursor) {
+        try {
+            return LocalDateTime.parse(cursor.getSortKey());
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Cuts a page from rows fetched with one extra row, which signals a next page.
+     */
+    private CursorPageResponse<CommentResponse> toCommentPage(List<CommentResponse> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<CommentResponse> page = hasNext ? rows.subList(0, size) : rows;
+        
+        String nextCursor = null;
+        if (hasNext) {
+            CommentResponse last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        
+        return CursorPageResponse.<CommentResponse>builder()
+                .content(new ArrayList<>(page))
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    private List<CommentResponse> mapToCommentResponses(List<PromptComment> comments) {
+        return comments.stream()
+                .map(this::mapToCommentResponse)
+                .collect(Collectors.toList());
     }
     
     /**
@@ -268,6 +529,8 @@ public class SocialService {
         return CommentResponse.builder()
                 .id(comment.getId())
                 .promptId(comment.getPromptId())
+                .parentId(comment.getParentId())
+                .replyCount(comment.getReplyCount())
                 .userId(comment.getUserId())
                 .username(comment.getUsername())
                 .content(comment.getContent())
@@ -289,5 +552,11 @@ public class SocialService {
                 .createdAt(rating.getCreatedAt())
                 .build();
     }
+    
+    /**
+     * Reads a nullable numeric column of a projection row, treating null as zero.
+     */
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
 }
-
@@ -0,0 +1,507 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.entity.PromptTrendingScore;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.event.PromptCountersFlushedEvent;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import com.promptforge.prompt.repository.PromptRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import com.promptforge.prompt.repository.PromptTrendingScoreRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trending ranking of public prompts. Each prompt carries a score that
+ * decays exponentially with a configurable half-life; views, likes, ratings and
+ * forks add weighted points as they happen. Scores are stored relative to a fixed
+ * epoch (a point earned at time t is worth 2^((t - epoch) / halfLife)), so decay
+ * never requires rescoring and the ordering only changes when a prompt gets new
+ * signals. The epoch is moved forward periodically to keep the numbers in range.
+ * Epochs fall on the same boundaries on every replica, so a cursor score issued
+ * by one replica seeks correctly on another.
+ * <p>
+ * Scores are shared through prompt_trending_scores. Points recorded here are
+ * applied locally at once and upserted there in batches; rows changed by any
+ * replica since the last sync are then read back and replace the local score.
+ * Replicas behind a load balancer therefore converge within a sync interval
+ * rather than each ranking only the signals it happened to receive.
+ * <p>
+ * The ranking lives in a skip list ordered by score, so reading a page walks only
+ * the entries it returns instead of sorting the prompts table.
+ */
+@Slf4j
+@Component
+public class TrendingRanker {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Epochs sit on multiples of this many half-lives: early enough that 2^exponent
+    // keeps small signals precise, and the same on every replica
+    private static final double EPOCH_HALF_LIVES = 32;
+
+    // Changed rows are read again for this long, in case a write stamped earlier
+    // than one already seen committed after it
+    private static final long SYNC_OVERLAP_SECONDS = 10;
+
+    // Clamped so a burst of unlikes applied before the matching likes cannot go negative
+    private static final String UPSERT_SQL = "INSERT INTO prompt_trending_scores "
+            + "(prompt_id, score, epoch_millis, updated_at) VALUES (?, GREATEST(?, 0), ?, now()) "
+            + "ON CONFLICT (prompt_id) DO UPDATE SET score = GREATEST(prompt_trending_scores.score "
+            + "* POWER(2, (prompt_trending_scores.epoch_millis - EXCLUDED.epoch_millis) / ?) + ?, 0), "
+            + "epoch_millis = EXCLUDED.epoch_millis, updated_at = now()";
+
+    private static final String SEED_SQL = "INSERT INTO prompt_trending_scores "
+            + "(prompt_id, score, epoch_millis, updated_at) VALUES (?, ?, ?, now()) "
+            + "ON CONFLICT (prompt_id) DO NOTHING";
+
+    private static final Comparator<Ranked> ORDER = Comparator
+            .comparingDouble(Ranked::getScore).reversed()
+            .thenComparing(Ranked::getPromptId, Comparator.reverseOrder());
+
+    private final PromptRepository promptRepository;
+    private final PromptTrendingScoreRepository scoreRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LongSupplier clock;
+    private final double halfLifeMillis;
+    private final double viewWeight;
+    private final double likeWeight;
+    private final double ratingWeight;
+    private final double forkWeight;
+
+    private final ConcurrentHashMap<String, Ranked> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(ORDER);
+    // Points applied locally but not upserted yet, relative to the current epoch
+    private final ConcurrentHashMap<String, Double> unsynced = new ConcurrentHashMap<>();
+    private final Object seedLock = new Object();
+    private Set<String> removedWhileSeeding; // Guarded by this
+    private LocalDateTime syncedUntil; // Guarded by this
+    private volatile long epochMillis;
+    private volatile boolean ready;
+
+    public TrendingRanker(PromptRepository promptRepository,
+                          PromptTrendingScoreRepository scoreRepository,
+                          JdbcTemplate jdbcTemplate,
+                          @Value("${promptforge.trending.half-life-hours:24}") double halfLifeHours,
+                          @Value("${promptforge.trending.weights.view:1}") double viewWeight,
+                          @Value("${promptforge.trending.weights.like:5}") double likeWeight,
+                          @Value("${promptforge.trending.weights.rating:3}") double ratingWeight,
+                          @Value("${promptforge.trending.weights.fork:8}") double forkWeight) {
+        this(promptRepository, scoreRepository, jdbcTemplate, System::currentTimeMillis, halfLifeHours, viewWeight,
+                likeWeight, ratingWeight, forkWeight);
+    }
+
+    TrendingRanker(PromptRepository promptRepository, PromptTrendingScoreRepository scoreRepository,
+                   JdbcTemplate jdbcTemplate, LongSupplier clock, double halfLifeHours,
+                   double viewWeight, double likeWeight, double ratingWeight, double forkWeight) {
+        this.promptRepository = promptRepository;
+        this.scoreRepository = scoreRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.halfLifeMillis = halfLifeHours * 3_600_000d;
+        this.viewWeight = viewWeight;
+        this.likeWeight = likeWeight;
+        this.ratingWeight = ratingWeight;
+        this.forkWeight = forkWeight;
+        this.epochMillis = alignedEpoch(clock.getAsLong());
+    }
+
+    /**
+     * A prompt and its trending score. Scores are only comparable with each other,
+     * not across rebases, so they are meaningful as cursors but not for display.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Ranked {
+        private final String promptId;
+        private final double score;
+    }
+
+    /**
+     * Whether the ranking has been seeded from the database and can serve reads.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Number of ranked public prompts.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the highest-ranked entries.
+     */
+    public List<Ranked> top(int size) {
+        return take(ranking, size);
+    }
+
+    /**
+     * Gets the entries ranked after the given position, as returned in a previous page.
+     * The skip list seeks straight to the position, so the cost does not depend on how
+     * deep the page is. The position does not need to still be in the ranking.
+     */
+    public List<Ranked> after(double score, String promptId, int size) {
+        return take(ranking.tailSet(new Ranked(promptId, score), false), size);
+    }
+
+    private static List<Ranked> take(Iterable<Ranked> from, int size) {
+        List<Ranked> page = new ArrayList<>(size);
+        Iterator<Ranked> it = from.iterator();
+        while (page.size() < size && it.hasNext()) {
+            page.add(it.next());
+        }
+        return page;
+    }
+
+    /**
+     * Adds weighted points earned now to a prompt. Prompts that are not ranked
+     * (private or unknown) are ignored.
+     */
+    public void record(String promptId, double points) {
+        addScore(promptId, points, clock.getAsLong(), false);
+    }
+
+    /**
+     * Starts ranking a public prompt, or stops ranking it once it is private.
+     */
+    public void track(Prompt prompt) {
+        if (Boolean.TRUE.equals(prompt.getIsPublic())) {
+            addScore(prompt.getId(), 0, clock.getAsLong(), true);
+        } else {
+            remove(prompt.getId());
+        }
+    }
+
+    public synchronized void remove(String promptId) {
+        Ranked existing = entries.remove(promptId);
+        if (existing != null) {
+            ranking.remove(existing);
+            // Touch the shared row so the other replicas read it again and drop the prompt too
+            unsynced.merge(promptId, 0.0, Double::sum);
+        }
+        if (removedWhileSeeding != null) {
+            removedWhileSeeding.add(promptId);
+        }
+    }
+
+    @EventListener
+    public void onCountersFlushed(PromptCountersFlushedEvent event) {
+        if (event.getCounter() != PromptCounterAccumulator.Counter.VIEWS) {
+            return;
+        }
+        event.getDeltas().forEach((promptId, delta) -> record(promptId, delta * viewWeight));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(PromptEngagementEvent event) {
+        double points = switch (event.getSignal()) {
+            case LIKE -> likeWeight;
+            case UNLIKE -> -likeWeight;
+            case RATING -> ratingWeight * event.getValue() / 5.0;
+            case FORK -> forkWeight;
+            case COMMENT -> 0.0; // Not weighted
+        };
+        record(event.getPromptId(), points);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromptChanged(PromptChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getPromptId());
+        } else {
+            track(event.getPrompt());
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        seed();
+    }
+
+    /**
+     * Seeds the ranking once from the shared scores. Prompts without one yet get a
+     * score from their lifetime counters in PostgreSQL, treating their engagement
+     * as having happened when they were created, which is stored for the other
+     * replicas. Live signals recorded while seeding are kept, and later calls are
+     * no-ops.
+     *
+     * @return Seeding statistics
+     */
+    public Map<String, Object> seed() {
+        synchronized (seedLock) {
+            if (!ready) {
+                seedFromDatabase();
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rankedPrompts", entries.size());
+        stats.put("ready", ready);
+        return stats;
+    }
+
+    private void seedFromDatabase() {
+        long start = System.currentTimeMillis();
+        int seeded = 0;
+        int backfilled = 0;
+        LocalDateTime latestUpdate = scoreRepository.findLatestUpdate();
+        synchronized (this) {
+            removedWhileSeeding = new HashSet<>();
+        }
+
+        try {
+            String afterId = "";
+            List<PromptSummary> batch;
+            do {
+                batch = promptRepository.findPublicSummaryBatchAfterId(afterId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE));
+                backfilled += seedBatch(batch);
+                seeded += batch.size();
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            synchronized (this) {
+                // Scores written while seeding are picked up by the first sync
+                syncedUntil = latestUpdate != null ? latestUpdate : LocalDateTime.of(1970, 1, 1, 0, 0);
+            }
+            ready = true;
+            log.info("Seeded trending ranking with {} prompts ({} from lifetime counters) in {} ms", seeded,
+                    backfilled, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Failed to seed trending ranking", e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                removedWhileSeeding = null;
+            }
+        }
+    }
+
+    private int seedBatch(List<PromptSummary> batch) {
+        Map<String, PromptTrendingScore> shared = scoreRepository.findAllById(batch.stream()
+                        .map(PromptSummary::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(PromptTrendingScore::getPromptId, Function.identity()));
+
+        List<Object[]> backfill = new ArrayList<>();
+        synchronized (this) {
+            for (PromptSummary summary : batch) {
+                // Skip prompts deleted or made private after the batch was read
+                if (removedWhileSeeding.contains(summary.getId())) {
+                    continue;
+                }
+                PromptTrendingScore score = shared.get(summary.getId());
+                double seeded;
+                if (score != null) {
+                    seeded = toCurrentEpoch(score.getScore(), score.getEpochMillis());
+                } else {
+                    seeded = lifetimePoints(summary)
+                            * Math.pow(2, (toMillis(summary.getCreatedAt()) - epochMillis) / halfLifeMillis);
+                    backfill.add(new Object[]{summary.getId(), seeded, epochMillis});
+                }
+                // Keep live signals recorded while seeding
+                setScore(summary.getId(), seeded + currentScore(summary.getId()));
+            }
+        }
+
+        if (!backfill.isEmpty()) {
+            jdbcTemplate.batchUpdate(SEED_SQL, backfill);
+        }
+        return backfill.size();
+    }
+
+    /**
+     * Upserts the points recorded here since the last sync into the shared scores,
+     * then replaces the local score of every prompt whose shared score changed,
+     * whichever replica changed it. Prompts deleted or made private on another
+     * replica are dropped.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.trending.sync-interval-ms:5000}")
+    public void sync() {
+        if (!ready) {
+            return;
+        }
+        pushUnsynced();
+        pullChanged();
+    }
+
+    private void pushUnsynced() {
+        // Sorted so concurrent replicas update rows in the same order and cannot deadlock
+        Map<String, Double> points = new TreeMap<>();
+        long epoch;
+        synchronized (this) {
+            for (String promptId : unsynced.keySet()) {
+                Double value = unsynced.remove(promptId);
+                if (value != null) {
+                    points.put(promptId, value);
+                }
+            }
+            epoch = epochMillis;
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(points.size());
+        points.forEach((promptId, value) -> batch.add(new Object[]{promptId, value, epoch, halfLifeMillis, value}));
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } catch (RuntimeException e) {
+            // Put the points back so they are retried on the next sync instead of lost
+            log.error("Failed to upsert {} trending scores, will retry", points.size(), e);
+            synchronized (this) {
+                points.forEach((promptId, value) ->
+                        unsynced.merge(promptId, toCurrentEpoch(value, epoch), Double::sum));
+            }
+        }
+    }
+
+    private void pullChanged() {
+        LocalDateTime since;
+        synchronized (this) {
+            since = syncedUntil.minusSeconds(SYNC_OVERLAP_SECONDS);
+        }
+
+        List<Object[]> rows = scoreRepository.findChangedSince(since);
+        synchronized (this) {
+            for (Object[] row : rows) {
+                String promptId = (String) row[0];
+                if (Boolean.TRUE.equals(row[3])) {
+                    double shared = toCurrentEpoch((Double) row[1], (Long) row[2]);
+                    setScore(promptId, shared + unsynced.getOrDefault(promptId, 0.0));
+                } else {
+                    Ranked existing = entries.remove(promptId);
+                    if (existing != null) {
+                        ranking.remove(existing);
+                    }
+                }
+
+                LocalDateTime updatedAt = (LocalDateTime) row[4];
+                if (updatedAt.isAfter(syncedUntil)) {
+                    syncedUntil = updatedAt;
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            log.debug("Synced {} shared trending scores", rows.size());
+        }
+    }
+
+    /**
+     * Moves the scoring epoch to the latest aligned boundary once it has passed,
+     * rescaling every score by the same factor. The relative order is unchanged.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.trending.rebase-check-interval-ms:3600000}")
+    public synchronized void rebase() {
+        long epoch = alignedEpoch(clock.getAsLong());
+        if (epoch <= epochMillis) {
+            return;
+        }
+
+        double halfLives = (epoch - epochMillis) / halfLifeMillis;
+        double factor = Math.pow(2, -halfLives);
+        List<Ranked> rescaled = new ArrayList<>(entries.size());
+        for (Ranked ranked : entries.values()) {
+            rescaled.add(new Ranked(ranked.getPromptId(), ranked.getScore() * factor));
+        }
+
+        ranking.clear();
+        for (Ranked ranked : rescaled) {
+            entries.put(ranked.getPromptId(), ranked);
+            ranking.add(ranked);
+        }
+        unsynced.replaceAll((promptId, points) -> points * factor);
+        epochMillis = epoch;
+        log.debug("Rebased trending scores by {} half-lives", halfLives);
+    }
+
+    private synchronized void addScore(String promptId, double points, long atMillis, boolean createIfAbsent) {
+        Ranked existing = entries.get(promptId);
+        if (existing == null && !createIfAbsent) {
+            return;
+        }
+
+        double scaled = points * Math.pow(2, (atMillis - epochMillis) / halfLifeMillis);
+        unsynced.merge(promptId, scaled, Double::sum);
+        setScore(promptId, currentScore(promptId) + scaled);
+    }
+
+    private synchronized void setScore(String promptId, double value) {
+        double score = Math.max(0, value);
+        Ranked existing = entries.get(promptId);
+        if (existing != null) {
+            if (score == existing.getScore()) {
+                return;
+            }
+            ranking.remove(existing);
+        }
+
+        Ranked updated = new Ranked(promptId, score);
+        entries.put(promptId, updated);
+        ranking.add(updated);
+    }
+
+    private double currentScore(String promptId) {
+        Ranked existing = entries.get(promptId);
+        return existing != null ? existing.getScore() : 0;
+    }
+
+    private double toCurrentEpoch(double score, long scoreEpochMillis) {
+        return score * Math.pow(2, (scoreEpochMillis - epochMillis) / halfLifeMillis);
+    }
+
+    private long alignedEpoch(long nowMillis) {
+        double period = EPOCH_HALF_LIVES * halfLifeMillis;
+        return (long) (Math.floor(nowMillis / period) * period);
+    }
+
+    private double lifetimePoints(PromptSummary summary) {
+        return nonNull(summary.getViewCount()) * viewWeight
+                + nonNull(summary.getLikeCount()) * likeWeight
+                + nonNull(summary.getForkCount()) * forkWeight
+                + nonNull(summary.getRatingCount()) * ratingWeight
+                        * (summary.getRating() != null ? summary.getRating() : 0) / 5.0;
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : clock.getAsLong();
+    }
+
+    private static int nonNull(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.promptforge.prompt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded cache of whether a user has liked and rated a prompt, so feed pages
+ * only query the prompts the user has not seen recently. Both positive and
+ * negative states are cached. Entries are evicted locally once the user's like,
+ * unlike or rating commits; the short TTL bounds staleness for changes made
+ * through other replicas.
+ * <p>
+ * A read that misses loads from the database and then caches what it loaded. So
+ * that a load which raced a write cannot put back the state the write evicted,
+ * every eviction bumps a per-user version (striped), and loaded entries are only
+ * kept if the version is unchanged between the start of the load and the put.
+ */
+@Component
+public class UserEngagementCache {
+    
+    private static final int VERSION_STRIPES = 1024;
+    
+    private final Cache<Key, Engagement> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    
+    public UserEngagementCache(@Value("${promptforge.cache.engagement.max-entries:200000}") long maxEntries,
+                               @Value("${promptforge.cache.engagement.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+    
+    /**
+     * A user's engagement with one prompt.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Engagement {
+        private final boolean liked;
+        private final Integer rating; // Null if the user has not rated the prompt
+    }
+    
+    /**
+     * Gets the cached engagement of a user with each of the given prompts.
+     *
+     * @return Cached entries by prompt ID; prompts not in the cache are absent
+     */
+    public Map<String, Engagement> getAllPresent(String userId, Collection<String> promptIds) {
+        Map<String, Engagement> result = new HashMap<>();
+        for (String promptId : promptIds) {
+            Engagement engagement = cache.getIfPresent(new Key(userId, promptId));
+            if (engagement != null) {
+                result.put(promptId, engagement);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the version to pass to putAll; read it before loading from the database.
+     */
+    public long version(String userId) {
+        return versions.get(stripe(userId));
+    }
+    
+    /**
+     * Caches the engagement of a user with the given prompts, unless one of the
+     * user's engagements was evicted since the version was read: the loaded state
+     * may then predate that write.
+     *
+     * @param version The result of version(userId) taken before the load
+     */
+    public void putAll(String userId, Map<String, Engagement> engagements, long version) {
+        int stripe = stripe(userId);
+        if (versions.get(stripe) != version) {
+            return;
+        }
+        engagements.forEach((promptId, engagement) -> cache.put(new Key(userId, promptId), engagement));
+        // An eviction between the check and the puts may have run before them; undo the puts
+        if (versions.get(stripe) != version) {
+            engagements.keySet().forEach(promptId -> cache.invalidate(new Key(userId, promptId)));
+        }
+    }
+    
+    /**
+     * Removes a user's cached engagement with a prompt.
+     */
+    public void invalidate(String userId, String promptId) {
+        versions.incrementAndGet(stripe(userId));
+        cache.invalidate(new Key(userId, promptId));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(PromptEngagementEvent event) {
+        if (event.getUserId() != null) {
+            invalidate(event.getUserId(), event.getPromptId());
+        }
+    }
+    
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), VERSION_STRIPES);
+    }
+    
+    private record Key(String userId, String promptId) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.promptforge.prompt.diff;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("MyersDiff Tests")
+class MyersDiffTest {
+    
+    @Test
+    @DisplayName("Should find the shortest edit script")
+    void shouldFindShortestEditScript() {
+        // Given: the example from Myers' paper, edit distance 5
+        List<Character> a = chars("ABCABBA");
+        List<Character> b = chars("CBABAC");
+        
+        // When
+        List<MyersDiff.Edit> edits = MyersDiff.diff(a, b);
+        
+        // Then
+        int cost = edits.stream()
+                .filter(edit -> edit.getType() != MyersDiff.Type.EQUAL)
+                .mapToInt(edit -> (edit.getAEnd() - edit.getAStart()) + (edit.getBEnd() - edit.getBStart()))
+                .sum();
+        assertThat(cost).isEqualTo(5);
+        assertThat(apply(a, b, edits)).isEqualTo(b);
+    }
+    
+    @Test
+    @DisplayName("Should produce scripts that rebuild the target for random edits")
+    void shouldRebuildTargetForRandomEdits() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            // Given
+            List<Character> a = randomChars(random, random.nextInt(60));
+            List<Character> b = new ArrayList<>(a);
+            for (int i = random.nextInt(10); i > 0; i--) {
+                int position = b.isEmpty() ? 0 : random.nextInt(b.size());
+                if (random.nextBoolean() || b.isEmpty()) {
+                    b.add(position, (char) ('a' + random.nextInt(4)));
+                } else {
+                    b.remove(position);
+                }
+            }
+            
+            // When
+            List<MyersDiff.Edit> edits = MyersDiff.diff(a, b);
+            
+            // Then
+            assertThat(apply(a, b, edits)).isEqualTo(b);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should fall back to a replacement when the edit distance limit is exceeded")
+    void shouldFallBackWhenTooDifferent() {
+        // Given
+        List<Character> a = chars("xaaaaaaaay");
+        List<Character> b = chars("xbbbbbbbby");
+        
+        // When
+        List<MyersDiff.Edit> edits = MyersDiff.diff(a, b, 3);
+        
+        // Then
+        assertThat(edits).extracting(MyersDiff.Edit::getType).containsExactly(
+                MyersDiff.Type.EQUAL, MyersDiff.Type.DELETE, MyersDiff.Type.INSERT, MyersDiff.Type.EQUAL);
+        assertThat(apply(a, b, edits)).isEqualTo(b);
+    }
+    
+    private static <T> List<T> apply(List<T> a, List<T> b, List<MyersDiff.Edit> edits) {
+        List<T> result = new ArrayList<>();
+        for (MyersDiff.Edit edit : edits) {
+            if (edit.getType() == MyersDiff.Type.EQUAL) {
+                result.addAll(a.subList(edit.getAStart(), edit.getAEnd()));
+            } else if (edit.getType() == MyersDiff.Type.INSERT) {
+                result.addAll(b.subList(edit.getBStart(), edit.getBEnd()));
+            }
+        }
+        return result;
+    }
+    
+    private static List<Character> chars(String text) {
+        List<Character> chars = new ArrayList<>();
+        for (char c : text.toCharArray()) {
+            chars.add(c);
+        }
+        return chars;
+    }
+    
+    private static List<Character> randomChars(Random random, int length) {
+        List<Character> chars = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            chars.add((char) ('a' + random.nextInt(4)));
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,134 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FacetIndex Tests")
+class FacetIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private PromptRepository promptRepository;
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex(promptRepository, false);
+        index.index(prompt("p1", 1, "coding", "GPT-4", false, "python", "testing"));
+        index.index(prompt("p2", 2, "coding", "Claude", true, "python"));
+        index.index(prompt("p3", 3, "coding", "GPT-4", true, "python", "testing"));
+        index.index(prompt("p4", 4, "writing", "GPT-4", false, "python", "poetry"));
+    }
+
+    @Test
+    @DisplayName("Should intersect all filters and return matches newest first")
+    void shouldCombineFilters() {
+        // When
+        FacetHits hits = index.browse("coding", List.of("python", "Testing"), "GPT-4", null, 0, 10, 10);
+
+        // Then
+        assertThat(hits.getPromptIds()).containsExactly("p3", "p1");
+        assertThat(hits.getTotalHits()).isEqualTo(2);
+
+        FacetHits featured = index.browse(null, List.of("python"), null, true, 0, 10, 10);
+        assertThat(featured.getPromptIds()).containsExactly("p3", "p2");
+
+        FacetHits secondPage = index.browse(null, List.of(), null, null, 1, 2, 10);
+        assertThat(secondPage.getPromptIds()).containsExactly("p3", "p2");
+        assertThat(secondPage.getTotalHits()).isEqualTo(4);
+
+        assertThat(index.browse(null, List.of("unknown"), null, null, 0, 10, 10).getTotalHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count other categories without the category filter and tags within the result")
+    void shouldCountFacets() {
+        // When
+        FacetHits hits = index.browse("coding", List.of("python"), null, null, 0, 10, 10);
+
+        // Then
+        assertThat(hits.getFacets().get(FacetIndex.CATEGORY)).containsExactly(entry("coding", 3L), entry("writing", 1L));
+        assertThat(hits.getFacets().get(FacetIndex.TAG)).containsExactly(entry("testing", 2L));
+        assertThat(hits.getFacets().get(FacetIndex.MODEL)).containsExactly(entry("GPT-4", 2L), entry("Claude", 1L));
+        assertThat(hits.getFacets().get(FacetIndex.FEATURED)).containsExactly(entry("true", 2L), entry("false", 1L));
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and drop deleted and private prompts")
+    void shouldReflectChanges() {
+        // When
+        index.index(prompt("p1", 1, "writing", "GPT-4", false, "poetry"));
+        index.remove("p4");
+        Prompt madePrivate = prompt("p3", 3, "coding", "GPT-4", true, "python");
+        madePrivate.setIsPublic(false);
+        index.index(madePrivate);
+
+        // Then
+        assertThat(index.browse("coding", List.of(), null, null, 0, 10, 10).getPromptIds()).containsExactly("p2");
+        assertThat(index.browse(null, List.of("poetry"), null, null, 0, 10, 10).getPromptIds()).containsExactly("p1");
+        assertThat(index.browse(null, List.of("testing"), null, null, 0, 10, 10).getTotalHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should page newest first after a rebuild and after an out-of-order change")
+    void shouldPageInCreatedOrderAfterRebuild() {
+        // Given: rows arrive in ID order, which is not creation order
+        when(promptRepository.findPublicSummaryBatchAfterId(eq(""), any(Pageable.class))).thenReturn(List.of(
+                summaryOf(prompt("a", 30, "coding", "GPT-4", false)),
+                summaryOf(prompt("b", 10, "coding", "GPT-4", false)),
+                summaryOf(prompt("c", 20, "coding", "GPT-4", false))));
+        when(promptRepository.findTagsByPromptIds(anyCollection())).thenReturn(List.of());
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.browse(null, List.of(), null, null, 0, 10, 10).getPromptIds()).containsExactly("a", "c", "b");
+        assertThat(index.browse(null, List.of(), null, null, 1, 1, 10).getPromptIds()).containsExactly("c");
+
+        // When: a new prompt is appended in order, then an old one out of order
+        index.index(prompt("d", 40, "coding", "GPT-4", false));
+        index.index(prompt("e", 0, "coding", "GPT-4", false));
+
+        // Then
+        assertThat(index.browse(null, List.of(), null, null, 0, 10, 10).getPromptIds())
+                .containsExactly("d", "a", "c", "b", "e");
+        assertThat(index.browse(null, List.of(), null, null, 3, 2, 10).getPromptIds()).containsExactly("b", "e");
+    }
+
+    private PromptSummary summaryOf(Prompt source) {
+        return new SpelAwareProxyProjectionFactory().createProjection(PromptSummary.class, source);
+    }
+
+    private Prompt prompt(String id, int minutes, String category, String model, boolean featured, String... tags) {
+        return Prompt.builder()
+                .id(id)
+                .category(category)
+                .model(model)
+                .isPublic(true)
+                .isFeatured(featured)
+                .tags(Set.of(tags))
+                .createdAt(NOW.plusMinutes(minutes))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.promptforge.prompt.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("HnswGraph Tests")
+class HnswGraphTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should find nearly all exact nearest neighbours, also after a write/read round trip")
+    void shouldMatchBruteForce() throws Exception {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+        VectorStore store = new VectorStore(directory.resolve("vectors.f32"), DIMENSIONS, 0);
+        HnswGraph graph = new HnswGraph(store, 8, 64, 7);
+        for (int i = 0; i < 2000; i++) {
+            graph.add(store.add(randomUnitVector(random)));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        graph.write(new DataOutputStream(bytes));
+        HnswGraph reloaded = HnswGraph.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                store, 8, 64, 7);
+
+        // When
+        int found = 0;
+        int expected = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomUnitVector(random);
+            List<Integer> exact = IntStream.range(0, store.size()).boxed()
+                    .sorted(Comparator.comparingDouble((Integer n) -> store.dot(query, n)).reversed())
+                    .limit(10)
+                    .collect(Collectors.toList());
+            List<Integer> approximate = reloaded.search(query, 10, 64, null).stream()
+                    .map(HnswGraph.Neighbor::getNode)
+                    .collect(Collectors.toList());
+            found += (int) approximate.stream().filter(exact::contains).count();
+            expected += exact.size();
+        }
+
+        // Then
+        assertThat((double) found / expected).isGreaterThan(0.9);
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should only return accepted nodes")
+    void shouldApplyFilter() {
+        // Given
+        SplittableRandom random = new SplittableRandom(1);
+        VectorStore store = new VectorStore(directory.resolve("filtered.f32"), DIMENSIONS, 0);
+        HnswGraph graph = new HnswGraph(store, 8, 64, 7);
+        for (int i = 0; i < 300; i++) {
+            graph.add(store.add(randomUnitVector(random)));
+        }
+
+        // When
+        List<HnswGraph.Neighbor> even = graph.search(randomUnitVector(random), 10, 32, node -> node % 2 == 0);
+
+        // Then
+        assertThat(even).hasSize(10).allMatch(n -> n.getNode() % 2 == 0);
+        store.close();
+    }
+
+    private static float[] randomUnitVector(SplittableRandom random) {
+        float[] v = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            v[i] = (float) (random.nextDouble() * 2 - 1);
+            norm += v[i] * v[i];
+        }
+        for (int i = 0; i < DIMENSIONS; i++) {
+            v[i] /= (float) Math.sqrt(norm);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,109 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NearDuplicateIndex Tests")
+class NearDuplicateIndexTest {
+
+    private static final String ORIGINAL = "You are a senior software engineer. Review the following pull request "
+            + "for bugs, security issues and style problems. For each finding, quote the relevant lines, explain "
+            + "why it is a problem and suggest a concrete fix. Finish with an overall verdict and a short summary "
+            + "of the most important changes the author should make before merging.";
+
+    @Mock
+    private PromptRepository promptRepository;
+
+    private NearDuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NearDuplicateIndex(promptRepository, 128, 32, false);
+    }
+
+    @Test
+    @DisplayName("Should find near copies above the threshold and skip unrelated prompts")
+    void shouldFindNearCopies() {
+        // Given
+        index.index(prompt("original", "owner", ORIGINAL, true));
+        index.index(prompt("copy", "spammer", ORIGINAL.replace("senior software engineer", "expert developer"), true));
+        index.index(prompt("unrelated", "other", "Write a cheerful birthday poem for my grandmother who loves "
+                + "gardening, baking bread and long walks by the sea with her two old dogs.", true));
+
+        // When
+        List<NearDuplicateIndex.Match> matches = index.findSimilar("original", 0.6, 10, null);
+
+        // Then
+        assertThat(matches).extracting(NearDuplicateIndex.Match::getPromptId).containsExactly("copy");
+        assertThat(matches.get(0).getSimilarity()).isBetween(0.6, 1.0);
+    }
+
+    @Test
+    @DisplayName("Should only return private prompts to their owner")
+    void shouldFilterPrivatePrompts() {
+        // Given
+        index.index(prompt("original", "owner", ORIGINAL, true));
+        index.index(prompt("private-copy", "spammer", ORIGINAL, false));
+
+        // Then
+        assertThat(index.findSimilar("original", 0.5, 10, "owner")).isEmpty();
+        assertThat(index.findSimilar("original", 0.5, 10, "spammer"))
+                .extracting(NearDuplicateIndex.Match::getSimilarity)
+                .containsExactly(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reflect content changes and deletions")
+    void shouldReflectUpdatesAndDeletions() {
+        // Given
+        index.index(prompt("original", "owner", ORIGINAL, true));
+        index.index(prompt("copy", "spammer", ORIGINAL, true));
+        assertThat(index.findSimilar("original", 0.9, 10, null)).hasSize(1);
+
+        // When
+        index.index(prompt("copy", "spammer", "Translate the following English text into French, keeping "
+                + "technical terms, product names and code snippets unchanged.", true));
+
+        // Then
+        assertThat(index.findSimilar("original", 0.3, 10, null)).isEmpty();
+
+        index.remove("original");
+        assertThat(index.findSimilar("original", 0.0, 10, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should stop collecting candidates at the cap even within one bucket")
+    void shouldCapCandidatesWithinBucket() {
+        // Given: more identical copies than the 10,000 candidate cap, all sharing every bucket
+        for (int i = 0; i < 10_050; i++) {
+            index.index(prompt("copy-" + i, "spammer", ORIGINAL, true));
+        }
+
+        // When
+        List<NearDuplicateIndex.Match> matches = index.findSimilar("copy-0", 0.0, 20_000, null);
+
+        // Then
+        assertThat(matches).hasSize(10_000);
+        assertThat(matches).extracting(NearDuplicateIndex.Match::getPromptId).doesNotContain("copy-0");
+    }
+
+    private Prompt prompt(String id, String userId, String content, boolean isPublic) {
+        return Prompt.builder()
+                .id(id)
+                .userId(userId)
+                .content(content)
+                .isPublic(isPublic)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptSearchIndex Tests")
+class PromptSearchIndexTest {
+
+    @Mock
+    private PromptRepository promptRepository;
+
+    private PromptSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new PromptSearchIndex(promptRepository, false);
+
+        searchIndex.index(prompt("p1", "Code review assistant", "Review pull requests for bugs", Set.of("code"), true));
+        searchIndex.index(prompt("p2", "Blog post writer", "Write a blog post about code quality", Set.of("writing"), true));
+        searchIndex.index(prompt("p3", "Private code notes", "Summarize my code notes", Set.of("code"), false));
+    }
+
+    @Test
+    @DisplayName("Should rank title matches above content matches")
+    void shouldRankTitleMatchesFirst() {
+        SearchHits hits = searchIndex.search("review ", null, null, 0, 10);
+
+        assertThat(hits.getPromptIds()).containsExactly("p1");
+
+        hits = searchIndex.search("code ", true, null, 0, 10);
+        assertThat(hits.getPromptIds()).containsExactly("p1", "p2");
+        assertThat(hits.getTotalHits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should prefix match the last query token")
+    void shouldPrefixMatchLastToken() {
+        SearchHits hits = searchIndex.search("blo", null, null, 0, 10);
+
+        assertThat(hits.getPromptIds()).containsExactly("p2");
+        assertThat(searchIndex.search("blo ", null, null, 0, 10).getTotalHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should page results and filter by visibility")
+    void shouldPageAndFilter() {
+        assertThat(searchIndex.search("code ", null, "owner-1", 0, 2).getPromptIds()).hasSize(2);
+        assertThat(searchIndex.search("code ", null, "owner-1", 1, 2).getPromptIds()).hasSize(1);
+        assertThat(searchIndex.search("code ", false, "owner-1", 0, 10).getPromptIds()).containsExactly("p3");
+    }
+
+    @Test
+    @DisplayName("Should only return private prompts to their owner")
+    void shouldHidePrivatePromptsFromOthers() {
+        assertThat(searchIndex.search("code ", null, null, 0, 10).getPromptIds()).containsExactly("p1", "p2");
+        assertThat(searchIndex.search("code ", null, "someone-else", 0, 10).getPromptIds()).containsExactly("p1", "p2");
+        assertThat(searchIndex.search("code ", false, "someone-else", 0, 10).getTotalHits()).isZero();
+        assertThat(searchIndex.search("notes", null, "owner-1", 0, 10).getPromptIds()).containsExactly("p3");
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and deletions")
+    void shouldReflectUpdatesAndDeletions() {
+        searchIndex.index(prompt("p1", "Unit test generator", "Generate JUnit tests", Set.of("testing"), true));
+        searchIndex.remove("p2");
+
+        assertThat(searchIndex.search("review ", null, null, 0, 10).getTotalHits()).isZero();
+        assertThat(searchIndex.search("blog ", null, null, 0, 10).getTotalHits()).isZero();
+        assertThat(searchIndex.search("junit", null, null, 0, 10).getPromptIds()).containsExactly("p1");
+    }
+
+    @Test
+    @DisplayName("Should return the same top page with pruning as a full scan")
+    void shouldPruneWithoutChangingTopHits() {
+        for (int i = 0; i < 1500; i++) {
+            String content = "common ".repeat(1 + i % 7) + (i % 50 == 0 ? "rare" : "filler") + " text " + i;
+            searchIndex.index(prompt("bulk-" + i, "Bulk prompt", content, Set.of(), i % 3 != 0));
+        }
+
+        for (Boolean isPublic : new Boolean[]{null, true}) {
+            // A page deeper than the match count is never full, so nothing is pruned
+            List<String> full = searchIndex.search("common rare ", isPublic, "owner-1", 0, 5000).getPromptIds();
+            SearchHits pruned = searchIndex.search("common rare ", isPublic, "owner-1", 0, 10);
+
+            assertThat(pruned.getPromptIds()).containsExactlyElementsOf(full.subList(0, 10));
+            assertThat(pruned.getTotalHits()).isGreaterThanOrEqualTo(1000);
+        }
+        assertThat(searchIndex.search("common rare ", null, null, 1, 10).getPromptIds())
+                .containsExactlyElementsOf(searchIndex.search("common rare ", null, null, 0, 5000).getPromptIds().subList(10, 20));
+    }
+
+    @Test
+    @DisplayName("Should rebuild from the database in batches")
+    void shouldRebuildFromDatabase() {
+        when(promptRepository.findBatchAfterId(eq(""), any(Pageable.class)))
+                .thenReturn(List.of(prompt("p9", "Rebuilt prompt", "Loaded on cold start", Set.of(), true)));
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search("rebuilt", null, null, 0, 10).getPromptIds()).containsExactly("p9");
+        assertThat(searchIndex.search("review", null, null, 0, 10).getTotalHits()).isZero();
+    }
+
+    private Prompt prompt(String id, String title, String content, Set<String> tags, boolean isPublic) {
+        return Prompt.builder()
+                .id(id)
+                .title(title)
+                .content(content)
+                .tags(tags)
+                .userId("owner-1")
+                .isPublic(isPublic)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TagIndex Tests")
+class TagIndexTest {
+
+    @Mock
+    private PromptRepository promptRepository;
+
+    private TagIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TagIndex(promptRepository, false);
+    }
+
+    @Test
+    @DisplayName("Should autocomplete by prefix, most used tags first")
+    void shouldAutocompleteByCount() {
+        // Given
+        index.index(prompt("p1", true, "python", "coding"));
+        index.index(prompt("p2", true, "python", "pytorch"));
+        index.index(prompt("p3", true, "pytorch", "Poetry"));
+        index.index(prompt("p4", true, "python"));
+
+        // When
+        List<TagIndex.TagCount> suggestions = index.autocomplete("py", 10);
+
+        // Then
+        assertThat(suggestions).extracting(TagIndex.TagCount::getTag).containsExactly("python", "pytorch");
+        assertThat(suggestions).extracting(TagIndex.TagCount::getCount).containsExactly(3L, 2L);
+        assertThat(index.autocomplete("po", 10)).extracting(TagIndex.TagCount::getTag).containsExactly("poetry");
+        assertThat(index.autocomplete("x", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should apply only the tags an update added or dropped")
+    void shouldApplyTagDiffOnUpdate() {
+        // Given
+        index.index(prompt("p1", true, "python", "coding"));
+        index.index(prompt("p2", true, "python", "coding", "testing"));
+
+        // When
+        index.index(prompt("p2", true, "python", "debugging"));
+
+        // Then
+        assertThat(index.count("python")).isEqualTo(2);
+        assertThat(index.count("coding")).isEqualTo(1);
+        assertThat(index.count("testing")).isZero();
+        assertThat(index.related("python", 10))
+                .extracting(TagIndex.TagCount::getTag, TagIndex.TagCount::getCount)
+                .containsExactly(tuple("coding", 1L), tuple("debugging", 1L));
+        assertThat(index.related("testing", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should drop tags of deleted and private prompts")
+    void shouldDropDeletedAndPrivatePrompts() {
+        // Given
+        index.index(prompt("p1", true, "python", "coding"));
+        index.index(prompt("p2", true, "python"));
+        index.index(prompt("secret", false, "internal"));
+
+        // When
+        index.remove("p1");
+        index.index(prompt("p2", false, "python"));
+
+        // Then
+        assertThat(index.popular(10)).isEmpty();
+        assertThat(index.related("python", 10)).isEmpty();
+        assertThat(index.autocomplete("in", 10)).isEmpty();
+    }
+
+    private Prompt prompt(String id, boolean isPublic, String... tags) {
+        return Prompt.builder()
+                .id(id)
+                .isPublic(isPublic)
+                .tags(Set.of(tags))
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.promptforge.prompt.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TagTrie Tests")
+class TagTrieTest {
+
+    @Test
+    @DisplayName("Should promote an unlisted tag when a listed one drops out of a full list")
+    void shouldRefillTopListFromSubtree() {
+        // Given
+        TagTrie trie = new TagTrie(2);
+        trie.set("java", 5);
+        trie.set("javascript", 4);
+        trie.set("jaxb", 3);
+        assertThat(trie.suggest("ja", 10)).containsExactly("java", "javascript");
+
+        // When
+        trie.set("java", 1);
+
+        // Then
+        assertThat(trie.suggest("ja", 10)).containsExactly("javascript", "jaxb");
+        assertThat(trie.suggest("jav", 10)).containsExactly("javascript", "java");
+
+        trie.set("javascript", 0);
+        assertThat(trie.suggest("javas", 10)).isEmpty();
+        assertThat(trie.suggest("", 10)).containsExactly("jaxb", "java");
+        assertThat(trie.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep dropped tags in the reserve and refill a list once the reserve runs out")
+    void shouldAbsorbDropsInReserve() {
+        // Given: one tag beyond the top-2 reserve, so "jaxws" is not listed at the root
+        TagTrie trie = new TagTrie(2, 1);
+        trie.set("java", 9);
+        trie.set("javascript", 8);
+        trie.set("jaxb", 7);
+        trie.set("jaxws", 6);
+
+        // When: a drop below the last listed tag truncates the list to the reserve
+        trie.set("java", 1);
+
+        // Then
+        assertThat(trie.suggest("", 10)).containsExactly("javascript", "jaxb");
+
+        // When: the next drop leaves fewer than top-K listed, so the subtree is rescanned
+        trie.set("javascript", 2);
+
+        // Then
+        assertThat(trie.suggest("", 10)).containsExactly("jaxb", "jaxws");
+        assertThat(trie.suggest("jav", 10)).containsExactly("javascript", "java");
+    }
+
+    @Test
+    @DisplayName("Should match a full sort of the counts under random updates")
+    void shouldMatchBruteForceUnderRandomUpdates() {
+        // Given
+        Random random = new Random(42);
+        String[] tags = new String[60];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = "t" + (char) ('a' + random.nextInt(3)) + (char) ('a' + random.nextInt(3)) + i;
+        }
+        TagTrie trie = new TagTrie(3, 2);
+        Map<String, Long> counts = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            // When
+            String tag = tags[random.nextInt(tags.length)];
+            long count = random.nextInt(10);
+            trie.set(tag, count);
+            if (count > 0) {
+                counts.put(tag, count);
+            } else {
+                counts.remove(tag);
+            }
+
+            // Then
+            for (String prefix : new String[]{"", "t", "ta", "tb", "tab", "tcc"}) {
+                List<String> expected = new ArrayList<>();
+                counts.keySet().stream()
+                        .filter(t -> t.startsWith(prefix))
+                        .sorted(Comparator.<String>comparingLong(t -> -counts.get(t)).thenComparing(Comparator.naturalOrder()))
+                        .limit(3)
+                        .forEach(expected::add);
+                assertThat(trie.suggest(prefix, 10)).as("prefix '%s' at step %d", prefix, step).isEqualTo(expected);
+            }
+        }
+        assertThat(trie.size()).isEqualTo(counts.size());
+    }
+}
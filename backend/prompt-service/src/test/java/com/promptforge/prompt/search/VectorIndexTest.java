@@ -0,0 +1,153 @@
+package com.promptforge.prompt.search;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VectorIndex Tests")
+class VectorIndexTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private PromptRepository promptRepository;
+
+    @TempDir
+    Path directory;
+
+    private CountingEmbedder embedder;
+
+    @BeforeEach
+    void setUp() {
+        embedder = new CountingEmbedder(new HashingEmbedder(256));
+    }
+
+    @Test
+    @DisplayName("Should rank reworded prompts above unrelated ones and hide private prompts")
+    void shouldFindSimilarPrompts() {
+        // Given
+        VectorIndex index = newIndex();
+        index.index(prompt("review", "owner", true, "Code review assistant",
+                "Review this pull request for bugs and security issues and suggest fixes."));
+        index.index(prompt("reviewer", "other", true, "Reviewing code changes",
+                "Act as a reviewer: find bugs and security problems in the code changes and suggest fixes."));
+        index.index(prompt("poem", "other", true, "Birthday poem",
+                "Write a cheerful birthday poem for my grandmother who loves gardening."));
+        index.index(prompt("secret", "other", false, "Code review assistant",
+                "Review this pull request for bugs and security issues and suggest fixes."));
+
+        // When
+        List<VectorIndex.Match> matches = index.findSimilar("review", 10, "owner");
+
+        // Then
+        assertThat(matches).extracting(VectorIndex.Match::getPromptId).containsExactly("reviewer", "poem");
+        assertThat(matches.get(0).getSimilarity()).isGreaterThan(matches.get(1).getSimilarity());
+        assertThat(index.findSimilar("review", 10, "other").get(0).getPromptId()).isEqualTo("secret");
+        assertThat(index.search("security bugs in code", 1, true, null))
+                .extracting(VectorIndex.Match::getPromptId)
+                .containsAnyOf("review", "reviewer");
+        assertThat(index.search("security bugs in code", 10, null, "owner"))
+                .extracting(VectorIndex.Match::getPromptId)
+                .doesNotContain("secret");
+        assertThat(index.search("security bugs in code", 10, false, "other"))
+                .extracting(VectorIndex.Match::getPromptId)
+                .containsExactly("secret");
+        index.close();
+    }
+
+    @Test
+    @DisplayName("Should reload persisted vectors and only re-embed prompts that changed")
+    void shouldReloadWithoutReembedding() {
+        // Given
+        Prompt review = prompt("review", "owner", true, "Code review assistant",
+                "Review this pull request for bugs and security issues.");
+        Prompt reviewer = prompt("reviewer", "other", true, "Reviewing code changes",
+                "Find bugs and security problems in the code changes.");
+        Prompt deleted = prompt("deleted", "other", true, "Old prompt", "Summarize meeting notes.");
+        VectorIndex first = newIndex();
+        first.index(review);
+        first.index(reviewer);
+        first.index(deleted);
+        first.close();
+
+        Prompt edited = prompt("reviewer", "other", true, "Reviewing code changes",
+                "Find bugs, race conditions and security problems in the code changes.");
+        edited.setUpdatedAt(UPDATED.plusHours(1));
+        when(promptRepository.findBatchAfterId(eq(""), any())).thenReturn(List.of(review, edited));
+        embedder.calls.set(0);
+
+        // When
+        VectorIndex restarted = new VectorIndex(promptRepository, embedder, directory.toString(), 16, 100, 64, true);
+        restarted.rebuildOnStartup();
+
+        // Then
+        assertThat(restarted.isReady()).isTrue();
+        assertThat(embedder.calls.get()).isEqualTo(1); // Only the edited prompt
+        assertThat(restarted.findSimilar("review", 10, null))
+                .extracting(VectorIndex.Match::getPromptId)
+                .containsExactly("reviewer");
+        restarted.close();
+    }
+
+    private VectorIndex newIndex() {
+        VectorIndex index = new VectorIndex(promptRepository, embedder, directory.toString(), 16, 100, 64, false);
+        when(promptRepository.findBatchAfterId(any(), any())).thenReturn(List.of());
+        index.rebuild();
+        reset(promptRepository);
+        return index;
+    }
+
+    private Prompt prompt(String id, String userId, boolean isPublic, String title, String content) {
+        return Prompt.builder()
+                .id(id)
+                .userId(userId)
+                .isPublic(isPublic)
+                .title(title)
+                .content(content)
+                .tags(Set.of())
+                .updatedAt(UPDATED)
+                .build();
+    }
+
+    private static final class CountingEmbedder implements PromptEmbedder {
+        private final PromptEmbedder delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingEmbedder(PromptEmbedder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String name() {
+            return delegate.name();
+        }
+
+        @Override
+        public int dimensions() {
+            return delegate.dimensions();
+        }
+
+        @Override
+        public float[] embed(String text) {
+            calls.incrementAndGet();
+            return delegate.embed(text);
+        }
+    }
+}
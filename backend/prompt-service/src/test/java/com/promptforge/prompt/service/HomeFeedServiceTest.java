@@ -0,0 +1,82 @@
+package com.promptforge.prompt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptforge.prompt.dto.PromptSummaryResponse;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HomeFeedService Tests")
+class HomeFeedServiceTest {
+    
+    @Mock
+    private PromptService promptService;
+    
+    private HomeFeedService homeFeedService;
+    
+    @BeforeEach
+    void setUp() {
+        homeFeedService = new HomeFeedService(promptService, new ObjectMapper(), 12, 60_000);
+        when(promptService.getFeaturedPrompts(any(Pageable.class))).thenReturn(page("featured"));
+        when(promptService.getTrendingPrompts(any(Pageable.class))).thenReturn(page("trending"));
+        when(promptService.getTopRatedPrompts(any(Pageable.class))).thenReturn(page("top"));
+    }
+    
+    @Test
+    @DisplayName("Should serve the materialized feed without querying again")
+    void shouldServeFromMemory() throws Exception {
+        // Given
+        homeFeedService.refreshIfStale();
+        
+        // When
+        HomeFeedService.Snapshot first = homeFeedService.get();
+        HomeFeedService.Snapshot second = homeFeedService.get();
+        homeFeedService.refreshIfStale(); // Neither stale nor expired
+        
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.getEtag()).startsWith("\"").endsWith("\"");
+        assertThat(new ObjectMapper().readTree(first.getBody()).at("/trending/0/id").asText()).isEqualTo("trending");
+        verify(promptService, times(1)).getTrendingPrompts(any(Pageable.class));
+    }
+    
+    @Test
+    @DisplayName("Should rebuild after a prompt change and keep the ETag when content is unchanged")
+    void shouldRebuildWhenStale() {
+        // Given
+        String etag = homeFeedService.get().getEtag();
+        
+        // When
+        homeFeedService.onPromptChanged(PromptChangedEvent.updated(Prompt.builder().id("p").build()));
+        homeFeedService.refreshIfStale();
+        String unchanged = homeFeedService.get().getEtag();
+        
+        when(promptService.getTopRatedPrompts(any(Pageable.class))).thenReturn(page("new-top"));
+        homeFeedService.onPromptChanged(PromptChangedEvent.updated(Prompt.builder().id("p").build()));
+        homeFeedService.refreshIfStale();
+        
+        // Then
+        assertThat(unchanged).isEqualTo(etag);
+        assertThat(homeFeedService.get().getEtag()).isNotEqualTo(etag);
+        verify(promptService, times(3)).getTopRatedPrompts(any(Pageable.class));
+    }
+    
+    private static Page<PromptSummaryResponse> page(String id) {
+        return new PageImpl<>(List.of(PromptSummaryResponse.builder().id(id).build()));
+    }
+}
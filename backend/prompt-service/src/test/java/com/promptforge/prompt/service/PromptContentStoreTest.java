@@ -0,0 +1,122 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.entity.PromptContent;
+import com.promptforge.prompt.repository.PromptContentRepository;
+import com.promptforge.prompt.repository.PromptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptContentStore Tests")
+class PromptContentStoreTest {
+    
+    @Mock
+    private PromptContentRepository contentRepository;
+    
+    @Mock
+    private PromptRepository promptRepository;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    private PromptContentStore contentStore;
+    
+    @BeforeEach
+    void setUp() {
+        contentStore = new PromptContentStore(contentRepository, promptRepository, jdbcTemplate, transactionTemplate);
+    }
+    
+    @Test
+    @DisplayName("Should hash content as lowercase hex SHA-256")
+    void shouldHashContent() {
+        assertThat(PromptContentStore.hash("abc"))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(PromptContentStore.hash("Same text")).isEqualTo(PromptContentStore.hash("Same text"));
+    }
+    
+    @Test
+    @DisplayName("Should relax the legacy content column and fail startup when it cannot")
+    void shouldRelaxLegacyContentColumnOrFail() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("NO"));
+        
+        // When
+        contentStore.relaxLegacyContentColumn();
+        
+        // Then
+        verify(jdbcTemplate).execute("ALTER TABLE prompts ALTER COLUMN content DROP NOT NULL");
+        
+        // Given: the ALTER is refused
+        doThrow(new DataAccessResourceFailureException("permission denied"))
+                .when(jdbcTemplate).execute(anyString());
+        
+        // When / Then
+        assertThatThrownBy(() -> contentStore.relaxLegacyContentColumn())
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(DataAccessResourceFailureException.class);
+    }
+    
+    @Test
+    @DisplayName("Should store a new body once and move the reference off the old one")
+    void shouldAttachChangedContent() {
+        // Given
+        String oldHash = PromptContentStore.hash("Original prompt body");
+        String newHash = PromptContentStore.hash("Edited prompt body");
+        Prompt prompt = Prompt.builder()
+                .body(PromptContent.builder().hash(oldHash).content("Original prompt body").build())
+                .build();
+        prompt.setContent("Edited prompt body");
+        when(contentRepository.addReferences(newHash, 1)).thenReturn(0);
+        when(contentRepository.getReferenceById(newHash)).thenReturn(PromptContent.builder().hash(newHash).build());
+        
+        // When
+        contentStore.attach(prompt);
+        
+        // Then
+        verify(contentRepository).upsert(newHash, "Edited prompt body", 18, 1);
+        verify(contentRepository).removeReferences(oldHash, 1);
+        assertThat(prompt.getContentHash()).isEqualTo(newHash);
+        assertThat(prompt.getContent()).isEqualTo("Edited prompt body");
+    }
+    
+    @Test
+    @DisplayName("Should write one statement per distinct body when attaching a batch")
+    void shouldGroupDuplicatesInBatch() {
+        // Given
+        String shared = PromptContentStore.hash("Popular prompt body");
+        String unique = PromptContentStore.hash("Unique prompt body");
+        List<Prompt> prompts = List.of(
+                Prompt.builder().content("Popular prompt body").build(),
+                Prompt.builder().content("Unique prompt body").build(),
+                Prompt.builder().content("Popular prompt body").build());
+        when(contentRepository.addReferences(shared, 2)).thenReturn(1);
+        when(contentRepository.addReferences(unique, 1)).thenReturn(0);
+        when(contentRepository.getReferenceById(anyString()))
+                .thenAnswer(invocation -> PromptContent.builder().hash(invocation.getArgument(0)).build());
+        
+        // When
+        contentStore.attachAll(prompts);
+        
+        // Then
+        verify(contentRepository).upsert(unique, "Unique prompt body", 18, 1);
+        verify(contentRepository, never()).upsert(eq(shared), anyString(), anyInt(), anyLong());
+        assertThat(prompts).extracting(Prompt::getContentHash).containsExactly(shared, unique, shared);
+    }
+}
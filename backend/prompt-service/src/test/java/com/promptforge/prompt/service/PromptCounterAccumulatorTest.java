@@ -0,0 +1,91 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.event.PromptCountersFlushedEvent;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptCounterAccumulator Tests")
+class PromptCounterAccumulatorTest {
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private PromptCounterAccumulator accumulator;
+    
+    @BeforeEach
+    void setUp() {
+        accumulator = new PromptCounterAccumulator(jdbcTemplate, eventPublisher, new SimpleMeterRegistry(), 500);
+    }
+    
+    @Test
+    @DisplayName("Should net likes and unlikes into one clamped relative update")
+    @SuppressWarnings("unchecked")
+    void shouldFlushNetLikeDelta() {
+        // Given
+        accumulator.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.LIKE, "prompt-1"));
+        accumulator.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.LIKE, "prompt-1"));
+        accumulator.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.UNLIKE, "prompt-1"));
+        accumulator.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.UNLIKE, "prompt-2"));
+        
+        // When
+        accumulator.flush();
+        
+        // Then
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(
+                eq("UPDATE prompts SET like_count = GREATEST(like_count + ?, 0) WHERE id = ?"), batch.capture());
+        assertThat(batch.getValue()).containsExactly(new Object[]{1L, "prompt-1"}, new Object[]{-1L, "prompt-2"});
+        verify(eventPublisher).publishEvent(any(PromptCountersFlushedEvent.class));
+        assertThat(accumulator.getPendingTotal(PromptCounterAccumulator.Counter.LIKES)).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should not lose concurrent likes on one prompt")
+    void shouldCountConcurrentLikes() throws Exception {
+        // Given
+        int threads = 8;
+        int likesPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < likesPerThread; i++) {
+                    accumulator.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.LIKE, "viral"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        
+        // Then
+        assertThat(accumulator.getPendingDelta(PromptCounterAccumulator.Counter.LIKES, "viral"))
+                .isEqualTo((long) threads * likesPerThread);
+    }
+}
@@ -0,0 +1,111 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.dto.PromptDetailResponse;
+import com.promptforge.prompt.dto.PromptResponse;
+import com.promptforge.prompt.dto.PromptStatsResponse;
+import com.promptforge.prompt.dto.RatingHistogramResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptDetailService Tests")
+class PromptDetailServiceTest {
+    
+    private static final long TIMEOUT_MS = 1000;
+    
+    @Mock
+    private PromptService promptService;
+    
+    @Mock
+    private SocialService socialService;
+    
+    private PromptDetailService detailService;
+    
+    @BeforeEach
+    void setUp() {
+        detailService = new PromptDetailService(promptService, socialService, 8, 16, TIMEOUT_MS);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        detailService.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should fetch sections concurrently so latency is the slowest part, not the sum")
+    void shouldFetchSectionsConcurrently() {
+        // Given
+        when(promptService.getPromptById("prompt-1", null))
+                .thenAnswer(delayed(300, PromptResponse.builder().id("prompt-1").build()));
+        when(socialService.getPromptStats("prompt-1"))
+                .thenAnswer(delayed(300, PromptStatsResponse.builder().promptId("prompt-1").build()));
+        when(socialService.getRatingHistogram("prompt-1"))
+                .thenAnswer(delayed(300, RatingHistogramResponse.builder().promptId("prompt-1").build()));
+        when(socialService.scrollComments(eq("prompt-1"), isNull(), anyInt())).thenAnswer(delayed(300, null));
+        when(promptService.getVersionHistory(eq("prompt-1"), any(Pageable.class))).thenAnswer(delayed(300, Page.empty()));
+        
+        // When
+        long start = System.currentTimeMillis();
+        PromptDetailResponse detail = detailService.getPromptDetail("prompt-1", null);
+        long elapsed = System.currentTimeMillis() - start;
+        
+        // Then
+        assertThat(detail.getPrompt().getId()).isEqualTo("prompt-1");
+        assertThat(detail.getStats()).isNotNull();
+        assertThat(detail.getRatings()).isNotNull();
+        assertThat(detail.getEngagement()).isNull();
+        assertThat(detail.getUnavailableSections()).isEmpty();
+        assertThat(elapsed).isLessThan(5 * 300);
+        verify(socialService, never()).getUserEngagement(anyString(), anyList());
+    }
+    
+    @Test
+    @DisplayName("Should leave out a section that times out and report it")
+    void shouldReportTimedOutSection() {
+        // Given
+        when(promptService.getPromptById("prompt-1", "user-1")).thenReturn(PromptResponse.builder().id("prompt-1").build());
+        when(socialService.getPromptStats("prompt-1")).thenAnswer(delayed(TIMEOUT_MS * 3, null));
+        when(socialService.getRatingHistogram("prompt-1")).thenThrow(new RuntimeException("boom"));
+        when(promptService.getVersionHistory(eq("prompt-1"), any(Pageable.class))).thenReturn(Page.empty());
+        
+        // When
+        PromptDetailResponse detail = detailService.getPromptDetail("prompt-1", "user-1");
+        
+        // Then
+        assertThat(detail.getPrompt()).isNotNull();
+        assertThat(detail.getStats()).isNull();
+        assertThat(detail.getUnavailableSections()).containsExactlyInAnyOrder("stats", "ratings", "engagement");
+        assertThat(detail.getTookMs()).isLessThan(TIMEOUT_MS * 3);
+    }
+    
+    @Test
+    @DisplayName("Should fail the whole page when the prompt is not visible to the viewer")
+    void shouldPropagatePromptAccessDenied() {
+        // Given
+        when(promptService.getPromptById("prompt-1", "intruder")).thenThrow(new RuntimeException("Access denied"));
+        
+        // When & Then
+        assertThatThrownBy(() -> detailService.getPromptDetail("prompt-1", "intruder"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Access denied");
+    }
+    
+    private static <T> Answer<T> delayed(long millis, T value) {
+        return invocation -> {
+            Thread.sleep(millis);
+            return value;
+        };
+    }
+}
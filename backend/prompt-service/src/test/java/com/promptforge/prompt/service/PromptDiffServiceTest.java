@@ -0,0 +1,130 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.document.PromptVersion;
+import com.promptforge.prompt.dto.VersionDiffResponse;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptDiffService Tests")
+class PromptDiffServiceTest {
+    
+    @Mock
+    private PromptRepository promptRepository;
+    
+    @Mock
+    private PromptVersionStore versionStore;
+    
+    private PromptDiffService diffService;
+    
+    @BeforeEach
+    void setUp() {
+        diffService = new PromptDiffService(promptRepository, versionStore, 1_000_000);
+    }
+    
+    @Test
+    @DisplayName("Should diff versions by line")
+    void shouldDiffByLine() {
+        // Given
+        givenPrompt(true);
+        givenVersion("1.0.0", "You are a helpful assistant.\nAnswer briefly.\nUse English.\n");
+        givenVersion("1.0.1", "You are a helpful assistant.\nAnswer in detail.\nUse English.\n");
+        
+        // When
+        VersionDiffResponse diff = diffService.diff("prompt-123", "1.0.0", "1.0.1", "line", "owner-1");
+        
+        // Then
+        assertThat(diff.getSegments()).extracting(VersionDiffResponse.Segment::getType)
+                .containsExactly("EQUAL", "DELETE", "INSERT", "EQUAL");
+        assertThat(diff.getSegments().get(1).getText()).isEqualTo("Answer briefly.\n");
+        assertThat(diff.getSegments().get(2).getText()).isEqualTo("Answer in detail.\n");
+        assertThat(diff.getInsertedTokens()).isEqualTo(1);
+        assertThat(diff.getDeletedTokens()).isEqualTo(1);
+        assertThat(diff.getUnchangedTokens()).isEqualTo(2);
+    }
+    
+    @Test
+    @DisplayName("Should diff versions by word and cache the result")
+    void shouldDiffByWordAndCache() {
+        // Given
+        givenPrompt(true);
+        givenVersion("1.0.0", "Summarize the article in three bullet points.");
+        givenVersion("1.0.1", "Summarize the article in five short bullet points.");
+        
+        // When
+        VersionDiffResponse diff = diffService.diff("prompt-123", "1.0.0", "1.0.1", "word", "owner-1");
+        VersionDiffResponse again = diffService.diff("prompt-123", "1.0.0", "1.0.1", "WORD", "owner-1");
+        
+        // Then
+        assertThat(diff.getSegments())
+                .filteredOn(segment -> segment.getType().equals("DELETE"))
+                .extracting(VersionDiffResponse.Segment::getText)
+                .containsExactly("three");
+        assertThat(diff.getSegments())
+                .filteredOn(segment -> segment.getType().equals("INSERT"))
+                .extracting(VersionDiffResponse.Segment::getText)
+                .containsExactly("five short");
+        assertThat(again).isSameAs(diff);
+        verify(versionStore, times(1)).getVersion("prompt-123", "1.0.0");
+    }
+    
+    @Test
+    @DisplayName("Should reject unknown versions and granularities")
+    void shouldRejectInvalidRequests() {
+        givenPrompt(true);
+        when(versionStore.getVersion("prompt-123", "9.9.9")).thenReturn(Optional.empty());
+        
+        assertThatThrownBy(() -> diffService.diff("prompt-123", "9.9.9", "1.0.0", "line", "owner-1"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Version not found: 9.9.9");
+        assertThatThrownBy(() -> diffService.diff("prompt-123", "1.0.0", "1.0.1", "char", "owner-1"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Invalid granularity");
+    }
+    
+    @Test
+    @DisplayName("Should only diff a private prompt for its owner, even when cached")
+    void shouldHidePrivatePromptDiffs() {
+        // Given
+        givenPrompt(false);
+        givenVersion("1.0.0", "Draft");
+        givenVersion("1.0.1", "Final draft");
+        diffService.diff("prompt-123", "1.0.0", "1.0.1", "line", "owner-1");
+        
+        // When & Then
+        assertThatThrownBy(() -> diffService.diff("prompt-123", "1.0.0", "1.0.1", "line", "someone-else"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Access denied");
+        assertThatThrownBy(() -> diffService.diff("prompt-123", "1.0.0", "1.0.1", "line", null))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Access denied");
+    }
+    
+    private void givenPrompt(boolean isPublic) {
+        Prompt prompt = Prompt.builder().id("prompt-123").userId("owner-1").isPublic(isPublic).build();
+        PromptSummary summary = new SpelAwareProxyProjectionFactory().createProjection(PromptSummary.class, prompt);
+        when(promptRepository.findSummariesByIdIn(List.of("prompt-123"))).thenReturn(List.of(summary));
+    }
+    
+    private void givenVersion(String version, String content) {
+        when(versionStore.getVersion("prompt-123", version)).thenReturn(Optional.of(PromptVersion.builder()
+                .promptId("prompt-123")
+                .version(version)
+                .content(content)
+                .build()));
+    }
+}
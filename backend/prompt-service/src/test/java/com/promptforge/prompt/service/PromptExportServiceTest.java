@@ -0,0 +1,125 @@
+package com.promptforge.prompt.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptforge.prompt.document.PromptVersion;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptExportService Tests")
+class PromptExportServiceTest {
+
+    @Mock
+    private PromptRepository promptRepository;
+
+    @Mock
+    private PromptVersionStore versionStore;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private PromptExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new PromptExportService(promptRepository, versionStore, entityManager, objectMapper,
+                transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should stream one NDJSON line per prompt and detach each row")
+    void shouldStreamNdjsonAndDetachRows() throws Exception {
+        // Given
+        Prompt first = prompt("p1", "First prompt");
+        Prompt second = prompt("p2", "Second prompt");
+        when(promptRepository.streamByUserId("user-123")).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long written = exportService.exportUserPrompts("user-123", "ndjson", false, false, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("title").asText()).isEqualTo("First prompt");
+        assertThat(objectMapper.readTree(lines[1]).get("tags").get(0).asText()).isEqualTo("ai");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verifyNoInteractions(versionStore);
+    }
+
+    @Test
+    @DisplayName("Should write a gzipped JSON array with version histories")
+    @SuppressWarnings("unchecked")
+    void shouldWriteGzippedJsonWithVersions() throws Exception {
+        // Given
+        when(promptRepository.streamByUserId("user-123")).thenReturn(Stream.of(prompt("p1", "First prompt")));
+        doAnswer(invocation -> {
+            Consumer<PromptVersion> consumer = invocation.getArgument(1);
+            consumer.accept(PromptVersion.builder().promptId("p1").version("1.0.0").content("v1").build());
+            consumer.accept(PromptVersion.builder().promptId("p1").version("1.0.1").content("v2").build());
+            return null;
+        }).when(versionStore).streamVersions(eq("p1"), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportUserPrompts("user-123", "json", true, true, out);
+
+        // Then
+        JsonNode array = objectMapper.readTree(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertThat(array.isArray()).isTrue();
+        assertThat(array).hasSize(1);
+        assertThat(array.get(0).get("versions")).extracting(node -> node.get("version").asText())
+                .containsExactly("1.0.0", "1.0.1");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown formats")
+    void shouldRejectUnknownFormat() {
+        assertThatThrownBy(() -> exportService.exportUserPrompts("user-123", "csv", false, false,
+                new ByteArrayOutputStream()))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Invalid export format");
+    }
+
+    private Prompt prompt(String id, String title) {
+        return Prompt.builder()
+                .id(id)
+                .title(title)
+                .content("Some prompt content")
+                .userId("user-123")
+                .username("testuser")
+                .category("coding")
+                .tags(Set.of("ai"))
+                .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+    }
+}
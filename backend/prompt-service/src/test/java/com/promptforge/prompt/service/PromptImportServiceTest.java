@@ -0,0 +1,183 @@
+package com.promptforge.prompt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptforge.prompt.dto.BulkImportResponse;
+import com.promptforge.prompt.dto.CreatePromptRequest;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptEventProducer;
+import com.promptforge.prompt.repository.PromptRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptImportService Tests")
+class PromptImportServiceTest {
+    
+    @Mock
+    private PromptRepository promptRepository;
+    
+    @Mock
+    private PromptVersionStore versionStore;
+    
+    @Mock
+    private PromptContentStore contentStore;
+    
+    @Mock
+    private PromptEventProducer promptEventProducer;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    private PromptImportService importService;
+    
+    @BeforeEach
+    void setUp() {
+        importService = new PromptImportService(promptRepository, versionStore, contentStore, promptEventProducer, eventPublisher,
+                transactionTemplate, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                2, 100);
+        
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+    
+    @Test
+    @DisplayName("Should import valid items in chunks and report invalid ones")
+    void shouldImportInChunksAndReportInvalidItems() {
+        // Given
+        when(promptRepository.saveAll(anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+        List<CreatePromptRequest> requests = List.of(
+                request("First prompt"),
+                request("x"),
+                request("Second prompt"),
+                request("Third prompt"));
+        
+        // When
+        BulkImportResponse response = importService.importPrompts(requests, "user-123", "testuser");
+        
+        // Then
+        assertThat(response.getTotal()).isEqualTo(4);
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults()).extracting(BulkImportResponse.ItemResult::getIndex)
+                .containsExactly(0, 1, 2, 3);
+        assertThat(response.getResults().get(1).getError()).startsWith("title: ");
+        
+        // Chunk size 2: [0, 2] then [3]
+        verify(promptRepository, times(2)).saveAll(anyList());
+        verify(versionStore, times(2)).appendFirstVersions(anyList(), eq("Initial version"));
+        verify(promptEventProducer, times(2)).publishPromptsCreated(anyList());
+    }
+    
+    @Test
+    @DisplayName("Should retry a failed chunk item by item")
+    void shouldRetryFailedChunkItemByItem() {
+        // Given
+        when(promptRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Prompt> prompts = invocation.getArgument(0);
+            if (prompts.stream().anyMatch(prompt -> prompt.getTitle().equals("Broken prompt"))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return withIds(prompts);
+        });
+        
+        // When
+        BulkImportResponse response = importService.importPrompts(
+                List.of(request("Good prompt"), request("Broken prompt")), "user-123", "testuser");
+        
+        // Then
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getResults().get(0).getPromptId()).isNotNull();
+        assertThat(response.getResults().get(1).getError()).contains("constraint violation");
+    }
+    
+    @Test
+    @DisplayName("Should remove the versions of a chunk whose transaction rolled back")
+    void shouldRemoveVersionsOfRolledBackChunk() {
+        // Given: the versions are written, then the transaction fails
+        when(promptRepository.saveAll(anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+        doThrow(new IllegalStateException("outbox unavailable")).when(promptEventProducer).publishPromptsCreated(anyList());
+        when(promptRepository.findExistingIds(anyList())).thenReturn(List.of());
+        
+        // When
+        BulkImportResponse response = importService.importPrompts(
+                List.of(request("Rolled back prompt")), "user-123", "testuser");
+        
+        // Then: the chunk and its one-by-one retry both clean up after themselves
+        assertThat(response.getImported()).isZero();
+        assertThat(response.getResults().get(0).getError()).contains("outbox unavailable");
+        verify(versionStore, times(2)).appendFirstVersions(anyList(), eq("Initial version"));
+        verify(versionStore, times(2)).deleteVersions(argThat(ids -> ids.size() == 1));
+    }
+    
+    @Test
+    @DisplayName("Should import NDJSON and report malformed lines")
+    void shouldImportNdjson() throws Exception {
+        // Given
+        when(promptRepository.saveAll(anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+        String ndjson = "{\"title\":\"Line prompt\",\"content\":\"Content for the line prompt\",\"category\":\"Dev\"}\n"
+                + "\n"
+                + "{not json\n";
+        
+        // When
+        BulkImportResponse response = importService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "user-123", "testuser");
+        
+        // Then
+        assertThat(response.getTotal()).isEqualTo(2);
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getResults().get(1).getError()).startsWith("Malformed JSON");
+    }
+    
+    @Test
+    @DisplayName("Should stop reading NDJSON at the item limit and keep what was imported")
+    void shouldTruncateNdjsonAtLimit() throws Exception {
+        // Given: a limit of 2 items
+        importService = new PromptImportService(promptRepository, versionStore, contentStore, promptEventProducer, eventPublisher,
+                transactionTemplate, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                2, 2);
+        when(promptRepository.saveAll(anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+        String line = "{\"title\":\"Line prompt\",\"content\":\"Content for the line prompt\",\"category\":\"Dev\"}\n";
+        
+        // When
+        BulkImportResponse response = importService.importNdjson(
+                new ByteArrayInputStream(line.repeat(3).getBytes(StandardCharsets.UTF_8)), "user-123", "testuser");
+        
+        // Then
+        assertThat(response.isTruncated()).isTrue();
+        assertThat(response.getTotal()).isEqualTo(2);
+        assertThat(response.getImported()).isEqualTo(2);
+    }
+    
+    private CreatePromptRequest request(String title) {
+        CreatePromptRequest request = new CreatePromptRequest();
+        request.setTitle(title);
+        request.setContent("This is test content for the prompt");
+        request.setCategory("Development");
+        return request;
+    }
+    
+    private List<Prompt> withIds(List<Prompt> prompts) {
+        prompts.forEach(prompt -> prompt.setId(UUID.randomUUID().toString()));
+        return prompts;
+    }
+}
@@ -2,11 +2,22 @@ package com.promptforge.prompt.service;
 
 import com.promptforge.prompt.document.PromptVersion;
 import com.promptforge.prompt.dto.CreatePromptRequest;
+import com.promptforge.prompt.dto.ForkPromptRequest;
+import com.promptforge.prompt.dto.CursorPageResponse;
 import com.promptforge.prompt.dto.PromptResponse;
+import com.promptforge.prompt.dto.PromptSummaryResponse;
 import com.promptforge.prompt.dto.UpdatePromptRequest;
+import com.promptforge.prompt.dto.VersionSummaryResponse;
 import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import com.promptforge.prompt.event.PromptChangedEvent;
+import com.promptforge.prompt.event.PromptCountersFlushedEvent;
+import com.promptforge.prompt.event.PromptEventProducer;
 import com.promptforge.prompt.repository.PromptRepository;
-import com.promptforge.prompt.repository.PromptVersionRepository;
+import com.promptforge.prompt.repository.PromptSummary;
+import com.promptforge.prompt.search.NearDuplicateIndex;
+import com.promptforge.prompt.search.PromptSearchIndex;
+import com.promptforge.prompt.search.SearchHits;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,11 +25,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -35,7 +49,31 @@ class PromptServiceTest {
     private PromptRepository promptRepository;
     
     @Mock
-    private PromptVersionRepository promptVersionRepository;
+    private PromptVersionStore versionStore;
+    
+    @Mock
+    private PromptContentStore contentStore;
+    
+    @Mock
+    private PromptEventProducer promptEventProducer;
+    
+    @Mock
+    private PromptCounterAccumulator counterAccumulator;
+    
+    @Mock
+    private PromptSearchIndex searchIndex;
+    
+    @Mock
+    private NearDuplicateIndex nearDuplicateIndex;
+    
+    @Mock
+    private TrendingRanker trendingRanker;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Spy
+    private PromptResponseCache promptResponseCache = new PromptResponseCache(1_000_000, 60);
     
     @InjectMocks
     private PromptService promptService;
@@ -103,7 +141,34 @@ class PromptServiceTest {
         assertThat(response.getIsPublic()).isTrue();
         
         verify(promptRepository).save(any(Prompt.class));
-        verify(promptVersionRepository).save(any(PromptVersion.class));
+        verify(versionStore).append(any(Prompt.class), eq("Initial version"));
+    }
+    
+    @Test
+    @DisplayName("Should fork a visible prompt without copying its content")
+    void shouldForkPrompt() {
+        // Given
+        PromptVersion sourceVersion = PromptVersion.builder().promptId("prompt-123").version("1.0.0").sequence(1).build();
+        when(promptRepository.findById("prompt-123")).thenReturn(Optional.of(prompt));
+        when(versionStore.findStored("prompt-123", "1.0.0")).thenReturn(Optional.of(sourceVersion));
+        when(promptRepository.save(any(Prompt.class))).thenAnswer(invocation -> {
+            Prompt saved = invocation.getArgument(0);
+            saved.setId("fork-1");
+            return saved;
+        });
+        
+        // When
+        PromptResponse response = promptService.forkPrompt("prompt-123", new ForkPromptRequest(), "user-456", "forker");
+        
+        // Then
+        assertThat(response.getUserId()).isEqualTo("user-456");
+        assertThat(response.getForkedFromId()).isEqualTo("prompt-123");
+        assertThat(response.getForkedFromVersion()).isEqualTo("1.0.0");
+        assertThat(response.getIsPublic()).isFalse();
+        
+        verify(contentStore).share(eq(prompt), any(Prompt.class)); // Body shared by reference
+        verify(versionStore).appendFork(any(Prompt.class), eq(sourceVersion), anyString());
+        verify(eventPublisher).publishEvent(any(PromptEngagementEvent.class));
     }
     
     @Test
@@ -111,7 +176,7 @@ class PromptServiceTest {
     void shouldGetPromptById() {
         // Given
         when(promptRepository.findById(anyString())).thenReturn(Optional.of(prompt));
-        when(promptRepository.save(any(Prompt.class))).thenReturn(prompt);
+        when(counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.VIEWS, "prompt-123")).thenReturn(1L);
         
         // When
         PromptResponse response = promptService.getPromptById("prompt-123", userId);
@@ -119,10 +184,84 @@ class PromptServiceTest {
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getId()).isEqualTo("prompt-123");
-        assertThat(response.getViewCount()).isEqualTo(1); // Incremented
+        assertThat(response.getViewCount()).isEqualTo(1); // Includes unflushed views
         
         verify(promptRepository).findById("prompt-123");
-        verify(promptRepository).save(any(Prompt.class)); // Saves updated view count
+        verify(counterAccumulator).increment(PromptCounterAccumulator.Counter.VIEWS, "prompt-123");
+        verify(promptRepository, never()).save(any(Prompt.class)); // Read path does no writes
+    }
+    
+    @Test
+    @DisplayName("Should serve repeated reads from the prompt cache")
+    void shouldServeRepeatedReadsFromCache() {
+        // Given
+        when(promptRepository.findById(anyString())).thenReturn(Optional.of(prompt));
+        
+        // When
+        promptService.getPromptById("prompt-123", userId);
+        PromptResponse response = promptService.getPromptById("prompt-123", userId);
+        
+        // Then
+        assertThat(response.getId()).isEqualTo("prompt-123");
+        verify(promptRepository, times(1)).findById("prompt-123");
+        verify(counterAccumulator, times(2)).increment(PromptCounterAccumulator.Counter.VIEWS, "prompt-123");
+    }
+    
+    @Test
+    @DisplayName("Should keep the social counts of a cached prompt steady across a counter flush")
+    void shouldKeepCachedCountsAcrossFlush() {
+        // Given: two likes, a fork and a comment recorded but not yet flushed
+        prompt.setLikeCount(3);
+        prompt.setForkCount(1);
+        prompt.setCommentCount(4);
+        Map<PromptCounterAccumulator.Counter, Long> pending = new EnumMap<>(PromptCounterAccumulator.Counter.class);
+        pending.put(PromptCounterAccumulator.Counter.LIKES, 2L);
+        pending.put(PromptCounterAccumulator.Counter.FORKS, 1L);
+        pending.put(PromptCounterAccumulator.Counter.COMMENTS, 1L);
+        when(promptRepository.findById(anyString())).thenReturn(Optional.of(prompt));
+        when(counterAccumulator.getPendingDelta(any(), eq("prompt-123")))
+                .thenAnswer(invocation -> pending.getOrDefault(invocation.getArgument(0), 0L));
+        PromptResponse before = promptService.getPromptById("prompt-123", userId);
+        
+        // When: the flush writes them to PostgreSQL and resets the pending delta
+        pending.clear();
+        promptResponseCache.onCountersFlushed(new PromptCountersFlushedEvent(
+                PromptCounterAccumulator.Counter.LIKES, Map.of("prompt-123", 2L)));
+        promptResponseCache.onCountersFlushed(new PromptCountersFlushedEvent(
+                PromptCounterAccumulator.Counter.FORKS, Map.of("prompt-123", 1L)));
+        promptResponseCache.onCountersFlushed(new PromptCountersFlushedEvent(
+                PromptCounterAccumulator.Counter.COMMENTS, Map.of("prompt-123", 1L)));
+        PromptResponse after = promptService.getPromptById("prompt-123", userId);
+        
+        // Then
+        assertThat(before.getLikeCount()).isEqualTo(5);
+        assertThat(after.getLikeCount()).isEqualTo(5);
+        assertThat(before.getForkCount()).isEqualTo(2);
+        assertThat(after.getForkCount()).isEqualTo(2);
+        assertThat(before.getCommentCount()).isEqualTo(5);
+        assertThat(after.getCommentCount()).isEqualTo(5);
+        verify(promptRepository, times(1)).findById("prompt-123");
+    }
+    
+    @Test
+    @DisplayName("Should invalidate cached prompt on update")
+    void shouldInvalidateCachedPromptOnUpdate() {
+        // Given
+        when(promptRepository.findById(anyString())).thenReturn(Optional.of(prompt));
+        when(promptRepository.findByIdAndUserId(anyString(), anyString())).thenReturn(Optional.of(prompt));
+        when(promptRepository.save(any(Prompt.class))).thenReturn(prompt);
+        promptService.getPromptById("prompt-123", userId);
+        
+        // When
+        promptService.updatePrompt("prompt-123", updateRequest, userId);
+        promptResponseCache.onPromptChanged(PromptChangedEvent.updated(prompt));
+        PromptResponse response = promptService.getPromptById("prompt-123", userId);
+        
+        // Then
+        assertThat(response.getContent()).isEqualTo("Updated content for the prompt");
+        verify(promptRepository, times(2)).findById("prompt-123");
+        assertThat(prompt.getVersion()).isEqualTo("1.0.1");
+        verify(promptEventProducer).publishPromptUpdated(prompt, userId, true);
     }
     
     @Test
@@ -158,38 +297,81 @@ class PromptServiceTest {
     @DisplayName("Should get all public prompts")
     void shouldGetAllPublicPrompts() {
         // Given
-        List<Prompt> prompts = Arrays.asList(prompt);
-        Page<Prompt> page = new PageImpl<>(prompts);
-        when(promptRepository.findByIsPublicTrue(any(Pageable.class))).thenReturn(page);
+        Page<PromptSummary> page = new PageImpl<>(List.of(summaryOf(prompt)));
+        when(promptRepository.findSummariesByIsPublicTrue(any(Pageable.class))).thenReturn(page);
+        when(promptRepository.findTagsByPromptIds(List.of("prompt-123"))).thenReturn(List.of(
+                new Object[]{"prompt-123", "test"},
+                new Object[]{"prompt-123", "development"}));
         
         // When
-        Page<PromptResponse> result = promptService.getAllPrompts(PageRequest.of(0, 10));
+        Page<PromptSummaryResponse> result = promptService.getAllPrompts(PageRequest.of(0, 10));
         
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getTitle()).isEqualTo("Test Prompt");
+        assertThat(result.getContent().get(0).getTags()).containsExactlyInAnyOrder("test", "development");
         
-        verify(promptRepository).findByIsPublicTrue(any(Pageable.class));
+        verify(promptRepository).findSummariesByIsPublicTrue(any(Pageable.class));
+        verify(promptRepository, times(1)).findTagsByPromptIds(anyCollection());
     }
     
     @Test
     @DisplayName("Should get user prompts")
     void shouldGetUserPrompts() {
         // Given
-        List<Prompt> prompts = Arrays.asList(prompt);
-        Page<Prompt> page = new PageImpl<>(prompts);
-        when(promptRepository.findByUserId(anyString(), any(Pageable.class))).thenReturn(page);
+        Page<PromptSummary> page = new PageImpl<>(List.of(summaryOf(prompt)));
+        when(promptRepository.findSummariesByUserId(anyString(), any(Pageable.class))).thenReturn(page);
         
         // When
-        Page<PromptResponse> result = promptService.getUserPrompts(userId, PageRequest.of(0, 10));
+        Page<PromptSummaryResponse> result = promptService.getUserPrompts(userId, PageRequest.of(0, 10));
         
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
         
-        verify(promptRepository).findByUserId(eq(userId), any(Pageable.class));
+        verify(promptRepository).findSummariesByUserId(eq(userId), any(Pageable.class));
+    }
+    
+    @Test
+    @DisplayName("Should scroll public prompts with a keyset cursor")
+    void shouldScrollPublicPromptsWithCursor() {
+        // Given
+        Prompt older = Prompt.builder()
+                .id("prompt-100")
+                .title("Older Prompt")
+                .content("Older content for the prompt")
+                .userId(userId)
+                .isPublic(true)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+        prompt.setCreatedAt(LocalDateTime.of(2024, 1, 2, 12, 0));
+        when(promptRepository.findPublicFirstPage(any(Pageable.class))).thenReturn(List.of(summaryOf(prompt), summaryOf(older)));
+        when(promptRepository.findPublicAfter(eq(prompt.getCreatedAt()), eq("prompt-123"), any(Pageable.class)))
+                .thenReturn(List.of(summaryOf(older)));
+        
+        // When
+        CursorPageResponse<PromptSummaryResponse> first = promptService.scrollPublicPrompts(null, 1, false);
+        CursorPageResponse<PromptSummaryResponse> second = promptService.scrollPublicPrompts(first.getNextCursor(), 1, false);
+        
+        // Then
+        assertThat(first.getContent()).extracting(PromptSummaryResponse::getId).containsExactly("prompt-123");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getTotalElements()).isNull();
+        assertThat(second.getContent()).extracting(PromptSummaryResponse::getId).containsExactly("prompt-100");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        
+        verify(promptRepository, never()).countByIsPublicTrue();
+    }
+    
+    @Test
+    @DisplayName("Should reject malformed cursors")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> promptService.scrollPublicPrompts("not-a-cursor", 20, false))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid cursor");
     }
     
     @Test
@@ -208,7 +390,8 @@ class PromptServiceTest {
         
         verify(promptRepository).findByIdAndUserId("prompt-123", userId);
         verify(promptRepository).save(any(Prompt.class));
-        verify(promptVersionRepository).save(any(PromptVersion.class)); // New version saved
+        verify(versionStore).append(any(Prompt.class), eq("Updated content")); // New version saved
+        verify(contentStore).attach(prompt); // New body referenced by hash
     }
     
     @Test
@@ -240,48 +423,135 @@ class PromptServiceTest {
         verify(promptRepository).delete(prompt);
     }
     
+    @Test
+    @DisplayName("Should feature a public prompt and publish the change")
+    void shouldFeaturePrompt() {
+        // Given
+        when(promptRepository.findById("prompt-123")).thenReturn(Optional.of(prompt));
+        when(promptRepository.save(any(Prompt.class))).thenAnswer(inv -> inv.getArgument(0));
+        
+        // When
+        PromptResponse response = promptService.setFeatured("prompt-123", true);
+        
+        // Then
+        assertThat(response.getIsFeatured()).isTrue();
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PromptChangedEvent e
+                && !e.isDeleted() && Boolean.TRUE.equals(e.getPrompt().getIsFeatured())));
+    }
+    
+    @Test
+    @DisplayName("Should refuse to feature a private prompt")
+    void shouldRejectFeaturingPrivatePrompt() {
+        // Given
+        prompt.setIsPublic(false);
+        when(promptRepository.findById("prompt-123")).thenReturn(Optional.of(prompt));
+        
+        // When & Then
+        assertThatThrownBy(() -> promptService.setFeatured("prompt-123", true))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Only public prompts can be featured");
+        verify(promptRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
     @Test
     @DisplayName("Should search prompts by keyword")
     void shouldSearchPromptsByKeyword() {
         // Given
-        List<Prompt> prompts = Arrays.asList(prompt);
-        Page<Prompt> page = new PageImpl<>(prompts);
-        when(promptRepository.searchPrompts(anyString(), anyBoolean(), any(Pageable.class))).thenReturn(page);
+        Page<PromptSummary> page = new PageImpl<>(List.of(summaryOf(prompt)));
+        when(promptRepository.searchPrompts(anyString(), anyBoolean(), any(), any(Pageable.class))).thenReturn(page);
         
         // When
-        Page<PromptResponse> result = promptService.searchPrompts("test", true, PageRequest.of(0, 10));
+        Page<PromptSummaryResponse> result = promptService.searchPrompts("test", true, "user-123", PageRequest.of(0, 10));
         
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
         
-        verify(promptRepository).searchPrompts(eq("test"), eq(true), any(Pageable.class));
+        verify(promptRepository).searchPrompts(eq("test"), eq(true), eq("user-123"), any(Pageable.class));
     }
     
     @Test
-    @DisplayName("Should get prompt versions")
-    void shouldGetPromptVersions() {
+    @DisplayName("Should search prompts through the full-text index when it is ready")
+    void shouldSearchPromptsThroughIndex() {
+        // Given
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("test", true, "user-123", 0, 10))
+                .thenReturn(new SearchHits(List.of(new SearchHits.Hit("prompt-123", 1.5f)), 1));
+        when(promptRepository.findSummariesByIdIn(List.of("prompt-123"))).thenReturn(List.of(summaryOf(prompt)));
+        
+        // When
+        Page<PromptSummaryResponse> result = promptService.searchPrompts("test", true, "user-123", PageRequest.of(0, 10));
+        
+        // Then
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent().get(0).getId()).isEqualTo("prompt-123");
+        
+        verify(promptRepository, never()).searchPrompts(anyString(), any(), any(), any(Pageable.class));
+    }
+    
+    @Test
+    @DisplayName("Should page version history without content")
+    void shouldGetVersionHistory() {
         // Given
         PromptVersion version = PromptVersion.builder()
                 .id("version-1")
                 .promptId("prompt-123")
                 .version("1.0.0")
-                .content("Original content")
+                .sequence(1)
                 .changeLog("Initial version")
+                .username(username)
+                .contentLength(35)
                 .createdAt(LocalDateTime.now())
                 .build();
-        
-        List<PromptVersion> versions = Arrays.asList(version);
-        when(promptVersionRepository.findByPromptIdOrderByCreatedAtDesc(anyString())).thenReturn(versions);
+        when(versionStore.getHistory(eq("prompt-123"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(version)));
         
         // When
-        List<PromptVersion> result = promptService.getPromptVersions("prompt-123");
+        Page<VersionSummaryResponse> result = promptService.getVersionHistory("prompt-123", PageRequest.of(0, 10));
         
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getVersion()).isEqualTo("1.0.0");
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getVersion()).isEqualTo("1.0.0");
+        assertThat(result.getContent().get(0).getContentLength()).isEqualTo(35);
         
-        verify(promptVersionRepository).findByPromptIdOrderByCreatedAtDesc("prompt-123");
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(versionStore).getHistory(eq("prompt-123"), pageable.capture());
+        assertThat(pageable.getValue().getSort().getOrderFor("createdAt").isDescending()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should throw exception when version not found")
+    void shouldThrowExceptionWhenVersionNotFound() {
+        // Given
+        when(promptRepository.findSummariesByIdIn(List.of("prompt-123"))).thenReturn(List.of(summaryOf(prompt)));
+        when(versionStore.getVersion("prompt-123", "9.9.9")).thenReturn(Optional.empty());
+        
+        // When & Then
+        assertThatThrownBy(() -> promptService.getPromptVersion("prompt-123", "9.9.9", null))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Version not found");
+    }
+    
+    @Test
+    @DisplayName("Should only serve versions of a private prompt to its owner")
+    void shouldHidePrivatePromptVersions() {
+        // Given
+        prompt.setIsPublic(false);
+        when(promptRepository.findSummariesByIdIn(List.of("prompt-123"))).thenReturn(List.of(summaryOf(prompt)));
+        
+        // When & Then
+        assertThatThrownBy(() -> promptService.getPromptVersion("prompt-123", "1.0.0", "someone-else"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Access denied");
+        assertThatThrownBy(() -> promptService.checkPromptAccess("prompt-123", null))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Access denied");
+        assertThatCode(() -> promptService.checkPromptAccess("prompt-123", userId)).doesNotThrowAnyException();
+        verify(versionStore, never()).getVersion(anyString(), anyString());
+    }
+    
+    private PromptSummary summaryOf(Prompt source) {
+        return new SpelAwareProxyProjectionFactory().createProjection(PromptSummary.class, source);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,298 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.document.PromptVersion;
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.repository.PromptVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("PromptVersionStore Tests")
+class PromptVersionStoreTest {
+    
+    @Mock
+    private PromptVersionRepository versionRepository;
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    // How MongoDB orders by (sequence, createdAt): missing values first
+    private static final Comparator<PromptVersion> CHAIN_ORDER = Comparator
+            .comparing(PromptVersion::getSequence, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(PromptVersion::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()));
+    
+    // Backing collection for the mocked repository
+    private final List<PromptVersion> stored = new ArrayList<>();
+    
+    private PromptVersionStore versionStore;
+    
+    @BeforeEach
+    void setUp() {
+        versionStore = new PromptVersionStore(versionRepository, mongoTemplate, 3, 1_000_000);
+        
+        when(versionRepository.save(any(PromptVersion.class))).thenAnswer(invocation -> {
+            PromptVersion version = invocation.getArgument(0);
+            if (version.getId() == null) {
+                version.setId("v" + (stored.size() + 1));
+                stored.add(version);
+            }
+            return version;
+        });
+        when(versionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(versionRepository.countByPromptId(anyString())).thenAnswer(invocation ->
+                stored.stream().filter(version -> version.getPromptId().equals(invocation.getArgument(0))).count());
+        when(versionRepository.findTopByPromptIdOrderBySequenceDesc(anyString())).thenAnswer(invocation ->
+                stored.stream()
+                        .filter(version -> version.getPromptId().equals(invocation.getArgument(0)))
+                        .filter(version -> version.getSequence() != null)
+                        .max(Comparator.comparing(PromptVersion::getSequence)));
+        when(versionRepository.findTopByPromptIdAndSnapshotTrueAndSequenceLessThanEqualOrderBySequenceDesc(
+                anyString(), anyInt())).thenAnswer(invocation -> stored.stream()
+                .filter(version -> version.getPromptId().equals(invocation.getArgument(0)))
+                .filter(version -> Boolean.TRUE.equals(version.getSnapshot())
+                        && version.getSequence() <= (Integer) invocation.getArgument(1))
+                .max(Comparator.comparing(PromptVersion::getSequence)));
+        when(versionRepository.findChain(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> stored.stream()
+                .filter(version -> version.getPromptId().equals(invocation.getArgument(0)))
+                .filter(version -> version.getSequence() >= (Integer) invocation.getArgument(1)
+                        && version.getSequence() <= (Integer) invocation.getArgument(2))
+                .sorted(Comparator.comparing(PromptVersion::getSequence))
+                .collect(Collectors.toList()));
+        when(versionRepository.findByPromptIdOrderBySequenceAscCreatedAtAsc(anyString())).thenAnswer(invocation ->
+                stored.stream().sorted(CHAIN_ORDER).collect(Collectors.toList()));
+        when(mongoTemplate.stream(any(Query.class), eq(PromptVersion.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            assertThat(query.getSortObject().keySet()).containsExactly("sequence", "createdAt");
+            return stored.stream().sorted(CHAIN_ORDER);
+        });
+        when(versionRepository.findByPromptIdAndVersion(anyString(), anyString())).thenAnswer(invocation ->
+                stored.stream()
+                        .filter(version -> version.getPromptId().equals(invocation.getArgument(0))
+                                && version.getVersion().equals(invocation.getArgument(1)))
+                        .findFirst());
+        when(versionRepository.findByPromptIdAndSequence(anyString(), anyInt())).thenAnswer(invocation ->
+                stored.stream()
+                        .filter(version -> version.getPromptId().equals(invocation.getArgument(0))
+                                && invocation.getArgument(1).equals(version.getSequence()))
+                        .findFirst());
+    }
+    
+    @Test
+    @DisplayName("Should store deltas between periodic snapshots")
+    void shouldStoreDeltasBetweenSnapshots() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            versionStore.append(prompt("1.0." + i, contentVersion(i)), "Edit " + i);
+        }
+        
+        // Then: snapshot interval 3 gives S D D S D
+        assertThat(stored).extracting(PromptVersion::getSnapshot).containsExactly(true, false, false, true, false);
+        assertThat(stored.get(1).getContent()).isNull();
+        assertThat(stored.get(1).getContentDelta()).isNotEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should reconstruct any version from its nearest snapshot")
+    void shouldReconstructVersions() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            versionStore.append(prompt("1.0." + i, contentVersion(i)), "Edit " + i);
+        }
+        // A fresh store has an empty cache and has to walk the chain
+        PromptVersionStore coldStore = new PromptVersionStore(versionRepository, mongoTemplate, 3, 1_000_000);
+        
+        // When
+        Optional<PromptVersion> version = coldStore.getVersion("prompt-123", "1.0.2");
+        List<PromptVersion> versions = new ArrayList<>();
+        coldStore.streamVersions("prompt-123", versions::add);
+        
+        // Then
+        assertThat(version).isPresent();
+        assertThat(version.get().getContent()).isEqualTo(contentVersion(2));
+        assertThat(version.get().getTitle()).isEqualTo("Title 1.0.2");
+        assertThat(versions).extracting(PromptVersion::getContent).containsExactly(
+                contentVersion(0), contentVersion(1), contentVersion(2), contentVersion(3), contentVersion(4));
+    }
+    
+    @Test
+    @DisplayName("Should walk the chain in sequence order when versions share a timestamp")
+    void shouldStreamVersionsWithIdenticalTimestamps() {
+        // Given: versions appended within the same millisecond, stored out of order
+        for (int i = 0; i < 4; i++) {
+            versionStore.append(prompt("1.0." + i, contentVersion(i)), "Edit " + i);
+        }
+        LocalDateTime sameTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+        stored.forEach(version -> version.setCreatedAt(sameTime));
+        Collections.reverse(stored);
+        PromptVersionStore coldStore = new PromptVersionStore(versionRepository, mongoTemplate, 3, 1_000_000);
+        
+        // When
+        List<PromptVersion> versions = new ArrayList<>();
+        coldStore.streamVersions("prompt-123", versions::add);
+        
+        // Then
+        assertThat(versions).extracting(PromptVersion::getContent).containsExactly(
+                contentVersion(0), contentVersion(1), contentVersion(2), contentVersion(3));
+    }
+    
+    @Test
+    @DisplayName("Should migrate legacy full versions and report the storage saved")
+    void shouldMigrateLegacyVersions() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            stored.add(PromptVersion.builder()
+                    .id("legacy-" + i)
+                    .promptId("prompt-123")
+                    .version("1.0." + i)
+                    .title("Title")
+                    .content(contentVersion(i))
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 12, i))
+                    .build());
+        }
+        when(mongoTemplate.findDistinct(any(Query.class), eq("promptId"), eq(PromptVersion.class), eq(String.class)))
+                .thenReturn(List.of("prompt-123"));
+        
+        // When
+        Map<String, Object> report = versionStore.migrate();
+        
+        // Then
+        assertThat(report.get("versions")).isEqualTo(4);
+        assertThat(report.get("deltas")).isEqualTo(2);
+        assertThat((Long) report.get("bytesSaved")).isPositive();
+        assertThat(stored).extracting(PromptVersion::getSequence).containsExactly(1, 2, 3, 4);
+        assertThat(stored).extracting(PromptVersion::getContentLength).doesNotContainNull();
+        
+        List<PromptVersion> versions = new ArrayList<>();
+        versionStore.streamVersions("prompt-123", versions::add);
+        assertThat(versions).extracting(PromptVersion::getContent)
+                .containsExactly(contentVersion(0), contentVersion(1), contentVersion(2), contentVersion(3));
+    }
+    
+    @Test
+    @DisplayName("Should point a fork at the source version and store its edits as deltas")
+    void shouldStoreForkAsReference() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            versionStore.append(prompt("1.0." + i, contentVersion(i)), "Edit " + i);
+        }
+        Prompt fork = Prompt.builder()
+                .id("fork-1")
+                .title("Forked title")
+                .content(contentVersion(1))
+                .userId("user-456")
+                .version("1.0.0")
+                .build();
+        PromptVersion source = versionStore.findStored("prompt-123", "1.0.1").orElseThrow();
+        
+        // When
+        PromptVersion first = versionStore.appendFork(fork, source, "Forked");
+        fork.setVersion("1.0.1");
+        fork.setContent(contentVersion(1) + "One more line\n");
+        versionStore.append(fork, "Edited fork");
+        PromptVersionStore coldStore = new PromptVersionStore(versionRepository, mongoTemplate, 3, 1_000_000);
+        
+        // Then
+        assertThat(first.isForkReference()).isTrue();
+        assertThat(first.getContent()).isNull();
+        assertThat(first.getBaseSequence()).isEqualTo(2);
+        assertThat(stored.get(stored.size() - 1).getContentDelta()).isNotEmpty();
+        assertThat(coldStore.getVersion("fork-1", "1.0.0").orElseThrow().getContent()).isEqualTo(contentVersion(1));
+        assertThat(coldStore.getVersion("fork-1", "1.0.0").orElseThrow().getTitle()).isEqualTo("Forked title");
+        assertThat(coldStore.getVersion("fork-1", "1.0.1").orElseThrow().getContent())
+                .isEqualTo(contentVersion(1) + "One more line\n");
+    }
+    
+    @Test
+    @DisplayName("Should retry an append whose sequence was taken by a concurrent append")
+    void shouldRetryAppendOnDuplicateSequence() {
+        // Given: another writer stores 1.0.1 between our read of the latest version and our insert
+        versionStore.append(prompt("1.0.0", contentVersion(0)), "Edit 0");
+        AtomicBoolean raced = new AtomicBoolean();
+        when(versionRepository.save(any(PromptVersion.class))).thenAnswer(invocation -> {
+            PromptVersion version = invocation.getArgument(0);
+            if (raced.compareAndSet(false, true)) {
+                stored.add(PromptVersion.builder()
+                        .id("concurrent")
+                        .promptId("prompt-123")
+                        .version("1.0.1")
+                        .title("Title 1.0.1")
+                        .content(contentVersion(1))
+                        .sequence(2)
+                        .snapshot(true)
+                        .chainDepth(0)
+                        .build());
+                throw new DuplicateKeyException("E11000 duplicate key error collection: promptforge_db.prompt_versions "
+                        + "index: prompt_sequence_uidx dup key: { promptId: \"prompt-123\", sequence: 2 }");
+            }
+            version.setId("v" + (stored.size() + 1));
+            stored.add(version);
+            return version;
+        });
+        
+        // When
+        PromptVersion appended = versionStore.append(prompt("1.0.2", contentVersion(2)), "Edit 2");
+        
+        // Then
+        assertThat(appended.getSequence()).isEqualTo(3);
+        assertThat(stored).extracting(PromptVersion::getSequence).containsExactly(1, 2, 3);
+        assertThat(versionStore.getVersion("prompt-123", "1.0.2").orElseThrow().getContent())
+                .isEqualTo(contentVersion(2));
+    }
+    
+    @Test
+    @DisplayName("Should fail startup when the unique sequence index cannot be built")
+    void shouldFailWhenSequenceIndexCannotBeBuilt() {
+        // Given
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(PromptVersion.class)).thenReturn(indexOps);
+        when(indexOps.ensureIndex(any())).thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+        
+        // When / Then
+        assertThatThrownBy(() -> versionStore.ensureSequenceIndex())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("prompt_sequence_uidx");
+    }
+    
+    private Prompt prompt(String version, String content) {
+        return Prompt.builder()
+                .id("prompt-123")
+                .title("Title " + version)
+                .content(content)
+                .userId("user-123")
+                .version(version)
+                .build();
+    }
+    
+    private String contentVersion(int edits) {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 40; line++) {
+            content.append(line < edits ? "Edited line " : "You are a helpful assistant, line ").append(line).append('\n');
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,279 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.dto.CommentRequest;
+import com.promptforge.prompt.dto.CommentResponse;
+import com.promptforge.prompt.dto.CursorPageResponse;
+import com.promptforge.prompt.dto.PromptStatsResponse;
+import com.promptforge.prompt.dto.RatingHistogramResponse;
+import com.promptforge.prompt.dto.RatingRequest;
+import com.promptforge.prompt.dto.UserEngagementResponse;
+import com.promptforge.prompt.entity.PromptComment;
+import com.promptforge.prompt.entity.PromptRating;
+import com.promptforge.prompt.entity.PromptRatingAggregate;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import com.promptforge.prompt.repository.PromptCommentRepository;
+import com.promptforge.prompt.repository.PromptLikeRepository;
+import com.promptforge.prompt.repository.PromptRatingAggregateRepository;
+import com.promptforge.prompt.repository.PromptRatingRepository;
+import com.promptforge.prompt.repository.PromptRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SocialService Tests")
+class SocialServiceTest {
+    
+    @Mock
+    private PromptLikeRepository likeRepository;
+    
+    @Mock
+    private PromptRatingRepository ratingRepository;
+    
+    @Mock
+    private PromptRatingAggregateRepository ratingAggregateRepository;
+    
+    @Mock
+    private PromptCommentRepository commentRepository;
+    
+    @Mock
+    private PromptRepository promptRepository;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Spy
+    private UserEngagementCache engagementCache = new UserEngagementCache(1000, 60);
+    
+    @Spy
+    private CommentPageCache commentPageCache = new CommentPageCache(100, 60);
+    
+    @Mock
+    private PromptCounterAccumulator counterAccumulator;
+    
+    @InjectMocks
+    private SocialService socialService;
+    
+    @Test
+    @DisplayName("Should fold a rating into the aggregate without touching other ratings")
+    void shouldRatePromptIncrementally() {
+        // Given
+        RatingRequest request = new RatingRequest();
+        request.setPromptId("prompt-1");
+        request.setRating(4);
+        when(promptRepository.existsById("prompt-1")).thenReturn(true);
+        when(ratingRepository.saveAndFlush(any(PromptRating.class))).thenAnswer(inv -> inv.getArgument(0));
+        
+        // When
+        socialService.ratePrompt("user-1", request);
+        
+        // Then
+        verify(ratingAggregateRepository).addRating("prompt-1", 4);
+        verify(ratingAggregateRepository).syncPromptRating("prompt-1");
+        verify(ratingRepository, never()).findByPromptId(anyString());
+        verify(promptRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(any(PromptEngagementEvent.class));
+    }
+    
+    @Test
+    @DisplayName("Should reject a concurrent duplicate rating caught by the unique constraint")
+    void shouldRejectDuplicateRating() {
+        // Given
+        RatingRequest request = new RatingRequest();
+        request.setPromptId("prompt-1");
+        request.setRating(5);
+        when(promptRepository.existsById("prompt-1")).thenReturn(true);
+        when(ratingRepository.saveAndFlush(any(PromptRating.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        
+        // When & Then
+        assertThatThrownBy(() -> socialService.ratePrompt("user-1", request))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("You have already rated this prompt");
+        verify(ratingAggregateRepository, never()).addRating(anyString(), anyInt());
+    }
+    
+    @Test
+    @DisplayName("Should serve stats and histogram from the aggregate row")
+    void shouldServeStatsFromAggregate() {
+        // Given
+        PromptRatingAggregate aggregate = PromptRatingAggregate.builder()
+                .promptId("prompt-1")
+                .ratingCount(4L)
+                .ratingSum(15L)
+                .stars1(0L).stars2(0L).stars3(1L).stars4(1L).stars5(2L)
+                .build();
+        when(ratingAggregateRepository.findById("prompt-1")).thenReturn(Optional.of(aggregate));
+        when(promptRepository.findSocialCounts("prompt-1")).thenReturn(List.<Object[]>of(new Object[]{7, 2, 4L, 15L}));
+        when(counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.LIKES, "prompt-1")).thenReturn(0L);
+        when(counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.COMMENTS, "prompt-1")).thenReturn(1L);
+        
+        // When
+        PromptStatsResponse stats = socialService.getPromptStats("prompt-1");
+        RatingHistogramResponse histogram = socialService.getRatingHistogram("prompt-1");
+        
+        // Then
+        assertThat(stats.getLikeCount()).isEqualTo(7L);
+        assertThat(stats.getCommentCount()).isEqualTo(3L);
+        assertThat(stats.getRatingCount()).isEqualTo(4L);
+        assertThat(stats.getAverageRating()).isEqualTo(3.75);
+        assertThat(histogram.getStars()).containsExactly(
+                entry(1, 0L), entry(2, 0L), entry(3, 1L), entry(4, 1L), entry(5, 2L));
+        verify(ratingRepository, never()).countByPromptId(anyString());
+        verify(likeRepository, never()).countByPromptId(anyString());
+        verify(ratingAggregateRepository, times(1)).findById("prompt-1");
+    }
+    
+    @Test
+    @DisplayName("Should serve zero stats for an unrated prompt and likes from the counter column")
+    void shouldServeStatsForUnratedPrompt() {
+        // Given
+        when(promptRepository.findSocialCounts("prompt-1")).thenReturn(List.<Object[]>of(new Object[]{3, 0, null, null}));
+        when(promptRepository.findLikeCount("prompt-1")).thenReturn(Optional.of(3));
+        when(counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.LIKES, "prompt-1")).thenReturn(2L);
+        when(counterAccumulator.getPendingDelta(PromptCounterAccumulator.Counter.COMMENTS, "prompt-1")).thenReturn(0L);
+        
+        // When
+        PromptStatsResponse stats = socialService.getPromptStats("prompt-1");
+        Long likes = socialService.getPromptLikes("prompt-1");
+        
+        // Then
+        assertThat(stats.getLikeCount()).isEqualTo(5L);
+        assertThat(stats.getRatingCount()).isZero();
+        assertThat(stats.getAverageRating()).isZero();
+        assertThat(likes).isEqualTo(5L);
+        verify(likeRepository, never()).countByPromptId(anyString());
+    }
+    
+    @Test
+    @DisplayName("Should check a page of prompts with one query per table and serve repeats from cache")
+    void shouldBatchEngagementChecks() {
+        // Given
+        List<String> page = List.of("p1", "p2", "p3");
+        when(likeRepository.findLikedPromptIds("user-1", page)).thenReturn(List.of("p1", "p3"));
+        when(ratingRepository.findUserRatings("user-1", page)).thenReturn(List.<Object[]>of(new Object[]{"p3", 5}));
+        
+        // When
+        List<UserEngagementResponse> first = socialService.getUserEngagement("user-1", page);
+        List<UserEngagementResponse> second = socialService.getUserEngagement("user-1", page);
+        
+        // Then
+        assertThat(first).extracting(UserEngagementResponse::getPromptId).containsExactly("p1", "p2", "p3");
+        assertThat(first).extracting(UserEngagementResponse::getLiked).containsExactly(true, false, true);
+        assertThat(first).extracting(UserEngagementResponse::getRating).containsExactly(null, null, 5);
+        assertThat(second).isEqualTo(first);
+        verify(likeRepository, times(1)).findLikedPromptIds(anyString(), anyCollection());
+        verify(ratingRepository, times(1)).findUserRatings(anyString(), anyCollection());
+        verify(likeRepository, never()).existsByPromptIdAndUserId(anyString(), anyString());
+    }
+    
+    @Test
+    @DisplayName("Should drop a cached engagement once the user likes the prompt")
+    void shouldInvalidateEngagementOnLike() {
+        // Given
+        when(likeRepository.findLikedPromptIds(eq("user-1"), anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("p1"));
+        socialService.getUserEngagement("user-1", List.of("p1"));
+        
+        // When
+        engagementCache.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.LIKE, "p1", "user-1"));
+        
+        // Then
+        assertThat(socialService.hasUserLikedPrompt("user-1", "p1")).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should not cache an engagement loaded before a racing like committed")
+    void shouldNotCacheEngagementLoadedBeforeRacingLike() {
+        // Given: the like commits and evicts while the first read is still loading the old state
+        when(likeRepository.findLikedPromptIds(eq("user-1"), anyCollection()))
+                .thenAnswer(invocation -> {
+                    engagementCache.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.LIKE, "p1", "user-1"));
+                    return List.of();
+                })
+                .thenReturn(List.of("p1"));
+        
+        // When
+        boolean raced = socialService.hasUserLikedPrompt("user-1", "p1");
+        boolean after = socialService.hasUserLikedPrompt("user-1", "p1");
+        
+        // Then: the stale load was answered but not cached
+        assertThat(raced).isFalse();
+        assertThat(after).isTrue();
+        verify(likeRepository, times(2)).findLikedPromptIds(anyString(), anyCollection());
+    }
+    
+    @Test
+    @DisplayName("Should count a reply on its parent and publish a comment event")
+    void shouldAddReply() {
+        // Given
+        CommentRequest request = new CommentRequest();
+        request.setPromptId("prompt-1");
+        request.setParentId("comment-1");
+        request.setContent("Agreed");
+        when(promptRepository.existsById("prompt-1")).thenReturn(true);
+        when(commentRepository.findById("comment-1")).thenReturn(Optional.of(
+                PromptComment.builder().id("comment-1").promptId("prompt-1").build()));
+        when(commentRepository.save(any(PromptComment.class))).thenAnswer(inv -> inv.getArgument(0));
+        
+        // When
+        CommentResponse response = socialService.addComment("user-1", "alice", request);
+        
+        // Then
+        assertThat(response.getParentId()).isEqualTo("comment-1");
+        verify(commentRepository).incrementReplyCount("comment-1");
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PromptEngagementEvent e
+                && e.getSignal() == PromptEngagementEvent.Signal.COMMENT && e.getPromptId().equals("prompt-1")));
+    }
+    
+    @Test
+    @DisplayName("Should serve the first comment page from cache with a cursor to the next page")
+    void shouldCacheFirstCommentPage() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<PromptComment> newest = List.of(
+                PromptComment.builder().id("c3").promptId("prompt-1").createdAt(now).build(),
+                PromptComment.builder().id("c2").promptId("prompt-1").createdAt(now.minusMinutes(1)).build(),
+                PromptComment.builder().id("c1").promptId("prompt-1").createdAt(now.minusMinutes(2)).build());
+        when(commentRepository.findTopLevelFirstPage(eq("prompt-1"), any(Pageable.class))).thenReturn(newest);
+        
+        // When
+        CursorPageResponse<CommentResponse> first = socialService.scrollComments("prompt-1", null, 2);
+        CursorPageResponse<CommentResponse> again = socialService.scrollComments("prompt-1", null, 2);
+        
+        // Then
+        assertThat(first.getContent()).extracting(CommentResponse::getId).containsExactly("c3", "c2");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(again).isEqualTo(first);
+        verify(commentRepository, times(1)).findTopLevelFirstPage(anyString(), any(Pageable.class));
+        
+        // When the next page is requested
+        when(commentRepository.findTopLevelAfter(eq("prompt-1"), eq(now.minusMinutes(1)), eq("c2"), any(Pageable.class)))
+                .thenReturn(List.of(newest.get(2)));
+        CursorPageResponse<CommentResponse> second = socialService.scrollComments("prompt-1", first.getNextCursor(), 2);
+        
+        // Then
+        assertThat(second.getContent()).extracting(CommentResponse::getId).containsExactly("c1");
+        assertThat(second.isHasNext()).isFalse();
+    }
+}
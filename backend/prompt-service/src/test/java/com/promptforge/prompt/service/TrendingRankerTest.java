@@ -0,0 +1,205 @@
+package com.promptforge.prompt.service;
+
+import com.promptforge.prompt.entity.Prompt;
+import com.promptforge.prompt.event.PromptCountersFlushedEvent;
+import com.promptforge.prompt.event.PromptEngagementEvent;
+import com.promptforge.prompt.repository.PromptRepository;
+import com.promptforge.prompt.repository.PromptTrendingScoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrendingRanker Tests")
+class TrendingRankerTest {
+    
+    private static final long HOUR = 3_600_000L;
+    
+    // On an epoch boundary: a multiple of 32 half-lives
+    private static final long START = 15_000 * 32 * HOUR;
+    
+    @Mock
+    private PromptRepository promptRepository;
+    
+    @Mock
+    private PromptTrendingScoreRepository scoreRepository;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    private final AtomicLong now = new AtomicLong(START);
+    
+    private TrendingRanker ranker;
+    
+    @BeforeEach
+    void setUp() {
+        // Half-life of one hour; view 1, like 5, rating 3, fork 8
+        ranker = new TrendingRanker(promptRepository, scoreRepository, jdbcTemplate, now::get, 1, 1, 5, 3, 8);
+        
+        ranker.track(prompt("p1", true));
+        ranker.track(prompt("p2", true));
+        ranker.track(prompt("p3", true));
+    }
+    
+    @Test
+    @DisplayName("Should rank recent engagement above older engagement of the same weight")
+    void shouldDecayOlderSignals() {
+        // Given
+        ranker.record("p1", 10);
+        now.addAndGet(2 * HOUR);
+        ranker.record("p2", 6);
+        
+        // Then: p1's 10 points are worth 2.5 after two half-lives
+        assertThat(ids(ranker.top(3))).containsExactly("p2", "p1", "p3");
+        
+        // When
+        now.addAndGet(2 * HOUR);
+        ranker.record("p1", 20);
+        
+        // Then
+        assertThat(ids(ranker.top(3))).containsExactly("p1", "p2", "p3");
+    }
+    
+    @Test
+    @DisplayName("Should apply weighted views, likes and ratings")
+    void shouldApplyWeightedSignals() {
+        // Given
+        ranker.onCountersFlushed(new PromptCountersFlushedEvent(PromptCounterAccumulator.Counter.VIEWS,
+                Map.of("p1", 4L)));
+        ranker.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.LIKE, "p2"));
+        ranker.onEngagement(PromptEngagementEvent.rating("p3", 5));
+        
+        // Then
+        assertThat(ids(ranker.top(3))).containsExactly("p2", "p1", "p3");
+        
+        // When
+        ranker.onEngagement(PromptEngagementEvent.of(PromptEngagementEvent.Signal.UNLIKE, "p2"));
+        
+        // Then
+        assertThat(ids(ranker.top(3))).containsExactly("p1", "p3", "p2");
+    }
+    
+    @Test
+    @DisplayName("Should page after a cursor position and drop private prompts")
+    void shouldPageAfterCursorAndDropPrivatePrompts() {
+        // Given
+        ranker.record("p1", 3);
+        ranker.record("p2", 2);
+        ranker.record("p3", 1);
+        ranker.record("unknown", 100);
+        
+        // When
+        List<TrendingRanker.Ranked> first = ranker.top(1);
+        ranker.track(prompt("p2", false));
+        List<TrendingRanker.Ranked> rest = ranker.after(first.get(0).getScore(), first.get(0).getPromptId(), 10);
+        
+        // Then
+        assertThat(ids(first)).containsExactly("p1");
+        assertThat(ids(rest)).containsExactly("p3");
+        assertThat(ranker.size()).isEqualTo(2);
+    }
+    
+    @Test
+    @DisplayName("Should keep the order when the scoring epoch is rebased")
+    void shouldKeepOrderAcrossRebase() {
+        // Given
+        ranker.record("p2", 2);
+        ranker.record("p1", 1);
+        now.addAndGet(64 * HOUR);
+        
+        // When
+        ranker.rebase();
+        ranker.record("p3", 1);
+        
+        // Then
+        assertThat(ids(ranker.top(3))).containsExactly("p3", "p2", "p1");
+        assertThat(ranker.top(1).get(0).getScore()).isCloseTo(1.0, within(1e-9));
+    }
+    
+    @Test
+    @DisplayName("Should push recorded points and adopt scores written by other replicas")
+    void shouldSyncWithSharedScores() {
+        // Given
+        ranker.seed();
+        ranker.record("p1", 10);
+        when(scoreRepository.findChangedSince(any())).thenReturn(List.<Object[]>of(
+                new Object[]{"p2", 50.0, START, true, LocalDateTime.now()},
+                new Object[]{"p3", 4.0, START - 32 * HOUR, true, LocalDateTime.now()}));
+        
+        // When
+        ranker.sync();
+        
+        // Then: p3's score was written an epoch earlier and is rescaled to this one
+        assertThat(ids(ranker.top(3))).containsExactly("p2", "p1", "p3");
+        assertThat(ranker.top(3).get(2).getScore()).isCloseTo(4.0 / (1L << 32), within(1e-15));
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO prompt_trending_scores"), batch.capture());
+        assertThat(batch.getValue()).extracting(row -> row[0]).containsExactly("p1", "p2", "p3");
+        assertThat(batch.getValue().get(0)[1]).isEqualTo(10.0);
+    }
+    
+    @Test
+    @DisplayName("Should drop a prompt made private or deleted on another replica")
+    void shouldDropPromptHiddenElsewhere() {
+        // Given
+        ranker.seed();
+        when(scoreRepository.findChangedSince(any())).thenReturn(List.<Object[]>of(
+                new Object[]{"p1", 5.0, START, false, LocalDateTime.now()},
+                new Object[]{"p2", 5.0, START, null, LocalDateTime.now()}));
+        
+        // When
+        ranker.sync();
+        
+        // Then
+        assertThat(ids(ranker.top(3))).containsExactly("p3");
+    }
+    
+    @Test
+    @DisplayName("Should keep unsynced points when the upsert fails")
+    void shouldRetryPointsAfterFailedUpsert() {
+        // Given
+        ranker.seed();
+        ranker.record("p1", 10);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(new int[0]);
+        
+        // When
+        ranker.sync();
+        ranker.sync();
+        
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getAllValues().get(1).get(0)[1]).isEqualTo(10.0);
+    }
+    
+    private List<String> ids(List<TrendingRanker.Ranked> ranked) {
+        return ranked.stream().map(TrendingRanker.Ranked::getPromptId).collect(Collectors.toList());
+    }
+    
+    private Prompt prompt(String id, boolean isPublic) {
+        return Prompt.builder()
+                .id(id)
+                .isPublic(isPublic)
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.promptforge.shared.event;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+public class PromptDeletedEvent implements Serializable {
+    private String eventId;
+    private String promptId;
+    private String userId;
+    private LocalDateTime deletedAt;
+    
+    public PromptDeletedEvent() {}
+    
+    public static PromptDeletedEventBuilder builder() {
+        return new PromptDeletedEventBuilder();
+    }
+    
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+    public String getPromptId() { return promptId; }
+    public void setPromptId(String promptId) { this.promptId = promptId; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+    
+    public static class PromptDeletedEventBuilder {
+        private String eventId, promptId, userId;
+        private LocalDateTime deletedAt;
+        
+        public PromptDeletedEventBuilder eventId(String eventId) { this.eventId = eventId; return this; }
+        public PromptDeletedEventBuilder promptId(String promptId) { this.promptId = promptId; return this; }
+        public PromptDeletedEventBuilder userId(String userId) { this.userId = userId; return this; }
+        public PromptDeletedEventBuilder deletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; return this; }
+        
+        public PromptDeletedEvent build() {
+            PromptDeletedEvent event = new PromptDeletedEvent();
+            event.eventId = this.eventId;
+            event.promptId = this.promptId;
+            event.userId = this.userId;
+            event.deletedAt = this.deletedAt;
+            return event;
+        }
+    }
+}
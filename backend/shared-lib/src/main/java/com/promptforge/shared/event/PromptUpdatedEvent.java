@@ -0,0 +1,77 @@
+package com.promptforge.shared.event;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+public class PromptUpdatedEvent implements Serializable {
+    private String eventId;
+    private String promptId;
+    private String userId;
+    private String username;
+    private String title;
+    private String category;
+    private Boolean isPublic;
+    private String version;
+    private Boolean contentChanged;
+    private LocalDateTime updatedAt;
+    
+    public PromptUpdatedEvent() {}
+    
+    public static PromptUpdatedEventBuilder builder() {
+        return new PromptUpdatedEventBuilder();
+    }
+    
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+    public String getPromptId() { return promptId; }
+    public void setPromptId(String promptId) { this.promptId = promptId; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public Boolean getIsPublic() { return isPublic; }
+    public void setIsPublic(Boolean isPublic) { this.isPublic = isPublic; }
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+    public Boolean getContentChanged() { return contentChanged; }
+    public void setContentChanged(Boolean contentChanged) { this.contentChanged = contentChanged; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public static class PromptUpdatedEventBuilder {
+        private String eventId, promptId, userId, username, title, category, version;
+        private Boolean isPublic, contentChanged;
+        private LocalDateTime updatedAt;
+        
+        public PromptUpdatedEventBuilder eventId(String eventId) { this.eventId = eventId; return this; }
+        public PromptUpdatedEventBuilder promptId(String promptId) { this.promptId = promptId; return this; }
+        public PromptUpdatedEventBuilder userId(String userId) { this.userId = userId; return this; }
+        public PromptUpdatedEventBuilder username(String username) { this.username = username; return this; }
+        public PromptUpdatedEventBuilder title(String title) { this.title = title; return this; }
+        public PromptUpdatedEventBuilder category(String category) { this.category = category; return this; }
+        public PromptUpdatedEventBuilder isPublic(Boolean isPublic) { this.isPublic = isPublic; return this; }
+        public PromptUpdatedEventBuilder version(String version) { this.version = version; return this; }
+        public PromptUpdatedEventBuilder contentChanged(Boolean contentChanged) { this.contentChanged = contentChanged; return this; }
+        public PromptUpdatedEventBuilder updatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; return this; }
+        
+        public PromptUpdatedEvent build() {
+            PromptUpdatedEvent event = new PromptUpdatedEvent();
+            event.eventId = this.eventId;
+            event.promptId = this.promptId;
+            event.userId = this.userId;
+            event.username = this.username;
+            event.title = this.title;
+            event.category = this.category;
+            event.isPublic = this.isPublic;
+            event.version = this.version;
+            event.contentChanged = this.contentChanged;
+            event.updatedAt = this.updatedAt;
+            return event;
+        }
+    }
+}
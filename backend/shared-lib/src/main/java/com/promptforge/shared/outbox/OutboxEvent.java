@@ -0,0 +1,58 @@
+package com.promptforge.shared.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a Kafka event waiting to be published. Rows are written in
+ * the same transaction as the change they describe, so an event exists if and only
+ * if its change committed; OutboxRelay publishes them in ID order and marks them sent.
+ */
+@Entity
+@Table(name = "outbox_events",
+       indexes = @Index(name = "idx_outbox_sent_id", columnList = "sent_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    
+    // Sequence rather than identity so bulk imports can batch their outbox inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String topic;
+    
+    @Column(name = "message_key")
+    private String messageKey;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    // Set while a relay is publishing the event; others skip it until the lease expires
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,55 @@
+package com.promptforge.shared.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for outbox events awaiting publication to Kafka.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Locks the oldest unsent events that no relay holds a live claim on. Rows locked
+     * by another relay instance are skipped rather than waited on, so replicas claim
+     * disjoint batches.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE sent_at IS NULL " +
+            "AND (claimed_until IS NULL OR claimed_until < :now) ORDER BY id LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockClaimableBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    /**
+     * Claims events for one relay until the lease expires.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :claimedUntil WHERE e.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+    
+    /**
+     * Records a failed send and releases the claim so the next round retries it.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.claimedUntil = NULL WHERE e.id IN :ids")
+    int recordFailedAttempt(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Deletes events published before the cutoff.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    long countBySentAtIsNull();
+}
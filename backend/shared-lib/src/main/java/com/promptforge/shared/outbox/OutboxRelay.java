@@ -0,0 +1,203 @@
+package com.promptforge.shared.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox to Kafka. Each round claims a batch of unsent events in a short
+ * transaction, publishes them with no transaction or row lock held, waits for the
+ * acknowledgements together and marks the acknowledged ones sent in a second short
+ * transaction, so a slow broker never holds database connections or locks. A claim
+ * is a lease: if the relay dies mid-round, the events become claimable again once it
+ * expires. An event whose send fails is released and retried next round, so delivery
+ * is at least once: consumers must tolerate duplicates, which they can detect by eventId.
+ * <p>
+ * Events with different keys are sent together, but an event is only sent once the
+ * previous event with the same key in the batch has been acknowledged. If that one
+ * fails, the later ones are held back and retried with it, so a retry never lands
+ * behind a newer event for the same prompt.
+ * <p>
+ * Each service that writes to the outbox registers the relay, entity and repository
+ * through its own OutboxConfig.
+ */
+@Slf4j
+public class OutboxRelay {
+    
+    private static final int MAX_ROUNDS_PER_RUN = 20;
+    
+    // Kafka's own default for delivery.timeout.ms
+    private static final long DEFAULT_DELIVERY_TIMEOUT_MS = 120_000;
+    
+    private final OutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long claimLeaseMs;
+    private final long retentionHours;
+    
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${promptforge.outbox.batch-size:500}") int batchSize,
+                       @Value("${promptforge.outbox.send-timeout-ms:35000}") long sendTimeoutMs,
+                       @Value("${promptforge.outbox.claim-lease-ms:60000}") long claimLeaseMs,
+                       @Value("${promptforge.outbox.retention-hours:24}") long retentionHours) {
+        if (claimLeaseMs <= sendTimeoutMs) {
+            throw new IllegalArgumentException("outbox claim-lease-ms must exceed send-timeout-ms");
+        }
+        // A send the relay gave up on could still be delivered by the producer after its retry
+        long deliveryTimeoutMs = deliveryTimeoutMs(kafkaTemplate);
+        if (sendTimeoutMs < deliveryTimeoutMs) {
+            throw new IllegalArgumentException("outbox send-timeout-ms must be at least the producer's "
+                    + ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG + " (" + deliveryTimeoutMs + ")");
+        }
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.claimLeaseMs = claimLeaseMs;
+        this.retentionHours = retentionHours;
+        
+        Gauge.builder("promptforge.outbox.pending", outboxRepository, OutboxEventRepository::countBySentAtIsNull)
+                .description("Outbox events not yet published to Kafka")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Publishes pending events until the outbox is drained or the round limit is hit.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.outbox.relay-interval-ms:200}")
+    public void relay() {
+        for (int round = 0; round < MAX_ROUNDS_PER_RUN; round++) {
+            RoundResult result;
+            try {
+                result = relayBatch();
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay round failed: {}", e.getMessage());
+                return;
+            }
+            if (result == null || result.failed > 0 || result.sent < batchSize) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Claims, publishes and marks one batch of events. Must not run inside a transaction.
+     */
+    RoundResult relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return new RoundResult(0, 0);
+        }
+        
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        Map<String, CompletableFuture<?>> lastByKey = new HashMap<>();
+        for (OutboxEvent event : batch) {
+            CompletableFuture<?> previous = event.getMessageKey() != null ? lastByKey.get(event.getMessageKey()) : null;
+            // Chained sends run off the producer's I/O thread, since send can block on a full buffer
+            CompletableFuture<?> future = previous == null ? send(event) : previous.handleAsync((result, error) ->
+                    error == null ? send(event) : CompletableFuture.failedFuture(new IllegalStateException(
+                            "held back behind a failed event with the same key")))
+                    .thenCompose(next -> next);
+            sends.add(future);
+            if (event.getMessageKey() != null) {
+                lastByKey.put(event.getMessageKey(), future);
+            }
+        }
+        kafkaTemplate.flush();
+        
+        // One deadline for the whole batch: the sends are in flight together
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> sent = new ArrayList<>(batch.size());
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Long id = batch.get(i).getId();
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sent.add(id);
+            } catch (Exception e) {
+                failed.add(id);
+                log.warn("Failed to publish outbox event {} to {}: {}", id, batch.get(i).getTopic(), e.toString());
+            }
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                outboxRepository.markSent(sent, LocalDateTime.now());
+            }
+            if (!failed.isEmpty()) {
+                outboxRepository.recordFailedAttempt(failed);
+            }
+        });
+        log.debug("Relayed {} outbox events ({} failed)", sent.size(), failed.size());
+        return new RoundResult(sent.size(), failed.size());
+    }
+    
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxRepository.lockClaimableBatch(now, batchSize);
+        if (!batch.isEmpty()) {
+            List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+            outboxRepository.claim(ids, now.plus(Duration.ofMillis(claimLeaseMs)));
+        }
+        return batch;
+    }
+    
+    private static long deliveryTimeoutMs(KafkaTemplate<String, Object> kafkaTemplate) {
+        ProducerFactory<String, Object> producerFactory = kafkaTemplate.getProducerFactory();
+        if (producerFactory == null) {
+            return 0;
+        }
+        Object configured = producerFactory.getConfigurationProperties().get(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG);
+        return configured != null ? Long.parseLong(configured.toString()) : DEFAULT_DELIVERY_TIMEOUT_MS;
+    }
+    
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), payload);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Deletes events that were published more than the retention period ago.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.outbox.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} published outbox events", deleted);
+        }
+    }
+    
+    record RoundResult(int sent, int failed) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.promptforge.shared.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+    
+    @Mock
+    private OutboxEventRepository outboxRepository;
+    
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private OutboxRelay relay;
+    
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, new ObjectMapper(),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 100, 1000, 60000, 24);
+    }
+    
+    @Test
+    @DisplayName("Should mark acknowledged events sent and leave failed ones for retry")
+    @SuppressWarnings("unchecked")
+    void shouldMarkOnlyAcknowledgedEventsSent() {
+        // Given
+        when(outboxRepository.lockClaimableBatch(any(LocalDateTime.class), eq(100))).thenReturn(List.of(
+                event(1L, "prompt-1"), event(2L, "prompt-2"), event(3L, "prompt-3")));
+        CompletableFuture<SendResult<String, Object>> ok = CompletableFuture.completedFuture(null);
+        when(kafkaTemplate.send(eq("prompt.created"), anyString(), any()))
+                .thenReturn(ok)
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(ok);
+        
+        // When
+        OutboxRelay.RoundResult result = relay.relayBatch();
+        
+        // Then
+        assertThat(result.sent()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(1);
+        ArgumentCaptor<Collection<Long>> sent = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxRepository).markSent(sent.capture(), any(LocalDateTime.class));
+        assertThat(sent.getValue()).containsExactly(1L, 3L);
+        verify(outboxRepository).recordFailedAttempt(List.of(2L));
+        verify(kafkaTemplate).flush();
+    }
+    
+    @Test
+    @DisplayName("Should hold back later events for a key whose earlier event failed")
+    @SuppressWarnings("unchecked")
+    void shouldHoldBackEventsBehindFailedKey() {
+        // Given
+        when(outboxRepository.lockClaimableBatch(any(LocalDateTime.class), eq(100))).thenReturn(List.of(
+                event(1L, "prompt-1"), event(2L, "prompt-2"), event(3L, "prompt-1")));
+        when(kafkaTemplate.send(eq("prompt.created"), eq("prompt-1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaTemplate.send(eq("prompt.created"), eq("prompt-2"), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        
+        // When
+        OutboxRelay.RoundResult result = relay.relayBatch();
+        
+        // Then: event 3 is never sent ahead of event 1's retry
+        assertThat(result.sent()).isEqualTo(1);
+        verify(kafkaTemplate, times(1)).send(eq("prompt.created"), eq("prompt-1"), any());
+        ArgumentCaptor<Collection<Long>> failed = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxRepository).recordFailedAttempt(failed.capture());
+        assertThat(failed.getValue()).containsExactly(1L, 3L);
+    }
+    
+    @Test
+    @DisplayName("Should send an event once the previous event with its key is acknowledged")
+    void shouldSendSameKeyEventsInOrder() {
+        // Given
+        when(outboxRepository.lockClaimableBatch(any(LocalDateTime.class), eq(100))).thenReturn(List.of(
+                event(1L, "prompt-1"), event(2L, "prompt-1")));
+        CompletableFuture<SendResult<String, Object>> firstAck = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(firstAck)
+                .thenReturn(CompletableFuture.completedFuture(null));
+        
+        // When
+        CompletableFuture<OutboxRelay.RoundResult> round = CompletableFuture.supplyAsync(relay::relayBatch);
+        
+        // Then
+        verify(kafkaTemplate, after(100).times(1)).send(anyString(), anyString(), any());
+        firstAck.complete(null);
+        assertThat(round.join().sent()).isEqualTo(2);
+        verify(kafkaTemplate, times(2)).send(anyString(), anyString(), any());
+    }
+    
+    @Test
+    @DisplayName("Should publish outside the claim and mark transactions")
+    void shouldPublishOutsideTransactions() {
+        // Given
+        when(outboxRepository.lockClaimableBatch(any(LocalDateTime.class), eq(100)))
+                .thenReturn(List.of(event(1L, "prompt-1")));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        
+        // When
+        relay.relayBatch();
+        
+        // Then
+        InOrder inOrder = inOrder(transactionManager, outboxRepository, kafkaTemplate);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxRepository).lockClaimableBatch(any(LocalDateTime.class), eq(100));
+        inOrder.verify(outboxRepository).claim(eq(List.of(1L)), any(LocalDateTime.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(kafkaTemplate).send(eq("prompt.created"), eq("prompt-1"), any());
+        inOrder.verify(kafkaTemplate).flush();
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxRepository).markSent(eq(List.of(1L)), any(LocalDateTime.class));
+        inOrder.verify(transactionManager).commit(any());
+    }
+    
+    @Test
+    @DisplayName("Should reject a claim lease shorter than the send timeout")
+    void shouldRejectShortLease() {
+        assertThatThrownBy(() -> new OutboxRelay(outboxRepository, kafkaTemplate, new ObjectMapper(),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 100, 10000, 5000, 24))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    @DisplayName("Should reject a send timeout shorter than the producer's delivery timeout")
+    @SuppressWarnings("unchecked")
+    void shouldRejectSendTimeoutBelowDeliveryTimeout() {
+        // Given
+        ProducerFactory<String, Object> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.getConfigurationProperties())
+                .thenReturn(Map.of(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, "30000"));
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        
+        // When & Then
+        assertThatThrownBy(() -> new OutboxRelay(outboxRepository, kafkaTemplate, new ObjectMapper(),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 100, 10000, 60000, 24))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("delivery.timeout.ms");
+        assertThatCode(() -> new OutboxRelay(outboxRepository, kafkaTemplate, new ObjectMapper(),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 100, 35000, 60000, 24))
+                .doesNotThrowAnyException();
+    }
+    
+    @Test
+    @DisplayName("Should publish the stored JSON payload keyed by the original key")
+    void shouldPublishStoredPayload() {
+        // Given
+        when(outboxRepository.lockClaimableBatch(any(LocalDateTime.class), eq(100))).thenReturn(List.of(event(1L, "prompt-1")));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        
+        // When
+        relay.relayBatch();
+        
+        // Then
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq("prompt.created"), eq("prompt-1"), payload.capture());
+        assertThat(((JsonNode) payload.getValue()).get("promptId").asText()).isEqualTo("prompt-1");
+    }
+    
+    private static OutboxEvent event(Long id, String promptId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("prompt.created")
+                .messageKey(promptId)
+                .payload("{\"promptId\":\"" + promptId + "\"}")
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.promptforge.user.config;
+
+import com.promptforge.shared.event.PromptCreatedEvent;
+import com.promptforge.shared.event.PromptDeletedEvent;
+import com.promptforge.shared.event.PromptUpdatedEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Typed consumers for the prompt events that drive the following feed. Producers
+ * send without type headers, so each topic gets its own default value type.
+ */
+@Configuration
+public class KafkaConsumerConfig {
+    
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+    
+    @Bean
+    public ConsumerFactory<String, PromptCreatedEvent> promptCreatedEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerConfig(PromptCreatedEvent.class));
+    }
+    
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PromptCreatedEvent> promptCreatedKafkaListenerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PromptCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(promptCreatedEventConsumerFactory());
+        return factory;
+    }
+    
+    @Bean
+    public ConsumerFactory<String, PromptUpdatedEvent> promptUpdatedEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerConfig(PromptUpdatedEvent.class));
+    }
+    
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PromptUpdatedEvent> promptUpdatedKafkaListenerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PromptUpdatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(promptUpdatedEventConsumerFactory());
+        return factory;
+    }
+    
+    @Bean
+    public ConsumerFactory<String, PromptDeletedEvent> promptDeletedEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerConfig(PromptDeletedEvent.class));
+    }
+    
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PromptDeletedEvent> promptDeletedKafkaListenerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PromptDeletedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(promptDeletedEventConsumerFactory());
+        return factory;
+    }
+    
+    private Map<String, Object> consumerConfig(Class<?> valueType) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, "user-service-feed-group");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
+        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, valueType.getName());
+        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        return config;
+    }
+}
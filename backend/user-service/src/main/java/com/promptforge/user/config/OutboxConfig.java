@@ -0,0 +1,20 @@
+package com.promptforge.user.config;
+
+import com.promptforge.user.UserServiceApplication;
+import com.promptforge.shared.outbox.OutboxEvent;
+import com.promptforge.shared.outbox.OutboxRelay;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Wires the shared transactional outbox into this service. Declaring the scan roots
+ * replaces Boot's defaults, so the service's own packages are listed alongside it.
+ */
+@Configuration
+@Import(OutboxRelay.class)
+@EntityScan(basePackageClasses = {UserServiceApplication.class, OutboxEvent.class})
+@EnableJpaRepositories(basePackageClasses = {UserServiceApplication.class, OutboxEvent.class})
+public class OutboxConfig {
+}
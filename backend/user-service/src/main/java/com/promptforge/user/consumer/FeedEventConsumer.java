@@ -0,0 +1,42 @@
+package com.promptforge.user.consumer;
+
+import com.promptforge.shared.event.PromptCreatedEvent;
+import com.promptforge.shared.event.PromptDeletedEvent;
+import com.promptforge.shared.event.PromptUpdatedEvent;
+import com.promptforge.user.service.FeedService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Feeds prompt lifecycle events from prompt-service into the following feed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FeedEventConsumer {
+    
+    private final FeedService feedService;
+    
+    @KafkaListener(topics = "prompt.created", groupId = "user-service-feed-group",
+            containerFactory = "promptCreatedKafkaListenerFactory")
+    public void handlePromptCreated(PromptCreatedEvent event) {
+        log.debug("Received PromptCreatedEvent for prompt {} by {}", event.getPromptId(), event.getUserId());
+        feedService.onPromptCreated(event);
+    }
+    
+    @KafkaListener(topics = "prompt.updated", groupId = "user-service-feed-group",
+            containerFactory = "promptUpdatedKafkaListenerFactory")
+    public void handlePromptUpdated(PromptUpdatedEvent event) {
+        log.debug("Received PromptUpdatedEvent for prompt {} (public: {})", event.getPromptId(), event.getIsPublic());
+        feedService.onPromptUpdated(event);
+    }
+    
+    @KafkaListener(topics = "prompt.deleted", groupId = "user-service-feed-group",
+            containerFactory = "promptDeletedKafkaListenerFactory")
+    public void handlePromptDeleted(PromptDeletedEvent event) {
+        log.debug("Received PromptDeletedEvent for prompt {}", event.getPromptId());
+        feedService.onPromptDeleted(event.getPromptId());
+    }
+}
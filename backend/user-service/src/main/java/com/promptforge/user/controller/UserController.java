@@ -1,7 +1,9 @@
 package com.promptforge.user.controller;
 
+import com.promptforge.user.dto.FeedPageResponse;
 import com.promptforge.user.dto.UserResponse;
 import com.promptforge.user.security.UserDetailsImpl;
+import com.promptforge.user.service.FeedService;
 import com.promptforge.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
     
     private final UserService userService;
+    private final FeedService feedService;
     
     @Operation(
             summary = "Get current user profile",
@@ -51,6 +54,31 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
     
+    @Operation(
+            summary = "Get following feed",
+            description = "Retrieves prompts published by the users the authenticated user follows, newest first. " +
+                    "Pass the returned nextCursor to read the next page."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Feed page retrieved",
+                    content = @Content(schema = @Schema(implementation = FeedPageResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token")
+    })
+    @GetMapping("/feed")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<FeedPageResponse> getFeed(
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        
+        log.debug("Fetching following feed for user {}", userDetails.getId());
+        return ResponseEntity.ok(feedService.getFeed(userDetails.getId(), cursor, size));
+    }
+    
     @Operation(
             summary = "Get user by ID",
             description = "Retrieves a user's public profile by their ID"
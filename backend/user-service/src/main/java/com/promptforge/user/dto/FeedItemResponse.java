@@ -0,0 +1,27 @@
+package com.promptforge.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeedItemResponse {
+    
+    private String promptId;
+    
+    private String authorId;
+    
+    private String authorUsername;
+    
+    private String title;
+    
+    private String category;
+    
+    private LocalDateTime createdAt;
+}
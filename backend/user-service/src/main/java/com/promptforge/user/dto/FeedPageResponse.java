@@ -0,0 +1,24 @@
+package com.promptforge.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a following feed. Pass {@code nextCursor} back to read the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeedPageResponse {
+    
+    private List<FeedItemResponse> items;
+    
+    private String nextCursor;
+    
+    private Boolean hasNext;
+}
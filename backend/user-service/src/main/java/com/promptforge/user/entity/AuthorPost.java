@@ -0,0 +1,41 @@
+package com.promptforge.user.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A public prompt as seen by the feed: the display fields of a prompt.created event,
+ * kept so feed pages render without calling prompt-service. Also the source for
+ * fan-out-on-read of high-follower authors and for backfilling a new follow.
+ */
+@Entity
+@Table(name = "author_posts",
+       indexes = @Index(name = "idx_author_posts_author_time", columnList = "author_id, created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthorPost {
+    
+    @Id
+    @Column(name = "prompt_id")
+    private String promptId;
+    
+    @Column(name = "author_id", nullable = false)
+    private String authorId;
+    
+    @Column(name = "author_username")
+    private String authorUsername;
+    
+    private String title;
+    
+    private String category;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,52 @@
+package com.promptforge.user.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One prompt in a user's materialized following feed. Rows are written when an
+ * author the user follows publishes (fan-out-on-write) and read newest first
+ * through the (user_id, created_at, prompt_id) index. The prompt_id index lets a
+ * prompt that turns private or is deleted be retracted from every timeline.
+ */
+@Entity
+@Table(name = "feed_entries",
+       indexes = {
+           @Index(name = "idx_feed_entries_user_time", columnList = "user_id, created_at, prompt_id"),
+           @Index(name = "idx_feed_entries_prompt", columnList = "prompt_id")
+       })
+@IdClass(FeedEntry.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeedEntry {
+    
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+    
+    @Id
+    @Column(name = "prompt_id")
+    private String promptId;
+    
+    @Column(name = "author_id", nullable = false)
+    private String authorId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String userId;
+        private String promptId;
+    }
+}
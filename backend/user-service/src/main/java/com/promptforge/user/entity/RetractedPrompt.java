@@ -0,0 +1,34 @@
+package com.promptforge.user.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone of a prompt the feed retracted, so prompt.created and prompt.updated
+ * events delivered after the retraction do not put it back. A deleted prompt stays
+ * retracted for good; one made private only shuts out events up to retractedAt.
+ */
+@Entity
+@Table(name = "retracted_prompts",
+       indexes = @Index(name = "idx_retracted_prompts_time", columnList = "retracted_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RetractedPrompt {
+    
+    @Id
+    @Column(name = "prompt_id")
+    private String promptId;
+    
+    @Column(name = "retracted_at", nullable = false)
+    private LocalDateTime retractedAt;
+    
+    @Column(nullable = false)
+    private Boolean deleted;
+}
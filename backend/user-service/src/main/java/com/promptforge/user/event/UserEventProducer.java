@@ -1,40 +1,56 @@
 package com.promptforge.user.event;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.promptforge.shared.event.UserRegisteredEvent;
+import com.promptforge.shared.outbox.OutboxEvent;
+import com.promptforge.shared.outbox.OutboxEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Publishes user events by writing them to the outbox in the caller's transaction;
+ * OutboxRelay delivers them to Kafka once the transaction has committed.
+ */
 @Service
 public class UserEventProducer {
     
     private static final Logger log = LoggerFactory.getLogger(UserEventProducer.class);
-    private final KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate;
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
     private static final String USER_REGISTERED_TOPIC = "user.registered";
     
-    public UserEventProducer(KafkaTemplate<String, UserRegisteredEvent> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public UserEventProducer(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
     }
     
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishUserRegistered(String userId, String username, String email) {
+        UserRegisteredEvent event = UserRegisteredEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .userId(userId)
+                .username(username)
+                .email(email)
+                .registeredAt(LocalDateTime.now())
+                .build();
+        
         try {
-            UserRegisteredEvent event = UserRegisteredEvent.builder()
-                    .eventId(UUID.randomUUID().toString())
-                    .userId(userId)
-                    .username(username)
-                    .email(email)
-                    .registeredAt(LocalDateTime.now())
-                    .build();
-            
-            kafkaTemplate.send(USER_REGISTERED_TOPIC, userId, event);
-            
-            log.info("Published UserRegisteredEvent for user: {} to topic: {}", userId, USER_REGISTERED_TOPIC);
-        } catch (Exception e) {
-            log.error("Failed to publish UserRegisteredEvent for user: {}", userId, e);
+            outboxRepository.save(OutboxEvent.builder()
+                    .topic(USER_REGISTERED_TOPIC)
+                    .messageKey(userId)
+                    .payload(objectMapper.writeValueAsString(event))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize UserRegisteredEvent", e);
         }
+        
+        log.info("Queued UserRegisteredEvent for user: {} to topic: {}", userId, USER_REGISTERED_TOPIC);
     }
-}
\ No newline at end of file
+}
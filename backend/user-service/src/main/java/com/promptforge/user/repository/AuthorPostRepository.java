@@ -0,0 +1,68 @@
+package com.promptforge.user.repository;
+
+import com.promptforge.user.entity.AuthorPost;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the public prompts known to the feed.
+ */
+@Repository
+public interface AuthorPostRepository extends JpaRepository<AuthorPost, String> {
+    
+    /**
+     * Records a post, ignoring redelivered events.
+     *
+     * @return 1 if the post is new, 0 if it was already recorded
+     */
+    @Modifying
+    @Query(value = "INSERT INTO author_posts (prompt_id, author_id, author_username, title, category, created_at) " +
+            "VALUES (:promptId, :authorId, :authorUsername, :title, :category, :createdAt) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("promptId") String promptId,
+                       @Param("authorId") String authorId,
+                       @Param("authorUsername") String authorUsername,
+                       @Param("title") String title,
+                       @Param("category") String category,
+                       @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Refreshes the display fields of a recorded post after an edit.
+     */
+    @Modifying
+    @Query("UPDATE AuthorPost p SET p.authorUsername = :authorUsername, p.title = :title, " +
+            "p.category = :category WHERE p.promptId = :promptId")
+    int updateDisplayFields(@Param("promptId") String promptId,
+                            @Param("authorUsername") String authorUsername,
+                            @Param("title") String title,
+                            @Param("category") String category);
+    
+    /**
+     * Reads the newest posts of a set of authors, for fan-out-on-read.
+     */
+    @Query("SELECT p.promptId AS promptId, p.authorId AS authorId, p.authorUsername AS authorUsername, " +
+            "p.title AS title, p.category AS category, p.createdAt AS createdAt " +
+            "FROM AuthorPost p WHERE p.authorId IN :authorIds ORDER BY p.createdAt DESC, p.promptId DESC")
+    List<FeedItem> findRecentByAuthors(@Param("authorIds") Collection<String> authorIds, Pageable pageable);
+    
+    /**
+     * Reads the posts of a set of authors that come after a (createdAt, promptId) position.
+     */
+    @Query("SELECT p.promptId AS promptId, p.authorId AS authorId, p.authorUsername AS authorUsername, " +
+            "p.title AS title, p.category AS category, p.createdAt AS createdAt " +
+            "FROM AuthorPost p WHERE p.authorId IN :authorIds AND (p.createdAt < :createdAt " +
+            "OR (p.createdAt = :createdAt AND p.promptId < :promptId)) " +
+            "ORDER BY p.createdAt DESC, p.promptId DESC")
+    List<FeedItem> findRecentByAuthorsBefore(@Param("authorIds") Collection<String> authorIds,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("promptId") String promptId,
+                                             Pageable pageable);
+}
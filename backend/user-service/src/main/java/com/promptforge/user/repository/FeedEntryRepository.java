@@ -0,0 +1,119 @@
+package com.promptforge.user.repository;
+
+import com.promptforge.user.entity.FeedEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for materialized following-feed timelines.
+ */
+@Repository
+public interface FeedEntryRepository extends JpaRepository<FeedEntry, FeedEntry.Key> {
+    
+    /**
+     * Pushes a prompt into the timeline of every follower of its author in one
+     * statement. Redelivered events are absorbed by the primary key.
+     *
+     * @return Number of timelines the prompt was added to
+     */
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, prompt_id, author_id, created_at) " +
+            "SELECT f.follower_id, :promptId, :authorId, :createdAt FROM user_follows f " +
+            "WHERE f.following_id = :authorId ON CONFLICT DO NOTHING", nativeQuery = true)
+    int fanOut(@Param("promptId") String promptId,
+               @Param("authorId") String authorId,
+               @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Copies an author's most recent posts into one follower's timeline.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, prompt_id, author_id, created_at) " +
+            "SELECT :userId, p.prompt_id, p.author_id, p.created_at FROM author_posts p " +
+            "WHERE p.author_id = :authorId ORDER BY p.created_at DESC LIMIT :limit " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int backfill(@Param("userId") String userId, @Param("authorId") String authorId, @Param("limit") int limit);
+    
+    /**
+     * Copies an author's most recent posts into the timelines of all their followers.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, prompt_id, author_id, created_at) " +
+            "SELECT f.follower_id, p.prompt_id, p.author_id, p.created_at FROM user_follows f " +
+            "JOIN (SELECT prompt_id, author_id, created_at FROM author_posts WHERE author_id = :authorId " +
+            "ORDER BY created_at DESC LIMIT :limit) p ON TRUE " +
+            "WHERE f.following_id = :authorId ON CONFLICT DO NOTHING", nativeQuery = true)
+    int backfillFollowers(@Param("authorId") String authorId, @Param("limit") int limit);
+    
+    /**
+     * Removes an author's posts from one user's timeline.
+     */
+    @Modifying
+    @Query("DELETE FROM FeedEntry e WHERE e.userId = :userId AND e.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") String userId, @Param("authorId") String authorId);
+    
+    /**
+     * Retracts a prompt from every timeline.
+     */
+    @Modifying
+    @Query("DELETE FROM FeedEntry e WHERE e.promptId = :promptId")
+    int deleteByPromptId(@Param("promptId") String promptId);
+    
+    /**
+     * Cuts the timelines of an author's followers back to their newest
+     * {@code maxEntries} entries, after a fan-out added to them. Each timeline only
+     * reads its own index range up to the cutoff entry, and timelines within the
+     * limit produce no cutoff at all.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM feed_entries fe USING (" +
+            "SELECT f.follower_id AS user_id, c.created_at, c.prompt_id FROM user_follows f " +
+            "CROSS JOIN LATERAL (SELECT e.created_at, e.prompt_id FROM feed_entries e " +
+            "WHERE e.user_id = f.follower_id ORDER BY e.created_at DESC, e.prompt_id DESC " +
+            "OFFSET :maxEntries LIMIT 1) c " +
+            "WHERE f.following_id = :authorId) cutoff " +
+            "WHERE fe.user_id = cutoff.user_id AND (fe.created_at < cutoff.created_at " +
+            "OR (fe.created_at = cutoff.created_at AND fe.prompt_id <= cutoff.prompt_id))", nativeQuery = true)
+    int trimFollowerTimelines(@Param("authorId") String authorId, @Param("maxEntries") int maxEntries);
+    
+    /**
+     * Cuts one timeline back to its newest {@code maxEntries} entries, after a backfill added to it.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM feed_entries fe USING (" +
+            "SELECT e.created_at, e.prompt_id FROM feed_entries e WHERE e.user_id = :userId " +
+            "ORDER BY e.created_at DESC, e.prompt_id DESC OFFSET :maxEntries LIMIT 1) cutoff " +
+            "WHERE fe.user_id = :userId AND (fe.created_at < cutoff.created_at " +
+            "OR (fe.created_at = cutoff.created_at AND fe.prompt_id <= cutoff.prompt_id))", nativeQuery = true)
+    int trimTimeline(@Param("userId") String userId, @Param("maxEntries") int maxEntries);
+    
+    /**
+     * Reads the newest entries of a timeline. Entries whose prompt was deleted drop out of the join.
+     */
+    @Query("SELECT e.promptId AS promptId, e.authorId AS authorId, p.authorUsername AS authorUsername, " +
+            "p.title AS title, p.category AS category, e.createdAt AS createdAt " +
+            "FROM FeedEntry e JOIN AuthorPost p ON p.promptId = e.promptId " +
+            "WHERE e.userId = :userId ORDER BY e.createdAt DESC, e.promptId DESC")
+    List<FeedItem> findTimeline(@Param("userId") String userId, Pageable pageable);
+    
+    /**
+     * Reads the timeline entries that come after a (createdAt, promptId) position.
+     */
+    @Query("SELECT e.promptId AS promptId, e.authorId AS authorId, p.authorUsername AS authorUsername, " +
+            "p.title AS title, p.category AS category, e.createdAt AS createdAt " +
+            "FROM FeedEntry e JOIN AuthorPost p ON p.promptId = e.promptId " +
+            "WHERE e.userId = :userId AND (e.createdAt < :createdAt " +
+            "OR (e.createdAt = :createdAt AND e.promptId < :promptId)) " +
+            "ORDER BY e.createdAt DESC, e.promptId DESC")
+    List<FeedItem> findTimelineBefore(@Param("userId") String userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("promptId") String promptId,
+                                      Pageable pageable);
+}
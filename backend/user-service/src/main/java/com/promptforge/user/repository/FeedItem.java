@@ -0,0 +1,21 @@
+package com.promptforge.user.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a feed row joined with the prompt's display fields.
+ */
+public interface FeedItem {
+    
+    String getPromptId();
+    
+    String getAuthorId();
+    
+    String getAuthorUsername();
+    
+    String getTitle();
+    
+    String getCategory();
+    
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,44 @@
+package com.promptforge.user.repository;
+
+import com.promptforge.user.entity.RetractedPrompt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for the tombstones of prompts retracted from the feed.
+ */
+@Repository
+public interface RetractedPromptRepository extends JpaRepository<RetractedPrompt, String> {
+    
+    /**
+     * Records or extends a tombstone. A delete is never downgraded by a later visibility change.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO retracted_prompts (prompt_id, retracted_at, deleted) " +
+            "VALUES (:promptId, :retractedAt, :deleted) " +
+            "ON CONFLICT (prompt_id) DO UPDATE SET " +
+            "retracted_at = GREATEST(retracted_prompts.retracted_at, EXCLUDED.retracted_at), " +
+            "deleted = retracted_prompts.deleted OR EXCLUDED.deleted", nativeQuery = true)
+    int retract(@Param("promptId") String promptId,
+                @Param("retractedAt") LocalDateTime retractedAt,
+                @Param("deleted") boolean deleted);
+    
+    /**
+     * Whether an event stamped at the given time is superseded by a retraction.
+     */
+    @Query("SELECT COUNT(r) > 0 FROM RetractedPrompt r WHERE r.promptId = :promptId " +
+            "AND (r.deleted = true OR r.retractedAt >= :at)")
+    boolean isRetracted(@Param("promptId") String promptId, @Param("at") LocalDateTime at);
+    
+    /**
+     * Drops tombstones older than any event that can still be redelivered.
+     */
+    @Modifying
+    @Query("DELETE FROM RetractedPrompt r WHERE r.retractedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
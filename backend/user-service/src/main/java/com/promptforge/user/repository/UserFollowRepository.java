@@ -2,8 +2,11 @@ package com.promptforge.user.repository;
 
 import com.promptforge.user.entity.UserFollow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,5 +50,17 @@ public interface UserFollowRepository extends JpaRepository<UserFollow, String>
      * Counts how many followers a specific user has.
      */
     Long countByFollowingId(String followingId);
+    
+    /**
+     * Finds the users with at least {@code minFollowers} followers.
+     */
+    @Query("SELECT f.followingId FROM UserFollow f GROUP BY f.followingId HAVING COUNT(f) >= :minFollowers")
+    List<String> findFollowingIdsWithAtLeast(@Param("minFollowers") long minFollowers);
+    
+    /**
+     * Finds which of the given users a user is following, in one query.
+     */
+    @Query("SELECT f.followingId FROM UserFollow f WHERE f.followerId = :followerId AND f.followingId IN :userIds")
+    List<String> findFollowedAmong(@Param("followerId") String followerId,
+                                   @Param("userIds") Collection<String> userIds);
 }
-
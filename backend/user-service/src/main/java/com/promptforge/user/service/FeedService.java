@@ -0,0 +1,396 @@
+package com.promptforge.user.service;
+
+import com.promptforge.shared.event.PromptCreatedEvent;
+import com.promptforge.shared.event.PromptUpdatedEvent;
+import com.promptforge.user.dto.FeedItemResponse;
+import com.promptforge.user.dto.FeedPageResponse;
+import com.promptforge.user.repository.AuthorPostRepository;
+import com.promptforge.user.repository.FeedEntryRepository;
+import com.promptforge.user.repository.FeedItem;
+import com.promptforge.user.repository.RetractedPromptRepository;
+import com.promptforge.user.repository.UserFollowRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Following feed: prompts published by the users someone follows, newest first.
+ * <p>
+ * New public prompts are pushed into a bounded timeline per follower when they are
+ * published (fan-out-on-write), so reading a page is one index range scan. Each
+ * fan-out or backfill trims just the timelines it wrote to. Authors
+ * with more than {@code fan-out-threshold} followers are not fanned out, since one
+ * post would cost that many writes; their posts are pulled from author_posts when a
+ * follower reads the feed (fan-out-on-read) and merged into the page.
+ * <p>
+ * Once an author is treated as high-follower they stay so until they drop below half
+ * the threshold, so authors near the boundary do not flip back and forth. An author
+ * who drops out is fanned out on write again straight away but stays pulled on read
+ * for one more refresh interval, so events already in flight have committed; their
+ * recent posts are then backfilled into their followers' timelines, and only once
+ * that backfill has committed do they stop being pulled.
+ * <p>
+ * Retracting a prompt leaves a tombstone. Create and update events can be delivered
+ * after the delete or make-private that superseded them (redeliveries, retries from
+ * the outbox); those stamped at or before the tombstone are ignored, and nothing is
+ * published again for a deleted prompt.
+ */
+@Service
+@Slf4j
+public class FeedService {
+    
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private static final Comparator<FeedItem> NEWEST_FIRST = Comparator
+            .comparing(FeedItem::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(FeedItem::getPromptId, Comparator.reverseOrder());
+    
+    private final FeedEntryRepository feedEntryRepository;
+    private final AuthorPostRepository authorPostRepository;
+    private final UserFollowRepository userFollowRepository;
+    private final RetractedPromptRepository retractedPromptRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long fanOutThreshold;
+    private final int maxEntriesPerUser;
+    private final int backfillSize;
+    private final long tombstoneRetentionHours;
+    
+    // Authors whose new posts are not fanned out; always a subset of pulledOnRead
+    private volatile Set<String> fanOutSkipped = Set.of();
+    // Authors whose posts are merged in at read time, including those being drained
+    private volatile Set<String> pulledOnRead = Set.of();
+    
+    public FeedService(FeedEntryRepository feedEntryRepository,
+                       AuthorPostRepository authorPostRepository,
+                       UserFollowRepository userFollowRepository,
+                       RetractedPromptRepository retractedPromptRepository,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${promptforge.feed.fan-out-threshold:10000}") long fanOutThreshold,
+                       @Value("${promptforge.feed.max-entries-per-user:500}") int maxEntriesPerUser,
+                       @Value("${promptforge.feed.backfill-size:50}") int backfillSize,
+                       @Value("${promptforge.feed.tombstone-retention-hours:168}") long tombstoneRetentionHours) {
+        this.feedEntryRepository = feedEntryRepository;
+        this.authorPostRepository = authorPostRepository;
+        this.userFollowRepository = userFollowRepository;
+        this.retractedPromptRepository = retractedPromptRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.fanOutThreshold = fanOutThreshold;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.backfillSize = backfillSize;
+        this.tombstoneRetentionHours = tombstoneRetentionHours;
+    }
+    
+    /**
+     * Records a newly published prompt and, unless its author has too many followers,
+     * pushes it into their followers' timelines. Private prompts are ignored.
+     *
+     * @param event The prompt.created event
+     */
+    @Transactional
+    public void onPromptCreated(PromptCreatedEvent event) {
+        if (!Boolean.TRUE.equals(event.getIsPublic()) || event.getPromptId() == null || event.getUserId() == null) {
+            return;
+        }
+        
+        LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+        if (retractedPromptRepository.isRetracted(event.getPromptId(), createdAt)) {
+            log.debug("Ignoring creation of retracted prompt {}", event.getPromptId());
+            return;
+        }
+        if (!publish(event.getPromptId(), event.getUserId(), event.getUsername(), event.getTitle(),
+                event.getCategory(), createdAt)) {
+            log.debug("Prompt {} already recorded for feeds", event.getPromptId());
+        }
+    }
+    
+    /**
+     * Brings the feed in line with an edited prompt's visibility. A prompt that became
+     * public is fanned out as of the edit; one that became private is retracted from
+     * every timeline; a public prompt that stayed public has its display fields refreshed.
+     *
+     * @param event The prompt.updated event
+     */
+    @Transactional
+    public void onPromptUpdated(PromptUpdatedEvent event) {
+        if (event.getPromptId() == null || event.getUserId() == null || event.getIsPublic() == null) {
+            return;
+        }
+        
+        LocalDateTime publishedAt = event.getUpdatedAt() != null ? event.getUpdatedAt() : LocalDateTime.now();
+        if (!event.getIsPublic()) {
+            retract(event.getPromptId(), publishedAt, false);
+            return;
+        }
+        
+        if (retractedPromptRepository.isRetracted(event.getPromptId(), publishedAt)) {
+            log.debug("Ignoring stale update of retracted prompt {}", event.getPromptId());
+            return;
+        }
+        if (!publish(event.getPromptId(), event.getUserId(), event.getUsername(), event.getTitle(),
+                event.getCategory(), publishedAt)) {
+            authorPostRepository.updateDisplayFields(event.getPromptId(), event.getUsername(), event.getTitle(),
+                    event.getCategory());
+        }
+    }
+    
+    /**
+     * Forgets a deleted prompt and retracts it from every timeline.
+     *
+     * @param promptId The deleted prompt's ID
+     */
+    @Transactional
+    public void onPromptDeleted(String promptId) {
+        if (promptId != null) {
+            retract(promptId, LocalDateTime.now(), true);
+        }
+    }
+    
+    /**
+     * Backfills a new follower's timeline with the followed author's recent posts.
+     * Runs in the caller's transaction.
+     */
+    @Transactional
+    public void onFollow(String followerId, String followingId) {
+        // Pulled authors are merged on read, and drained authors are backfilled for all followers
+        if (!pulledOnRead.contains(followingId)) {
+            feedEntryRepository.backfill(followerId, followingId, backfillSize);
+            feedEntryRepository.trimTimeline(followerId, maxEntriesPerUser);
+        }
+    }
+    
+    /**
+     * Removes the unfollowed author's posts from the follower's timeline.
+     * Runs in the caller's transaction.
+     */
+    @Transactional
+    public void onUnfollow(String followerId, String followingId) {
+        feedEntryRepository.deleteByUserIdAndAuthorId(followerId, followingId);
+    }
+    
+    /**
+     * Reads one page of a user's following feed.
+     *
+     * @param userId The reading user
+     * @param cursor Position returned with the previous page, or null for the first page
+     * @param size Page size, at most {@link #MAX_PAGE_SIZE}
+     * @return The page, newest first
+     */
+    @Transactional(readOnly = true)
+    public FeedPageResponse getFeed(String userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page follows
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        Cursor position = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+        
+        List<FeedItem> items = position == null
+                ? feedEntryRepository.findTimeline(userId, limit)
+                : feedEntryRepository.findTimelineBefore(userId, position.createdAt, position.promptId, limit);
+        
+        Set<String> pulled = pulledOnRead;
+        if (!pulled.isEmpty()) {
+            List<String> followed = userFollowRepository.findFollowedAmong(userId, pulled);
+            if (!followed.isEmpty()) {
+                List<FeedItem> posts = position == null
+                        ? authorPostRepository.findRecentByAuthors(followed, limit)
+                        : authorPostRepository.findRecentByAuthorsBefore(followed, position.createdAt,
+                                position.promptId, limit);
+                items = merge(items, posts);
+            }
+        }
+        
+        boolean hasNext = items.size() > pageSize;
+        List<FeedItem> page = hasNext ? items.subList(0, pageSize) : items;
+        FeedItem last = page.isEmpty() ? null : page.get(page.size() - 1);
+        
+        return FeedPageResponse.builder()
+                .items(page.stream().map(this::mapToFeedItemResponse).toList())
+                .nextCursor(hasNext ? new Cursor(last.getCreatedAt(), last.getPromptId()).encode() : null)
+                .hasNext(hasNext)
+                .build();
+    }
+    
+    /**
+     * Reloads the set of authors served by fan-out-on-read and drains the authors
+     * that dropped out of it on the previous refresh.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${promptforge.feed.high-follower-refresh-ms:300000}",
+            initialDelayString = "${promptforge.feed.high-follower-refresh-ms:300000}")
+    public synchronized void refreshHighFollowerAuthors() {
+        Set<String> skipped = fanOutSkipped;
+        Set<String> pulled = pulledOnRead;
+        
+        Set<String> highFollower = new HashSet<>(userFollowRepository.findFollowingIdsWithAtLeast(fanOutThreshold));
+        if (!skipped.isEmpty()) {
+            Set<String> stillAboveHalf = new HashSet<>(
+                    userFollowRepository.findFollowingIdsWithAtLeast(Math.max(1, fanOutThreshold / 2)));
+            for (String authorId : skipped) {
+                if (stillAboveHalf.contains(authorId)) {
+                    highFollower.add(authorId);
+                }
+            }
+        }
+        
+        Set<String> nextPulled = new HashSet<>(highFollower);
+        
+        // Dropped out last time and fanned out on write since: their posts from the
+        // pull-on-read period only reach the timelines through this backfill
+        for (String authorId : pulled) {
+            if (skipped.contains(authorId) || highFollower.contains(authorId)) {
+                continue;
+            }
+            try {
+                Integer rows = transactionTemplate.execute(status -> {
+                    int added = feedEntryRepository.backfillFollowers(authorId, backfillSize);
+                    feedEntryRepository.trimFollowerTimelines(authorId, maxEntriesPerUser);
+                    return added;
+                });
+                log.info("Author {} is back on fan-out-on-write; backfilled {} timeline entries", authorId, rows);
+            } catch (RuntimeException e) {
+                // Keep pulling them on read and retry on the next refresh
+                log.error("Failed to backfill timelines for author {}", authorId, e);
+                nextPulled.add(authorId);
+            }
+        }
+        
+        // Dropped out now: keep pulling them until the next refresh drains them
+        for (String authorId : skipped) {
+            if (!highFollower.contains(authorId)) {
+                nextPulled.add(authorId);
+            }
+        }
+        
+        // Widen the read side before the write side stops fanning out
+        pulledOnRead = Set.copyOf(nextPulled);
+        fanOutSkipped = Set.copyOf(highFollower);
+        
+        log.debug("{} authors served by fan-out-on-read, {} being drained", highFollower.size(),
+                nextPulled.size() - highFollower.size());
+    }
+    
+    /**
+     * Forgets tombstones older than the retention, by when no superseded event can
+     * still be delivered.
+     */
+    @Scheduled(fixedDelayString = "${promptforge.feed.tombstone-purge-interval-ms:3600000}",
+            initialDelayString = "${promptforge.feed.tombstone-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeTombstones() {
+        int deleted = retractedPromptRepository.deleteOlderThan(LocalDateTime.now().minusHours(tombstoneRetentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} feed tombstones older than {} hours", deleted, tombstoneRetentionHours);
+        }
+    }
+    
+    /**
+     * Returns statistics about the feed configuration and fan-out-on-read set.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fanOutThreshold", fanOutThreshold);
+        stats.put("maxEntriesPerUser", maxEntriesPerUser);
+        stats.put("highFollowerAuthors", fanOutSkipped.size());
+        stats.put("drainingAuthors", pulledOnRead.size() - fanOutSkipped.size());
+        return stats;
+    }
+    
+    /**
+     * Records a public prompt and, unless its author is pulled on read, pushes it into
+     * their followers' timelines.
+     *
+     * @return false if the prompt was already recorded
+     */
+    private boolean publish(String promptId, String authorId, String authorUsername, String title,
+                            String category, LocalDateTime publishedAt) {
+        int inserted = authorPostRepository.insertIfAbsent(promptId, authorId, authorUsername, title, category,
+                publishedAt);
+        if (inserted == 0) {
+            return false;
+        }
+        
+        if (fanOutSkipped.contains(authorId)) {
+            log.debug("Skipping fan-out of prompt {} for high-follower author {}", promptId, authorId);
+            return true;
+        }
+        
+        int timelines = feedEntryRepository.fanOut(promptId, authorId, publishedAt);
+        int trimmed = timelines > 0 ? feedEntryRepository.trimFollowerTimelines(authorId, maxEntriesPerUser) : 0;
+        log.debug("Fanned out prompt {} to {} timelines, trimmed {} old entries", promptId, timelines, trimmed);
+        return true;
+    }
+    
+    private void retract(String promptId, LocalDateTime retractedAt, boolean deleted) {
+        retractedPromptRepository.retract(promptId, retractedAt, deleted);
+        authorPostRepository.deleteById(promptId);
+        int timelines = feedEntryRepository.deleteByPromptId(promptId);
+        log.debug("Retracted prompt {} from {} timelines", promptId, timelines);
+    }
+    
+    /**
+     * Merges two newest-first lists, dropping prompts present in both.
+     */
+    private static List<FeedItem> merge(List<FeedItem> a, List<FeedItem> b) {
+        List<FeedItem> merged = new ArrayList<>(a.size() + b.size());
+        Set<String> seen = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            FeedItem next = j >= b.size() || (i < a.size() && NEWEST_FIRST.compare(a.get(i), b.get(j)) <= 0)
+                    ? a.get(i++)
+                    : b.get(j++);
+            if (seen.add(next.getPromptId())) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+    
+    private FeedItemResponse mapToFeedItemResponse(FeedItem item) {
+        return FeedItemResponse.builder()
+                .promptId(item.getPromptId())
+                .authorId(item.getAuthorId())
+                .authorUsername(item.getAuthorUsername())
+                .title(item.getTitle())
+                .category(item.getCategory())
+                .createdAt(item.getCreatedAt())
+                .build();
+    }
+    
+    /**
+     * Keyset position in a feed: the (createdAt, promptId) of the last item returned.
+     */
+    private record Cursor(LocalDateTime createdAt, String promptId) {
+        
+        String encode() {
+            String raw = createdAt + "|" + promptId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid feed cursor");
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final UserFollowRepository userFollowRepository;
+    private final FeedService feedService;
     
     @Transactional(readOnly = true)
     public UserResponse getCurrentUser(String email) {
@@ -77,6 +78,7 @@ public class UserService {
                 .build();
         
         follow = userFollowRepository.save(follow);
+        feedService.onFollow(followerId, followingId);
         log.info("User {} successfully followed user {}", followerId, followingId);
         
         return follow;
@@ -101,6 +103,7 @@ public class UserService {
         
         // Delete follow relationship
         userFollowRepository.deleteByFollowerIdAndFollowingId(followerId, followingId);
+        feedService.onUnfollow(followerId, followingId);
         log.info("User {} successfully unfollowed user {}", followerId, followingId);
     }
     
@@ -0,0 +1,265 @@
+package com.promptforge.user.service;
+
+import com.promptforge.shared.event.PromptCreatedEvent;
+import com.promptforge.shared.event.PromptUpdatedEvent;
+import com.promptforge.user.dto.FeedItemResponse;
+import com.promptforge.user.dto.FeedPageResponse;
+import com.promptforge.user.repository.AuthorPostRepository;
+import com.promptforge.user.repository.FeedEntryRepository;
+import com.promptforge.user.repository.FeedItem;
+import com.promptforge.user.repository.RetractedPromptRepository;
+import com.promptforge.user.repository.UserFollowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FeedService Tests")
+class FeedServiceTest {
+    
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+    
+    @Mock
+    private FeedEntryRepository feedEntryRepository;
+    
+    @Mock
+    private AuthorPostRepository authorPostRepository;
+    
+    @Mock
+    private UserFollowRepository userFollowRepository;
+    
+    @Mock
+    private RetractedPromptRepository retractedPromptRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private FeedService feedService;
+    
+    @BeforeEach
+    void setUp() {
+        feedService = new FeedService(feedEntryRepository, authorPostRepository, userFollowRepository,
+                retractedPromptRepository, new TransactionTemplate(transactionManager), 1000, 500, 50, 168);
+    }
+    
+    @Test
+    @DisplayName("Should fan out public prompts and ignore private ones")
+    void shouldFanOutPublicPrompts() {
+        // Given
+        when(authorPostRepository.insertIfAbsent(eq("p1"), eq("author"), any(), any(), any(), eq(T0)))
+                .thenReturn(1);
+        when(feedEntryRepository.fanOut("p1", "author", T0)).thenReturn(3);
+        
+        // When
+        feedService.onPromptCreated(event("p1", "author", true));
+        feedService.onPromptCreated(event("p2", "author", false));
+        
+        // Then: only the followers' timelines are trimmed
+        verify(feedEntryRepository).fanOut("p1", "author", T0);
+        verify(feedEntryRepository).trimFollowerTimelines("author", 500);
+        verify(authorPostRepository, never()).insertIfAbsent(eq("p2"), any(), any(), any(), any(), any());
+        verifyNoMoreInteractions(feedEntryRepository);
+    }
+    
+    @Test
+    @DisplayName("Should fan out a prompt made public and retract one made private")
+    void shouldFollowVisibilityChanges() {
+        // Given
+        LocalDateTime editedAt = T0.plusDays(1);
+        when(authorPostRepository.insertIfAbsent(eq("p1"), eq("author"), any(), any(), any(), eq(editedAt)))
+                .thenReturn(1);
+        
+        // When
+        feedService.onPromptCreated(event("p1", "author", false));
+        feedService.onPromptUpdated(update("p1", "author", true, editedAt));
+        feedService.onPromptUpdated(update("p1", "author", false, editedAt.plusHours(1)));
+        
+        // Then
+        InOrder inOrder = inOrder(feedEntryRepository);
+        inOrder.verify(feedEntryRepository).fanOut("p1", "author", editedAt);
+        inOrder.verify(feedEntryRepository).deleteByPromptId("p1");
+        verify(authorPostRepository).deleteById("p1");
+        verify(retractedPromptRepository).retract("p1", editedAt.plusHours(1), false);
+    }
+    
+    @Test
+    @DisplayName("Should not re-insert a retracted prompt from events delivered after the retraction")
+    void shouldIgnoreEventsSupersededByRetraction() {
+        // Given: the prompt was deleted, then its creation and an edit are redelivered
+        feedService.onPromptDeleted("p1");
+        verify(retractedPromptRepository).retract(eq("p1"), any(), eq(true));
+        when(retractedPromptRepository.isRetracted(eq("p1"), any())).thenReturn(true);
+        
+        // When
+        feedService.onPromptCreated(event("p1", "author", true));
+        feedService.onPromptUpdated(update("p1", "author", true, T0.plusHours(1)));
+        
+        // Then
+        verify(authorPostRepository, never()).insertIfAbsent(any(), any(), any(), any(), any(), any());
+        verify(authorPostRepository, never()).updateDisplayFields(any(), any(), any(), any());
+        verify(feedEntryRepository, never()).fanOut(any(), any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should only refresh display fields when a public prompt stays public")
+    void shouldRefreshDisplayFieldsOfPublicPrompt() {
+        // Given
+        when(authorPostRepository.insertIfAbsent(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        
+        // When
+        feedService.onPromptUpdated(update("p1", "author", true, T0));
+        
+        // Then
+        verify(authorPostRepository).updateDisplayFields("p1", "author", "Prompt p1", null);
+        verifyNoInteractions(feedEntryRepository);
+    }
+    
+    @Test
+    @DisplayName("Should pull high-follower authors on read and merge them into the timeline")
+    void shouldMergeHighFollowerPostsOnRead() {
+        // Given
+        when(userFollowRepository.findFollowingIdsWithAtLeast(1000)).thenReturn(List.of("celebrity"));
+        feedService.refreshHighFollowerAuthors();
+        
+        when(authorPostRepository.insertIfAbsent(any(), any(), any(), any(), any(), any())).thenReturn(1);
+        feedService.onPromptCreated(event("c9", "celebrity", true));
+        verify(feedEntryRepository, never()).fanOut(any(), any(), any());
+        
+        when(feedEntryRepository.findTimeline(eq("reader"), any())).thenReturn(List.of(
+                item("a3", "friend", T0.plusMinutes(3)),
+                item("a1", "friend", T0.plusMinutes(1))));
+        when(userFollowRepository.findFollowedAmong("reader", Set.of("celebrity"))).thenReturn(List.of("celebrity"));
+        when(authorPostRepository.findRecentByAuthors(eq(List.of("celebrity")), any())).thenReturn(List.of(
+                item("c2", "celebrity", T0.plusMinutes(2)),
+                item("a1", "friend", T0.plusMinutes(1)),
+                item("c0", "celebrity", T0)));
+        
+        // When
+        FeedPageResponse page = feedService.getFeed("reader", null, 2);
+        
+        // Then
+        assertThat(page.getItems()).extracting(FeedItemResponse::getPromptId).containsExactly("a3", "c2");
+        assertThat(page.getHasNext()).isTrue();
+        
+        // When: the next page starts after the last item returned
+        when(feedEntryRepository.findTimelineBefore(eq("reader"), any(), any(), any())).thenReturn(List.of());
+        when(authorPostRepository.findRecentByAuthorsBefore(any(), any(), any(), any())).thenReturn(List.of());
+        feedService.getFeed("reader", page.getNextCursor(), 2);
+        
+        // Then
+        verify(feedEntryRepository).findTimelineBefore(eq("reader"), eq(T0.plusMinutes(2)), eq("c2"), any());
+    }
+    
+    @Test
+    @DisplayName("Should backfill an author who dropped below the threshold before no longer pulling them")
+    void shouldBackfillAuthorDroppingBelowThreshold() {
+        // Given: a high-follower author whose post was only pulled on read
+        when(userFollowRepository.findFollowingIdsWithAtLeast(1000)).thenReturn(List.of("celebrity"));
+        feedService.refreshHighFollowerAuthors();
+        when(authorPostRepository.insertIfAbsent(any(), any(), any(), any(), any(), any())).thenReturn(1);
+        feedService.onPromptCreated(event("c1", "celebrity", true));
+        verify(feedEntryRepository, never()).fanOut(any(), any(), any());
+        
+        // When: they drop below half the threshold
+        when(userFollowRepository.findFollowingIdsWithAtLeast(1000)).thenReturn(List.of());
+        when(userFollowRepository.findFollowingIdsWithAtLeast(500)).thenReturn(List.of());
+        feedService.refreshHighFollowerAuthors();
+        
+        // Then: new posts fan out again while earlier ones are still merged on read
+        feedService.onPromptCreated(event("c2", "celebrity", true));
+        verify(feedEntryRepository).fanOut("c2", "celebrity", T0);
+        verify(feedEntryRepository, never()).backfillFollowers(any(), anyInt());
+        when(userFollowRepository.findFollowedAmong("reader", Set.of("celebrity"))).thenReturn(List.of("celebrity"));
+        when(authorPostRepository.findRecentByAuthors(eq(List.of("celebrity")), any()))
+                .thenReturn(List.of(item("c1", "celebrity", T0)));
+        assertThat(feedService.getFeed("reader", null, 10).getItems())
+                .extracting(FeedItemResponse::getPromptId).containsExactly("c1");
+        
+        // When: the backfill fails on the next refresh
+        when(feedEntryRepository.backfillFollowers("celebrity", 50))
+                .thenThrow(new RuntimeException("lock timeout"))
+                .thenReturn(2);
+        feedService.refreshHighFollowerAuthors();
+        
+        // Then: the author is still pulled on read
+        assertThat(feedService.getFeed("reader", null, 10).getItems())
+                .extracting(FeedItemResponse::getPromptId).containsExactly("c1");
+        
+        // When: the backfill commits
+        feedService.refreshHighFollowerAuthors();
+        
+        // Then: the earlier post is read from the follower's own timeline
+        verify(transactionManager).commit(any());
+        when(feedEntryRepository.findTimeline(eq("reader"), any())).thenReturn(List.of(item("c1", "celebrity", T0)));
+        clearInvocations(authorPostRepository);
+        assertThat(feedService.getFeed("reader", null, 10).getItems())
+                .extracting(FeedItemResponse::getPromptId).containsExactly("c1");
+        verify(authorPostRepository, never()).findRecentByAuthors(any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should backfill and trim a new follower's timeline")
+    void shouldBackfillNewFollower() {
+        // When
+        feedService.onFollow("reader", "author");
+        
+        // Then
+        InOrder inOrder = inOrder(feedEntryRepository);
+        inOrder.verify(feedEntryRepository).backfill("reader", "author", 50);
+        inOrder.verify(feedEntryRepository).trimTimeline("reader", 500);
+    }
+    
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> feedService.getFeed("reader", "not-a-cursor", 20))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid feed cursor");
+    }
+    
+    private static PromptCreatedEvent event(String promptId, String userId, boolean isPublic) {
+        return PromptCreatedEvent.builder()
+                .promptId(promptId)
+                .userId(userId)
+                .username(userId)
+                .title("Prompt " + promptId)
+                .isPublic(isPublic)
+                .createdAt(T0)
+                .build();
+    }
+    
+    private static PromptUpdatedEvent update(String promptId, String userId, boolean isPublic,
+                                             LocalDateTime updatedAt) {
+        return PromptUpdatedEvent.builder()
+                .promptId(promptId)
+                .userId(userId)
+                .username(userId)
+                .title("Prompt " + promptId)
+                .isPublic(isPublic)
+                .contentChanged(false)
+                .updatedAt(updatedAt)
+                .build();
+    }
+    
+    private static FeedItem item(String promptId, String authorId, LocalDateTime createdAt) {
+        return new TestFeedItem(promptId, authorId, authorId, "Prompt " + promptId, "coding", createdAt);
+    }
+    
+    private record TestFeedItem(String getPromptId, String getAuthorId, String getAuthorUsername, String getTitle,
+                                String getCategory, LocalDateTime getCreatedAt) implements FeedItem {
+    }
+}